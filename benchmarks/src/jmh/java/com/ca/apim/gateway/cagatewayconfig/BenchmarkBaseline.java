@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares the results of a run of the benchmarks with a baseline, to catch performance regressions before a release.
+ * <p>
+ * The baseline is a JSON file with the score and allocated bytes per operation of each benchmark, by benchmark name
+ * followed by its parameters, for example {@code BundleDetemplatizerBenchmark.detemplatizeBundleString(size=100)}. A
+ * benchmark regresses when its throughput drops, or its time per operation rises, by more than its tolerance, or when its
+ * allocated bytes per operation rise by more than its allocation tolerance. The tolerances are fractions of the baseline
+ * values, a benchmark can set its own {@code tolerance} and {@code allocationTolerance} instead of the default ones of the
+ * file. A benchmark without a score has not been recorded yet, it fails the check like a regression until the baseline is
+ * updated, so a baseline that was never recorded cannot pass.
+ * <p>
+ * The allocated bytes per operation are the normalized allocation rate of the JMH gc profiler, which unlike the rate
+ * itself does not depend on the speed of the machine.
+ */
+public class BenchmarkBaseline {
+
+    static final String TOLERANCE = "tolerance";
+    static final String ALLOCATION_TOLERANCE = "allocationTolerance";
+    static final String BENCHMARKS = "benchmarks";
+    static final String MODE = "mode";
+    static final String SCORE = "score";
+    static final String SCORE_UNIT = "scoreUnit";
+    static final String ALLOCATION = "allocation";
+
+    private static final String THROUGHPUT_MODE = "thrpt";
+    // the name of the metric starts with a middle dot
+    private static final String ALLOCATION_METRIC = "\u00b7gc.alloc.rate.norm";
+    private static final double DEFAULT_TOLERANCE = 0.2;
+    private static final double DEFAULT_ALLOCATION_TOLERANCE = 0.1;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * Checks the results against the baseline, or updates the baseline with the results.
+     *
+     * @param args {@code check|update <baseline file> <JMH JSON results file>}
+     */
+    public static void main(String[] args) {
+        if (args.length != 3 || !("check".equals(args[0]) || "update".equals(args[0]))) {
+            System.err.println("Usage: BenchmarkBaseline check|update <baseline file> <results file>");
+            System.exit(1);
+        }
+        final BenchmarkBaseline benchmarkBaseline = new BenchmarkBaseline();
+        final File baselineFile = new File(args[1]);
+        final File resultsFile = new File(args[2]);
+        if ("update".equals(args[0])) {
+            benchmarkBaseline.update(baselineFile, resultsFile);
+            System.out.println("Updated the benchmark baseline " + baselineFile);
+            return;
+        }
+
+        final List<Comparison> comparisons = benchmarkBaseline.check(baselineFile, resultsFile);
+        System.out.println(format(comparisons));
+        if (comparisons.stream().anyMatch(Comparison::isNotRecorded)) {
+            System.err.println("Benchmarks of the baseline " + baselineFile + " have no score yet. Record them with " +
+                    "./gradlew benchmarks:updateBenchmarkBaseline");
+            System.exit(1);
+        }
+        if (comparisons.stream().anyMatch(Comparison::isRegression)) {
+            System.err.println("Benchmarks regressed beyond the tolerance of the baseline " + baselineFile + ". If the change is expected, " +
+                    "update the baseline with ./gradlew benchmarks:updateBenchmarkBaseline");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compares the results with each benchmark of the baseline. Benchmarks of the baseline without a score yet and
+     * benchmarks missing from the results are regressions.
+     *
+     * @param baselineFile the baseline
+     * @param resultsFile  the JMH results in JSON
+     * @return the comparison of each value of each benchmark, in the order of the baseline
+     * @throws IllegalArgumentException if the baseline has no benchmarks
+     */
+    List<Comparison> check(File baselineFile, File resultsFile) {
+        final JsonNode baseline = read(baselineFile);
+        final Map<String, JsonNode> results = readResults(resultsFile);
+        final double defaultTolerance = baseline.path(TOLERANCE).asDouble(DEFAULT_TOLERANCE);
+        final double defaultAllocationTolerance = baseline.path(ALLOCATION_TOLERANCE).asDouble(DEFAULT_ALLOCATION_TOLERANCE);
+
+        if (baseline.path(BENCHMARKS).size() == 0) {
+            throw new IllegalArgumentException("The benchmark baseline " + baselineFile + " has no benchmarks");
+        }
+
+        final List<Comparison> comparisons = new ArrayList<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = baseline.path(BENCHMARKS).fields(); it.hasNext(); ) {
+            final Map.Entry<String, JsonNode> benchmark = it.next();
+            final JsonNode expected = benchmark.getValue();
+            if (!expected.has(SCORE)) {
+                comparisons.add(Comparison.notRecorded(benchmark.getKey()));
+                continue;
+            }
+            final JsonNode result = results.get(benchmark.getKey());
+            if (result == null) {
+                comparisons.add(Comparison.missing(benchmark.getKey()));
+                continue;
+            }
+
+            final String unit = expected.path(SCORE_UNIT).asText();
+            final boolean higherIsBetter = THROUGHPUT_MODE.equals(expected.path(MODE).asText());
+            if (!unit.equals(result.path("primaryMetric").path(SCORE_UNIT).asText())) {
+                comparisons.add(Comparison.missing(benchmark.getKey() + " in " + unit));
+            } else {
+                comparisons.add(new Comparison(benchmark.getKey(), unit,
+                        expected.get(SCORE).asDouble(),
+                        result.path("primaryMetric").path(SCORE).asDouble(),
+                        expected.path(TOLERANCE).asDouble(defaultTolerance),
+                        higherIsBetter));
+            }
+
+            if (expected.has(ALLOCATION)) {
+                final JsonNode allocation = result.path("secondaryMetrics").path(ALLOCATION_METRIC);
+                comparisons.add(allocation.isMissingNode() ?
+                        Comparison.missing(benchmark.getKey() + " allocation") :
+                        new Comparison(benchmark.getKey(), allocation.path(SCORE_UNIT).asText(),
+                                expected.get(ALLOCATION).asDouble(),
+                                allocation.path(SCORE).asDouble(),
+                                expected.path(ALLOCATION_TOLERANCE).asDouble(defaultAllocationTolerance),
+                                false));
+            }
+        }
+        return comparisons;
+    }
+
+    /**
+     * Sets the scores and allocated bytes of the baseline to the ones of the results, keeping the tolerances. Benchmarks
+     * of the results that are not in the baseline are added to it.
+     *
+     * @param baselineFile the baseline, created if it does not exist
+     * @param resultsFile  the JMH results in JSON
+     */
+    void update(File baselineFile, File resultsFile) {
+        final ObjectNode baseline = baselineFile.isFile() ? (ObjectNode) read(baselineFile) : objectMapper.createObjectNode();
+        if (!baseline.has(TOLERANCE)) {
+            baseline.put(TOLERANCE, DEFAULT_TOLERANCE);
+        }
+        if (!baseline.has(ALLOCATION_TOLERANCE)) {
+            baseline.put(ALLOCATION_TOLERANCE, DEFAULT_ALLOCATION_TOLERANCE);
+        }
+        final ObjectNode benchmarks = baseline.has(BENCHMARKS) ? (ObjectNode) baseline.get(BENCHMARKS) : baseline.putObject(BENCHMARKS);
+        readResults(resultsFile).forEach((name, result) -> {
+            final ObjectNode benchmark = benchmarks.has(name) ? (ObjectNode) benchmarks.get(name) : benchmarks.putObject(name);
+            benchmark.put(MODE, result.path(MODE).asText());
+            benchmark.put(SCORE, result.path("primaryMetric").path(SCORE).asDouble());
+            benchmark.put(SCORE_UNIT, result.path("primaryMetric").path(SCORE_UNIT).asText());
+            final JsonNode allocation = result.path("secondaryMetrics").path(ALLOCATION_METRIC);
+            if (allocation.isMissingNode()) {
+                benchmark.remove(ALLOCATION);
+            } else {
+                benchmark.put(ALLOCATION, allocation.path(SCORE).asDouble());
+            }
+        });
+        try {
+            // with a final line break, like the other files of the repository
+            Files.write(baselineFile.toPath(), (objectMapper.writeValueAsString(baseline) + '\n').getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the benchmark baseline " + baselineFile, e);
+        }
+    }
+
+    /**
+     * Formats the comparisons as a table, regressions first.
+     */
+    static String format(List<Comparison> comparisons) {
+        final int nameWidth = comparisons.stream().mapToInt(c -> c.getName().length()).max().orElse(0);
+        final String format = "%-" + Math.max(nameWidth, "Benchmark".length()) + "s %10s %14s %14s %9s %9s  %s%n";
+        final StringBuilder table = new StringBuilder(String.format(Locale.ROOT, format, "Benchmark", "Unit", "Baseline", "Result", "Change", "Limit", ""));
+        comparisons.stream().filter(Comparison::isRegression).forEach(c -> table.append(c.format(format)));
+        comparisons.stream().filter(c -> !c.isRegression()).forEach(c -> table.append(c.format(format)));
+        return table.toString();
+    }
+
+    private Map<String, JsonNode> readResults(File resultsFile) {
+        final Map<String, JsonNode> results = new LinkedHashMap<>();
+        read(resultsFile).forEach(result -> results.put(benchmarkName(result), result));
+        return results;
+    }
+
+    /**
+     * @return the simple class name and method of the benchmark, followed by its parameters
+     */
+    static String benchmarkName(JsonNode result) {
+        final String benchmark = result.path("benchmark").asText();
+        final String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+        final Map<String, String> params = new TreeMap<>();
+        result.path("params").fields().forEachRemaining(p -> params.put(p.getKey(), p.getValue().asText()));
+        if (params.isEmpty()) {
+            return name;
+        }
+        final StringBuilder nameWithParams = new StringBuilder(name).append('(');
+        params.forEach((key, value) -> nameWithParams.append(key).append('=').append(value).append(','));
+        nameWithParams.setCharAt(nameWithParams.length() - 1, ')');
+        return nameWithParams.toString();
+    }
+
+    private JsonNode read(File file) {
+        try {
+            return objectMapper.readTree(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + file, e);
+        }
+    }
+
+    /**
+     * A value of a benchmark compared with its baseline.
+     */
+    static class Comparison {
+        private static final String MISSING = "MISSING";
+        private static final String NOT_RECORDED = "NOT RECORDED";
+
+        private final String name;
+        private final String unit;
+        private final double baseline;
+        private final double result;
+        private final double tolerance;
+        private final boolean higherIsBetter;
+        // why the benchmark could not be compared, null when it was
+        private final String problem;
+
+        Comparison(String name, String unit, double baseline, double result, double tolerance, boolean higherIsBetter) {
+            this(name, unit, baseline, result, tolerance, higherIsBetter, null);
+        }
+
+        private Comparison(String name, String unit, double baseline, double result, double tolerance, boolean higherIsBetter, String problem) {
+            this.name = name;
+            this.unit = unit;
+            this.baseline = baseline;
+            this.result = result;
+            this.tolerance = tolerance;
+            this.higherIsBetter = higherIsBetter;
+            this.problem = problem;
+        }
+
+        static Comparison missing(String name) {
+            return new Comparison(name, "", 0, 0, 0, false, MISSING);
+        }
+
+        static Comparison notRecorded(String name) {
+            return new Comparison(name, "", 0, 0, 0, false, NOT_RECORDED);
+        }
+
+        String getName() {
+            return name;
+        }
+
+        /**
+         * @return the change of the result from the baseline, as a fraction of the baseline
+         */
+        double getChange() {
+            return baseline == 0 ? 0 : (result - baseline) / baseline;
+        }
+
+        boolean isNotRecorded() {
+            return NOT_RECORDED.equals(problem);
+        }
+
+        boolean isRegression() {
+            return problem != null || (higherIsBetter ? getChange() < -tolerance : getChange() > tolerance);
+        }
+
+        String format(String format) {
+            if (problem != null) {
+                return String.format(Locale.ROOT, format, name, "", "", "", "", "", problem);
+            }
+            return String.format(Locale.ROOT, format, name, unit,
+                    String.format(Locale.ROOT, "%.3f", baseline),
+                    String.format(Locale.ROOT, "%.3f", result),
+                    String.format(Locale.ROOT, "%+.1f%%", getChange() * 100),
+                    String.format(Locale.ROOT, "%s%.0f%%", higherIsBetter ? "-" : "+", tolerance * 100),
+                    isRegression() ? "REGRESSED" : "");
+        }
+    }
+}
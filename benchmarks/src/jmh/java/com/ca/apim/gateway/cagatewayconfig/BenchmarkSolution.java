@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig;
+
+import com.ca.apim.gateway.cagatewayconfig.environment.ExportedBundleWriter;
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+import static java.util.Collections.emptyList;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+
+/**
+ * A generated solution used by the benchmarks, written by the {@link SolutionGenerator} with the given number of policies
+ * and the other entities in proportion to them.
+ */
+public class BenchmarkSolution {
+
+    public static final String BUNDLE_NAME = "benchmark";
+    /**
+     * The folder of the solution, as exported from a gateway.
+     */
+    public static final String FOLDER_PATH = "/" + SolutionGenerator.SOLUTION_FOLDER;
+
+    private final File directory;
+    private final File sourceDirectory;
+    private final File bundleDirectory;
+    private final GeneratedSolution generatedSolution;
+
+    private BenchmarkSolution(File directory, GeneratedSolution generatedSolution) {
+        this.directory = directory;
+        this.sourceDirectory = generatedSolution.getGatewayDirectory();
+        this.bundleDirectory = new File(directory, "bundle");
+        this.generatedSolution = generatedSolution;
+    }
+
+    /**
+     * Writes the source of a solution with the given number of policies to a new temporary directory.
+     *
+     * @param size number of policies of the solution
+     * @return the solution
+     */
+    public static BenchmarkSolution create(int size) {
+        try {
+            final File directory = Files.createTempDirectory("benchmark-solution-" + size + "-").toFile();
+            final BenchmarkSolution solution = new BenchmarkSolution(directory, SolutionGenerator.forSize(size).build().generate(new File(directory, "src")));
+            Files.createDirectories(solution.bundleDirectory.toPath());
+            return solution;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Builds the deployment bundle of the solution, as the build-bundle task does.
+     *
+     * @return the deployment bundle file
+     */
+    public File buildBundle() {
+        InjectionRegistry.getInstance(BundleFileBuilder.class).buildBundle(sourceDirectory, bundleDirectory, emptyList(), BUNDLE_NAME);
+        return new File(bundleDirectory, BUNDLE_NAME + ".bundle");
+    }
+
+    /**
+     * Writes the bundle a gateway exports for the solution, which is the format the explode task takes.
+     *
+     * @return the exported bundle file
+     */
+    public File exportBundle() {
+        final File exportedBundle = new File(directory, "export.bundle");
+        new ExportedBundleWriter().write(generatedSolution, BUNDLE_NAME, exportedBundle);
+        return exportedBundle;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public File getSourceDirectory() {
+        return sourceDirectory;
+    }
+
+    public File getBundleDirectory() {
+        return bundleDirectory;
+    }
+
+    /**
+     * @return the environment values referenced by the solution
+     */
+    public Map<String, String> getEnvironment() {
+        return generatedSolution.getEnvironment();
+    }
+
+    public void delete() {
+        deleteQuietly(directory);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig;
+
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Builds the deployment bundle of a solution, as the build-bundle task does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BundleFileBuilderBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private BenchmarkSolution solution;
+    private BundleFileBuilder bundleFileBuilder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        solution = BenchmarkSolution.create(size);
+        bundleFileBuilder = InjectionRegistry.getInstance(BundleFileBuilder.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        solution.delete();
+    }
+
+    @Benchmark
+    public void buildBundle() {
+        bundleFileBuilder.buildBundle(solution.getSourceDirectory(), solution.getBundleDirectory(), emptyList(), BenchmarkSolution.BUNDLE_NAME);
+    }
+}
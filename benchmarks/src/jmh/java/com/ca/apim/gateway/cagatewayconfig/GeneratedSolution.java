@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * A solution written by the {@link SolutionGenerator}: the folder with its source, the environment values it references
+ * and the dependencies between its entities, as a gateway would list them in the dependency graph of an export.
+ */
+public class GeneratedSolution {
+
+    private final File gatewayDirectory;
+    private final Map<String, String> environment;
+    private final Map<EntityKey, Set<EntityKey>> dependencies;
+
+    GeneratedSolution(File gatewayDirectory, Map<String, String> environment, Map<EntityKey, Set<EntityKey>> dependencies) {
+        this.gatewayDirectory = gatewayDirectory;
+        this.environment = unmodifiableMap(environment);
+        this.dependencies = unmodifiableMap(dependencies);
+    }
+
+    /**
+     * @return the src/main/gateway folder of the solution
+     */
+    public File getGatewayDirectory() {
+        return gatewayDirectory;
+    }
+
+    /**
+     * @return the environment values referenced by the solution, as given to the build-full-bundle task
+     */
+    public Map<String, String> getEnvironment() {
+        return environment;
+    }
+
+    /**
+     * @return the entities each entity of the solution depends on
+     */
+    public Map<EntityKey, Set<EntityKey>> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * Identifies an entity of the solution by its bundle type and name.
+     */
+    public static class EntityKey {
+        private final String type;
+        private final String name;
+
+        public EntityKey(String type, String name) {
+            this.type = type;
+            this.name = name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            EntityKey entityKey = (EntityKey) o;
+            return type.equals(entityKey.type) && name.equals(entityKey.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, name);
+        }
+
+        @Override
+        public String toString() {
+            return type + ":" + name;
+        }
+    }
+}
@@ -0,0 +1,561 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig;
+
+import com.ca.apim.gateway.cagatewayconfig.GeneratedSolution.EntityKey;
+import com.ca.apim.gateway.cagatewayconfig.environment.ExportedBundleWriter;
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DERNull;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.asn1.x509.TBSCertificate;
+import org.bouncycastle.asn1.x509.Time;
+import org.bouncycastle.asn1.x509.V1TBSCertificateGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
+
+/**
+ * Writes the source of a synthetic solution, the src/main/gateway folder of a project, with the given number of each
+ * kind of entity. The solution is the same for the same counts and seed, so problems found with it can be reproduced.
+ * <p>
+ * The policies and services are in the {@value #SOLUTION_FOLDER} folder:
+ * <ul>
+ * <li>policies in a tree of folders, each including the previous one in chains of a given length, some of them including
+ * other policies or calling encasses of lower index too, so the references never make a cycle</li>
+ * <li>every policy sets an environment context variable and reads a cluster property. Some of them authenticate with an
+ * identity provider, route to a JMS destination or to a backend trusting a certificate, each of those referenced by
+ * at least one policy</li>
+ * <li>services, each including a policy and some calling an encass</li>
+ * <li>encasses backed by policies</li>
+ * </ul>
+ * The identity providers, JMS destinations and trusted certificates are also in the environment of the solution, as
+ * they are given when its bundles are deployed.
+ * <p>
+ * It can be run to write a solution to a folder: {@code SolutionGenerator <gateway folder> <policies> [seed] [exported bundle]}.
+ */
+public class SolutionGenerator {
+
+    public static final String SOLUTION_FOLDER = "benchmark";
+
+    // the validity of the generated certificates
+    private static final long CERTIFICATE_START = 1514764800000L; // 2018-01-01
+    private static final long CERTIFICATE_END = 2461449600000L; // 2048-01-01
+
+    private final long seed;
+    private final int policies;
+    private final int folders;
+    private final int folderDepth;
+    private final int includeChainLength;
+    private final int services;
+    private final int encasses;
+    private final int clusterProperties;
+    private final int trustedCerts;
+    private final int jmsDestinations;
+    private final int identityProviders;
+
+    private SolutionGenerator(Builder builder) {
+        this.seed = builder.seed;
+        this.policies = builder.policies;
+        this.folders = builder.folders;
+        this.folderDepth = builder.folderDepth;
+        this.includeChainLength = builder.includeChainLength;
+        this.services = builder.services;
+        this.encasses = builder.encasses;
+        this.clusterProperties = builder.clusterProperties;
+        this.trustedCerts = builder.trustedCerts;
+        this.jmsDestinations = builder.jmsDestinations;
+        this.identityProviders = builder.identityProviders;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A generator for a solution with the given number of policies and the other entities in proportion to them.
+     *
+     * @param policies number of policies
+     * @return the generator builder, to change the seed or any count
+     */
+    public static Builder forSize(int policies) {
+        return builder()
+                .policies(policies)
+                .folders(Math.max(1, policies / 10))
+                .services(Math.max(1, policies / 10))
+                .encasses(Math.max(1, policies / 20))
+                .clusterProperties(Math.max(1, policies / 10))
+                .trustedCerts(Math.max(1, policies / 50))
+                .jmsDestinations(Math.max(1, policies / 50))
+                .identityProviders(Math.max(1, policies / 100));
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: SolutionGenerator <gateway folder> <policies> [seed] [exported bundle]");
+            System.exit(1);
+        }
+        final Builder builder = forSize(Integer.parseInt(args[1]));
+        if (args.length > 2) {
+            builder.seed(Long.parseLong(args[2]));
+        }
+        final GeneratedSolution solution = builder.build().generate(new File(args[0]));
+        if (args.length > 3) {
+            new ExportedBundleWriter().write(solution, SOLUTION_FOLDER, new File(args[3]));
+        }
+    }
+
+    /**
+     * Writes the solution to the folder, which is expected to be empty.
+     *
+     * @param gatewayDirectory the src/main/gateway folder to write the solution to
+     * @return the generated solution
+     */
+    public GeneratedSolution generate(File gatewayDirectory) {
+        final Random random = new Random(seed);
+        final Map<String, String> environment = new LinkedHashMap<>();
+        final Map<EntityKey, Set<EntityKey>> dependencies = new LinkedHashMap<>();
+        try {
+            final List<String> folderPaths = writeFolders(random, gatewayDirectory);
+            final List<String> policyPaths = new ArrayList<>(policies);
+            for (int i = 0; i < policies; i++) {
+                policyPaths.add(randomElement(random, folderPaths) + "/policy-" + i);
+            }
+            final int[] encassPolicies = random.ints(encasses, 0, Math.max(1, policies)).toArray();
+
+            for (int i = 0; i < policies; i++) {
+                writePolicy(random, gatewayDirectory, i, policyPaths, encassPolicies, environment, dependencies);
+            }
+            writeServices(random, gatewayDirectory, folderPaths, policyPaths, encassPolicies, dependencies);
+            writeEncasses(gatewayDirectory, policyPaths, encassPolicies, dependencies);
+            writeClusterProperties(gatewayDirectory);
+            writeTrustedCerts(gatewayDirectory, environment);
+            writeJmsDestinations(gatewayDirectory, environment);
+            writeIdentityProviders(gatewayDirectory, environment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new GeneratedSolution(gatewayDirectory, environment, dependencies);
+    }
+
+    /**
+     * Creates a tree of folders no deeper than the folder depth. Each folder is in the solution folder or in a folder
+     * created before it.
+     */
+    private List<String> writeFolders(Random random, File gatewayDirectory) throws IOException {
+        final List<String> folderPaths = new ArrayList<>(folders + 1);
+        final List<Integer> folderDepths = new ArrayList<>(folders + 1);
+        folderPaths.add(SOLUTION_FOLDER);
+        folderDepths.add(0);
+        for (int i = 0; i < folders; i++) {
+            int parent = random.nextInt(folderPaths.size());
+            if (folderDepths.get(parent) >= folderDepth) {
+                parent = 0;
+            }
+            folderPaths.add(folderPaths.get(parent) + "/folder-" + i);
+            folderDepths.add(folderDepths.get(parent) + 1);
+        }
+        for (String folderPath : folderPaths) {
+            java.nio.file.Files.createDirectories(new File(gatewayDirectory, "policy/" + folderPath).toPath());
+        }
+        return folderPaths;
+    }
+
+    private void writePolicy(Random random,
+                             File gatewayDirectory,
+                             int policy,
+                             List<String> policyPaths,
+                             int[] encassPolicies,
+                             Map<String, String> environment,
+                             Map<EntityKey, Set<EntityKey>> dependencies) throws IOException {
+        final String name = "policy-" + policy;
+        final Set<EntityKey> references = new LinkedHashSet<>();
+        final StringBuilder assertions = new StringBuilder();
+
+        assertions.append("        <L7p:SetVariable>\n")
+                .append("            <L7p:VariableToSet stringValue=\"ENV.value\"/>\n")
+                .append("        </L7p:SetVariable>\n");
+        environment.put("ENV.CONTEXT_VARIABLE_PROPERTY." + name + ".value", "value of " + name);
+
+        if (clusterProperties > 0) {
+            final int property = random.nextInt(clusterProperties);
+            assertions.append("        <L7p:SetVariable>\n")
+                    .append("            <L7p:Expression><![CDATA[${gateway.property-").append(property).append("}]]></L7p:Expression>\n")
+                    .append("            <L7p:VariableToSet stringValue=\"property\"/>\n")
+                    .append("        </L7p:SetVariable>\n");
+            references.add(new EntityKey(CLUSTER_PROPERTY_TYPE, "property-" + property));
+        }
+        if (isReferencing(random, policy, identityProviders)) {
+            final String identityProvider = "idp-" + policy % identityProviders;
+            assertions.append("        <L7p:Authentication>\n")
+                    .append("            <L7p:IdentityProviderName stringValue=\"").append(identityProvider).append("\"/>\n")
+                    .append("        </L7p:Authentication>\n");
+            references.add(new EntityKey(ID_PROVIDER_CONFIG_TYPE, identityProvider));
+        }
+
+        // includes form chains, with some more includes of any previous policy
+        if (policy % includeChainLength != 0) {
+            appendInclude(assertions, references, policyPaths, policy - 1);
+        }
+        if (policy > 0 && random.nextInt(5) == 0) {
+            appendInclude(assertions, references, policyPaths, random.nextInt(policy));
+        }
+        final int encass = randomEncass(random, encassPolicies, policy);
+        if (encass >= 0 && random.nextInt(3) == 0) {
+            appendEncapsulated(assertions, references, encass);
+        }
+
+        if (isReferencing(random, policy, jmsDestinations)) {
+            final String jmsDestination = "jms-" + policy % jmsDestinations;
+            assertions.append("        <L7p:JmsRoutingAssertion>\n")
+                    .append("            <L7p:EndpointName stringValue=\"").append(jmsDestination).append("\"/>\n")
+                    .append("        </L7p:JmsRoutingAssertion>\n");
+            references.add(new EntityKey(JMS_DESTINATION_TYPE, jmsDestination));
+        }
+        if (isReferencing(random, policy, trustedCerts)) {
+            final String trustedCert = "cert-" + policy % trustedCerts;
+            assertions.append("        <L7p:HttpRoutingAssertion>\n")
+                    .append("            <L7p:ProtectedServiceUrl stringValue=\"https://").append(trustedCert).append(".example.com/\"/>\n")
+                    .append("            <L7p:TlsTrustedCertNames stringArrayValue=\"included\">\n")
+                    .append("                <L7p:item stringValue=\"").append(trustedCert).append("\"/>\n")
+                    .append("            </L7p:TlsTrustedCertNames>\n")
+                    .append("        </L7p:HttpRoutingAssertion>\n");
+            references.add(new EntityKey(TRUSTED_CERT_TYPE, trustedCert));
+        }
+
+        writePolicyFile(gatewayDirectory, policyPaths.get(policy), assertions);
+        dependencies.put(new EntityKey(POLICY_TYPE, name), references);
+    }
+
+    private void writeServices(Random random,
+                               File gatewayDirectory,
+                               List<String> folderPaths,
+                               List<String> policyPaths,
+                               int[] encassPolicies,
+                               Map<EntityKey, Set<EntityKey>> dependencies) throws IOException {
+        final StringBuilder servicesConfig = new StringBuilder();
+        for (int i = 0; i < services; i++) {
+            final String name = "service-" + i;
+            final String path = randomElement(random, folderPaths) + "/" + name;
+            final Set<EntityKey> references = new LinkedHashSet<>();
+            final StringBuilder assertions = new StringBuilder();
+            if (policies > 0) {
+                appendInclude(assertions, references, policyPaths, random.nextInt(policies));
+            }
+            final int encass = randomEncass(random, encassPolicies, policies);
+            if (encass >= 0 && random.nextBoolean()) {
+                appendEncapsulated(assertions, references, encass);
+            }
+            writePolicyFile(gatewayDirectory, path, assertions);
+            dependencies.put(new EntityKey(SERVICE_TYPE, name), references);
+
+            servicesConfig.append(path).append(":\n")
+                    .append("  policy: \"").append(path).append("\"\n")
+                    .append("  httpMethods:\n")
+                    .append("  - GET\n")
+                    .append("  - POST\n")
+                    .append("  url: \"/").append(name).append("\"\n");
+        }
+        writeConfigFile(gatewayDirectory, "services.yml", servicesConfig);
+    }
+
+    private void writeEncasses(File gatewayDirectory,
+                               List<String> policyPaths,
+                               int[] encassPolicies,
+                               Map<EntityKey, Set<EntityKey>> dependencies) throws IOException {
+        final StringBuilder encassConfig = new StringBuilder();
+        for (int i = 0; i < encassPolicies.length && policies > 0; i++) {
+            encassConfig.append("encass-").append(i).append(":\n")
+                    .append("  policy: \"").append(policyPaths.get(encassPolicies[i])).append("\"\n")
+                    .append("  arguments:\n")
+                    .append("  - name: \"argument\"\n")
+                    .append("    type: \"string\"\n")
+                    .append("  results:\n")
+                    .append("  - name: \"result\"\n")
+                    .append("    type: \"string\"\n");
+            final Set<EntityKey> references = new LinkedHashSet<>();
+            references.add(new EntityKey(POLICY_TYPE, "policy-" + encassPolicies[i]));
+            dependencies.put(new EntityKey(ENCAPSULATED_ASSERTION_TYPE, "encass-" + i), references);
+        }
+        writeConfigFile(gatewayDirectory, "encass.yml", encassConfig);
+    }
+
+    private void writeClusterProperties(File gatewayDirectory) throws IOException {
+        final StringBuilder properties = new StringBuilder();
+        for (int i = 0; i < clusterProperties; i++) {
+            properties.append("property-").append(i).append("=value of property-").append(i).append('\n');
+        }
+        writeConfigFile(gatewayDirectory, "static.properties", properties);
+    }
+
+    private void writeTrustedCerts(File gatewayDirectory, Map<String, String> environment) throws IOException {
+        if (trustedCerts == 0) {
+            return;
+        }
+        final KeyPair keyPair = generateKeyPair();
+        final StringBuilder trustedCertsConfig = new StringBuilder();
+        for (int i = 0; i < trustedCerts; i++) {
+            final String name = "cert-" + i;
+            final String trustedCert = "verifyHostname: true\n" +
+                    "trustedForSsl: true\n" +
+                    "trustedAsSamlAttestingEntity: false\n" +
+                    "trustAnchor: false\n" +
+                    "revocationCheckingEnabled: true\n" +
+                    "trustedForSigningClientCerts: false\n" +
+                    "trustedForSigningServerCerts: false\n" +
+                    "trustedAsSamlIssuer: false\n";
+            appendEnvironmentEntity(trustedCertsConfig, environment, "CERTIFICATE", name, trustedCert);
+
+            final String pem = "-----BEGIN CERTIFICATE-----\n" +
+                    Base64.getMimeEncoder(64, "\n".getBytes(UTF_8)).encodeToString(generateCertificate(keyPair, i, name)) +
+                    "\n-----END CERTIFICATE-----\n";
+            writeStringToFile(new File(gatewayDirectory, "config/certificates/" + name + ".pem"), pem, UTF_8);
+            environment.put("ENV.CERTIFICATE_FILE." + name + ".pem", pem);
+        }
+        writeConfigFile(gatewayDirectory, "trusted-certs.yml", trustedCertsConfig);
+    }
+
+    private void writeJmsDestinations(File gatewayDirectory, Map<String, String> environment) throws IOException {
+        final StringBuilder jmsConfig = new StringBuilder();
+        for (int i = 0; i < jmsDestinations; i++) {
+            final String jmsDestination = "initialContextFactoryClassName: \"com.sun.jndi.ldap.LdapCtxFactory\"\n" +
+                    "jndiUrl: \"ldap://jms-" + i + ".example.com:389/dc=example,dc=com\"\n" +
+                    "destinationType: \"QUEUE\"\n" +
+                    "connectionFactoryName: \"qcf-" + i + "\"\n" +
+                    "destinationName: \"queue-" + i + "\"\n" +
+                    "outboundDetail:\n" +
+                    "  isTemplate: false\n" +
+                    "  replyType: \"AUTOMATIC\"\n" +
+                    "  useRequestCorrelationId: false\n" +
+                    "  messageFormat: \"AUTOMATIC\"\n" +
+                    "  poolingType: \"CONNECTION\"\n";
+            appendEnvironmentEntity(jmsConfig, environment, "JMS_DESTINATION", "jms-" + i, jmsDestination);
+        }
+        writeConfigFile(gatewayDirectory, "jms-destinations.yml", jmsConfig);
+    }
+
+    private void writeIdentityProviders(File gatewayDirectory, Map<String, String> environment) throws IOException {
+        final StringBuilder identityProvidersConfig = new StringBuilder();
+        for (int i = 0; i < identityProviders; i++) {
+            final String identityProvider = "type: BIND_ONLY_LDAP\n" +
+                    "identityProviderDetail:\n" +
+                    "  serverUrls:\n" +
+                    "  - ldap://idp-" + i + ".example.com:389\n" +
+                    "  useSslClientAuthentication: false\n" +
+                    "  bindPatternPrefix: \"cn=\"\n" +
+                    "  bindPatternSuffix: \",dc=example,dc=com\"\n";
+            appendEnvironmentEntity(identityProvidersConfig, environment, "IDENTITY_PROVIDER", "idp-" + i, identityProvider);
+        }
+        writeConfigFile(gatewayDirectory, "identity-providers.yml", identityProvidersConfig);
+    }
+
+    /**
+     * Adds the entity to its configuration file and to the environment, where it is given when the bundles of the
+     * solution are deployed.
+     */
+    private static void appendEnvironmentEntity(StringBuilder config, Map<String, String> environment, String environmentType, String name, String yaml) {
+        config.append(name).append(":\n");
+        for (String line : yaml.split("\n")) {
+            config.append("  ").append(line).append('\n');
+        }
+        environment.put("ENV." + environmentType + "." + name + ".yml", yaml);
+    }
+
+    /**
+     * Every entity is referenced by the policy with its index, the others are referenced by a tenth of the policies.
+     */
+    private static boolean isReferencing(Random random, int policy, int count) {
+        return count > 0 && (policy < count || random.nextInt(10) == 0);
+    }
+
+    /**
+     * @return an encass backed by a policy of lower index than the given one, -1 if there is none
+     */
+    private static int randomEncass(Random random, int[] encassPolicies, int policy) {
+        if (encassPolicies.length == 0) {
+            return -1;
+        }
+        final int encass = random.nextInt(encassPolicies.length);
+        return encassPolicies[encass] < policy ? encass : -1;
+    }
+
+    private static void appendInclude(StringBuilder assertions, Set<EntityKey> references, List<String> policyPaths, int policy) {
+        assertions.append("        <L7p:Include>\n")
+                .append("            <L7p:PolicyGuid policyPath=\"").append(policyPaths.get(policy)).append("\"/>\n")
+                .append("        </L7p:Include>\n");
+        references.add(new EntityKey(POLICY_TYPE, "policy-" + policy));
+    }
+
+    private static void appendEncapsulated(StringBuilder assertions, Set<EntityKey> references, int encass) {
+        assertions.append("        <L7p:Encapsulated encassName=\"encass-").append(encass).append("\">\n")
+                .append("            <L7p:Parameters mapValue=\"included\">\n")
+                .append("                <L7p:entry>\n")
+                .append("                    <L7p:key stringValue=\"argument\"/>\n")
+                .append("                    <L7p:value stringValue=\"value\"/>\n")
+                .append("                </L7p:entry>\n")
+                .append("            </L7p:Parameters>\n")
+                .append("        </L7p:Encapsulated>\n");
+        references.add(new EntityKey(ENCAPSULATED_ASSERTION_TYPE, "encass-" + encass));
+    }
+
+    private static void writePolicyFile(File gatewayDirectory, String path, CharSequence assertions) throws IOException {
+        writeStringToFile(new File(gatewayDirectory, "policy/" + path + ".xml"),
+                "<wsp:Policy xmlns:wsp=\"http://schemas.xmlsoap.org/ws/2002/12/policy\" xmlns:L7p=\"http://www.layer7tech.com/ws/policy\">\n" +
+                "    <wsp:All wsp:Usage=\"Required\">\n" +
+                assertions +
+                "    </wsp:All>\n" +
+                "</wsp:Policy>\n", UTF_8);
+    }
+
+    private static void writeConfigFile(File gatewayDirectory, String fileName, CharSequence content) throws IOException {
+        if (content.length() > 0) {
+            writeStringToFile(new File(gatewayDirectory, "config/" + fileName), content.toString(), UTF_8);
+        }
+    }
+
+    private static <T> T randomElement(Random random, List<T> list) {
+        return list.get(random.nextInt(list.size()));
+    }
+
+    private KeyPair generateKeyPair() {
+        try {
+            // seeded before its first use, so it generates the same key pair every time
+            final SecureRandom secureRandom = SecureRandom.getInstance("SHA1PRNG");
+            secureRandom.setSeed(seed);
+            final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+            keyPairGenerator.initialize(2048, secureRandom);
+            return keyPairGenerator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not generate the certificates key pair", e);
+        }
+    }
+
+    private static byte[] generateCertificate(KeyPair keyPair, int serialNumber, String name) {
+        final AlgorithmIdentifier signatureAlgorithm = new AlgorithmIdentifier(PKCSObjectIdentifiers.sha256WithRSAEncryption, DERNull.INSTANCE);
+        final V1TBSCertificateGenerator certificateGenerator = new V1TBSCertificateGenerator();
+        certificateGenerator.setSerialNumber(new ASN1Integer(BigInteger.valueOf(serialNumber + 1L)));
+        certificateGenerator.setIssuer(new X500Name("CN=" + SOLUTION_FOLDER));
+        certificateGenerator.setSubject(new X500Name("CN=" + name + ".example.com"));
+        certificateGenerator.setStartDate(new Time(new Date(CERTIFICATE_START)));
+        certificateGenerator.setEndDate(new Time(new Date(CERTIFICATE_END)));
+        certificateGenerator.setSubjectPublicKeyInfo(SubjectPublicKeyInfo.getInstance(keyPair.getPublic().getEncoded()));
+        certificateGenerator.setSignature(signatureAlgorithm);
+        final TBSCertificate certificate = certificateGenerator.generateTBSCertificate();
+        try {
+            final Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initSign(keyPair.getPrivate());
+            signature.update(certificate.getEncoded(ASN1Encoding.DER));
+
+            final ASN1EncodableVector signedCertificate = new ASN1EncodableVector();
+            signedCertificate.add(certificate);
+            signedCertificate.add(signatureAlgorithm);
+            signedCertificate.add(new DERBitString(signature.sign()));
+            return new DERSequence(signedCertificate).getEncoded(ASN1Encoding.DER);
+        } catch (GeneralSecurityException | IOException e) {
+            throw new IllegalStateException("Could not generate the certificate " + name, e);
+        }
+    }
+
+    public static class Builder {
+        private long seed = 1;
+        private int policies = 100;
+        private int folders = 10;
+        private int folderDepth = 3;
+        private int includeChainLength = 10;
+        private int services = 10;
+        private int encasses = 5;
+        private int clusterProperties = 10;
+        private int trustedCerts = 2;
+        private int jmsDestinations = 2;
+        private int identityProviders = 1;
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder policies(int policies) {
+            this.policies = policies;
+            return this;
+        }
+
+        public Builder folders(int folders) {
+            this.folders = folders;
+            return this;
+        }
+
+        public Builder folderDepth(int folderDepth) {
+            this.folderDepth = folderDepth;
+            return this;
+        }
+
+        public Builder includeChainLength(int includeChainLength) {
+            this.includeChainLength = includeChainLength;
+            return this;
+        }
+
+        public Builder services(int services) {
+            this.services = services;
+            return this;
+        }
+
+        public Builder encasses(int encasses) {
+            this.encasses = encasses;
+            return this;
+        }
+
+        public Builder clusterProperties(int clusterProperties) {
+            this.clusterProperties = clusterProperties;
+            return this;
+        }
+
+        public Builder trustedCerts(int trustedCerts) {
+            this.trustedCerts = trustedCerts;
+            return this;
+        }
+
+        public Builder jmsDestinations(int jmsDestinations) {
+            this.jmsDestinations = jmsDestinations;
+            return this;
+        }
+
+        public Builder identityProviders(int identityProviders) {
+            this.identityProviders = identityProviders;
+            return this;
+        }
+
+        public SolutionGenerator build() {
+            return new SolutionGenerator(this);
+        }
+    }
+}
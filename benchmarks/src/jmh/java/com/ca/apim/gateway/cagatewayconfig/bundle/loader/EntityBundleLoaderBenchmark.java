@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.loader;
+
+import com.ca.apim.gateway.cagatewayconfig.BenchmarkSolution;
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the deployment bundle of a solution, as it is done for the bundles a solution depends on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EntityBundleLoaderBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private BenchmarkSolution solution;
+    private File bundleFile;
+    private EntityBundleLoader entityBundleLoader;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        solution = BenchmarkSolution.create(size);
+        bundleFile = solution.buildBundle();
+        entityBundleLoader = InjectionRegistry.getInstance(EntityBundleLoader.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        solution.delete();
+    }
+
+    @Benchmark
+    public Bundle load() {
+        return entityBundleLoader.load(bundleFile);
+    }
+}
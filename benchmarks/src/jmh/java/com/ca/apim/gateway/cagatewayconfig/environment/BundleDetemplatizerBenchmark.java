@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.environment;
+
+import com.ca.apim.gateway.cagatewayconfig.BenchmarkSolution;
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleCreationMode.PLUGIN;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.StringUtils.EMPTY;
+
+/**
+ * Replaces the environment references in the deployment bundle of a solution, which is read once in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BundleDetemplatizerBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private BenchmarkSolution solution;
+    private String bundleString;
+    private BundleDetemplatizer bundleDetemplatizer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        solution = BenchmarkSolution.create(size);
+        bundleString = new String(Files.readAllBytes(solution.buildBundle().toPath()), UTF_8);
+
+        final Bundle environmentBundle = new Bundle();
+        environmentBundle.setName(BenchmarkSolution.BUNDLE_NAME);
+        InjectionRegistry.getInstance(EnvironmentBundleBuilder.class).build(environmentBundle, solution.getEnvironment(), EMPTY, PLUGIN);
+        bundleDetemplatizer = new BundleDetemplatizer(environmentBundle);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        solution.delete();
+    }
+
+    @Benchmark
+    public CharSequence detemplatizeBundleString() {
+        return bundleDetemplatizer.detemplatizeBundleString(bundleString);
+    }
+}
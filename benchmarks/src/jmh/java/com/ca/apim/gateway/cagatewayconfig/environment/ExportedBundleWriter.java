@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.environment;
+
+import com.ca.apim.gateway.cagatewayconfig.GeneratedSolution;
+import com.ca.apim.gateway.cagatewayconfig.GeneratedSolution.EntityKey;
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.bundle.builder.BundleEntityBuilder;
+import com.ca.apim.gateway.cagatewayconfig.config.loader.FolderLoaderUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityBuilder.BundleType.DEPLOYMENT;
+import static com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityBuilder.BundleType.ENVIRONMENT;
+import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleCreationMode.APPLICATION;
+import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleUtils.buildBundleItemKey;
+import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleUtils.buildBundleMappingKey;
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getChildElements;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElement;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElementTextContent;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptySet;
+
+/**
+ * Writes a generated solution as the bundle a gateway exports for it, which is what the explode task takes: every entity
+ * of the solution as a full item, with the environment values applied, and the graph of the dependencies between them.
+ * <p>
+ * The items are the ones of the environment bundle of the solution followed by the ones of its deployment bundle, so the
+ * certificates, JMS destinations and identity providers mapped by the deployment bundle are in it as well.
+ */
+public class ExportedBundleWriter {
+
+    private final EnvironmentBundleBuilder environmentBundleBuilder = InjectionRegistry.getInstance(EnvironmentBundleBuilder.class);
+    private final BundleEntityBuilder bundleEntityBuilder = InjectionRegistry.getInstance(BundleEntityBuilder.class);
+    private final DocumentTools documentTools = InjectionRegistry.getInstance(DocumentTools.class);
+
+    /**
+     * Writes the exported bundle of the solution.
+     *
+     * @param solution   the generated solution
+     * @param bundleName the name of the bundle, the entity ids are generated from it
+     * @param bundleFile the file to write the bundle to
+     */
+    public void write(GeneratedSolution solution, String bundleName, File bundleFile) {
+        final Bundle bundle = new Bundle();
+        bundle.setName(bundleName);
+        environmentBundleBuilder.build(bundle, solution.getEnvironment(), solution.getGatewayDirectory().getPath(), APPLICATION);
+        FolderLoaderUtils.createFolders(bundle, solution.getGatewayDirectory(), bundle.getServices());
+        bundle.setDependencies(emptySet());
+
+        final Document document = documentTools.getDocumentBuilder().newDocument();
+        final Element bundleElement = bundleEntityBuilder.build(bundle, ENVIRONMENT, document);
+        mergeBundle(bundleElement, bundleEntityBuilder.build(bundle, DEPLOYMENT, document));
+        bundleElement.appendChild(buildDependencyGraph(document, bundleElement, solution.getDependencies()));
+
+        // the deployment items reference the environment values, those are replaced as a gateway export has them applied
+        try {
+            final Path templatizedBundle = Files.createTempFile(Files.createDirectories(bundleFile.getAbsoluteFile().getParentFile().toPath()), bundleFile.getName(), ".templatized");
+            try {
+                try (OutputStream stream = Files.newOutputStream(templatizedBundle)) {
+                    documentTools.printXML(bundleElement, stream, false);
+                }
+                try (Reader reader = Files.newBufferedReader(templatizedBundle, UTF_8);
+                     Writer writer = Files.newBufferedWriter(bundleFile.toPath(), UTF_8)) {
+                    new BundleDetemplatizer(bundle).detemplatizeBundle(reader, writer);
+                }
+            } finally {
+                Files.deleteIfExists(templatizedBundle);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the exported bundle " + bundleFile, e);
+        }
+    }
+
+    /**
+     * Adds the items and mappings of the deployment bundle that are not in the environment bundle yet.
+     */
+    private static void mergeBundle(Element bundleElement, Element deploymentBundleElement) {
+        final Element references = getSingleChildElement(bundleElement, REFERENCES);
+        final Set<String> itemKeys = new HashSet<>();
+        getChildElements(references, ITEM).forEach(item -> itemKeys.add(buildBundleItemKey(item)));
+        getChildElements(getSingleChildElement(deploymentBundleElement, REFERENCES), ITEM).stream()
+                .filter(item -> itemKeys.add(buildBundleItemKey(item)))
+                .forEach(references::appendChild);
+
+        final Element mappings = getSingleChildElement(bundleElement, MAPPINGS);
+        final Set<String> mappingKeys = new HashSet<>();
+        getChildElements(mappings, MAPPING).forEach(mapping -> mappingKeys.add(buildBundleMappingKey(mapping)));
+        getChildElements(getSingleChildElement(deploymentBundleElement, MAPPINGS), MAPPING).stream()
+                .filter(mapping -> mappingKeys.add(buildBundleMappingKey(mapping)))
+                .forEach(mappings::appendChild);
+    }
+
+    /**
+     * Builds the dependency graph element, with the ids the entities have in the bundle.
+     */
+    private static Element buildDependencyGraph(Document document, Element bundleElement, Map<EntityKey, Set<EntityKey>> dependencies) {
+        // policies and services items are named by their path, the generated names are the last part of it
+        final Map<EntityKey, String> ids = new HashMap<>();
+        getChildElements(getSingleChildElement(bundleElement, REFERENCES), ITEM).forEach(item -> ids.put(
+                new EntityKey(getSingleChildElementTextContent(item, TYPE), entityName(getSingleChildElementTextContent(item, NAME))),
+                getSingleChildElementTextContent(item, ID)));
+
+        final Element graphDependencies = document.createElement(DEPENDENCIES);
+        dependencies.forEach((entity, entityDependencies) -> {
+            final Element dependency = buildDependency(document, entity, ids);
+            final Element dependencyDependencies = document.createElement(DEPENDENCIES);
+            entityDependencies.forEach(d -> dependencyDependencies.appendChild(buildDependency(document, d, ids)));
+            dependency.appendChild(dependencyDependencies);
+            graphDependencies.appendChild(dependency);
+        });
+        final Element dependencyGraph = document.createElement(DEPENDENCY_GRAPH);
+        dependencyGraph.appendChild(graphDependencies);
+        return dependencyGraph;
+    }
+
+    private static String entityName(String itemName) {
+        return itemName.substring(itemName.lastIndexOf('/') + 1);
+    }
+
+    private static Element buildDependency(Document document, EntityKey entity, Map<EntityKey, String> ids) {
+        final String id = ids.get(entity);
+        if (id == null) {
+            throw new IllegalStateException("Dependency " + entity + " is not in the exported bundle");
+        }
+        final Element dependency = document.createElement(DEPENDENCY);
+        appendTextElement(document, dependency, NAME, entity.getName());
+        appendTextElement(document, dependency, ID, id);
+        appendTextElement(document, dependency, TYPE, entity.getType());
+        return dependency;
+    }
+
+    private static void appendTextElement(Document document, Element parent, String name, String text) {
+        final Element element = document.createElement(name);
+        element.setTextContent(text);
+        parent.appendChild(element);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.environment;
+
+import com.ca.apim.gateway.cagatewayconfig.BenchmarkSolution;
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Creates the full bundle of a solution from its deployment bundle and environment, as the build-full-bundle task does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FullBundleCreatorBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private BenchmarkSolution solution;
+    private List<File> deploymentBundles;
+    private FullBundleCreator fullBundleCreator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        solution = BenchmarkSolution.create(size);
+        deploymentBundles = singletonList(solution.buildBundle());
+        fullBundleCreator = InjectionRegistry.getInstance(FullBundleCreator.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        solution.delete();
+    }
+
+    @Benchmark
+    public void createFullBundle() {
+        fullBundleCreator.createFullBundle(solution.getEnvironment(), deploymentBundles, solution.getDirectory().getPath(), "full.bundle");
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayexport.tasks.explode;
+
+import com.ca.apim.gateway.cagatewayconfig.BenchmarkSolution;
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
+import com.ca.apim.gateway.cagatewayexport.tasks.explode.filter.FilterConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+
+/**
+ * Explodes an exported bundle of a solution into a new folder, as the explode task does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExplodeBundleBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    @Param({"false", "true"})
+    private boolean streaming;
+
+    private BenchmarkSolution solution;
+    private File bundleFile;
+    private File explodeDirectory;
+    private ExplodeBundle explodeBundle;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        solution = BenchmarkSolution.create(size);
+        bundleFile = solution.exportBundle();
+        explodeDirectory = new File(solution.getDirectory(), "explode");
+        explodeBundle = InjectionRegistry.getInstance(ExplodeBundle.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void cleanExplodeDirectory() throws IOException {
+        // every invocation explodes into an empty folder, as the task does
+        deleteQuietly(explodeDirectory);
+        Files.createDirectories(explodeDirectory.toPath());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        solution.delete();
+    }
+
+    @Benchmark
+    public void explodeBundle() throws DocumentParseException {
+        explodeBundle.explodeBundle(BenchmarkSolution.FOLDER_PATH, new FilterConfiguration(), bundleFile, explodeDirectory, streaming);
+    }
+}
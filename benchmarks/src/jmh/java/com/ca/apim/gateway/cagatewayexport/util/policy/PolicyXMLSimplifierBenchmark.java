@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayexport.util.policy;
+
+import com.ca.apim.gateway.cagatewayconfig.BenchmarkSolution;
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.beans.Policy;
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils;
+import com.ca.apim.gateway.cagatewayexport.tasks.explode.bundle.BundleBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.w3c.dom.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simplifies the policies of an exported bundle of a solution, as the policy linker of the explode task does. The
+ * simplifier changes the policy documents, so they are parsed again before each invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PolicyXMLSimplifierBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private BenchmarkSolution solution;
+    private DocumentTools documentTools;
+    private Bundle bundle;
+    private List<Policy> policies;
+    private List<Element> policyElements;
+    private Bundle resultantBundle;
+
+    @Setup(Level.Trial)
+    public void setUp() throws DocumentParseException {
+        solution = BenchmarkSolution.create(size);
+        documentTools = InjectionRegistry.getInstance(DocumentTools.class);
+        bundle = InjectionRegistry.getInstance(BundleBuilder.class).buildBundle(solution.exportBundle());
+        policies = new ArrayList<>(bundle.getPolicies().values());
+    }
+
+    @Setup(Level.Invocation)
+    public void parsePolicies() throws DocumentParseException {
+        policyElements = new ArrayList<>(policies.size());
+        for (Policy policy : policies) {
+            policyElements.add(DocumentUtils.stringToXML(documentTools, policy.getPolicyXML()));
+        }
+        resultantBundle = new Bundle();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        solution.delete();
+    }
+
+    @Benchmark
+    public Bundle simplifyPolicyXML() {
+        for (int i = 0; i < policies.size(); i++) {
+            PolicyXMLSimplifier.INSTANCE.simplifyPolicyXML(policyElements.get(i), policies.get(i).getName(), bundle, resultantBundle);
+        }
+        return resultantBundle;
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig;
+
+import com.ca.apim.gateway.cagatewayconfig.BenchmarkBaseline.Comparison;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class BenchmarkBaselineTest {
+
+    private static final String BUILD_BUNDLE_CLASS = "com.ca.apim.gateway.cagatewayconfig.BundleFileBuilderBenchmark.buildBundle";
+    private static final String BUILD_BUNDLE = "BundleFileBuilderBenchmark.buildBundle(size=100)";
+    private static final String EXPLODE_BUNDLE = "ExplodeBundleBenchmark.explodeBundle(size=100,streaming=true)";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BenchmarkBaseline benchmarkBaseline = new BenchmarkBaseline();
+
+    @Test
+    void benchmarkName() {
+        assertEquals(BUILD_BUNDLE, BenchmarkBaseline.benchmarkName(result(BUILD_BUNDLE_CLASS, "avgt", 10, 1000)));
+
+        // the parameters are sorted by name
+        final ObjectNode explode = result("com.ca.apim.gateway.cagatewayexport.tasks.explode.ExplodeBundleBenchmark.explodeBundle", "avgt", 10, 1000);
+        ((ObjectNode) explode.get("params")).removeAll().put("streaming", "true").put("size", "100");
+        assertEquals(EXPLODE_BUNDLE, BenchmarkBaseline.benchmarkName(explode));
+
+        final ObjectNode withoutParams = result("com.ca.apim.gateway.cagatewayconfig.SomeBenchmark.run", "avgt", 10, 1000);
+        withoutParams.remove("params");
+        assertEquals("SomeBenchmark.run", BenchmarkBaseline.benchmarkName(withoutParams));
+    }
+
+    @Test
+    void checkWithinTolerance(TemporaryFolder temporaryFolder) throws IOException {
+        final File baseline = baseline(temporaryFolder, benchmark("avgt", 10, 1000));
+        final File results = results(temporaryFolder, result(BUILD_BUNDLE_CLASS, "avgt", 11.9, 1099));
+
+        final List<Comparison> comparisons = benchmarkBaseline.check(baseline, results);
+
+        assertEquals(2, comparisons.size());
+        assertTrue(comparisons.stream().noneMatch(Comparison::isRegression), BenchmarkBaseline.format(comparisons));
+        assertEquals(0.19, comparisons.get(0).getChange(), 0.0001);
+    }
+
+    @Test
+    void checkTimeRegression(TemporaryFolder temporaryFolder) throws IOException {
+        final File baseline = baseline(temporaryFolder, benchmark("avgt", 10, 1000));
+        final File results = results(temporaryFolder, result(BUILD_BUNDLE_CLASS, "avgt", 12.1, 1000));
+
+        final List<Comparison> comparisons = benchmarkBaseline.check(baseline, results);
+
+        assertTrue(comparisons.get(0).isRegression());
+        assertFalse(comparisons.get(1).isRegression());
+        final String table = BenchmarkBaseline.format(comparisons);
+        assertTrue(table.contains("REGRESSED"), table);
+    }
+
+    @Test
+    void checkAllocationRegression(TemporaryFolder temporaryFolder) throws IOException {
+        final File baseline = baseline(temporaryFolder, benchmark("avgt", 10, 1000));
+        final File results = results(temporaryFolder, result(BUILD_BUNDLE_CLASS, "avgt", 8, 1101));
+
+        final List<Comparison> comparisons = benchmarkBaseline.check(baseline, results);
+
+        assertFalse(comparisons.get(0).isRegression());
+        assertTrue(comparisons.get(1).isRegression());
+    }
+
+    @Test
+    void checkThroughputRegression(TemporaryFolder temporaryFolder) throws IOException {
+        final ObjectNode benchmark = benchmark("thrpt", 100, 1000);
+        benchmark.put(BenchmarkBaseline.SCORE_UNIT, "ops/s");
+        final File baseline = baseline(temporaryFolder, benchmark);
+
+        final ObjectNode faster = result(BUILD_BUNDLE_CLASS, "thrpt", 150, 1000);
+        ((ObjectNode) faster.get("primaryMetric")).put(BenchmarkBaseline.SCORE_UNIT, "ops/s");
+        assertFalse(benchmarkBaseline.check(baseline, results(temporaryFolder, faster)).get(0).isRegression());
+
+        final ObjectNode slower = result(BUILD_BUNDLE_CLASS, "thrpt", 79, 1000);
+        ((ObjectNode) slower.get("primaryMetric")).put(BenchmarkBaseline.SCORE_UNIT, "ops/s");
+        assertTrue(benchmarkBaseline.check(baseline, results(temporaryFolder, slower)).get(0).isRegression());
+    }
+
+    @Test
+    void checkBenchmarkTolerance(TemporaryFolder temporaryFolder) throws IOException {
+        final File baseline = baseline(temporaryFolder, benchmark("avgt", 10, 1000).put(BenchmarkBaseline.TOLERANCE, 0.3));
+        final File results = results(temporaryFolder, result(BUILD_BUNDLE_CLASS, "avgt", 12.9, 1000));
+
+        assertFalse(benchmarkBaseline.check(baseline, results).get(0).isRegression());
+    }
+
+    @Test
+    void checkMissingResult(TemporaryFolder temporaryFolder) throws IOException {
+        final File baseline = baseline(temporaryFolder, benchmark("avgt", 10, 1000));
+        final File results = results(temporaryFolder, result("com.ca.apim.gateway.cagatewayconfig.OtherBenchmark.run", "avgt", 10, 1000));
+
+        final List<Comparison> comparisons = benchmarkBaseline.check(baseline, results);
+
+        assertEquals(1, comparisons.size());
+        assertTrue(comparisons.get(0).isRegression());
+        assertFalse(comparisons.get(0).isNotRecorded());
+        final String table = BenchmarkBaseline.format(comparisons);
+        assertTrue(table.contains("MISSING"), table);
+    }
+
+    @Test
+    void checkOtherUnit(TemporaryFolder temporaryFolder) throws IOException {
+        final File baseline = baseline(temporaryFolder, benchmark("avgt", 10, 1000));
+        final ObjectNode result = result(BUILD_BUNDLE_CLASS, "avgt", 10000, 1000);
+        ((ObjectNode) result.get("primaryMetric")).put(BenchmarkBaseline.SCORE_UNIT, "us/op");
+
+        assertTrue(benchmarkBaseline.check(baseline, results(temporaryFolder, result)).get(0).isRegression());
+    }
+
+    @Test
+    void checkNotRecorded(TemporaryFolder temporaryFolder) throws IOException {
+        final File baseline = baseline(temporaryFolder, objectMapper.createObjectNode().put(BenchmarkBaseline.TOLERANCE, 0.3));
+        final File results = results(temporaryFolder, result(BUILD_BUNDLE_CLASS, "avgt", 10, 1000));
+
+        final List<Comparison> comparisons = benchmarkBaseline.check(baseline, results);
+
+        assertEquals(1, comparisons.size());
+        assertTrue(comparisons.get(0).isNotRecorded());
+        assertTrue(comparisons.get(0).isRegression());
+        final String table = BenchmarkBaseline.format(comparisons);
+        assertTrue(table.contains("NOT RECORDED"), table);
+    }
+
+    @Test
+    void checkWithoutBenchmarks(TemporaryFolder temporaryFolder) throws IOException {
+        final File baseline = temporaryFolder.createFile("baseline.json");
+        final ObjectNode baselineNode = objectMapper.createObjectNode().put(BenchmarkBaseline.TOLERANCE, 0.2);
+        baselineNode.putObject(BenchmarkBaseline.BENCHMARKS);
+        objectMapper.writeValue(baseline, baselineNode);
+        final File results = results(temporaryFolder, result(BUILD_BUNDLE_CLASS, "avgt", 10, 1000));
+
+        assertThrows(IllegalArgumentException.class, () -> benchmarkBaseline.check(baseline, results));
+    }
+
+    @Test
+    void update(TemporaryFolder temporaryFolder) throws IOException {
+        final ObjectNode explode = objectMapper.createObjectNode().put(BenchmarkBaseline.TOLERANCE, 0.3);
+        final File baseline = temporaryFolder.createFile("baseline.json");
+        final ObjectNode baselineNode = objectMapper.createObjectNode().put(BenchmarkBaseline.TOLERANCE, 0.25);
+        baselineNode.putObject(BenchmarkBaseline.BENCHMARKS).set(EXPLODE_BUNDLE, explode);
+        objectMapper.writeValue(baseline, baselineNode);
+
+        final ObjectNode explodeResult = result("com.ca.apim.gateway.cagatewayexport.tasks.explode.ExplodeBundleBenchmark.explodeBundle", "avgt", 20, 3000);
+        ((ObjectNode) explodeResult.get("params")).put("streaming", "true");
+        final ObjectNode buildResult = result(BUILD_BUNDLE_CLASS, "avgt", 10, 1000);
+        ((ObjectNode) buildResult.get("secondaryMetrics")).removeAll();
+        benchmarkBaseline.update(baseline, results(temporaryFolder, explodeResult, buildResult));
+
+        final JsonNode updated = objectMapper.readTree(baseline);
+        assertEquals(0.25, updated.get(BenchmarkBaseline.TOLERANCE).asDouble());
+        assertEquals(0.1, updated.get(BenchmarkBaseline.ALLOCATION_TOLERANCE).asDouble());
+        final JsonNode updatedExplode = updated.get(BenchmarkBaseline.BENCHMARKS).get(EXPLODE_BUNDLE);
+        assertEquals(0.3, updatedExplode.get(BenchmarkBaseline.TOLERANCE).asDouble());
+        assertEquals("avgt", updatedExplode.get(BenchmarkBaseline.MODE).asText());
+        assertEquals(20, updatedExplode.get(BenchmarkBaseline.SCORE).asDouble());
+        assertEquals("ms/op", updatedExplode.get(BenchmarkBaseline.SCORE_UNIT).asText());
+        assertEquals(3000, updatedExplode.get(BenchmarkBaseline.ALLOCATION).asDouble());
+        // benchmarks that are not in the baseline yet are added
+        final JsonNode updatedBuild = updated.get(BenchmarkBaseline.BENCHMARKS).get(BUILD_BUNDLE);
+        assertEquals(10, updatedBuild.get(BenchmarkBaseline.SCORE).asDouble());
+        assertFalse(updatedBuild.has(BenchmarkBaseline.ALLOCATION));
+
+        // the updated baseline passes with the results it was updated with
+        final List<Comparison> comparisons = benchmarkBaseline.check(baseline, results(temporaryFolder, explodeResult, buildResult));
+        assertEquals(3, comparisons.size());
+        assertTrue(comparisons.stream().noneMatch(Comparison::isRegression), BenchmarkBaseline.format(comparisons));
+    }
+
+    @Test
+    void updateCreatesBaseline(TemporaryFolder temporaryFolder) throws IOException {
+        final File baseline = new File(temporaryFolder.getRoot(), "baseline.json");
+
+        benchmarkBaseline.update(baseline, results(temporaryFolder, result(BUILD_BUNDLE_CLASS, "avgt", 10, 1000)));
+
+        final JsonNode created = objectMapper.readTree(baseline);
+        assertEquals(0.2, created.get(BenchmarkBaseline.TOLERANCE).asDouble());
+        assertEquals(1000, created.get(BenchmarkBaseline.BENCHMARKS).get(BUILD_BUNDLE).get(BenchmarkBaseline.ALLOCATION).asDouble());
+    }
+
+    private ObjectNode benchmark(String mode, double score, double allocation) {
+        return objectMapper.createObjectNode()
+                .put(BenchmarkBaseline.MODE, mode)
+                .put(BenchmarkBaseline.SCORE, score)
+                .put(BenchmarkBaseline.SCORE_UNIT, "ms/op")
+                .put(BenchmarkBaseline.ALLOCATION, allocation);
+    }
+
+    private File baseline(TemporaryFolder temporaryFolder, ObjectNode benchmark) throws IOException {
+        final File baseline = new File(temporaryFolder.getRoot(), "baseline.json");
+        final ObjectNode baselineNode = objectMapper.createObjectNode()
+                .put(BenchmarkBaseline.TOLERANCE, 0.2)
+                .put(BenchmarkBaseline.ALLOCATION_TOLERANCE, 0.1);
+        baselineNode.putObject(BenchmarkBaseline.BENCHMARKS).set(BUILD_BUNDLE, benchmark);
+        objectMapper.writeValue(baseline, baselineNode);
+        return baseline;
+    }
+
+    /**
+     * @return a result of a benchmark with a size of 100, as in the JSON results of JMH run with the gc profiler
+     */
+    private ObjectNode result(String benchmark, String mode, double score, double allocation) {
+        final ObjectNode result = objectMapper.createObjectNode()
+                .put("benchmark", benchmark)
+                .put(BenchmarkBaseline.MODE, mode);
+        result.putObject("params").put("size", "100");
+        result.putObject("primaryMetric")
+                .put(BenchmarkBaseline.SCORE, score)
+                .put(BenchmarkBaseline.SCORE_UNIT, "ms/op");
+        result.putObject("secondaryMetrics").putObject("\u00b7gc.alloc.rate.norm")
+                .put(BenchmarkBaseline.SCORE, allocation)
+                .put(BenchmarkBaseline.SCORE_UNIT, "B/op");
+        return result;
+    }
+
+    private File results(TemporaryFolder temporaryFolder, ObjectNode... results) throws IOException {
+        final File resultsFile = new File(temporaryFolder.getRoot(), "results.json");
+        final ArrayNode resultsNode = objectMapper.createArrayNode();
+        for (ObjectNode result : results) {
+            resultsNode.add(result);
+        }
+        objectMapper.writeValue(resultsFile, resultsNode);
+        return resultsFile;
+    }
+}
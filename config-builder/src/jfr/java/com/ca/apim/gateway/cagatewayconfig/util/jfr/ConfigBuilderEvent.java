@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a step of the bundle pipelines, with an event type for each type of step. Only used through
+ * {@link FlightRecorderEvents}, which does not load it on JVMs without the Flight Recorder.
+ */
+@Category({"CA API Gateway", "Config Builder"})
+@StackTrace(false)
+abstract class ConfigBuilderEvent extends Event {
+
+    private static final String NAME_PREFIX = "com.ca.apim.gateway.";
+
+    @Label("Bundle")
+    @Description("Name of the bundle")
+    String bundle;
+
+    @Label("Entity Type")
+    @Description("Type of the entities handled")
+    String entityType;
+
+    @Label("Name")
+    @Description("Name of the entity, file or component handled")
+    String name;
+
+    @Label("Entities")
+    @Description("Number of entities handled, 0 if not counted")
+    int entities;
+
+    @Name(NAME_PREFIX + "Parse")
+    @Label("Parse Bundle")
+    @Description("Parsing of a bundle file into entities")
+    static class ParseEvent extends ConfigBuilderEvent {
+    }
+
+    @Name(NAME_PREFIX + "Load")
+    @Label("Load Entities")
+    @Description("Loading of the entities of a type from the source files or environment values")
+    static class LoadEvent extends ConfigBuilderEvent {
+    }
+
+    @Name(NAME_PREFIX + "Build")
+    @Label("Build Entities")
+    @Description("Building of the bundle items of an entity builder")
+    static class BuildEvent extends ConfigBuilderEvent {
+    }
+
+    @Name(NAME_PREFIX + "ConvertPolicy")
+    @Label("Convert Policy")
+    @Description("Conversion of a policy from or to its file format")
+    static class ConvertPolicyEvent extends ConfigBuilderEvent {
+    }
+
+    @Name(NAME_PREFIX + "Link")
+    @Label("Link Entities")
+    @Description("Linking of the entities of an exported bundle")
+    static class LinkEvent extends ConfigBuilderEvent {
+    }
+
+    @Name(NAME_PREFIX + "Write")
+    @Label("Write")
+    @Description("Writing of a bundle or of exploded entities")
+    static class WriteEvent extends ConfigBuilderEvent {
+    }
+
+    @Name(NAME_PREFIX + "Detemplatize")
+    @Label("Detemplatize Bundle")
+    @Description("Detemplatization of a deployment bundle with the environment values")
+    static class DetemplatizeEvent extends ConfigBuilderEvent {
+    }
+
+    @Name(NAME_PREFIX + "CreateKeyStore")
+    @Label("Create Key Store")
+    @Description("Creation of the key store of the private keys")
+    static class CreateKeyStoreEvent extends ConfigBuilderEvent {
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.jfr;
+
+import com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents.Type;
+
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Creates and commits the {@link ConfigBuilderEvent}s. It is apart from the events as the Flight Recorder cannot
+ * instrument an event class loaded while verifying its super class. Created by {@link FlightRecorderEvents} through
+ * reflection.
+ */
+class ConfigBuilderEventRecorder implements EventRecorder {
+
+    @Override
+    public <T> T record(Type type, String bundle, String entityType, String name, Supplier<T> action, ToIntFunction<? super T> entityCount) {
+        final ConfigBuilderEvent event = create(type);
+        if (!event.isEnabled()) {
+            return action.get();
+        }
+
+        event.begin();
+        final T result = action.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.bundle = bundle;
+            event.entityType = entityType;
+            event.name = name;
+            event.entities = entityCount == null ? 0 : entityCount.applyAsInt(result);
+            event.commit();
+        }
+        return result;
+    }
+
+    private static ConfigBuilderEvent create(Type type) {
+        switch (type) {
+            case PARSE:
+                return new ConfigBuilderEvent.ParseEvent();
+            case LOAD:
+                return new ConfigBuilderEvent.LoadEvent();
+            case BUILD:
+                return new ConfigBuilderEvent.BuildEvent();
+            case CONVERT_POLICY:
+                return new ConfigBuilderEvent.ConvertPolicyEvent();
+            case LINK:
+                return new ConfigBuilderEvent.LinkEvent();
+            case WRITE:
+                return new ConfigBuilderEvent.WriteEvent();
+            case DETEMPLATIZE:
+                return new ConfigBuilderEvent.DetemplatizeEvent();
+            case CREATE_KEY_STORE:
+                return new ConfigBuilderEvent.CreateKeyStoreEvent();
+            default:
+                throw new IllegalArgumentException("Unknown event type " + type);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.jfr;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents.Type.CREATE_KEY_STORE;
+import static com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents.Type.LOAD;
+import static com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents.Type.WRITE;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class FlightRecorderEventsTest {
+
+    private static final String LOAD_EVENT = "com.ca.apim.gateway.Load";
+    private static final String WRITE_EVENT = "com.ca.apim.gateway.Write";
+
+    @Test
+    void record(TemporaryFolder temporaryFolder) throws IOException {
+        final List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(LOAD_EVENT);
+            recording.start();
+
+            final List<String> loaded = FlightRecorderEvents.record(LOAD, "my-bundle", "POLICY", "policy.xml", () -> Arrays.asList("one", "two"), List::size);
+            assertEquals(Arrays.asList("one", "two"), loaded);
+
+            events = readEvents(recording, temporaryFolder.getRoot().toPath().resolve("load.jfr"));
+        }
+
+        assertEquals(1, events.size());
+        final RecordedEvent event = events.get(0);
+        assertEquals("my-bundle", event.getString("bundle"));
+        assertEquals("POLICY", event.getString("entityType"));
+        assertEquals("policy.xml", event.getString("name"));
+        assertEquals(2, event.getInt("entities"));
+        assertFalse(event.getDuration().isNegative());
+    }
+
+    @Test
+    void recordNotEnabled(TemporaryFolder temporaryFolder) throws IOException {
+        final AtomicBoolean written = new AtomicBoolean();
+        final List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.disable(WRITE_EVENT);
+            recording.start();
+
+            FlightRecorderEvents.record(WRITE, "my-bundle", null, null, () -> written.set(true), null);
+
+            events = readEvents(recording, temporaryFolder.getRoot().toPath().resolve("write.jfr"));
+        }
+
+        assertTrue(written.get());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void recordFailedStep(TemporaryFolder temporaryFolder) throws IOException {
+        final List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(LOAD_EVENT);
+            recording.start();
+
+            assertThrows(IllegalStateException.class, () -> FlightRecorderEvents.record(LOAD, "my-bundle", "POLICY", null, () -> {
+                throw new IllegalStateException();
+            }, () -> 1));
+
+            events = readEvents(recording, temporaryFolder.getRoot().toPath().resolve("failed.jfr"));
+        }
+
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void recordWithoutRecording() {
+        assertEquals("key store", FlightRecorderEvents.record(CREATE_KEY_STORE, null, null, null, () -> "key store", null));
+    }
+
+    private static List<RecordedEvent> readEvents(Recording recording, Path file) throws IOException {
+        recording.stop();
+        recording.dump(file);
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().startsWith("com.ca.apim.gateway."))
+                .collect(toList());
+    }
+}
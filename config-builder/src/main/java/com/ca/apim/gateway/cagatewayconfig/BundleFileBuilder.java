@@ -9,11 +9,15 @@ package com.ca.apim.gateway.cagatewayconfig;
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.BundleEntityBuilder;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityBuilder;
+import com.ca.apim.gateway.cagatewayconfig.bundle.index.BundleIndexer;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.EntityBundleLoader;
 import com.ca.apim.gateway.cagatewayconfig.config.loader.EntityLoader;
 import com.ca.apim.gateway.cagatewayconfig.config.loader.EntityLoaderRegistry;
 import com.ca.apim.gateway.cagatewayconfig.config.loader.FolderLoaderUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport;
+import com.ca.apim.gateway.cagatewayconfig.util.report.RetainedSizeEstimator;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -27,53 +31,120 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.BUNDLE_EXTENSION;
+import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.BUNDLE_INDEX_EXTENSION;
+import static com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents.Type.LOAD;
+import static com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents.Type.WRITE;
+import static com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport.SEPARATOR;
+import static java.util.Collections.singletonMap;
+
 @Singleton
 class BundleFileBuilder {
 
+    static final String LOAD_PHASE = "load";
+    static final String FOLDERS_PHASE = "folders";
+    static final String DEPENDENCIES_PHASE = "dependencies";
+    static final String WRITE_PHASE = "write";
+    static final String INDEX_PHASE = "index";
+    static final String DEPENDENCY_BUNDLES = "dependencyBundles";
+    static final String BUNDLE_DOCUMENT = "bundleDocument";
+
     private final DocumentFileUtils documentFileUtils;
     private final EntityLoaderRegistry entityLoaderRegistry;
     private final BundleEntityBuilder bundleEntityBuilder;
     private final EntityBundleLoader entityBundleLoader;
     private final DocumentTools documentTools;
+    private final BundleIndexer bundleIndexer;
 
     @Inject
     BundleFileBuilder(final DocumentTools documentTools,
                       final DocumentFileUtils documentFileUtils,
                       final EntityLoaderRegistry entityLoaderRegistry,
                       final BundleEntityBuilder bundleEntityBuilder,
-                      final EntityBundleLoader entityBundleLoader) {
+                      final EntityBundleLoader entityBundleLoader,
+                      final BundleIndexer bundleIndexer) {
         this.documentFileUtils = documentFileUtils;
         this.documentTools = documentTools;
         this.entityLoaderRegistry = entityLoaderRegistry;
         this.bundleEntityBuilder = bundleEntityBuilder;
         this.entityBundleLoader = entityBundleLoader;
+        this.bundleIndexer = bundleIndexer;
+    }
+
+    /**
+     * Builds the deployment bundle and its index from the source files.
+     *
+     * @return the time taken and entities handled by each phase of the build
+     */
+    PhaseReport buildBundle(File rootDir, File outputDir, List<File> dependencies, String name) {
+        return buildBundle(rootDir, outputDir, dependencies, name, false);
+    }
+
+    /**
+     * Builds the deployment bundle and its index from the source files, profiling the memory used by each phase if asked to.
+     * The loaded entities, dependency bundles and written bundle document are estimated after their phase.
+     *
+     * @return the time taken, entities handled and, if profiling, memory used by each phase of the build
+     */
+    PhaseReport buildBundle(File rootDir, File outputDir, List<File> dependencies, String name, boolean profilingMemory) {
+        return buildBundle(rootDir, outputDir, dependencies, name, new PhaseReport(name, profilingMemory));
     }
 
-    void buildBundle(File rootDir, File outputDir, List<File> dependencies, String name) {
+    /**
+     * Builds the deployment bundle and its index from the source files, recording the phases of the build in the report.
+     *
+     * @return the report
+     */
+    PhaseReport buildBundle(File rootDir, File outputDir, List<File> dependencies, String name, PhaseReport report) {
         final DocumentBuilder documentBuilder = documentTools.getDocumentBuilder();
         final Document document = documentBuilder.newDocument();
 
         final Bundle bundle = new Bundle();
+        bundle.setName(name);
 
         if (rootDir != null) {
-            // Load the entities to build a deployment bundle
-            final Collection<EntityLoader> entityLoaders = entityLoaderRegistry.getEntityLoaders();
-            entityLoaders.parallelStream().forEach(e -> e.load(bundle, rootDir));
+            // Load the entities to build a deployment bundle, each loader into a bundle of its own to count what it loaded
+            report.record(LOAD_PHASE, () -> {
+                final Collection<EntityLoader> entityLoaders = entityLoaderRegistry.getEntityLoaders();
+                final List<Bundle> loaderBundles = entityLoaders.parallelStream()
+                        .map(e -> report.record(LOAD_PHASE + SEPARATOR + e.getEntityType(),
+                                () -> FlightRecorderEvents.record(LOAD, name, e.getEntityType(), null, () -> load(e, rootDir, name), Bundle::getEntityCount),
+                                Bundle::getEntityCount))
+                        .collect(Collectors.toList());
+                loaderBundles.forEach(bundle::putAll);
+            }, bundle::getEntityCount);
+            report.estimateRetainedBytes(LOAD_PHASE, () -> RetainedSizeEstimator.estimate(bundle));
 
             // create the folder tree
-            FolderLoaderUtils.createFolders(bundle, rootDir, bundle.getServices());
+            report.record(FOLDERS_PHASE, () -> FolderLoaderUtils.createFolders(bundle, rootDir, bundle.getServices()), () -> bundle.getFolders().size());
 
             //Load Dependencies
             // Improvements can be made here by doing this loading in a separate task and caching the intermediate results.
             // That way the dependent bundles are not re-processed on every new build
-            final Set<Bundle> dependencyBundles = dependencies.stream().map(entityBundleLoader::load).collect(Collectors.toSet());
+            final Set<Bundle> dependencyBundles = report.record(DEPENDENCIES_PHASE,
+                    () -> dependencies.stream().map(entityBundleLoader::load).collect(Collectors.toSet()),
+                    Set::size);
+            report.estimateRetainedBytes(DEPENDENCIES_PHASE, () -> singletonMap(DEPENDENCY_BUNDLES, RetainedSizeEstimator.estimate(dependencyBundles)));
             bundle.setDependencies(dependencyBundles);
         }
 
         //Zip
-        Element bundleElement = bundleEntityBuilder.build(bundle, EntityBuilder.BundleType.DEPLOYMENT, document);
-        documentFileUtils.createFile(bundleElement, new File(outputDir, name + ".bundle").toPath());
-    }
+        Element bundleElement = bundleEntityBuilder.build(bundle, EntityBuilder.BundleType.DEPLOYMENT, document, report);
+        report.record(WRITE_PHASE, () -> FlightRecorderEvents.record(WRITE, name, null, name + BUNDLE_EXTENSION,
+                () -> documentFileUtils.createFile(bundleElement, new File(outputDir, name + BUNDLE_EXTENSION).toPath()),
+                bundle::getEntityCount));
+        report.estimateRetainedBytes(WRITE_PHASE, () -> singletonMap(BUNDLE_DOCUMENT, RetainedSizeEstimator.estimate(bundleElement)));
 
+        // The index is built from the bundle document so it lists exactly what a dependent build would load from the bundle
+        report.record(INDEX_PHASE, () -> bundleIndexer.writeIndex(entityBundleLoader.load(bundleElement), new File(outputDir, name + BUNDLE_EXTENSION), new File(outputDir, name + BUNDLE_INDEX_EXTENSION)));
+        return report;
+    }
 
+    private static Bundle load(EntityLoader entityLoader, File rootDir, String name) {
+        final Bundle bundle = new Bundle();
+        // ids are generated from the bundle name
+        bundle.setName(name);
+        entityLoader.load(bundle, rootDir);
+        return bundle;
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig;
+
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport;
+import com.ca.apim.gateway.cagatewayconfig.util.report.ProfileReport;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the deployment bundle of a solution several times in the current JVM to measure how long each phase of the build
+ * takes and which policies are the slowest to build. The first runs warm the JVM up and are not measured.
+ */
+@Singleton
+class BundleProfiler {
+
+    private final BundleFileBuilder bundleFileBuilder;
+
+    @Inject
+    BundleProfiler(final BundleFileBuilder bundleFileBuilder) {
+        this.bundleFileBuilder = bundleFileBuilder;
+    }
+
+    /**
+     * Builds the bundle into the output folder once for each warmup and measured run, replacing the bundle of the previous run.
+     *
+     * @param warmups         number of runs before the measured ones
+     * @param iterations      number of measured runs
+     * @param slowestEntities number of slowest entities to report for each entity type
+     * @return the statistics of the measured runs
+     */
+    ProfileReport profile(File rootDir, File outputDir, List<File> dependencies, String name, int warmups, int iterations, int slowestEntities) {
+        if (warmups < 0 || iterations < 1 || slowestEntities < 0) {
+            throw new IllegalArgumentException("Cannot profile " + iterations + " runs after " + warmups + " warmup runs reporting " + slowestEntities + " slowest entities");
+        }
+        for (int i = 0; i < warmups; i++) {
+            bundleFileBuilder.buildBundle(rootDir, outputDir, dependencies, name, new PhaseReport(name));
+        }
+
+        PhaseReport.resetPeakHeapBytes();
+        final List<PhaseReport> reports = new ArrayList<>(iterations);
+        for (int i = 0; i < iterations; i++) {
+            reports.add(bundleFileBuilder.buildBundle(rootDir, outputDir, dependencies, name, new PhaseReport(name, false, true)));
+        }
+        return ProfileReport.create(name, warmups, reports, PhaseReport.peakHeapBytes(), slowestEntities);
+    }
+}
@@ -10,6 +10,7 @@ import com.ca.apim.gateway.cagatewayconfig.util.file.SupplierWithIO;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,17 +21,27 @@ import java.util.function.Function;
 public class Bundle {
 
     // simple map of entities to avoid having to add here a new map for each entity
-    private final Map<Class, Map<String, ?>> entities = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Map<String, ?>> entities = new ConcurrentHashMap<>();
 
     // some special things need their own maps
     private final Map<String, SupplierWithIO<InputStream>> certificateFiles = new HashMap<>();
+    // name of the bundle being built, used to generate entity ids
+    private String name;
     private Set<Bundle> dependencies;
     private FolderTree folderTree;
     private Map<Dependency, List<Dependency>> dependencyMap;
 
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
     @SuppressWarnings("unchecked")
     public <E extends GatewayEntity> Map<String, E> getEntities(Class<E> entityType) {
-        return (Map<String, E>) entities.computeIfAbsent(entityType, (Function<Class, Map<String, E>>) aClass -> new HashMap<>());
+        return (Map<String, E>) entities.computeIfAbsent(entityType, (Function<Class<?>, Map<String, E>>) aClass -> new HashMap<>());
     }
 
     @SuppressWarnings("unchecked")
@@ -38,6 +49,40 @@ public class Bundle {
         getEntities((Class<GatewayEntity>) entity.getClass()).put(entity.getId(), entity);
     }
 
+    /**
+     * @return the types of the entities in the bundle
+     */
+    public Set<Class<?>> getEntityTypes() {
+        return Collections.unmodifiableSet(entities.keySet());
+    }
+
+    /**
+     * @return the number of entities in the bundle, of all types
+     */
+    public int getEntityCount() {
+        return entities.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * Adds all the entities and certificate files of the other bundle to this one. Policies are merged the same way as
+     * in {@link #putAllPolicies(Map)}, and folders are added to the concurrent map of {@link #getFolders()}.
+     *
+     * @param bundle the bundle to take the entities from
+     */
+    @SuppressWarnings("unchecked")
+    public void putAll(@NotNull Bundle bundle) {
+        bundle.entities.forEach((entityType, entitiesMap) -> {
+            if (entityType == Policy.class) {
+                putAllPolicies((Map<String, Policy>) entitiesMap);
+            } else if (entityType == Folder.class) {
+                putAllFolders((Map<String, Folder>) entitiesMap);
+            } else {
+                getEntities((Class<GatewayEntity>) entityType).putAll((Map<String, GatewayEntity>) entitiesMap);
+            }
+        });
+        putAllCertificateFiles(bundle.getCertificateFiles());
+    }
+
     public Map<String, ClusterProperty> getClusterProperties() {
         return getEntities(ClusterProperty.class);
     }
@@ -68,7 +113,7 @@ public class Bundle {
 
     @SuppressWarnings("unchecked")
     public Map<String, Folder> getFolders() {
-        return (Map<String, Folder>) entities.computeIfAbsent(Folder.class, (Function<Class, Map<String, Folder>>) aClass -> new ConcurrentHashMap<>());
+        return (Map<String, Folder>) entities.computeIfAbsent(Folder.class, (Function<Class<?>, Map<String, Folder>>) aClass -> new ConcurrentHashMap<>());
     }
 
     public void putAllEncasses(@NotNull Map<String, Encass> encasses) {
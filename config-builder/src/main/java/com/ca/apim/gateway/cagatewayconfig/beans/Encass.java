@@ -22,6 +22,7 @@ import java.util.Set;
 import java.util.TreeSet;
 
 import static com.ca.apim.gateway.cagatewayconfig.config.spec.ConfigurationFile.FileType.JSON_YAML;
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.ENCAPSULATED_ASSERTION_TYPE;
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
 import static java.util.stream.Collectors.toCollection;
 
@@ -100,7 +101,7 @@ public class Encass extends GatewayEntity {
 
     @Override
     public void postLoad(String entityKey, Bundle bundle, File rootFolder, IdGenerator idGenerator) {
-        setGuid(idGenerator.generateGuid());
+        setGuid(idGenerator.generateGuid(bundle.getName(), ENCAPSULATED_ASSERTION_TYPE, entityKey));
     }
 
     @Override
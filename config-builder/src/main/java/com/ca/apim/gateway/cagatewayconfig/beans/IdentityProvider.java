@@ -18,6 +18,7 @@ import java.io.File;
 import java.util.Map;
 
 import static com.ca.apim.gateway.cagatewayconfig.config.spec.ConfigurationFile.FileType.JSON_YAML;
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.ID_PROVIDER_CONFIG_TYPE;
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_EMPTY;
 import static java.util.Arrays.stream;
 
@@ -135,6 +136,6 @@ public class IdentityProvider extends GatewayEntity {
 
     @Override
     public void postLoad(String entityKey, Bundle bundle, File rootFolder, IdGenerator idGenerator) {
-        setId(idGenerator.generate());
+        setId(idGenerator.generate(bundle.getName(), ID_PROVIDER_CONFIG_TYPE, entityKey));
     }
 }
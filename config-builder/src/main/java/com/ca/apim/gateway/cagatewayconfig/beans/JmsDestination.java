@@ -19,6 +19,7 @@ import java.io.File;
 import java.util.Map;
 
 import static com.ca.apim.gateway.cagatewayconfig.config.spec.ConfigurationFile.FileType.JSON_YAML;
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.JMS_DESTINATION_TYPE;
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
 import static java.util.Arrays.stream;
 
@@ -242,7 +243,7 @@ public class JmsDestination extends GatewayEntity {
             throw new ConfigLoadException("Cannot specify both an inbound and an outbound details for JMS destination: " + entityKey);
         }
 
-        setId(idGenerator.generate());
+        setId(idGenerator.generate(bundle.getName(), JMS_DESTINATION_TYPE, entityKey));
     }
     
     public enum DestinationType {
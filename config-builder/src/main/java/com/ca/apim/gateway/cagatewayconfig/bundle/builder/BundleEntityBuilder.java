@@ -7,6 +7,8 @@
 package com.ca.apim.gateway.cagatewayconfig.bundle.builder;
 
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport;
 import com.google.common.annotations.VisibleForTesting;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -18,11 +20,16 @@ import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
+import static com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents.Type.BUILD;
+import static com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport.SEPARATOR;
 import static java.util.Collections.unmodifiableSet;
 
 @Singleton
 public class BundleEntityBuilder {
 
+    public static final String BUILD_PHASE = "build";
+    public static final String DOCUMENT_PHASE = "document";
+
     private final Set<EntityBuilder> entityBuilders;
     private final BundleDocumentBuilder bundleDocumentBuilder;
 
@@ -35,10 +42,29 @@ public class BundleEntityBuilder {
     }
 
     public Element build(Bundle bundle, EntityBuilder.BundleType bundleType, Document document) {
+        return build(bundle, bundleType, document, new PhaseReport(bundle.getName()));
+    }
+
+    /**
+     * Builds the bundle element, recording the time of each entity builder and of the document building in the report,
+     * and the time of each entity of the builders timing their entities.
+     *
+     * @param bundle     the bundle to build
+     * @param bundleType the type of bundle to build
+     * @param document   the document to build the element with
+     * @param report     the report to record the phases in
+     * @return the bundle element
+     */
+    public Element build(Bundle bundle, EntityBuilder.BundleType bundleType, Document document, PhaseReport report) {
         List<Entity> entities = new ArrayList<>();
-        entityBuilders.forEach(builder -> entities.addAll(builder.build(bundle, bundleType, document)));
+        entityBuilders.forEach(builder -> entities.addAll(report.record(
+                BUILD_PHASE + SEPARATOR + builder.getClass().getSimpleName(),
+                () -> FlightRecorderEvents.record(BUILD, bundle.getName(), null, builder.getClass().getSimpleName(),
+                        () -> builder.build(bundle, bundleType, document, report),
+                        List::size),
+                List::size)));
 
-        return bundleDocumentBuilder.build(document, entities);
+        return report.record(DOCUMENT_PHASE, () -> bundleDocumentBuilder.build(document, entities), element -> entities.size());
     }
 
     @VisibleForTesting
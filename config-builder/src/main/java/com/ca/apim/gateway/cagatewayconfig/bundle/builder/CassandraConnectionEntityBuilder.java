@@ -45,7 +45,7 @@ public class CassandraConnectionEntityBuilder implements EntityBuilder {
         switch (bundleType) {
             case DEPLOYMENT:
                 return bundle.getCassandraConnections().entrySet().stream()
-                        .map(e -> EntityBuilderHelper.getEntityWithOnlyMapping(CASSANDRA_CONNECTION_TYPE, e.getKey(), idGenerator.generate()))
+                        .map(e -> EntityBuilderHelper.getEntityWithOnlyMapping(CASSANDRA_CONNECTION_TYPE, e.getKey(), idGenerator.generate(bundle.getName(), CASSANDRA_CONNECTION_TYPE, e.getKey())))
                         .collect(Collectors.toList());
             case ENVIRONMENT:
                 return bundle.getCassandraConnections().entrySet().stream().map(e ->
@@ -58,7 +58,7 @@ public class CassandraConnectionEntityBuilder implements EntityBuilder {
 
     @VisibleForTesting
     Entity buildEntity(Bundle bundle, String name, CassandraConnection connection, Document document) {
-        String id = idGenerator.generate();
+        String id = idGenerator.generate(bundle.getName(), CASSANDRA_CONNECTION_TYPE, name);
         Element cassandraElement = createElementWithAttributesAndChildren(
                 document,
                 CASSANDRA_CONNECTION,
@@ -45,19 +45,19 @@ public class ClusterPropertyEntityBuilder implements EntityBuilder {
                     if (bundle.getGlobalEnvironmentProperties().containsKey(PREFIX_GATEWAY + propertyEntry.getKey())) {
                         throw new EntityBuilderException("The Cluster property: '" + propertyEntry.getKey() + "' is defined in both static.properties and env.properties");
                     }
-                    return buildClusterPropertyEntity(propertyEntry.getKey(), propertyEntry.getValue(), document);
+                    return buildClusterPropertyEntity(bundle, propertyEntry.getKey(), propertyEntry.getValue(), document);
                 }).forEach(streamBuilder);
                 bundle.getGlobalEnvironmentProperties().entrySet().stream()
                         .filter(propertyEntry -> propertyEntry.getKey().startsWith(PREFIX_GATEWAY))
                         .map(propertyEntry ->
-                                EntityBuilderHelper.getEntityWithOnlyMapping(CLUSTER_PROPERTY_TYPE, propertyEntry.getKey().substring(PREFIX_GATEWAY.length()), idGenerator.generate())
+                                buildClusterPropertyMappingEntity(bundle, propertyEntry.getKey().substring(PREFIX_GATEWAY.length()))
                         ).forEach(streamBuilder);
                 break;
             case ENVIRONMENT:
                 bundle.getGlobalEnvironmentProperties().entrySet().stream()
                         .filter(propertyEntry -> propertyEntry.getKey().startsWith(PREFIX_GATEWAY))
                         .map(propertyEntry ->
-                                buildClusterPropertyEntity(propertyEntry.getKey().substring(PREFIX_GATEWAY.length()), propertyEntry.getValue(), document)
+                                buildClusterPropertyEntity(bundle, propertyEntry.getKey().substring(PREFIX_GATEWAY.length()), propertyEntry.getValue(), document)
                         ).forEach(streamBuilder);
                 break;
             default:
@@ -71,8 +71,12 @@ public class ClusterPropertyEntityBuilder implements EntityBuilder {
         return ORDER;
     }
 
-    private Entity buildClusterPropertyEntity(String name, PropertiesEntity value, Document document) {
-        String id = idGenerator.generate();
+    private Entity buildClusterPropertyMappingEntity(Bundle bundle, String name) {
+        return EntityBuilderHelper.getEntityWithOnlyMapping(CLUSTER_PROPERTY_TYPE, name, idGenerator.generate(bundle.getName(), CLUSTER_PROPERTY_TYPE, name));
+    }
+
+    private Entity buildClusterPropertyEntity(Bundle bundle, String name, PropertiesEntity value, Document document) {
+        String id = idGenerator.generate(bundle.getName(), CLUSTER_PROPERTY_TYPE, name);
         return EntityBuilderHelper.getEntityWithNameMapping(CLUSTER_PROPERTY_TYPE, name, id, buildClusterPropertyElement(name, id, value.getValue(), document));
     }
 
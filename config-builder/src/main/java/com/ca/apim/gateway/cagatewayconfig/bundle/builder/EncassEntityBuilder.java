@@ -73,7 +73,7 @@ public class EncassEntityBuilder implements EntityBuilder {
         if (policy == null) {
             throw new EntityBuilderException("Could not find policy for encass. Policy Path: " + encass.getPolicy());
         }
-        final String id = idGenerator.generate();
+        final String id = idGenerator.generate(bundle.getName(), ENCAPSULATED_ASSERTION_TYPE, name);
 
         Element encassAssertionElement = createElementWithAttributesAndChildren(
                 document,
@@ -7,6 +7,7 @@
 package com.ca.apim.gateway.cagatewayconfig.bundle.builder;
 
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport;
 import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Document;
 
@@ -22,6 +23,13 @@ public interface EntityBuilder extends Comparable<EntityBuilder> {
 
     List<Entity> build(Bundle bundle, BundleType bundleType, Document document);
 
+    /**
+     * Builds the entities, recording the time spent on each of them in the report if the builder times its entities.
+     */
+    default List<Entity> build(Bundle bundle, BundleType bundleType, Document document, PhaseReport report) {
+        return build(bundle, bundleType, document);
+    }
+
     /**
      * Types of bundles.
      */
@@ -75,7 +75,7 @@ public class FolderEntityBuilder implements EntityBuilder {
 
         return folderStream.map(f -> {
             if (f.getId() == null) {
-                f.setId(idGenerator.generate());
+                f.setId(idGenerator.generate(bundle.getName(), FOLDER_TYPE, f.getPath()));
             }
             String parentFolderId = f.getParentFolder() != null ? f.getParentFolder().getId() : null;
             return buildFolderEntity(f.getName(), f.getId(), parentFolderId, document);
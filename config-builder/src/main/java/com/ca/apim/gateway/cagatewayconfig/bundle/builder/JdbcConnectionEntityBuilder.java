@@ -48,11 +48,11 @@ public class JdbcConnectionEntityBuilder implements EntityBuilder {
         switch (bundleType) {
             case DEPLOYMENT:
                 return bundle.getJdbcConnections().entrySet().stream()
-                        .map(e -> EntityBuilderHelper.getEntityWithOnlyMapping(EntityTypes.JDBC_CONNECTION, e.getKey(), idGenerator.generate()))
+                        .map(e -> EntityBuilderHelper.getEntityWithOnlyMapping(EntityTypes.JDBC_CONNECTION, e.getKey(), idGenerator.generate(bundle.getName(), EntityTypes.JDBC_CONNECTION, e.getKey())))
                         .collect(Collectors.toList());
             case ENVIRONMENT:
                 return bundle.getJdbcConnections().entrySet().stream().map(e ->
-                        buildEntity(e.getKey(), e.getValue(), document)
+                        buildEntity(bundle, e.getKey(), e.getValue(), document)
                 ).collect(Collectors.toList());
             default:
                 throw new EntityBuilderException("Unknown bundle type: " + bundleType);
@@ -60,8 +60,8 @@ public class JdbcConnectionEntityBuilder implements EntityBuilder {
     }
 
     @VisibleForTesting
-    Entity buildEntity(String name, JdbcConnection jdbc, Document document) {
-        String id = idGenerator.generate();
+    Entity buildEntity(Bundle bundle, String name, JdbcConnection jdbc, Document document) {
+        String id = idGenerator.generate(bundle.getName(), EntityTypes.JDBC_CONNECTION, name);
         Element jdbcElement = createElementWithAttributesAndChildren(
                 document,
                 JDBC_CONNECTION,
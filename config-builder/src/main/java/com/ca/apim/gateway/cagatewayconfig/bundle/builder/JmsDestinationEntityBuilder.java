@@ -65,7 +65,7 @@ public class JmsDestinationEntityBuilder implements EntityBuilder {
         switch (bundleType) {
             case DEPLOYMENT:
                 return bundle.getJmsDestinations().entrySet().stream()
-                        .map(e -> EntityBuilderHelper.getEntityWithOnlyMapping(JMS_DESTINATION_TYPE, e.getKey(), idGenerator.generate()))
+                        .map(e -> EntityBuilderHelper.getEntityWithOnlyMapping(JMS_DESTINATION_TYPE, e.getKey(), idGenerator.generate(bundle.getName(), JMS_DESTINATION_TYPE, e.getKey())))
                         .collect(Collectors.toList());
             case ENVIRONMENT:
                 return bundle.getJmsDestinations().entrySet().stream().map(e ->
@@ -124,7 +124,7 @@ public class JmsDestinationEntityBuilder implements EntityBuilder {
         buildAndAppendPropertiesElement(jmsDestinationDetailProps, document, jmsDestinationDetailEle);
 
         // Build JMS Connection element.
-        String jmsConnectionEleId = idGenerator.generate();
+        String jmsConnectionEleId = idGenerator.generate(bundle.getName(), JMS_CONNECTION, name);
         Element jmsConnectionEle = createElementWithAttributesAndChildren(
                 document,
                 JMS_CONNECTION,
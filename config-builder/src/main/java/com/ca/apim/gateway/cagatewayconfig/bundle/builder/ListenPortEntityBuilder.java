@@ -82,7 +82,7 @@ public class ListenPortEntityBuilder implements EntityBuilder {
     Entity buildListenPortEntity(Bundle bundle, String name, ListenPort listenPort, Document document) {
         Element listenPortElement = document.createElement(LISTEN_PORT);
 
-        String id = idGenerator.generate();
+        String id = idGenerator.generate(bundle.getName(), LISTEN_PORT_TYPE, name);
         listenPortElement.setAttribute(ATTRIBUTE_ID, id);
         listenPortElement.appendChild(createElementWithTextContent(document, NAME, name));
         listenPortElement.appendChild(createElementWithTextContent(document, ENABLED, TRUE.toString())); // people should not bootstrap a disabled listen port.
@@ -49,7 +49,7 @@ public class PolicyBackedServiceEntityBuilder implements EntityBuilder {
     }
 
     private Entity buildPBSEntity(Bundle bundle, String name, PolicyBackedService policyBackedService, Document document) {
-        String id = idGenerator.generate();
+        String id = idGenerator.generate(bundle.getName(), POLICY_BACKED_SERVICE_TYPE, name);
         Element policyBackedServiceElement = createElementWithAttributesAndChildren(
                 document,
                 POLICY_BACKED_SERVICE,
@@ -10,6 +10,7 @@ import com.ca.apim.gateway.cagatewayconfig.beans.*;
 import com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes;
 import com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames;
 import com.ca.apim.gateway.cagatewayconfig.util.policy.PolicyXMLElements;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport;
 import com.ca.apim.gateway.cagatewayconfig.util.string.EncodeDecodeUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
@@ -63,17 +64,28 @@ public class PolicyEntityBuilder implements EntityBuilder {
     }
 
     public List<Entity> build(Bundle bundle, BundleType bundleType, Document document) {
+        return build(bundle, bundleType, document, new PhaseReport(bundle.getName()));
+    }
+
+    /**
+     * Builds the policies, recording the time spent on each one by its path. The time of the policies of services
+     * includes their preparation only, they are built by the {@link ServiceEntityBuilder}.
+     */
+    @Override
+    public List<Entity> build(Bundle bundle, BundleType bundleType, Document document, PhaseReport report) {
         // no policy has to be added to environment bundle
         if (bundleType == ENVIRONMENT) {
             return emptyList();
         }
 
-        bundle.getPolicies().values().forEach(policy -> preparePolicy(policy, bundle));
+        bundle.getPolicies().values().forEach(policy -> report.recordEntity(EntityTypes.POLICY_TYPE, policy.getPath(), () -> preparePolicy(policy, bundle)));
 
         List<Policy> orderedPolicies = new LinkedList<>();
         bundle.getPolicies().forEach((path, policy) -> maybeAddPolicy(bundle, policy, orderedPolicies, new HashSet<Policy>()));
 
-        return orderedPolicies.stream().map(policy -> buildPolicyEntity(policy, bundle, document)).collect(toList());
+        return orderedPolicies.stream()
+                .map(policy -> report.recordEntity(EntityTypes.POLICY_TYPE, policy.getPath(), () -> buildPolicyEntity(policy, bundle, document)))
+                .collect(toList());
     }
 
     @NotNull
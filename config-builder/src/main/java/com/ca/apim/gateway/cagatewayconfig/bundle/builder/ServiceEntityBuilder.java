@@ -11,6 +11,7 @@ import com.ca.apim.gateway.cagatewayconfig.beans.Policy;
 import com.ca.apim.gateway.cagatewayconfig.beans.Service;
 import com.ca.apim.gateway.cagatewayconfig.beans.WSDL;
 import com.ca.apim.gateway.cagatewayconfig.util.IdGenerator;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport;
 import com.ca.apim.gateway.cagatewayconfig.util.string.EncodeDecodeUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
 import com.google.common.collect.ImmutableMap;
@@ -26,6 +27,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import static com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityBuilder.BundleType.ENVIRONMENT;
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.POLICY_TYPE;
 import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.SERVICE_TYPE;
 import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BuilderUtils.buildAndAppendPropertiesElement;
 import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BuilderUtils.insertPrefixToEnvironmentVariable;
@@ -48,13 +50,21 @@ public class ServiceEntityBuilder implements EntityBuilder {
     }
 
     public List<Entity> build(Bundle bundle, BundleType bundleType, Document document) {
+        return build(bundle, bundleType, document, new PhaseReport(bundle.getName()));
+    }
+
+    /**
+     * Builds the services, recording the time spent on each one as time spent on its policy, which is built with it.
+     */
+    @Override
+    public List<Entity> build(Bundle bundle, BundleType bundleType, Document document, PhaseReport report) {
         // no service has to be added to environment bundle
         if (bundleType == ENVIRONMENT) {
             return emptyList();
         }
 
         return bundle.getServices().entrySet().stream().map(serviceEntry ->
-                buildServiceEntity(bundle, serviceEntry.getKey(), serviceEntry.getValue(), document)
+                report.recordEntity(POLICY_TYPE, serviceEntry.getValue().getPolicy(), () -> buildServiceEntity(bundle, serviceEntry.getKey(), serviceEntry.getValue(), document))
         ).collect(Collectors.toList());
     }
 
@@ -73,7 +83,7 @@ public class ServiceEntityBuilder implements EntityBuilder {
         if (policy == null) {
             throw new EntityBuilderException("Could not find policy for service. Policy Path: " + service.getPolicy());
         }
-        String id = idGenerator.generate();
+        String id = idGenerator.generate(bundle.getName(), SERVICE_TYPE, servicePath);
         service.setId(id);
 
         Element serviceDetailElement = createElementWithAttributes(document, SERVICE_DETAIL, ImmutableMap.of(ATTRIBUTE_ID, id, ATTRIBUTE_FOLDER_ID, service.getParentFolder().getId()));
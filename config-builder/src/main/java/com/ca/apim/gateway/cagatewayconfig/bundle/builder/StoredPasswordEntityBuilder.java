@@ -40,17 +40,17 @@ public class StoredPasswordEntityBuilder implements EntityBuilder {
         switch (bundleType) {
             case DEPLOYMENT:
                 return bundle.getStoredPasswords().entrySet().stream()
-                        .map(e -> EntityBuilderHelper.getEntityWithOnlyMapping(STORED_PASSWORD_TYPE, e.getKey(), idGenerator.generate()))
+                        .map(e -> EntityBuilderHelper.getEntityWithOnlyMapping(STORED_PASSWORD_TYPE, e.getKey(), idGenerator.generate(bundle.getName(), STORED_PASSWORD_TYPE, e.getKey())))
                         .collect(Collectors.toList());
             case ENVIRONMENT:
-                return bundle.getStoredPasswords().entrySet().stream().map(e -> buildStoredPasswordEntity(e.getKey(), e.getValue(), document)).collect(toList());
+                return bundle.getStoredPasswords().entrySet().stream().map(e -> buildStoredPasswordEntity(bundle, e.getKey(), e.getValue(), document)).collect(toList());
             default:
                 throw new EntityBuilderException("Unknown bundle type: " + bundleType);
         }
     }
 
-    private Entity buildStoredPasswordEntity(String name, StoredPassword storedPassword, Document document) {
-        String id = idGenerator.generate();
+    private Entity buildStoredPasswordEntity(Bundle bundle, String name, StoredPassword storedPassword, Document document) {
+        String id = idGenerator.generate(bundle.getName(), STORED_PASSWORD_TYPE, name);
         storedPassword.setId(id);
 
         Element storedPasswordElement = createElementWithAttribute(document, STORED_PASSWD, ATTRIBUTE_ID, id);
@@ -64,19 +64,20 @@ public class TrustedCertEntityBuilder implements EntityBuilder {
             case DEPLOYMENT:
                 return bundle.getTrustedCerts().entrySet().stream()
                         .map(
-                                trustedCertEntry -> EntityBuilderHelper.getEntityWithOnlyMapping(TRUSTED_CERT_TYPE, trustedCertEntry.getKey(), idGenerator.generate())
+                                trustedCertEntry -> EntityBuilderHelper.getEntityWithOnlyMapping(TRUSTED_CERT_TYPE, trustedCertEntry.getKey(), idGenerator.generate(bundle.getName(), TRUSTED_CERT_TYPE, trustedCertEntry.getKey()))
                         ).collect(Collectors.toList());
             case ENVIRONMENT:
                 return bundle.getTrustedCerts().entrySet().stream().map(trustedCertEntry ->
-                        buildTrustedCertEntity(trustedCertEntry.getKey(), trustedCertEntry.getValue(), bundle.getCertificateFiles(), document)
+                        buildTrustedCertEntity(bundle, trustedCertEntry.getKey(), trustedCertEntry.getValue(), document)
                 ).collect(Collectors.toList());
             default:
                 throw new EntityBuilderException("Unknown bundle type: " + bundleType);
         }
     }
 
-    private Entity buildTrustedCertEntity(String name, TrustedCert trustedCert, Map<String, SupplierWithIO<InputStream>> certificateFiles, Document document) {
-        final String id = idGenerator.generate();
+    private Entity buildTrustedCertEntity(Bundle bundle, String name, TrustedCert trustedCert, Document document) {
+        final Map<String, SupplierWithIO<InputStream>> certificateFiles = bundle.getCertificateFiles();
+        final String id = idGenerator.generate(bundle.getName(), TRUSTED_CERT_TYPE, name);
         trustedCert.setId(id);
         final Element trustedCertElem = createElementWithAttributesAndChildren(
                 document,
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.index;
+
+import com.ca.apim.gateway.cagatewayconfig.beans.EncassArgument;
+import com.ca.apim.gateway.cagatewayconfig.beans.EncassResult;
+import com.ca.apim.gateway.cagatewayconfig.beans.PolicyType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact description of the entities in a deployment bundle that can be referenced by other solutions: policies (for
+ * policy includes) and encapsulated assertions. It is written next to the bundle file as a .bundle.index sidecar so that
+ * dependent builds can resolve references without parsing every policy body in the bundle. The size and SHA-256 hash of
+ * the bundle file tie the index to the bundle it was written for.
+ */
+public class BundleIndex {
+
+    private long bundleSize;
+    private String bundleSha256;
+    private List<IndexedPolicy> policies = new ArrayList<>();
+    private List<IndexedEncass> encasses = new ArrayList<>();
+
+    public long getBundleSize() {
+        return bundleSize;
+    }
+
+    public void setBundleSize(long bundleSize) {
+        this.bundleSize = bundleSize;
+    }
+
+    public String getBundleSha256() {
+        return bundleSha256;
+    }
+
+    public void setBundleSha256(String bundleSha256) {
+        this.bundleSha256 = bundleSha256;
+    }
+
+    public List<IndexedPolicy> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(List<IndexedPolicy> policies) {
+        this.policies = policies;
+    }
+
+    public List<IndexedEncass> getEncasses() {
+        return encasses;
+    }
+
+    public void setEncasses(List<IndexedEncass> encasses) {
+        this.encasses = encasses;
+    }
+
+    public static class IndexedPolicy {
+
+        private String path;
+        private String name;
+        private String id;
+        private String guid;
+        private String tag;
+        private PolicyType policyType;
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getGuid() {
+            return guid;
+        }
+
+        public void setGuid(String guid) {
+            this.guid = guid;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public void setTag(String tag) {
+            this.tag = tag;
+        }
+
+        public PolicyType getPolicyType() {
+            return policyType;
+        }
+
+        public void setPolicyType(PolicyType policyType) {
+            this.policyType = policyType;
+        }
+    }
+
+    public static class IndexedEncass {
+
+        private String name;
+        private String id;
+        private String guid;
+        private String policy;
+        private String policyId;
+        // lists, so the order of the arguments and results is kept when the index is read
+        private List<EncassArgument> arguments = new ArrayList<>();
+        private List<EncassResult> results = new ArrayList<>();
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getGuid() {
+            return guid;
+        }
+
+        public void setGuid(String guid) {
+            this.guid = guid;
+        }
+
+        public String getPolicy() {
+            return policy;
+        }
+
+        public void setPolicy(String policy) {
+            this.policy = policy;
+        }
+
+        public String getPolicyId() {
+            return policyId;
+        }
+
+        public void setPolicyId(String policyId) {
+            this.policyId = policyId;
+        }
+
+        public List<EncassArgument> getArguments() {
+            return arguments;
+        }
+
+        public void setArguments(List<EncassArgument> arguments) {
+            this.arguments = arguments;
+        }
+
+        public List<EncassResult> getResults() {
+            return results;
+        }
+
+        public void setResults(List<EncassResult> results) {
+            this.results = results;
+        }
+    }
+}
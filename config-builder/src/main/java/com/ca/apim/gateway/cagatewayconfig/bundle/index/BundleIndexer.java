@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.index;
+
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.beans.Encass;
+import com.ca.apim.gateway.cagatewayconfig.beans.Policy;
+import com.ca.apim.gateway.cagatewayconfig.bundle.index.BundleIndex.IndexedEncass;
+import com.ca.apim.gateway.cagatewayconfig.bundle.index.BundleIndex.IndexedPolicy;
+import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadException;
+import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtilsException;
+import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools.JSON;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Writes and reads .bundle.index sidecar files (see {@link BundleIndex}).
+ */
+@Singleton
+public class BundleIndexer {
+
+    private static final Logger LOGGER = Logger.getLogger(BundleIndexer.class.getName());
+
+    private final JsonTools jsonTools;
+
+    @Inject
+    BundleIndexer(final JsonTools jsonTools) {
+        this.jsonTools = jsonTools;
+    }
+
+    /**
+     * Creates the index for the referenceable entities of a bundle loaded from a deployment bundle document.
+     *
+     * @param bundle the bundle to index
+     * @return the bundle index
+     */
+    public BundleIndex createIndex(final Bundle bundle) {
+        final BundleIndex index = new BundleIndex();
+        // sorted so the index is the same for the same bundle content
+        index.setPolicies(bundle.getPolicies().values().stream()
+                .sorted(Comparator.comparing(Policy::getPath))
+                .map(BundleIndexer::indexPolicy)
+                .collect(toList()));
+        index.setEncasses(bundle.getEncasses().values().stream()
+                .sorted(Comparator.comparing(Encass::getName))
+                .map(BundleIndexer::indexEncass)
+                .collect(toList()));
+        return index;
+    }
+
+    /**
+     * Writes the index for the bundle into the given file.
+     *
+     * @param bundle     the bundle to index
+     * @param bundleFile the bundle file the bundle was written to
+     * @param indexFile  the index file to write
+     */
+    public void writeIndex(final Bundle bundle, final File bundleFile, final File indexFile) {
+        final BundleIndex index = createIndex(bundle);
+        try {
+            index.setBundleSize(bundleFile.length());
+            index.setBundleSha256(sha256(bundleFile));
+            jsonTools.getObjectMapper(JSON).writeValue(indexFile, index);
+        } catch (IOException e) {
+            throw new DocumentFileUtilsException("Error writing to file '" + indexFile + "': " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Checks that the index file was written for the bundle file, by comparing the size and hash of the bundle file with
+     * the ones in the index. An index left over from an earlier build of the bundle, or one that can't be read, doesn't
+     * match.
+     *
+     * @param indexFile  the index file
+     * @param bundleFile the bundle file
+     * @return true if the index describes the bundle file as it is now
+     */
+    public static boolean isIndexOf(final File indexFile, final File bundleFile) {
+        try {
+            final BundleIndex index = JsonTools.INSTANCE.getObjectMapper(JSON).readValue(indexFile, BundleIndex.class);
+            return index.getBundleSize() == bundleFile.length() && sha256(bundleFile).equals(index.getBundleSha256());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not read dependency bundle index ''{0}'': {1}", new Object[]{indexFile, e.getMessage()});
+            return false;
+        }
+    }
+
+    private static String sha256(final File file) throws IOException {
+        return Files.asByteSource(file).hash(Hashing.sha256()).toString();
+    }
+
+    /**
+     * Loads the entities listed in the index file into the bundle. Loaded policies have no policy document, only what is
+     * needed to reference them.
+     *
+     * @param indexFile the index file to read
+     * @param bundle    the bundle to load the entities into
+     */
+    public void loadIndex(final File indexFile, final Bundle bundle) {
+        final BundleIndex index;
+        try {
+            index = jsonTools.getObjectMapper(JSON).readValue(indexFile, BundleIndex.class);
+        } catch (IOException e) {
+            throw new BundleLoadException("Could not read dependency bundle index '" + indexFile + "': " + e.getMessage(), e);
+        }
+
+        index.getPolicies().forEach(p -> {
+            final Policy policy = p.getPolicyType() != null ? p.getPolicyType().createPolicyObject() : new Policy();
+            policy.setPath(p.getPath());
+            policy.setName(p.getName());
+            policy.setId(p.getId());
+            policy.setGuid(p.getGuid());
+            policy.setTag(p.getTag());
+            policy.setPolicyType(p.getPolicyType());
+            bundle.getPolicies().put(policy.getPath(), policy);
+        });
+        index.getEncasses().forEach(e -> {
+            final Encass encass = new Encass();
+            encass.setName(e.getName());
+            encass.setId(e.getId());
+            encass.setGuid(e.getGuid());
+            encass.setPolicy(e.getPolicy());
+            encass.setPolicyId(e.getPolicyId());
+            encass.setArguments(new LinkedHashSet<>(e.getArguments()));
+            encass.setResults(new LinkedHashSet<>(e.getResults()));
+            bundle.getEncasses().put(encass.getName(), encass);
+        });
+    }
+
+    private static IndexedPolicy indexPolicy(final Policy policy) {
+        final IndexedPolicy indexedPolicy = new IndexedPolicy();
+        indexedPolicy.setPath(policy.getPath());
+        indexedPolicy.setName(policy.getName());
+        indexedPolicy.setId(policy.getId());
+        indexedPolicy.setGuid(policy.getGuid());
+        indexedPolicy.setTag(policy.getTag());
+        indexedPolicy.setPolicyType(policy.getPolicyType());
+        return indexedPolicy;
+    }
+
+    private static IndexedEncass indexEncass(final Encass encass) {
+        final IndexedEncass indexedEncass = new IndexedEncass();
+        indexedEncass.setName(encass.getName());
+        indexedEncass.setId(encass.getId());
+        indexedEncass.setGuid(encass.getGuid());
+        indexedEncass.setPolicy(encass.getPolicy());
+        indexedEncass.setPolicyId(encass.getPolicyId());
+        if (encass.getArguments() != null) {
+            indexedEncass.setArguments(new ArrayList<>(encass.getArguments()));
+        }
+        if (encass.getResults() != null) {
+            indexedEncass.setResults(new ArrayList<>(encass.getResults()));
+        }
+        return indexedEncass;
+    }
+}
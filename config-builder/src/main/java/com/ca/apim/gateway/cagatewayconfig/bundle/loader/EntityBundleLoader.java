@@ -7,9 +7,9 @@
 package com.ca.apim.gateway.cagatewayconfig.bundle.loader;
 
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.bundle.index.BundleIndexer;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.BundleStreamReader;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
-import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.BUNDLE_INDEX_EXTENSION;
 import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.ITEM;
 import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.TYPE;
 import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElement;
@@ -29,13 +30,15 @@ import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSing
 public class EntityBundleLoader {
     private static final Logger LOGGER = Logger.getLogger(EntityBundleLoader.class.getName());
 
-    private final DocumentTools documentTools;
+    private final BundleStreamReader bundleStreamReader;
     private final BundleEntityLoaderRegistry entityLoaderRegistry;
+    private final BundleIndexer bundleIndexer;
 
     @Inject
-    EntityBundleLoader(final DocumentTools documentTools, final BundleEntityLoaderRegistry entityLoaderRegistry) {
-        this.documentTools = documentTools;
+    EntityBundleLoader(final BundleStreamReader bundleStreamReader, final BundleEntityLoaderRegistry entityLoaderRegistry, final BundleIndexer bundleIndexer) {
+        this.bundleStreamReader = bundleStreamReader;
         this.entityLoaderRegistry = entityLoaderRegistry;
+        this.bundleIndexer = bundleIndexer;
     }
 
     public Bundle load(List<File> fileSet) {
@@ -52,31 +55,52 @@ public class EntityBundleLoader {
         return bundle;
     }
 
-    private void loadBundleFile(File dependencyBundlePath, Bundle bundle) {
-        final Document bundleDocument;
-        try {
-            bundleDocument = documentTools.parse(dependencyBundlePath);
-        } catch (DocumentParseException e) {
-            throw new BundleLoadException("Could not parse dependency bundle '" + dependencyBundlePath + "': " + e.getMessage(), e);
-        }
+    /**
+     * Loads the entities from a bundle document that is already in memory.
+     *
+     * @param bundleElement the l7:Bundle element
+     * @return the loaded bundle
+     */
+    public Bundle load(Element bundleElement) {
+        final Bundle bundle = new Bundle();
 
-        final NodeList nodeList = bundleDocument.getElementsByTagName(ITEM);
+        final NodeList nodeList = bundleElement.getElementsByTagName(ITEM);
         for (int i = 0; i < nodeList.getLength(); i++) {
             final Node node = nodeList.item(i);
 
-            if (node.getNodeType() == Node.ELEMENT_NODE) {
+            if (node.getNodeType() == Node.ELEMENT_NODE && hasLoader(getSingleChildElement((Element) node, TYPE).getTextContent())) {
                 handleItem(bundle, (Element) node);
             }
         }
+
+        return bundle;
     }
 
-    private void handleItem(Bundle bundle, final Element element) {
-        final String type = getSingleChildElement(element, TYPE).getTextContent();
-        final BundleEntityLoader entityLoader = entityLoaderRegistry.getLoader(type);
-        if (entityLoader != null) {
-            entityLoader.load(bundle, element);
-        } else {
+    private void loadBundleFile(File dependencyBundlePath, Bundle bundle) {
+        // a .bundle.index sidecar only lists the referenceable entities, so there is nothing else to read
+        if (dependencyBundlePath.getName().endsWith(BUNDLE_INDEX_EXTENSION)) {
+            bundleIndexer.loadIndex(dependencyBundlePath, bundle);
+            return;
+        }
+
+        // items are streamed one at a time, and the ones no loader is interested in are skipped without being built
+        try {
+            bundleStreamReader.readItems(dependencyBundlePath, false, this::hasLoader, item -> handleItem(bundle, item));
+        } catch (DocumentParseException e) {
+            throw new BundleLoadException("Could not parse dependency bundle '" + dependencyBundlePath + "': " + e.getMessage(), e);
+        }
+    }
+
+    private boolean hasLoader(final String type) {
+        if (entityLoaderRegistry.getLoader(type) == null) {
             LOGGER.log(Level.FINE, "No entity loader found for entity type: {0}", type);
+            return false;
         }
+        return true;
+    }
+
+    private void handleItem(Bundle bundle, final Element element) {
+        final String type = getSingleChildElement(element, TYPE).getTextContent();
+        entityLoaderRegistry.getLoader(type).load(bundle, element);
     }
 }
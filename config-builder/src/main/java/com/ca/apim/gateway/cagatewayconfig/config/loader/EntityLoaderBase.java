@@ -10,13 +10,10 @@ import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.beans.GatewayEntity;
 import com.ca.apim.gateway.cagatewayconfig.util.IdGenerator;
 import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
-import com.fasterxml.jackson.databind.JavaType;
 import com.google.common.collect.ImmutableMap;
-import org.apache.commons.io.IOUtils;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
-import java.nio.charset.Charset;
 import java.util.Map;
 
 import static com.ca.apim.gateway.cagatewayconfig.config.loader.EntityLoaderUtils.loadEntitiesFromFile;
@@ -69,9 +66,7 @@ public abstract class EntityLoaderBase<B extends GatewayEntity> implements Entit
             name = fullName.substring(0, extensionIndex);
         }
 
-        final JavaType type = jsonTools.getObjectMapper(valueType).getTypeFactory().constructType(this.getBeanClass());
-
-        B entity = jsonTools.readStream(IOUtils.toInputStream(value, Charset.defaultCharset()), valueType, type);
+        B entity = jsonTools.readValue(value, valueType, this.getBeanClass());
         entity.postLoad(name, bundle, null, idGenerator);
         putToBundle(bundle, ImmutableMap.<String, B>builder().put(name, entity).build());
     }
@@ -13,6 +13,7 @@ import com.ca.apim.gateway.cagatewayconfig.config.loader.policy.PolicyConverter;
 import com.ca.apim.gateway.cagatewayconfig.config.loader.policy.PolicyConverterRegistry;
 import com.ca.apim.gateway.cagatewayconfig.util.IdGenerator;
 import com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -22,6 +23,8 @@ import java.util.Map;
 
 import static com.ca.apim.gateway.cagatewayconfig.config.loader.FolderLoaderUtils.createFolder;
 import static com.ca.apim.gateway.cagatewayconfig.config.loader.FolderLoaderUtils.getPath;
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.POLICY_TYPE;
+import static com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents.Type.CONVERT_POLICY;
 
 @Singleton
 public class PolicyAndFolderLoader implements EntityLoader {
@@ -81,10 +84,12 @@ public class PolicyAndFolderLoader implements EntityLoader {
         policy.setPath(policyConverter.removeExtension(getPath(policyFile, rootDir)));
         policy.setName(policyConverter.removeExtension(policyFile.getName()));
         policy.setParentFolder(parentFolder);
-        policy.setGuid(idGenerator.generateGuid());
-        policy.setId(idGenerator.generate());
+        policy.setGuid(idGenerator.generateGuid(bundle.getName(), POLICY_TYPE, policy.getPath()));
+        policy.setId(idGenerator.generate(bundle.getName(), POLICY_TYPE, policy.getPath()));
 
-        policy.setPolicyXML(policyConverter.getPolicyXML(policy, fileUtils.getFileAsString(policyFile)));
+        policy.setPolicyXML(FlightRecorderEvents.record(CONVERT_POLICY, bundle.getName(), POLICY_TYPE, policy.getPath(),
+                () -> policyConverter.getPolicyXML(policy, fileUtils.getFileAsString(policyFile)),
+                policyXML -> 1));
         policy.postLoad(policy.getPath(), bundle, rootDir, this.idGenerator);
         return policy;
     }
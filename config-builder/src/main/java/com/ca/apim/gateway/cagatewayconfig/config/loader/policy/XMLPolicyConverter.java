@@ -49,11 +49,14 @@ public class XMLPolicyConverter implements PolicyConverter {
     // Should not close the input stream since we are returning it. It should be auto closed by the caller
     public InputStream convertFromPolicyElement(Element policy) {
         final PipedOutputStream out = new PipedOutputStream();
-        new Thread(() -> documentTools.printXML(policy, out, false)).start();
+        final PipedInputStream in;
         try {
-            return new PipedInputStream(out);
+            // the pipe must be connected before the xml is written to it, otherwise the writing fails and reading waits forever
+            in = new PipedInputStream(out);
         } catch (IOException e) {
             throw new PolicyConverterException("Unable to create stream for converting policy xml.", e);
         }
+        new Thread(() -> documentTools.printXML(policy, out, false)).start();
+        return in;
     }
 }
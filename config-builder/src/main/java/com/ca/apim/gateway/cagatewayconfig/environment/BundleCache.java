@@ -1,31 +1,250 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
 package com.ca.apim.gateway.cagatewayconfig.environment;
 
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadException;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.BUNDLE_EXTENSION;
+import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.collectFiles;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
+/**
+ * Cache of the bundles loaded from deployment bundle folders, so they can be reused by the environment builds running in
+ * the same JVM (for example in a long lived Gradle daemon).
+ * <p>
+ * A cached bundle is only used while the bundle files in its folder are unchanged: their size and last modified time are
+ * checked on every access and, when those differ, the content hash of the files decides whether the bundle has to be
+ * loaded again. Concurrent callers asking for the same folder share a single load, and the least recently used folders
+ * are evicted once the cache is full.
+ */
 @Singleton
 public class BundleCache {
-    private final Map<String, Bundle> cache = new ConcurrentHashMap<>();
+
+    static final int DEFAULT_MAX_ENTRIES = 16;
+
+    private final Map<String, CacheEntry> cache;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong totalLoadTime = new AtomicLong();
 
     @Inject
     public BundleCache() {
-        // Wrapper class for a hashmap to be a persistent cache, no argument needed
+        this(DEFAULT_MAX_ENTRIES);
     }
 
-    public Bundle getBundle(String bundlePath) {
-        return cache.get(bundlePath);
+    @VisibleForTesting
+    BundleCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("The bundle cache must allow at least one entry: " + maxEntries);
+        }
+        this.cache = new LeastRecentlyUsedMap(maxEntries, evictionCount);
+    }
+
+    /**
+     * Returns the bundle loaded from the deployment bundles in the folder, loading it if it is not cached yet or if the
+     * bundle files changed since it was loaded.
+     *
+     * @param bundleFolderPath the folder containing the deployment bundles
+     * @param loader           loads the bundle from the deployment bundle files
+     * @return the loaded bundle
+     */
+    public Bundle getBundle(String bundleFolderPath, Function<List<File>, Bundle> loader) {
+        final CacheEntry entry;
+        synchronized (cache) {
+            entry = cache.computeIfAbsent(bundleFolderPath, k -> new CacheEntry());
+        }
+
+        // only the callers of the same folder wait for each other
+        synchronized (entry) {
+            final List<File> bundleFiles = collectFiles(bundleFolderPath, BUNDLE_EXTENSION);
+            bundleFiles.sort(Comparator.comparing(File::getPath));
+            final List<FileMetadata> metadata = FileMetadata.of(bundleFiles);
+            if (entry.bundle != null && metadata.equals(entry.metadata)) {
+                hitCount.incrementAndGet();
+                return entry.bundle;
+            }
+
+            // files were touched or replaced, their content tells if they really changed
+            final String contentHash = hash(bundleFiles);
+            if (entry.bundle != null && contentHash.equals(entry.contentHash)) {
+                entry.metadata = metadata;
+                hitCount.incrementAndGet();
+                return entry.bundle;
+            }
+
+            missCount.incrementAndGet();
+            final long start = System.nanoTime();
+            try {
+                entry.bundle = loader.apply(bundleFiles);
+            } finally {
+                totalLoadTime.addAndGet(System.nanoTime() - start);
+            }
+            entry.metadata = metadata;
+            entry.contentHash = contentHash;
+            return entry.bundle;
+        }
     }
 
-    public boolean contains(String bundlePath) {
-        return cache.containsKey(bundlePath);
+    /**
+     * Removes all the cached bundles. The statistics are kept.
+     */
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.clear();
+        }
     }
 
-    public void putBundle(String bundlePath, Bundle bundle) {
-        cache.put(bundlePath, bundle);
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
     }
 
-}
\ No newline at end of file
+    public Stats getStats() {
+        return new Stats(hitCount.get(), missCount.get(), evictionCount.get(), totalLoadTime.get());
+    }
+
+    private static String hash(List<File> bundleFiles) {
+        final Hasher hasher = Hashing.sha256().newHasher();
+        for (File file : bundleFiles) {
+            hasher.putString(file.getPath(), UTF_8);
+            try {
+                hasher.putBytes(Files.asByteSource(file).hash(Hashing.sha256()).asBytes());
+            } catch (IOException e) {
+                throw new BundleLoadException("Could not read deployment bundle " + file + ": " + e.getMessage(), e);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Map in access order evicting its least recently used entry once it holds more than the max entries.
+     */
+    private static class LeastRecentlyUsedMap extends LinkedHashMap<String, CacheEntry> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxEntries;
+        private final AtomicLong evictionCount;
+
+        LeastRecentlyUsedMap(int maxEntries, AtomicLong evictionCount) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+            this.evictionCount = evictionCount;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+            if (size() > maxEntries) {
+                evictionCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static class CacheEntry {
+        private Bundle bundle;
+        private List<FileMetadata> metadata;
+        private String contentHash;
+    }
+
+    private static class FileMetadata {
+        private final String path;
+        private final long size;
+        private final long lastModified;
+
+        private FileMetadata(File file) {
+            this.path = file.getPath();
+            this.size = file.length();
+            this.lastModified = file.lastModified();
+        }
+
+        private static List<FileMetadata> of(List<File> files) {
+            final List<FileMetadata> metadata = new ArrayList<>(files.size());
+            files.forEach(f -> metadata.add(new FileMetadata(f)));
+            return metadata;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            FileMetadata that = (FileMetadata) o;
+            return size == that.size && lastModified == that.lastModified && path.equals(that.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, size, lastModified);
+        }
+    }
+
+    /**
+     * Snapshot of the cache statistics.
+     */
+    public static class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final long totalLoadTimeNanos;
+
+        Stats(long hitCount, long missCount, long evictionCount, long totalLoadTimeNanos) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.totalLoadTimeNanos = totalLoadTimeNanos;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * @return the number of times a bundle was loaded, because it was not cached or its files changed
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public long getTotalLoadTime(TimeUnit unit) {
+            return unit.convert(totalLoadTimeNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public String toString() {
+            return "hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + ", loadTime=" + getTotalLoadTime(TimeUnit.MILLISECONDS) + "ms";
+        }
+    }
+}
@@ -8,79 +8,179 @@ package com.ca.apim.gateway.cagatewayconfig.environment;
 
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.Base64;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.function.BinaryOperator;
-import java.util.function.UnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static com.ca.apim.gateway.cagatewayconfig.beans.IdentityProvider.INTERNAL_IDP_ID;
 import static com.ca.apim.gateway.cagatewayconfig.beans.IdentityProvider.INTERNAL_IDP_NAME;
 import static com.ca.apim.gateway.cagatewayconfig.util.policy.PolicyXMLElements.*;
+import static java.util.Collections.unmodifiableMap;
 import static java.util.stream.Collectors.toMap;
 
+/**
+ * Replaces the environment references in deployment bundles. It is immutable once created, so a single instance can be
+ * used to detemplatize several bundles concurrently.
+ */
 class BundleDetemplatizer {
 
-    private final Bundle bundle;
+    private static final String CONTEXT_VARIABLE = "contextVariable";
+    private static final String ID_PROVIDER = "idProvider";
+    private static final String JMS_DESTINATION = "jmsDestination";
+    private static final String SERVICE_PROPERTY = "serviceProperty";
+
+    // all the references are found in a single pass, none of the references can be found in the replacement of another one
+    private static final Pattern ENVIRONMENT_REFERENCE_PATTERN = Pattern.compile(
+            //variables in set context variable assertions
+            "L7p:Base64Expression ENV_PARAM_NAME=\\\"ENV\\.(?<" + CONTEXT_VARIABLE + ">.+?)\\\"" +
+            //Id prov name in authentication assertions
+            "|" + ID_PROV_NAME + " " + STRING_VALUE + "=\\\"(?<" + ID_PROVIDER + ">.+?)\\\"" +
+            //Jms Destination name in JMS Routing assertions
+            "|&lt;" + JMS_ENDPOINT_NAME + " " + STRING_VALUE + "=\\\"(?<" + JMS_DESTINATION + ">.+?)\\\"" +
+            //service property variables
+            "|l7:StringValue>SERVICE_PROPERTY_ENV\\.(?<" + SERVICE_PROPERTY + ">.+?)<");
+    // the start of each of the references above
+    private static final Pattern ENVIRONMENT_REFERENCE_START_PATTERN = Pattern.compile(
+            "L7p:Base64Expression ENV_PARAM_NAME=\\\"ENV\\." +
+            "|" + ID_PROV_NAME + " " + STRING_VALUE + "=\\\"" +
+            "|&lt;" + JMS_ENDPOINT_NAME + " " + STRING_VALUE + "=\\\"" +
+            "|l7:StringValue>SERVICE_PROPERTY_ENV\\.");
+
+    private static final int READ_BUFFER_SIZE = 8192;
+    // references are looked for only when at least this many characters follow them (or at the end of the bundle), so no
+    // reference up to this length is split between two reads. A longer one is an error, rather than being left unreplaced.
+    private static final int MAX_REFERENCE_LENGTH = 16384;
+
+    private final Map<String, String> contextVariableEnvironmentVariables;
+    private final Map<String, String> serviceEnvironmentVariables;
+    private final Map<String, String> idProviderNameGoids;
+    private final Map<String, String> jmsDestinationNameGoids;
 
     BundleDetemplatizer(Bundle bundle) {
-        this.bundle = bundle;
+        // the environment is resolved once here instead of for every bundle that is detemplatized
+        this.contextVariableEnvironmentVariables = unmodifiableMap(bundle.getContextVariableEnvironmentProperties().entrySet().stream().collect(toMap(Entry::getKey, e -> e.getValue().getValue())));
+        this.serviceEnvironmentVariables = unmodifiableMap(bundle.getServiceEnvironmentProperties().entrySet().stream().collect(toMap(Entry::getKey, e -> e.getValue().getValue())));
+        this.idProviderNameGoids = unmodifiableMap(createIdProviderNameGoid(bundle));
+        this.jmsDestinationNameGoids = unmodifiableMap(createJmsDestinationNameGoid(bundle));
     }
 
     CharSequence detemplatizeBundleString(CharSequence bundleString) {
         //prefer to use string replacement instead of loading and parsing the bundle. This should perform faster and we are only replacing a limited amount of the bundle so it should be OK to do so.
-        Map<String, String> contextVariableEnvironmentVariables = bundle.getContextVariableEnvironmentProperties().entrySet().stream().collect(toMap(Entry::getKey, e -> e.getValue().getValue()));
-        Map<String, String> serviceEnvironmentVariables = bundle.getServiceEnvironmentProperties().entrySet().stream().collect(toMap(Entry::getKey, e -> e.getValue().getValue()));
-
-        //Replaces variables in set context variable assertions
-        bundleString = replaceVariableInBundle(bundleString, contextVariableEnvironmentVariables,
-                "L7p:Base64Expression ENV_PARAM_NAME=\\\"ENV\\.(.+?)\\\"",
-                v -> "L7p:Base64Expression stringValue=\"" + Base64.getEncoder().encodeToString(v.getBytes()) + "\"");
-
-        //Replaces Id prov name with goid in authentication assertions
-        bundleString = replaceVariableInBundle(bundleString, createIdProviderNameGoid(bundle),
-                ID_PROV_NAME + " " + STRING_VALUE + "=\\\"(.+?)\\\"",
-                v -> ID_PROV_OID + " " + GOID_VALUE + "=\"" + v + "\"");
-
-        //Add Jms Destination GOID in JMS Routing assertions.
-        bundleString = replaceVariableInBundle(bundleString, createJmsDestinationNameGoid(bundle),
-                "&lt;" + JMS_ENDPOINT_NAME + " " + STRING_VALUE +"=\\\"(.+?)\\\"",
-                (varname, goid) -> "&lt;" + JMS_ENDPOINT_OID + " " + GOID_VALUE + "=\"" + goid + "\"/&gt;" +
-                        "&lt;" + JMS_ENDPOINT_NAME + " " + STRING_VALUE + "=\"" + varname + "\"");
-        
-        //Replaces service property variables
-        bundleString = replaceVariableInBundle(bundleString, serviceEnvironmentVariables,
-                "l7:StringValue>SERVICE_PROPERTY_ENV\\.(.+?)<",
-                v -> "l7:StringValue>" + v + "<").toString();
-        return bundleString;
+        final StringWriter writer = new StringWriter(bundleString.length());
+        try {
+            detemplatizeBundle(new StringReader(bundleString.toString()), writer);
+        } catch (IOException e) {
+            // not expected from in memory readers and writers
+            throw new UncheckedIOException(e);
+        }
+        return writer.getBuffer();
     }
 
-    private StringBuffer replaceVariableInBundle(CharSequence bundle, Map<String, String> mapToCheck, String variableFinderRegex, UnaryOperator<String> replacementFunction) {
-        return this.replaceVariableInBundle(bundle, mapToCheck, variableFinderRegex, (varName, value) -> replacementFunction.apply(value));
+    /**
+     * Detemplatizes the bundle read from the reader into the writer. Only a bounded window of the bundle is kept in
+     * memory, so the memory needed does not depend on the size of the bundle.
+     *
+     * @param reader the templatized bundle
+     * @param writer where to write the detemplatized bundle
+     * @throws IOException                 if the bundle cannot be read or written
+     * @throws BundleDetemplatizeException if an environment value referenced by the bundle is missing, or a reference is
+     *                                     longer than {@value #MAX_REFERENCE_LENGTH} characters
+     */
+    void detemplatizeBundle(Reader reader, Writer writer) throws IOException {
+        final StringBuilder pending = new StringBuilder(READ_BUFFER_SIZE + MAX_REFERENCE_LENGTH);
+        final Matcher matcher = ENVIRONMENT_REFERENCE_PATTERN.matcher(pending);
+        final Matcher startMatcher = ENVIRONMENT_REFERENCE_START_PATTERN.matcher(pending);
+        final char[] readBuffer = new char[READ_BUFFER_SIZE];
+        boolean endOfBundle = false;
+        while (!endOfBundle) {
+            final int read = reader.read(readBuffer);
+            if (read < 0) {
+                endOfBundle = true;
+            } else {
+                pending.append(readBuffer, 0, read);
+            }
+
+            if (endOfBundle || pending.length() >= READ_BUFFER_SIZE + MAX_REFERENCE_LENGTH) {
+                final int limit = endOfBundle ? pending.length() : pending.length() - MAX_REFERENCE_LENGTH;
+                pending.delete(0, replaceReferences(matcher.reset(pending), endOfBundle ? null : startMatcher.reset(pending), pending, limit, writer));
+            }
+        }
     }
 
-    private StringBuffer replaceVariableInBundle(CharSequence bundle, Map<String, String> mapToCheck, String variableFinderRegex, BinaryOperator<String> replacementFunction) {
-        Pattern setVariablePattern;
-        Matcher setVariableMatcher;
-        setVariablePattern = Pattern.compile(variableFinderRegex);
-        setVariableMatcher = setVariablePattern.matcher(bundle);
-
-        StringBuffer replacedBundle = new StringBuffer();
-        while (setVariableMatcher.find()) {
-            String varName = setVariableMatcher.group(1);
-            String value = mapToCheck.get(varName);
-            if (value == null) {
-                throw new BundleDetemplatizeException("Missing environment value for property: " + varName);
+    /**
+     * Writes the pending content up to the limit, replacing the references that start before it.
+     *
+     * @param startMatcher matcher of the reference starts to check the content written as is, or null at the end of the
+     *                     bundle when all the rest of the bundle is pending
+     * @return the number of characters of pending content written
+     */
+    private int replaceReferences(Matcher matcher, Matcher startMatcher, StringBuilder pending, int limit, Writer writer) throws IOException {
+        int position = 0;
+        while (matcher.find() && matcher.start() < limit) {
+            checkUnmatchedReferences(startMatcher, pending, position, matcher.start());
+            writer.append(pending, position, matcher.start());
+            writer.write(replacement(matcher));
+            position = matcher.end();
+        }
+        if (position < limit) {
+            checkUnmatchedReferences(startMatcher, pending, position, limit);
+            writer.append(pending, position, limit);
+            position = limit;
+        }
+        return position;
+    }
+
+    /**
+     * A reference cannot span lines, so a reference start that is not matched and is not followed by a line break in the
+     * pending content may be a reference that is not closed within {@value #MAX_REFERENCE_LENGTH} characters.
+     */
+    private static void checkUnmatchedReferences(Matcher startMatcher, StringBuilder pending, int start, int end) {
+        if (startMatcher == null) {
+            return;
+        }
+        startMatcher.region(start, end);
+        while (startMatcher.find()) {
+            if (pending.indexOf("\n", startMatcher.end()) < 0) {
+                throw new BundleDetemplatizeException("Environment reference is not closed within " + MAX_REFERENCE_LENGTH + " characters: " +
+                        pending.substring(startMatcher.start(), Math.min(startMatcher.start() + 100, pending.length())));
             }
-            setVariableMatcher.appendReplacement(replacedBundle, replacementFunction.apply(varName, value));
         }
-        setVariableMatcher.appendTail(replacedBundle);
-        return replacedBundle;
     }
 
-    private Map<String, String> createIdProviderNameGoid(Bundle bundle) {
+    private String replacement(Matcher matcher) {
+        String varName;
+        if ((varName = matcher.group(CONTEXT_VARIABLE)) != null) {
+            return "L7p:Base64Expression stringValue=\"" + Base64.getEncoder().encodeToString(getValue(contextVariableEnvironmentVariables, varName).getBytes()) + "\"";
+        } else if ((varName = matcher.group(ID_PROVIDER)) != null) {
+            //Replaces Id prov name with goid
+            return ID_PROV_OID + " " + GOID_VALUE + "=\"" + getValue(idProviderNameGoids, varName) + "\"";
+        } else if ((varName = matcher.group(JMS_DESTINATION)) != null) {
+            //Add Jms Destination GOID
+            return "&lt;" + JMS_ENDPOINT_OID + " " + GOID_VALUE + "=\"" + getValue(jmsDestinationNameGoids, varName) + "\"/&gt;" +
+                    "&lt;" + JMS_ENDPOINT_NAME + " " + STRING_VALUE + "=\"" + varName + "\"";
+        } else {
+            varName = matcher.group(SERVICE_PROPERTY);
+            return "l7:StringValue>" + getValue(serviceEnvironmentVariables, varName) + "<";
+        }
+    }
+
+    private static String getValue(Map<String, String> mapToCheck, String varName) {
+        String value = mapToCheck.get(varName);
+        if (value == null) {
+            throw new BundleDetemplatizeException("Missing environment value for property: " + varName);
+        }
+        return value;
+    }
+
+    private static Map<String, String> createIdProviderNameGoid(Bundle bundle) {
         Map<String, String> idProviders = bundle.getIdentityProviders().entrySet().stream().collect(toMap(
                 Entry::getKey,
                 e -> e.getValue().getId()));
@@ -88,7 +188,7 @@ class BundleDetemplatizer {
         return idProviders;
     }
 
-    private Map<String, String> createJmsDestinationNameGoid(Bundle bundle) {
+    private static Map<String, String> createJmsDestinationNameGoid(Bundle bundle) {
         return bundle.getJmsDestinations().entrySet().stream().collect(toMap(
                 Entry::getKey,
                 e -> e.getValue().getId()));
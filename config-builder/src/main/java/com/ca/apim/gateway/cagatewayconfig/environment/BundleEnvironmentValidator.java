@@ -9,11 +9,14 @@ package com.ca.apim.gateway.cagatewayconfig.environment;
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes;
 import com.ca.apim.gateway.cagatewayconfig.util.gateway.MappingProperties;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.BundleStreamReader;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -22,10 +25,15 @@ import static com.ca.apim.gateway.cagatewayconfig.util.gateway.MappingProperties
 import static com.ca.apim.gateway.cagatewayconfig.util.properties.PropertyConstants.PREFIX_GATEWAY;
 import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.*;
 
+/**
+ * Validates that the environment referenced by deployment bundles is provided. It only reads the environment bundle, so
+ * a single instance can validate several bundles concurrently.
+ */
 class BundleEnvironmentValidator {
 
     private final Bundle environmentBundle;
     private DocumentTools documentTools = DocumentTools.INSTANCE;
+    private BundleStreamReader bundleStreamReader = BundleStreamReader.INSTANCE;
 
     BundleEnvironmentValidator(Bundle environmentBundle) {
         this.environmentBundle = environmentBundle;
@@ -36,26 +44,40 @@ class BundleEnvironmentValidator {
      *  @param bundleName       The name of the bundle to look for environment requirements in
      * @param deploymentBundle The deployment bundle to look for enviornment requirements in
      * @param mode The generation mode, where its coming from.
+     * @throws MissingEnvironmentException listing all the environment values missing for the bundle
      */
     void validateEnvironmentProvided(String bundleName, String deploymentBundle, EnvironmentBundleCreationMode mode) {
-        Document deploymentBundleDocument;
+        validateEnvironmentProvided(bundleName, new StringReader(deploymentBundle), mode);
+    }
+
+    /**
+     * Validate that all required environment is available in the environment bundle
+     *
+     * @param bundleName       The name of the bundle to look for environment requirements in
+     * @param deploymentBundle Reader for the deployment bundle to look for environment requirements in
+     * @param mode             The generation mode, where its coming from.
+     * @throws MissingEnvironmentException listing all the environment values missing for the bundle
+     */
+    void validateEnvironmentProvided(String bundleName, Reader deploymentBundle, EnvironmentBundleCreationMode mode) {
+        // collect all missing values so they can be reported together
+        List<String> missingEnvironment = new ArrayList<>();
         try {
-            deploymentBundleDocument = documentTools.parse(deploymentBundle);
+            // only the mappings are needed, the references (with all the policies) are skipped without being parsed
+            bundleStreamReader.readMappings(deploymentBundle, mapping -> {
+                Element propertiesElement = getSingleChildElement(mapping, PROPERTIES, true);
+                if (propertiesElement != null) {
+                    validateElement(mode, mapping, propertiesElement, missingEnvironment);
+                }
+            });
         } catch (DocumentParseException e) {
             throw new DeploymentBundleException("Unable to parse deployment bundle: " + bundleName);
         }
-
-        Element mappingElement = getSingleChildElement(deploymentBundleDocument.getDocumentElement(), MAPPINGS);
-        List<Element> mappingElements = getChildElements(mappingElement, MAPPING);
-        mappingElements.forEach(mapping -> {
-            Element propertiesElement = getSingleChildElement(mapping, PROPERTIES, true);
-            if (propertiesElement != null) {
-                validateElement(mode, mapping, propertiesElement);
-            }
-        });
+        if (!missingEnvironment.isEmpty()) {
+            throw new MissingEnvironmentException(String.join("\n", missingEnvironment));
+        }
     }
 
-    private void validateElement(EnvironmentBundleCreationMode mode, Element mapping, Element propertiesElement) {
+    private void validateElement(EnvironmentBundleCreationMode mode, Element mapping, Element propertiesElement, List<String> missingEnvironment) {
         List<Element> propertyElements = getChildElements(propertiesElement, PROPERTY);
         if (propertyElements.stream().anyMatch(p -> FAIL_ON_NEW.equals(p.getAttribute(ATTRIBUTE_KEY)) && Boolean.valueOf(getSingleChildElementTextContent(p, BOOLEAN_VALUE)))) {
             boolean mapByName = propertyElements.stream().anyMatch(p -> MAP_BY.equals(p.getAttribute(ATTRIBUTE_KEY)) && MappingProperties.NAME.equals(getSingleChildElementTextContent(p, STRING_VALUE)));
@@ -67,18 +89,24 @@ class BundleEnvironmentValidator {
 
             String type = mapping.getAttribute(ATTRIBUTE_TYPE);
             if (mode.isRequired(type)) {
-                findInBundle(environmentBundle, type, mapToName);
+                String missing = findMissingInBundle(environmentBundle, type, mapToName);
+                if (missing != null) {
+                    missingEnvironment.add(missing);
+                }
             }
         }
     }
 
-    private void findInBundle(Bundle bundle, String type, String name) {
+    /**
+     * @return the description of the missing environment value, or null if the value is present
+     */
+    private static String findMissingInBundle(Bundle bundle, String type, String name) {
         Object entity;
         switch (type) {
             case EntityTypes.CLUSTER_PROPERTY_TYPE:
                 entity = bundle.getGlobalEnvironmentProperties().get(PREFIX_GATEWAY + name);
                 if (entity == null) {
-                    throw new MissingEnvironmentException("Missing global environment value for property: " + name);
+                    return "Missing global environment value for property: " + name;
                 }
                 break;
             case EntityTypes.ID_PROVIDER_CONFIG_TYPE:
@@ -107,7 +135,8 @@ class BundleEnvironmentValidator {
         }
 
         if (entity == null) {
-            throw new MissingEnvironmentException("Missing environment value for " + type + ": " + name);
+            return "Missing environment value for " + type + ": " + name;
         }
+        return null;
     }
 }
@@ -10,15 +10,23 @@ import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.config.loader.EntityLoader;
 import com.ca.apim.gateway.cagatewayconfig.config.loader.EntityLoaderRegistry;
 import com.ca.apim.gateway.cagatewayconfig.util.environment.EnvironmentConfigurationUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleCreationMode.APPLICATION;
+import static com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents.Type.LOAD;
 import static com.ca.apim.gateway.cagatewayconfig.util.properties.PropertyConstants.PREFIX_ENV;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
 
 /**
  * Collect values from provided environment variables/files and generates a restman bundle with those values.
@@ -40,7 +48,7 @@ public class EnvironmentBundleBuilder {
     }
 
     void build(Bundle bundle, Map<String, String> environmentProperties, String environmentConfigurationFolderPath, EnvironmentBundleCreationMode mode) {
-        environmentProperties.entrySet().stream().filter(e -> e.getKey().startsWith(PREFIX_ENV)).forEach(e -> addEnvToBundle(bundle, e.getKey(), e.getValue()));
+        addEnvToBundle(bundle, environmentProperties);
         // only when running from environment creator application we try to load from directory.
         if (mode != APPLICATION) {
             return;
@@ -54,9 +62,32 @@ public class EnvironmentBundleBuilder {
         }
     }
 
-    private void addEnvToBundle(Bundle bundle, String key, String value) {
+    /**
+     * Loads the environment values grouped by entity type. Each type is loaded in parallel into a bundle of its own, in the
+     * order the values were given, and those bundles are then added to the environment bundle one after the other.
+     */
+    private void addEnvToBundle(Bundle bundle, Map<String, String> environmentProperties) {
+        final Map<String, List<EnvironmentValue>> valuesByType = environmentProperties.entrySet().stream()
+                .map(e -> toEnvironmentValue(e.getKey(), e.getValue()))
+                .filter(Objects::nonNull)
+                .collect(groupingBy(v -> v.type, LinkedHashMap::new, toList()));
+
+        // copied to a list, the values of a linked map are not split well for parallel processing
+        final List<Bundle> typeBundles = new ArrayList<>(valuesByType.values()).parallelStream()
+                .map(values -> FlightRecorderEvents.record(LOAD, bundle.getName(), values.get(0).type, null, () -> {
+                    final Bundle typeBundle = new Bundle();
+                    // ids are generated from the bundle name
+                    typeBundle.setName(bundle.getName());
+                    values.forEach(v -> addEnvToBundle(typeBundle, v));
+                    return typeBundle;
+                }, typeBundle -> values.size()))
+                .collect(toList());
+        typeBundles.forEach(bundle::putAll);
+    }
+
+    private EnvironmentValue toEnvironmentValue(String key, String value) {
         if (!key.startsWith(PREFIX_ENV)) {
-            return;
+            return null;
         }
 
         String environmentKey = key.substring(4);
@@ -68,24 +99,43 @@ public class EnvironmentBundleBuilder {
 
         int typeEndIndex = environmentKey.indexOf('.');
         if (typeEndIndex == -1) {
-            return;
+            return null;
         }
 
         String type = environmentKey.substring(0, typeEndIndex);
         EntityLoader loader = entityLoaderRegistry.getLoader(type);
         if (loader == null) {
-            return;
+            return null;
         }
 
-        String name = environmentKey.substring(type.length() + 1);
+        return new EnvironmentValue(type, environmentKey.substring(type.length() + 1), value, isFile, loader);
+    }
+
+    private void addEnvToBundle(Bundle bundle, EnvironmentValue environmentValue) {
+        String value = environmentValue.value;
         // if we have a file, replace the value contents with the content load from the file in JSON specification.
-        if (isFile) {
+        if (environmentValue.isFile) {
             // load the file
-            value = environmentConfigurationUtils.loadConfigFromFile(new File(value), type, name);
+            value = environmentConfigurationUtils.loadConfigFromFile(new File(value), environmentValue.type, environmentValue.name);
         }
 
         // then load it
-        loader.load(bundle, name, value);
+        environmentValue.loader.load(bundle, environmentValue.name, value);
     }
 
+    private static class EnvironmentValue {
+        private final String type;
+        private final String name;
+        private final String value;
+        private final boolean isFile;
+        private final EntityLoader loader;
+
+        private EnvironmentValue(String type, String name, String value, boolean isFile, EntityLoader loader) {
+            this.type = type;
+            this.name = name;
+            this.value = value;
+            this.isFile = isFile;
+            this.loader = loader;
+        }
+    }
 }
@@ -10,8 +10,11 @@ import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.BundleEntityBuilder;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityBuilder;
 import com.ca.apim.gateway.cagatewayconfig.environment.TemplatizedBundle.FileTemplatizedBundle;
+import com.ca.apim.gateway.cagatewayconfig.environment.TemplatizedBundle.LoadedTemplatizedBundle;
 import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -19,17 +22,38 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.xml.parsers.DocumentBuilder;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
 
 import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleUtils.processDeploymentBundles;
 import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleUtils.setTemplatizedBundlesFolderPath;
+import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleUtils.throwFailures;
 import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.BUNDLE_EXTENSION;
 import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.collectFiles;
+import static com.ca.apim.gateway.cagatewayconfig.util.properties.PropertyConstants.PREFIX_ENV;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.stream.Collectors.toList;
+import static org.apache.commons.lang3.StringUtils.EMPTY;
 
 @Singleton
 public class EnvironmentBundleCreator {
 
+    public static final String ENVIRONMENT_PHASE = "environment";
+    public static final String WRITE_PHASE = "write";
+
+    private static final Pattern ENVIRONMENT_NAME_PATTERN = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+
     private final DocumentTools documentTools;
     private final DocumentFileUtils documentFileUtils;
     private final EnvironmentBundleBuilder environmentBundleBuilder;
@@ -52,23 +76,178 @@ public class EnvironmentBundleCreator {
                                           String environmentConfigurationFolderPath,
                                           EnvironmentBundleCreationMode mode,
                                           String bundleFileName) {
-        Bundle environmentBundle = new Bundle();
-        environmentBundleBuilder.build(environmentBundle, environmentProperties, environmentConfigurationFolderPath, mode);
+        return createEnvironmentBundle(
+                environmentProperties,
+                bundleFolderPath,
+                templatizedBundleFolderPath,
+                environmentConfigurationFolderPath,
+                mode,
+                bundleFileName,
+                new PhaseReport(bundleFileName)
+        );
+    }
 
+    /**
+     * Creates the environment bundle and detemplatizes the deployment bundles, recording the time and the bytes processed
+     * of each step in the report: the environment parsing, the validation and detemplatization of each deployment bundle,
+     * the building of the environment bundle and its writing.
+     *
+     * @param environmentProperties              the environment properties
+     * @param bundleFolderPath                   the folder to write the bundles to
+     * @param templatizedBundleFolderPath        the folder with the deployment bundles
+     * @param environmentConfigurationFolderPath the folder with the environment configuration files
+     * @param mode                               the generation mode
+     * @param bundleFileName                     the environment bundle file name
+     * @param report                             the report to record the steps in
+     * @return the environment bundle
+     */
+    public Bundle createEnvironmentBundle(Map<String, String> environmentProperties,
+                                          String bundleFolderPath,
+                                          String templatizedBundleFolderPath,
+                                          String environmentConfigurationFolderPath,
+                                          EnvironmentBundleCreationMode mode,
+                                          String bundleFileName,
+                                          PhaseReport report) {
         setTemplatizedBundlesFolderPath(templatizedBundleFolderPath);
-        processDeploymentBundles(
-                environmentBundle,
+        return createEnvironmentBundle(
+                environmentProperties,
+                bundleFolderPath,
                 collectFiles(templatizedBundleFolderPath, BUNDLE_EXTENSION).stream().map(f -> new FileTemplatizedBundle(f, new File(bundleFolderPath, f.getName()))).collect(toList()),
-                mode
+                environmentConfigurationFolderPath,
+                mode,
+                bundleFileName,
+                report
         );
+    }
+
+    /**
+     * Creates the bundles of several environments from the same deployment bundles. The deployment bundles are read once
+     * and shared by all the environments, which are then created concurrently. The bundles of each environment are written
+     * to a sub folder of the bundle folder named after the environment.
+     *
+     * @param environments                the environment properties of each environment, by environment name
+     * @param bundleFolderPath            the folder to create the environment folders in
+     * @param templatizedBundleFolderPath the folder with the deployment bundles
+     * @param mode                        the generation mode
+     * @param bundleFileNames             the environment bundle file name for each environment name
+     * @return the time taken to create each environment, in milliseconds, by environment name
+     */
+    public Map<String, Long> createEnvironmentBundles(Map<String, Map<String, String>> environments,
+                                                      String bundleFolderPath,
+                                                      String templatizedBundleFolderPath,
+                                                      EnvironmentBundleCreationMode mode,
+                                                      UnaryOperator<String> bundleFileNames) {
+        environments.keySet().forEach(EnvironmentBundleCreator::validateEnvironmentName);
+
+        // the deployment bundle used by the entity builders is loaded once (and cached) for all the environments
+        setTemplatizedBundlesFolderPath(templatizedBundleFolderPath);
+        final Map<File, String> templatizedContents = new LinkedHashMap<>();
+        collectFiles(templatizedBundleFolderPath, BUNDLE_EXTENSION).forEach(f -> templatizedContents.put(f, readTemplatizedBundle(f)));
+
+        final Map<String, Long> creationTimes = new ConcurrentHashMap<>();
+        final Map<String, RuntimeException> failures = new LinkedHashMap<>();
+        final int threads = Math.min(Runtime.getRuntime().availableProcessors(), environments.size());
+        final ExecutorService executor = newFixedThreadPool(Math.max(threads, 1), new ThreadFactoryBuilder().setNameFormat("environment-creator-%d").setDaemon(true).build());
+        try {
+            final Map<String, Future<?>> results = new LinkedHashMap<>();
+            environments.forEach((name, environmentProperties) -> results.put(name, executor.submit(() -> {
+                final long start = System.nanoTime();
+                final File environmentFolder = new File(bundleFolderPath, name);
+                if (!environmentFolder.isDirectory() && !environmentFolder.mkdirs()) {
+                    throw new DeploymentBundleException("Could not create environment folder: " + environmentFolder);
+                }
+                createEnvironmentBundle(
+                        environmentProperties,
+                        environmentFolder.getPath(),
+                        templatizedContents.entrySet().stream().map(e -> new LoadedTemplatizedBundle(e.getKey(), e.getValue(), new File(environmentFolder, e.getKey().getName()))).collect(toList()),
+                        EMPTY,
+                        mode,
+                        bundleFileNames.apply(name),
+                        new PhaseReport(name)
+                );
+                creationTimes.put(name, NANOSECONDS.toMillis(System.nanoTime() - start));
+            })));
+            for (Map.Entry<String, Future<?>> result : results.entrySet()) {
+                waitForEnvironment(result.getKey(), result.getValue(), failures);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        throwFailures("Errors creating environments:", failures, name -> name);
+
+        final Map<String, Long> orderedCreationTimes = new LinkedHashMap<>();
+        environments.keySet().forEach(name -> orderedCreationTimes.put(name, creationTimes.get(name)));
+        return orderedCreationTimes;
+    }
+
+    private Bundle createEnvironmentBundle(Map<String, String> environmentProperties,
+                                           String bundleFolderPath,
+                                           List<TemplatizedBundle> templatizedBundles,
+                                           String environmentConfigurationFolderPath,
+                                           EnvironmentBundleCreationMode mode,
+                                           String bundleFileName,
+                                           PhaseReport report) {
+        Bundle environmentBundle = new Bundle();
+        environmentBundle.setName(bundleFileName);
+        report.record(ENVIRONMENT_PHASE, () -> {
+            environmentBundleBuilder.build(environmentBundle, environmentProperties, environmentConfigurationFolderPath, mode);
+            return environmentBundle;
+        }, Bundle::getEntityCount, b -> environmentSize(environmentProperties));
+
+        processDeploymentBundles(environmentBundle, templatizedBundles, mode, report);
 
         // write the Environment bundle
         final DocumentBuilder documentBuilder = documentTools.getDocumentBuilder();
         final Document document = documentBuilder.newDocument();
 
-        Element bundleElement = bundleEntityBuilder.build(environmentBundle, EntityBuilder.BundleType.ENVIRONMENT, document);
-        documentFileUtils.createFile(bundleElement, new File(bundleFolderPath, bundleFileName).toPath());
+        Element bundleElement = bundleEntityBuilder.build(environmentBundle, EntityBuilder.BundleType.ENVIRONMENT, document, report);
+        report.record(WRITE_PHASE, () -> {
+            final File bundleFile = new File(bundleFolderPath, bundleFileName);
+            documentFileUtils.createFile(bundleElement, bundleFile.toPath());
+            return bundleFile;
+        }, null, File::length);
         return environmentBundle;
     }
 
+    /**
+     * @return the size in bytes of the environment values, the environment configuration files are not counted
+     */
+    private static long environmentSize(Map<String, String> environmentProperties) {
+        return environmentProperties.entrySet().stream()
+                .filter(e -> e.getKey().startsWith(PREFIX_ENV) && e.getValue() != null)
+                .mapToLong(e -> e.getValue().getBytes(UTF_8).length)
+                .sum();
+    }
+
+    private static void validateEnvironmentName(String name) {
+        // the name is used as folder name
+        if (!ENVIRONMENT_NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid environment name '" + name + "', only letters, digits, '.', '_' and '-' are allowed and it cannot start with '.'");
+        }
+    }
+
+    private static String readTemplatizedBundle(File templatizedBundle) {
+        try {
+            return new String(Files.readAllBytes(templatizedBundle.toPath()));
+        } catch (IOException e) {
+            throw new BundleDetemplatizeException("Could not read bundle file: " + templatizedBundle.getName(), e);
+        }
+    }
+
+    private static void waitForEnvironment(String name, Future<?> result, Map<String, RuntimeException> failures) {
+        try {
+            result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeploymentBundleException("Interrupted while creating environment: " + name, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                failures.put(name, (RuntimeException) e.getCause());
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            } else {
+                throw new DeploymentBundleException("Error creating environment: " + name, e.getCause());
+            }
+        }
+    }
 }
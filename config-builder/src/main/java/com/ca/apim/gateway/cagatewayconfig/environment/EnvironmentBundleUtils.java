@@ -10,24 +10,40 @@ import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadException;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.EntityBundleLoader;
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.w3c.dom.Element;
 
-import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.BUNDLE_EXTENSION;
-import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.collectFiles;
 import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents.Type.DETEMPLATIZE;
+import static com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport.SEPARATOR;
 import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElementTextContent;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.stream.Collectors.joining;
 
 /**
  * Utility methods for generating bundles with environment configurations.
  */
 public class EnvironmentBundleUtils {
 
+    public static final String BUNDLES_PHASE = "bundles";
+    public static final String VALIDATE_PHASE = "validate";
+    public static final String DETEMPLATIZE_PHASE = "detemplatize";
+
     private static final Logger logger = Logger.getLogger(EnvironmentBundleUtils.class.getName());
 
     private static String templatizedBundlesFolderPath;
@@ -44,38 +60,146 @@ public class EnvironmentBundleUtils {
         }
 
         BundleCache cache = InjectionRegistry.getInjector().getInstance(BundleCache.class);
-
-        if (cache.contains(templatizedBundlesFolderPath)) {
-            return cache.getBundle(templatizedBundlesFolderPath);
-        } else {
-            EntityBundleLoader loader = InjectionRegistry.getInjector().getInstance(EntityBundleLoader.class);
-            List<File> deploymentBundleFiles = collectFiles(templatizedBundlesFolderPath, BUNDLE_EXTENSION);
-            cache.putBundle(templatizedBundlesFolderPath, loader.load(deploymentBundleFiles));
-            return loader.load(deploymentBundleFiles);
-        }
+        EntityBundleLoader loader = InjectionRegistry.getInjector().getInstance(EntityBundleLoader.class);
+        Bundle deploymentBundle = cache.getBundle(templatizedBundlesFolderPath, loader::load);
+        logger.log(Level.FINE, () -> "Deployment bundle cache: " + cache.getStats());
+        return deploymentBundle;
     }
 
+    /**
+     * Validates and detemplatizes the deployment bundles. The bundles are processed in parallel, using at most one thread
+     * per available processor. All the bundles are processed even if some of them fail, so that the problems with every
+     * bundle are reported together.
+     *
+     * @param environmentBundle  the environment to validate and detemplatize the bundles with
+     * @param templatizedBundles the bundles to process
+     * @param mode               the generation mode
+     */
     static void processDeploymentBundles(Bundle environmentBundle,
                                           List<TemplatizedBundle> templatizedBundles,
                                           EnvironmentBundleCreationMode mode) {
+        processDeploymentBundles(environmentBundle, templatizedBundles, mode, new PhaseReport(environmentBundle.getName()));
+    }
+
+    /**
+     * Validates and detemplatizes the deployment bundles like {@link #processDeploymentBundles(Bundle, List, EnvironmentBundleCreationMode)},
+     * recording the validation and the detemplatization of each bundle in the report, with the size of what they read and
+     * wrote.
+     *
+     * @param environmentBundle  the environment to validate and detemplatize the bundles with
+     * @param templatizedBundles the bundles to process
+     * @param mode               the generation mode
+     * @param report             the report to record the phases in
+     */
+    static void processDeploymentBundles(Bundle environmentBundle,
+                                          List<TemplatizedBundle> templatizedBundles,
+                                          EnvironmentBundleCreationMode mode,
+                                          PhaseReport report) {
+        report.record(BUNDLES_PHASE, () -> processTemplatizedBundles(environmentBundle, templatizedBundles, mode, report), templatizedBundles::size);
+    }
+
+    private static void processTemplatizedBundles(Bundle environmentBundle,
+                                                  List<TemplatizedBundle> templatizedBundles,
+                                                  EnvironmentBundleCreationMode mode,
+                                                  PhaseReport report) {
+        // both are read only once created, so they are shared by all the threads
         BundleEnvironmentValidator bundleEnvironmentValidator = new BundleEnvironmentValidator(environmentBundle);
         BundleDetemplatizer bundleDetemplatizer = new BundleDetemplatizer(environmentBundle);
-        templatizedBundles.forEach(tb -> processTemplatizedBundle(tb, bundleEnvironmentValidator, bundleDetemplatizer, mode));
+
+        final Map<TemplatizedBundle, RuntimeException> failures = new LinkedHashMap<>();
+        final int threads = Math.min(Runtime.getRuntime().availableProcessors(), templatizedBundles.size());
+        if (threads <= 1) {
+            templatizedBundles.forEach(tb -> {
+                try {
+                    processTemplatizedBundle(tb, bundleEnvironmentValidator, bundleDetemplatizer, mode, report);
+                } catch (RuntimeException e) {
+                    failures.put(tb, e);
+                }
+            });
+        } else {
+            logger.log(Level.FINE, () -> "Processing " + templatizedBundles.size() + " deployment bundles with " + threads + " threads");
+            final ExecutorService executor = newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("deployment-bundle-processor-%d").setDaemon(true).build());
+            try {
+                final Map<TemplatizedBundle, Future<?>> results = new LinkedHashMap<>();
+                templatizedBundles.forEach(tb -> results.put(tb, executor.submit(() -> processTemplatizedBundle(tb, bundleEnvironmentValidator, bundleDetemplatizer, mode, report))));
+                for (Map.Entry<TemplatizedBundle, Future<?>> result : results.entrySet()) {
+                    waitForResult(result.getKey(), result.getValue(), failures);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        throwFailures("Errors processing deployment bundles:", failures, TemplatizedBundle::getName);
+    }
+
+    private static void waitForResult(TemplatizedBundle templatizedBundle, Future<?> result, Map<TemplatizedBundle, RuntimeException> failures) {
+        try {
+            result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeploymentBundleException("Interrupted while processing deployment bundle: " + templatizedBundle.getName(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                failures.put(templatizedBundle, (RuntimeException) e.getCause());
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            } else {
+                throw new DeploymentBundleException("Error processing deployment bundle: " + templatizedBundle.getName(), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Rethrows the failure if there is a single one, otherwise throws an exception with the messages of all of them. The
+     * combined exception is a {@link MissingEnvironmentException} only if all the failures are.
+     */
+    static <K> void throwFailures(String header, Map<K, RuntimeException> failures, Function<K, String> names) {
+        if (failures.isEmpty()) {
+            return;
+        }
+        if (failures.size() == 1) {
+            throw failures.values().iterator().next();
+        }
+
+        final String message = header + "\n" + failures.entrySet().stream()
+                .map(e -> names.apply(e.getKey()) + ": " + e.getValue().getMessage())
+                .collect(joining("\n"));
+        final RuntimeException exception = failures.values().stream().allMatch(MissingEnvironmentException.class::isInstance) ?
+                new MissingEnvironmentException(message) :
+                new DeploymentBundleException(message);
+        failures.values().forEach(exception::addSuppressed);
+        throw exception;
     }
 
     private static void processTemplatizedBundle(TemplatizedBundle templatizedBundle,
                                                  BundleEnvironmentValidator bundleEnvironmentValidator,
                                                  BundleDetemplatizer bundleDetemplatizer,
-                                                 EnvironmentBundleCreationMode mode) {
+                                                 EnvironmentBundleCreationMode mode,
+                                                 PhaseReport report) {
         logger.log(Level.FINE, () -> "Processing deployment bundle: " + templatizedBundle.getName());
-        String bundleString = templatizedBundle.getContents();
-
-        // check deployment bundles to validated that all required environment is provided.
-        bundleEnvironmentValidator.validateEnvironmentProvided(templatizedBundle.getName(), bundleString, mode);
-
-        // detempatize bundle
-        CharSequence detemplatizedBundle = bundleDetemplatizer.detemplatizeBundleString(bundleString);
-        templatizedBundle.writeContents(detemplatizedBundle.toString());
+        final String bundlePhase = BUNDLES_PHASE + SEPARATOR + templatizedBundle.getName();
+        report.record(bundlePhase, () -> {
+            // the bundle is streamed in both steps, so it is never held in memory as a whole
+            // check deployment bundles to validated that all required environment is provided.
+            report.record(bundlePhase + SEPARATOR + VALIDATE_PHASE, () -> {
+                try (Reader reader = templatizedBundle.openContents()) {
+                    bundleEnvironmentValidator.validateEnvironmentProvided(templatizedBundle.getName(), reader, mode);
+                } catch (IOException e) {
+                    throw new BundleDetemplatizeException("Could not read bundle: " + templatizedBundle.getName(), e);
+                }
+                return templatizedBundle;
+            }, null, TemplatizedBundle::getContentsSize);
+
+            // detempatize bundle
+            report.record(bundlePhase + SEPARATOR + DETEMPLATIZE_PHASE, () -> {
+                FlightRecorderEvents.record(DETEMPLATIZE, templatizedBundle.getName(), null, null, () -> templatizedBundle.writeContents(writer -> {
+                    try (Reader reader = templatizedBundle.openContents()) {
+                        bundleDetemplatizer.detemplatizeBundle(reader, writer);
+                    }
+                }), null);
+                return templatizedBundle;
+            }, null, TemplatizedBundle::getWrittenContentsSize);
+        });
     }
 
     @VisibleForTesting
@@ -10,19 +10,33 @@ import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.BundleEntityBuilder;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityBuilder;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityBuilderException;
-import com.ca.apim.gateway.cagatewayconfig.environment.TemplatizedBundle.StringTemplatizedBundle;
+import com.ca.apim.gateway.cagatewayconfig.environment.TemplatizedBundle.FileTemplatizedBundle;
 import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtilsException;
-import com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.BundleStreamReader;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import javax.xml.parsers.DocumentBuilder;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -31,85 +45,220 @@ import java.util.Set;
 import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleCreationMode.PLUGIN;
 import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleUtils.*;
 import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
-import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.copyNodes;
 import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElement;
 import static java.nio.charset.Charset.defaultCharset;
-import static java.util.stream.Collectors.toList;
-import static org.apache.commons.io.FileUtils.writeStringToFile;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
 
 /**
  * This combines the environment bundle generation with the deployment bundle generation and outputs one single full bundle
  * with everything on it. This is used to output the whole solution in one bundle and allow to be installed into non ephemeral gateways.
+ * <p>
+ * The deployment bundles are detemplatized to temporary files and then streamed into the full bundle file one item and one
+ * mapping at a time, so only the keys of the items and mappings already written are kept in memory, not the bundles.
  */
 @Singleton
 public class FullBundleCreator {
 
+    private static final String INDENT = "    ";
+
     private final DocumentTools documentTools;
     private final EnvironmentBundleBuilder environmentBundleBuilder;
     private final BundleEntityBuilder bundleEntityBuilder;
-    private final FileUtils fileUtils;
+    private final BundleStreamReader bundleStreamReader;
+    private final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
 
     @Inject
     FullBundleCreator(DocumentTools documentTools,
                              EnvironmentBundleBuilder environmentBundleBuilder,
                              BundleEntityBuilder bundleEntityBuilder,
-                             FileUtils fileUtils) {
+                             BundleStreamReader bundleStreamReader) {
         this.documentTools = documentTools;
         this.environmentBundleBuilder = environmentBundleBuilder;
         this.bundleEntityBuilder = bundleEntityBuilder;
-        this.fileUtils = fileUtils;
+        this.bundleStreamReader = bundleStreamReader;
     }
 
     public void createFullBundle(Map<String, String> environmentProperties,
                                  List<File> deploymentBundles,
                                  String bundleFolderPath,
                                  String bundleFileName) {
-        final String bundle = createFullBundleAsString(environmentProperties, deploymentBundles);
+        final File bundleFile = new File(bundleFolderPath, bundleFileName);
+        final Path detemplatizedFolder;
         try {
-            writeStringToFile(new File(bundleFolderPath, bundleFileName), bundle, defaultCharset());
+            detemplatizedFolder = Files.createTempDirectory(Files.createDirectories(bundleFile.toPath().toAbsolutePath().getParent()), bundleFileName);
         } catch (IOException e) {
             throw new DocumentFileUtilsException("Error writing to file '" + bundleFileName + "': " + e.getMessage(), e);
         }
+
+        try {
+            // deployment bundles are detemplatized to files, prefixed so bundles with the same name do not clash
+            List<TemplatizedBundle> templatizedBundles = new ArrayList<>(deploymentBundles.size());
+            for (int i = 0; i < deploymentBundles.size(); i++) {
+                final File deploymentBundle = deploymentBundles.get(i);
+                templatizedBundles.add(new FileTemplatizedBundle(deploymentBundle, detemplatizedFolder.resolve(i + "-" + deploymentBundle.getName()).toFile()));
+            }
+
+            // generate the environment one
+            Bundle environmentBundle = new Bundle();
+            environmentBundle.setName(bundleFileName);
+            environmentBundleBuilder.build(environmentBundle, environmentProperties, EMPTY, PLUGIN);
+
+            // validate and detemplatize
+            processDeploymentBundles(environmentBundle, templatizedBundles, PLUGIN);
+
+            // generate the environment bundle and merge the deployment bundles into it to get the full bundle
+            final Element bundleElement = bundleEntityBuilder.build(environmentBundle, EntityBuilder.BundleType.ENVIRONMENT, documentTools.getDocumentBuilder().newDocument());
+            writeFullBundle(bundleElement, detemplatizedFolder, deploymentBundles, bundleFile);
+        } finally {
+            deleteQuietly(detemplatizedFolder.toFile());
+        }
     }
 
-    private String createFullBundleAsString(Map<String, String> environmentProperties,
-                                            List<File> deploymentBundles) {
-        // load all deployment bundles to strings
-        List<TemplatizedBundle> templatizedBundles = deploymentBundles.stream().map(f -> new StringTemplatizedBundle(f.getName(), fileUtils.getFileAsString(f))).collect(toList());
-
-        // generate the environment one
-        Bundle environmentBundle = new Bundle();
-        environmentBundleBuilder.build(environmentBundle, environmentProperties, EMPTY, PLUGIN);
-
-        // validate and detemplatize
-        processDeploymentBundles(environmentBundle, templatizedBundles, PLUGIN);
-
-        // generate the environment bundle
-        final DocumentBuilder documentBuilder = documentTools.getDocumentBuilder();
-        final Document document = documentBuilder.newDocument();
-        Element bundleElement = bundleEntityBuilder.build(environmentBundle, EntityBuilder.BundleType.ENVIRONMENT, document);
-        Element referencesElement = getSingleChildElement(bundleElement, REFERENCES);
-        Element mappingsElement = getSingleChildElement(bundleElement, MAPPINGS);
-
-        // store Set of elements previously added so avoiding repetition in the resulting bundle
-        Set<String> addedItems = new HashSet<>();
-        Set<String> addedMappings = new HashSet<>();
-
-        // merge the deployment bundles into the environment one to get the full bundle
-        templatizedBundles.forEach(tb -> {
-            try {
-                final Element detemplatizedBundleElement = documentTools.parse(tb.getContents()).getDocumentElement();
-                copyNodes(getSingleChildElement(detemplatizedBundleElement, REFERENCES), ITEM, document, referencesElement, item -> addedItems.add(buildBundleItemKey(item)));
-                copyNodes(getSingleChildElement(detemplatizedBundleElement, MAPPINGS), MAPPING, document, mappingsElement, mapping -> {
+    private void writeFullBundle(Element bundleElement, Path detemplatizedFolder, List<File> deploymentBundles, File bundleFile) {
+        try (Writer fileWriter = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(bundleFile.toPath()), defaultCharset()))) {
+            final XMLStreamWriter writer = createWriter(fileWriter);
+            writeStartElement(writer, bundleElement);
+
+            // bundle each item was first added from, so avoiding repetition in the resulting bundle
+            final Map<String, Integer> addedItems = new HashMap<>();
+            writeIndent(writer, 1);
+            writeStartElement(writer, getSingleChildElement(bundleElement, REFERENCES));
+            writeChildren(writer, getSingleChildElement(bundleElement, REFERENCES), 2);
+            for (int i = 0; i < deploymentBundles.size(); i++) {
+                final int bundleIndex = i;
+                readDetemplatizedBundle(detemplatizedFolder, deploymentBundles, bundleIndex, reader -> bundleStreamReader.readItems(reader, true, item -> {
+                    if (addedItems.putIfAbsent(buildBundleItemKey(item), bundleIndex) == null) {
+                        writeDeploymentElement(writer, item);
+                    }
+                }));
+            }
+            writeIndent(writer, 1);
+            writer.writeEndElement();
+
+            // mappings are only added for items already added by the same or a previous bundle
+            final Set<String> addedMappings = new HashSet<>();
+            writeIndent(writer, 1);
+            writeStartElement(writer, getSingleChildElement(bundleElement, MAPPINGS));
+            writeChildren(writer, getSingleChildElement(bundleElement, MAPPINGS), 2);
+            for (int i = 0; i < deploymentBundles.size(); i++) {
+                final int bundleIndex = i;
+                readDetemplatizedBundle(detemplatizedFolder, deploymentBundles, bundleIndex, reader -> bundleStreamReader.readMappings(reader, mapping -> {
                     final String key = buildBundleMappingKey(mapping);
-                    return addedItems.contains(key) && addedMappings.add(key);
-                });
-            } catch (DocumentParseException e) {
-                throw new EntityBuilderException("Unable to read bundle " + tb.getName(), e);
+                    final Integer itemBundleIndex = addedItems.get(key);
+                    if (itemBundleIndex != null && itemBundleIndex <= bundleIndex && addedMappings.add(key)) {
+                        writeDeploymentElement(writer, mapping);
+                    }
+                }));
             }
-        });
+            writeIndent(writer, 1);
+            writer.writeEndElement();
+
+            writeIndent(writer, 0);
+            writer.writeEndElement();
+            writer.close();
+        } catch (IOException | XMLStreamException e) {
+            throw new DocumentFileUtilsException("Error writing to file '" + bundleFile.getName() + "': " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeDeploymentElement(XMLStreamWriter writer, Element element) {
+        try {
+            writeElement(writer, element, 2);
+        } catch (XMLStreamException e) {
+            throw new DocumentFileUtilsException("Error writing deployment bundle " + element.getNodeName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void readDetemplatizedBundle(Path detemplatizedFolder, List<File> deploymentBundles, int index, BundleReader bundleReader) {
+        final String name = deploymentBundles.get(index).getName();
+        try (Reader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(detemplatizedFolder.resolve(index + "-" + name)), defaultCharset()))) {
+            bundleReader.read(reader);
+        } catch (IOException | DocumentParseException e) {
+            throw new EntityBuilderException("Unable to read bundle " + name, e);
+        }
+    }
+
+    private XMLStreamWriter createWriter(Writer writer) throws XMLStreamException {
+        // the factory is not guaranteed to be thread safe
+        synchronized (outputFactory) {
+            return outputFactory.createXMLStreamWriter(writer);
+        }
+    }
+
+    /**
+     * Writes the element on its own line. Element content is indented, mixed content is written as it is.
+     */
+    private static void writeElement(XMLStreamWriter writer, Element element, int depth) throws XMLStreamException {
+        writeIndent(writer, depth);
+        writeStartElement(writer, element);
+        if (writeChildren(writer, element, depth + 1)) {
+            writeIndent(writer, depth);
+        }
+        writer.writeEndElement();
+    }
+
+    /**
+     * @return true if the children were written on their own lines
+     */
+    private static boolean writeChildren(XMLStreamWriter writer, Element element, int depth) throws XMLStreamException {
+        final NodeList children = element.getChildNodes();
+        final boolean elementContent = hasOnlyElementChildren(children);
+        for (int i = 0; i < children.getLength(); i++) {
+            final Node child = children.item(i);
+            switch (child.getNodeType()) {
+                case Node.ELEMENT_NODE:
+                    if (elementContent) {
+                        writeElement(writer, (Element) child, depth);
+                    } else {
+                        writeStartElement(writer, (Element) child);
+                        writeChildren(writer, (Element) child, depth + 1);
+                        writer.writeEndElement();
+                    }
+                    break;
+                case Node.CDATA_SECTION_NODE:
+                    writer.writeCData(child.getNodeValue());
+                    break;
+                case Node.TEXT_NODE:
+                    writer.writeCharacters(child.getNodeValue());
+                    break;
+                default:
+                    // comments and processing instructions are not needed
+                    break;
+            }
+        }
+        return elementContent && children.getLength() > 0;
+    }
+
+    private static boolean hasOnlyElementChildren(NodeList children) {
+        for (int i = 0; i < children.getLength(); i++) {
+            final short type = children.item(i).getNodeType();
+            if (type == Node.TEXT_NODE || type == Node.CDATA_SECTION_NODE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeStartElement(XMLStreamWriter writer, Element element) throws XMLStreamException {
+        // bundle documents are not namespace aware, names (and namespace declarations) are written with their prefixes
+        writer.writeStartElement(element.getNodeName());
+        final NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            writer.writeAttribute(attributes.item(i).getNodeName(), attributes.item(i).getNodeValue());
+        }
+    }
+
+    private static void writeIndent(XMLStreamWriter writer, int depth) throws XMLStreamException {
+        final StringBuilder indent = new StringBuilder(1 + depth * INDENT.length()).append('\n');
+        for (int i = 0; i < depth; i++) {
+            indent.append(INDENT);
+        }
+        writer.writeCharacters(indent.toString());
+    }
 
-        return documentTools.elementToString(bundleElement);
+    @FunctionalInterface
+    private interface BundleReader {
+        void read(Reader reader) throws DocumentParseException;
     }
 }
@@ -6,9 +6,12 @@
 
 package com.ca.apim.gateway.cagatewayconfig.environment;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 /**
  * Represents a Templatized Deployment Bundle and provide read/write to its contents.
@@ -21,6 +24,36 @@ interface TemplatizedBundle {
 
     void writeContents(String content);
 
+    /**
+     * Opens a reader for the contents of the bundle, so it can be read without holding all of it in memory.
+     *
+     * @return the reader, to be closed by the caller
+     */
+    Reader openContents();
+
+    /**
+     * Replaces the contents of the bundle with the ones written by the content writer.
+     *
+     * @param contentWriter writes the new contents
+     */
+    void writeContents(ContentWriter contentWriter);
+
+    /**
+     * @return the size of the contents, in bytes for the bundles read from files and in characters for the ones in memory
+     */
+    long getContentsSize();
+
+    /**
+     * @return the size of the written contents, in bytes for the bundles written to files and in characters for the ones
+     * in memory
+     */
+    long getWrittenContentsSize();
+
+    @FunctionalInterface
+    interface ContentWriter {
+        void write(Writer writer) throws IOException;
+    }
+
     /**
      * Templatized bundle stored in the File System.
      */
@@ -52,12 +85,86 @@ interface TemplatizedBundle {
             }
         }
 
+        @Override
+        public Reader openContents() {
+            try {
+                return new BufferedReader(new InputStreamReader(Files.newInputStream(this.originalFile.toPath()), Charset.defaultCharset()));
+            } catch (IOException e) {
+                throw new BundleDetemplatizeException("Could not read bundle file: " + originalFile.getName(), e);
+            }
+        }
+
+        /**
+         * The contents are written to a temporary file that replaces the new file once complete, since the new file can be
+         * the original one.
+         */
+        @Override
+        public void writeContents(ContentWriter contentWriter) {
+            final Path newPath = newFile.toPath().toAbsolutePath();
+            Path tempPath = null;
+            try {
+                tempPath = Files.createTempFile(newPath.getParent(), newFile.getName(), ".tmp");
+                try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(tempPath), Charset.defaultCharset()))) {
+                    contentWriter.write(writer);
+                }
+                Files.move(tempPath, newPath, REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new BundleDetemplatizeException("Could not write detemplatized bundle to: " + newFile.getName(), e);
+            } finally {
+                deleteQuietly(tempPath);
+            }
+        }
+
+        private static void deleteQuietly(Path path) {
+            if (path != null) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    // nothing else to do, the temporary file is left behind
+                }
+            }
+        }
+
+        @Override
+        public long getContentsSize() {
+            return this.originalFile.length();
+        }
+
+        @Override
+        public long getWrittenContentsSize() {
+            return this.newFile.length();
+        }
+
         @Override
         public String getName() {
             return this.originalFile.getName();
         }
     }
 
+    /**
+     * Templatized bundle whose contents were already read from the File System, so they can be shared by several
+     * environments. Each environment writes its detemplatized bundle to its own file.
+     */
+    class LoadedTemplatizedBundle extends FileTemplatizedBundle {
+
+        private final String contents;
+
+        LoadedTemplatizedBundle(File originalFile, String contents, File newFile) {
+            super(originalFile, newFile);
+            this.contents = contents;
+        }
+
+        @Override
+        public String getContents() {
+            return contents;
+        }
+
+        @Override
+        public Reader openContents() {
+            return new StringReader(contents);
+        }
+    }
+
     /**
      * In-memory templatized bundle stored as a String.
      */
@@ -81,6 +188,32 @@ interface TemplatizedBundle {
             this.bundleContents = content;
         }
 
+        @Override
+        public Reader openContents() {
+            return new StringReader(bundleContents);
+        }
+
+        @Override
+        public void writeContents(ContentWriter contentWriter) {
+            final StringWriter writer = new StringWriter(bundleContents.length());
+            try {
+                contentWriter.write(writer);
+            } catch (IOException e) {
+                throw new BundleDetemplatizeException("Could not write detemplatized bundle: " + name, e);
+            }
+            this.bundleContents = writer.toString();
+        }
+
+        @Override
+        public long getContentsSize() {
+            return bundleContents.length();
+        }
+
+        @Override
+        public long getWrittenContentsSize() {
+            return bundleContents.length();
+        }
+
         @Override
         public String getName() {
             return name;
@@ -6,7 +6,6 @@
 
 package com.ca.apim.gateway.cagatewayconfig.util;
 
-import java.nio.ByteBuffer;
 import java.security.SecureRandom;
 import java.util.Random;
 import java.util.UUID;
@@ -14,6 +13,8 @@ import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This generates ids that are used on gateway entities. It works by randomly generating an id and then incrementing it to retrieve subsequent ids.
+ * The id for an entity is requested with the entity type and name so that other strategies (see {@link NameBasedIdGenerator}) can derive it
+ * from them; this default strategy ignores them.
  */
 public class IdGenerator {
 
@@ -44,27 +45,50 @@ public class IdGenerator {
      */
     public String generate() {
         // Do not need to increment hi on low rollover. It is extremely unlikely a we will create 2^32 id's on a single id generator in order to cause a collision.
-        return hexDump(ByteBuffer.allocate(16).putLong(hi.get()).putLong(low.getAndIncrement()).array());
+        final char[] buffer = new char[32];
+        hexDump(hi.get(), buffer, 0);
+        hexDump(low.getAndIncrement(), buffer, 16);
+        return new String(buffer);
     }
 
-    private static String hexDump(byte[] binaryData) {
-        return hexDump(binaryData, binaryData.length);
+    /**
+     * Return an id that can be used for the given Gateway entity.
+     *
+     * @param bundleName the name of the bundle being built, may be null
+     * @param entityType the entity type (see {@link com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes})
+     * @param name       the entity name or path, unique for the entity type in the bundle
+     * @return An id that can be used for the gateway entity.
+     */
+    public String generate(String bundleName, String entityType, String name) {
+        return generate();
+    }
+
+    /**
+     * Return a guid that can be used for the given Gateway entity.
+     *
+     * @param bundleName the name of the bundle being built, may be null
+     * @param entityType the entity type (see {@link com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes})
+     * @param name       the entity name or path, unique for the entity type in the bundle
+     * @return A guid that can be used for the gateway entity.
+     */
+    public String generateGuid(String bundleName, String entityType, String name) {
+        return generateGuid();
     }
 
     private static final char[] hexadecimal = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
 
-    private static String hexDump(byte[] binaryData, int len) {
-        int off = 0;
-        if (binaryData == null) throw new NullPointerException();
-        if (len < 0 || off + len > binaryData.length) throw new IllegalArgumentException();
-        char[] buffer = new char[len * 2];
-        for (int i = 0; i < len; i++) {
-            int low = (binaryData[off + i] & 0x0f);
-            int high = ((binaryData[off + i] & 0xf0) >> 4);
-            buffer[i * 2] = hexadecimal[high];
-            buffer[i * 2 + 1] = hexadecimal[low];
+    private static void hexDump(long value, char[] buffer, int offset) {
+        for (int i = 15; i >= 0; i--) {
+            buffer[offset + i] = hexadecimal[(int) (value & 0x0f)];
+            value >>>= 4;
+        }
+    }
+
+    static void hexDump(byte[] binaryData, int from, int to, char[] buffer, int offset) {
+        for (int i = from; i < to; i++) {
+            buffer[offset++] = hexadecimal[(binaryData[i] & 0xf0) >> 4];
+            buffer[offset++] = hexadecimal[binaryData[i] & 0x0f];
         }
-        return new String(buffer);
     }
 
     public String generateGuid() {
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Generates ids and guids derived from the bundle name, entity type and entity name (the same way as name based, version 5, UUIDs)
+ * so building the same solution always produces the same ids. This makes the built bundles reproducible, which allows to diff them
+ * and to reuse them from build caches.
+ * The digest and its output buffer are kept per thread so no buffer is allocated per generated id.
+ */
+public class NameBasedIdGenerator extends IdGenerator {
+
+    /**
+     * System property to enable name based ids instead of random ones.
+     */
+    public static final String NAME_BASED_IDS_PROPERTY = "com.ca.apim.gateway.nameBasedIds";
+
+    private static final int SHA1_LENGTH = 20;
+    // prefixes so an id and a guid for the same entity are not derived from the same hash
+    private static final char ID_PREFIX = 'i';
+    private static final char GUID_PREFIX = 'g';
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(NameBasedIdGenerator::createDigest);
+    private static final ThreadLocal<byte[]> DIGEST_BUFFER = ThreadLocal.withInitial(() -> new byte[SHA1_LENGTH]);
+
+    @Override
+    public String generate(String bundleName, String entityType, String name) {
+        final byte[] hash = digest(ID_PREFIX, bundleName, entityType, name);
+        // same as the random ids, make sure the hi part cannot be in the range of default prefixes 0 - 2^16
+        if (hash[0] == 0 && hash[1] == 0 && hash[2] == 0 && hash[3] == 0 && hash[4] == 0 && hash[5] == 0) {
+            hash[0] = (byte) 0x80;
+        }
+        final char[] buffer = new char[32];
+        hexDump(hash, 0, 16, buffer, 0);
+        return new String(buffer);
+    }
+
+    @Override
+    public String generateGuid(String bundleName, String entityType, String name) {
+        final byte[] hash = digest(GUID_PREFIX, bundleName, entityType, name);
+        // set the version (5) and variant (IETF) bits
+        hash[6] = (byte) ((hash[6] & 0x0f) | 0x50);
+        hash[8] = (byte) ((hash[8] & 0x3f) | 0x80);
+        final char[] buffer = new char[36];
+        hexDump(hash, 0, 4, buffer, 0);
+        buffer[8] = '-';
+        hexDump(hash, 4, 6, buffer, 9);
+        buffer[13] = '-';
+        hexDump(hash, 6, 8, buffer, 14);
+        buffer[18] = '-';
+        hexDump(hash, 8, 10, buffer, 19);
+        buffer[23] = '-';
+        hexDump(hash, 10, 16, buffer, 24);
+        return new String(buffer);
+    }
+
+    private static byte[] digest(char prefix, String bundleName, String entityType, String name) {
+        final MessageDigest digest = DIGEST.get();
+        final byte[] hash = DIGEST_BUFFER.get();
+        update(digest, prefix);
+        update(digest, bundleName);
+        update(digest, entityType);
+        update(digest, name);
+        try {
+            digest.digest(hash, 0, SHA1_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException("Could not generate id for " + entityType + " " + name, e);
+        }
+        return hash;
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                update(digest, value.charAt(i));
+            }
+        }
+        // separator, so that ("ab", "c") and ("a", "bc") give different ids
+        update(digest, '\0');
+    }
+
+    private static void update(MessageDigest digest, char c) {
+        digest.update((byte) (c >> 8));
+        digest.update((byte) c);
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 digest is not available", e);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.connection;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpConnectionMetrics;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpRequestRetryHandler;
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hooks into the http client of a call to record its timings, sizes and retries in a {@link GatewayCallReport}: the DNS
+ * resolver, the socket factories opening connections and handshaking, the connection factory whose connections count the
+ * bytes sent and received, the request executor receiving the responses and the retry handler. They are used by a single
+ * call on a single thread.
+ */
+class CallInstrumentation {
+
+    private final GatewayCallReport report;
+    private final List<ManagedHttpClientConnection> connections = new ArrayList<>();
+
+    CallInstrumentation(GatewayCallReport report) {
+        this.report = report;
+    }
+
+    /**
+     * @param sslContext the context of the https connections
+     * @return a connection manager resolving and opening connections the way the default one of the http client does
+     */
+    HttpClientConnectionManager connectionManager(SSLContext sslContext) {
+        return new PoolingHttpClientConnectionManager(
+                RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register("http", new PlainConnectionSocketFactory() {
+                            @Override
+                            public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress, InetSocketAddress localAddress, HttpContext context) throws IOException {
+                                final long start = System.nanoTime();
+                                try {
+                                    return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+                                } finally {
+                                    report.addConnectNanos(System.nanoTime() - start);
+                                }
+                            }
+                        })
+                        .register("https", new TimedSSLConnectionSocketFactory(sslContext))
+                        .build(),
+                this::createConnection,
+                this::resolve);
+    }
+
+    HttpRequestExecutor requestExecutor() {
+        return new HttpRequestExecutor() {
+            @Override
+            public HttpResponse execute(HttpRequest request, HttpClientConnection conn, HttpContext context) throws IOException, HttpException {
+                report.addRequest();
+                return super.execute(request, conn, context);
+            }
+
+            @Override
+            protected HttpResponse doReceiveResponse(HttpRequest request, HttpClientConnection conn, HttpContext context) throws HttpException, IOException {
+                final HttpResponse response = super.doReceiveResponse(request, conn, context);
+                report.responseHeadReceived();
+                return response;
+            }
+        };
+    }
+
+    HttpRequestRetryHandler retryHandler() {
+        return (exception, executionCount, context) -> {
+            final boolean retry = DefaultHttpRequestRetryHandler.INSTANCE.retryRequest(exception, executionCount, context);
+            if (retry) {
+                report.addRetry();
+            }
+            return retry;
+        };
+    }
+
+    /**
+     * Ends the call, adding up the bytes sent and received by its connections. The metrics of a connection can still be
+     * read once it is closed.
+     */
+    void end() {
+        connections.stream().map(ManagedHttpClientConnection::getMetrics).forEach(this::addBytes);
+        report.end();
+    }
+
+    private void addBytes(HttpConnectionMetrics metrics) {
+        report.addBytes(metrics.getSentBytesCount(), metrics.getReceivedBytesCount());
+    }
+
+    private ManagedHttpClientConnection createConnection(HttpRoute route, ConnectionConfig config) {
+        final ManagedHttpClientConnection connection = ManagedHttpClientConnectionFactory.INSTANCE.create(route, config);
+        connections.add(connection);
+        return connection;
+    }
+
+    private InetAddress[] resolve(String host) throws UnknownHostException {
+        final long start = System.nanoTime();
+        try {
+            return SystemDefaultDnsResolver.INSTANCE.resolve(host);
+        } finally {
+            report.addDnsNanos(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Opening a connection includes the TLS handshake, which is done while layering TLS over the socket, so the handshake
+     * time is taken away from the connect time.
+     */
+    private class TimedSSLConnectionSocketFactory extends SSLConnectionSocketFactory {
+        private long handshakeNanos;
+
+        TimedSSLConnectionSocketFactory(SSLContext sslContext) {
+            super(sslContext, NoopHostnameVerifier.INSTANCE);
+        }
+
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress, InetSocketAddress localAddress, HttpContext context) throws IOException {
+            final long start = System.nanoTime();
+            handshakeNanos = 0;
+            try {
+                return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            } finally {
+                report.addConnectNanos(System.nanoTime() - start - handshakeNanos);
+            }
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context) throws IOException {
+            final long start = System.nanoTime();
+            try {
+                return super.createLayeredSocket(socket, target, port, context);
+            } finally {
+                handshakeNanos = System.nanoTime() - start;
+                report.addTlsNanos(handshakeNanos);
+            }
+        }
+    }
+}
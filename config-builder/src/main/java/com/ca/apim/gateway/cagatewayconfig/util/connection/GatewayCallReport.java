@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.connection;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
+/**
+ * Timings, sizes and outcome of a call to the gateway made by the {@link GatewayClient}, to find out where the time of a
+ * slow export or import goes.
+ * <p>
+ * A call can take several requests, a first one challenged for credentials and the ones retried after an I/O error, and
+ * several connections. The DNS, connect and TLS handshake times and the bytes sent and received are the totals of all of
+ * them. The bytes are the ones of the HTTP messages, headers included, without the TLS overhead. The first byte time is
+ * the time from the start of the call until the head of the last response was received, so the time left until the total
+ * one was spent receiving its body.
+ */
+@JsonPropertyOrder({"method", "uri", "status", "error", "totalNanos", "dnsNanos", "connectNanos", "tlsNanos", "firstByteNanos", "bytesSent", "bytesReceived", "requests", "retries"})
+public class GatewayCallReport {
+
+    private String method;
+    private String uri;
+    private int status;
+    private String error;
+    private long start;
+    private long totalNanos;
+    private long dnsNanos;
+    private long connectNanos;
+    private long tlsNanos;
+    private long firstByteNanos;
+    private long bytesSent;
+    private long bytesReceived;
+    private int requests;
+    private int retries;
+
+    void start(String method, String uri) {
+        this.method = method;
+        this.uri = uri;
+        this.start = System.nanoTime();
+    }
+
+    void end() {
+        this.totalNanos = System.nanoTime() - start;
+    }
+
+    void responseHeadReceived() {
+        this.firstByteNanos = System.nanoTime() - start;
+    }
+
+    void setStatus(int status) {
+        this.status = status;
+    }
+
+    void setError(String error) {
+        this.error = error;
+    }
+
+    void addDnsNanos(long nanos) {
+        dnsNanos += nanos;
+    }
+
+    void addConnectNanos(long nanos) {
+        connectNanos += nanos;
+    }
+
+    void addTlsNanos(long nanos) {
+        tlsNanos += nanos;
+    }
+
+    void addBytes(long sent, long received) {
+        bytesSent += sent;
+        bytesReceived += received;
+    }
+
+    void addRequest() {
+        requests++;
+    }
+
+    void addRetry() {
+        retries++;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    /**
+     * @return the status of the last response, 0 if no response was received
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the reason the call failed, null if it did not
+     */
+    @JsonInclude(NON_NULL)
+    public String getError() {
+        return error;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getDnsNanos() {
+        return dnsNanos;
+    }
+
+    /**
+     * @return the time spent opening connections, without the TLS handshakes
+     */
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    public long getTlsNanos() {
+        return tlsNanos;
+    }
+
+    /**
+     * @return the time from the start of the call until the head of the last response was received, 0 if none was
+     */
+    public long getFirstByteNanos() {
+        return firstByteNanos;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /**
+     * @return the number of requests sent, including the ones challenged for credentials and the retried ones
+     */
+    public int getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return the number of times a request was sent again after an I/O error
+     */
+    public int getRetries() {
+        return retries;
+    }
+}
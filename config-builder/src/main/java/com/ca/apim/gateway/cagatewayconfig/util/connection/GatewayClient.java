@@ -12,18 +12,14 @@ import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
-import org.apache.http.conn.ssl.NoopHostnameVerifier;
-import org.apache.http.conn.ssl.TrustStrategy;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.ssl.SSLContextBuilder;
 
 import javax.net.ssl.SSLContext;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.KeyManagementException;
-import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.logging.Logger;
@@ -31,9 +27,11 @@ import java.util.logging.Logger;
 import static com.ca.apim.gateway.cagatewayconfig.util.gateway.ConnectionUtils.initSSLContext;
 import static java.nio.charset.Charset.defaultCharset;
 import static java.util.Base64.getEncoder;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.logging.Level.FINE;
 import static org.apache.commons.io.IOUtils.toByteArray;
 import static org.apache.commons.lang3.RandomStringUtils.random;
+import static org.apache.commons.lang3.StringUtils.substringBefore;
 import static org.apache.http.HttpStatus.SC_OK;
 import static org.apache.http.auth.AuthScope.ANY;
 import static org.apache.http.impl.client.HttpClientBuilder.create;
@@ -55,14 +53,44 @@ public class GatewayClient {
      * @return Returns the result from the api caller
      */
     public InputStream makeGatewayAPICall(final RequestBuilder requestBuilder, final String userName, final String password) {
-        try (CloseableHttpClient client = buildHTTPSClient(userName, password)) {
-            return makeAPICall(client, requestBuilder);
+        return makeGatewayAPICall(requestBuilder, userName, password, new GatewayCallReport());
+    }
+
+    /**
+     * Make API Calls using the given RequestBuilder to get request configuration, recording the timings, sizes and outcome
+     * of the call in the report whether it succeeds or not.
+     *
+     * @param requestBuilder The Request Builder where method and URI have to be previously set
+     * @param userName       The user name for the gateway user.
+     * @param password       The password for the gateway user.
+     * @param report         The report to record the call in.
+     * @return Returns the result from the api caller
+     */
+    public InputStream makeGatewayAPICall(final RequestBuilder requestBuilder, final String userName, final String password, final GatewayCallReport report) {
+        final CallInstrumentation instrumentation = new CallInstrumentation(report);
+        report.start(requestBuilder.getMethod(), String.valueOf(requestBuilder.getUri()));
+        try (CloseableHttpClient client = buildHTTPSClient(userName, password, instrumentation)) {
+            return makeAPICall(client, requestBuilder, report);
         } catch (IOException e) {
-            throw new GatewayClientException("Exception making API calls", e);
+            throw recordError(report, new GatewayClientException("Exception making API calls", e));
+        } catch (GatewayClientException e) {
+            throw recordError(report, e);
+        } finally {
+            instrumentation.end();
+            LOGGER.log(FINE, "{0} {1} took {2} ms, {3} bytes sent, {4} bytes received", new Object[]{ report.getMethod(), report.getUri(), NANOSECONDS.toMillis(report.getTotalNanos()), report.getBytesSent(), report.getBytesReceived() });
         }
     }
 
-    private static InputStream makeAPICall(final HttpClient client, final RequestBuilder requestBuilder) throws IOException {
+    /**
+     * Records the first line of the message of the exception, without the response body, and its cause.
+     */
+    private static GatewayClientException recordError(final GatewayCallReport report, final GatewayClientException exception) {
+        final String message = substringBefore(exception.getMessage(), "\n");
+        report.setError(exception.getCause() == null ? message : message + ": " + exception.getCause());
+        return exception;
+    }
+
+    private static InputStream makeAPICall(final HttpClient client, final RequestBuilder requestBuilder, final GatewayCallReport report) throws IOException {
         // Generate a random passphrase with any type of char and using a secure random generator, in order to encrypt the secrets.
         final String encodedPassphrase = random(64, 0, 0, true, true, null, RANDOM);
         requestBuilder.addHeader(KEY_PASSPHRASE_HEADER, getEncoder().encodeToString(encodedPassphrase.getBytes(defaultCharset())));
@@ -78,6 +106,7 @@ public class GatewayClient {
         }
 
         final int statusCode = response.getStatusLine().getStatusCode();
+        report.setStatus(statusCode);
 
         LOGGER.log(FINE, "Status code is: {0} for uri: {1}", new Object[]{ statusCode,  uri });
         final InputStream responseStream;
@@ -94,22 +123,24 @@ public class GatewayClient {
         return new ByteArrayInputStream(responseBytes);
     }
 
-    private static CloseableHttpClient buildHTTPSClient(final String userName, final String password) {
+    private static CloseableHttpClient buildHTTPSClient(final String userName, final String password, final CallInstrumentation instrumentation) {
         final CredentialsProvider provider = new BasicCredentialsProvider();
         final UsernamePasswordCredentials credentials
                 = new UsernamePasswordCredentials(userName, password);
         provider.setCredentials(ANY, credentials);
         final SSLContext sslContext;
         try {
-            sslContext = new SSLContextBuilder().loadTrustMaterial(null, (TrustStrategy) (chain, authType) -> true).build();
+            // the context trusts all certificates, so the default trust store is not loaded
+            sslContext = SSLContext.getInstance("TLS");
             initSSLContext(sslContext);
-        } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException e) {
+        } catch (NoSuchAlgorithmException | KeyManagementException e) {
             throw new GatewayClientException("Unexpected exception building a gateway https client", e);
         }
         return create()
                 .setDefaultCredentialsProvider(provider)
-                .setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE)
-                .setSSLContext(sslContext)
+                .setConnectionManager(instrumentation.connectionManager(sslContext))
+                .setRequestExecutor(instrumentation.requestExecutor())
+                .setRetryHandler(instrumentation.retryHandler())
                 .build();
     }
 
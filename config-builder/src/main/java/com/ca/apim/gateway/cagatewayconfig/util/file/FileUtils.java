@@ -28,6 +28,7 @@ public class FileUtils {
     public static final boolean POSIX_ENABLED = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
     public static final FileUtils INSTANCE = new FileUtils();
     public static final String BUNDLE_EXTENSION = ".bundle";
+    public static final String BUNDLE_INDEX_EXTENSION = BUNDLE_EXTENSION + ".index";
 
     public InputStream getInputStream(final File file) {
         final InputStream stream;
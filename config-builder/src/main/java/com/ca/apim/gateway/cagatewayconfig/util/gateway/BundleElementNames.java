@@ -45,6 +45,7 @@ public class BundleElementNames {
     public static final String MAPPINGS = "l7:Mappings";
     public static final String MAPPING = "l7:Mapping";
     public static final String ITEM = "l7:Item";
+    public static final String DEPENDENCY = "l7:Dependency";
     public static final String DEPENDENCIES = "l7:Dependencies";
     public static final String DEPENDENCY_GRAPH = "l7:DependencyGraph";
     public static final String ID = "l7:Id";
@@ -21,10 +21,12 @@ import com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleBuilder;
 import com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleCreator;
 import com.ca.apim.gateway.cagatewayconfig.environment.FullBundleCreator;
 import com.ca.apim.gateway.cagatewayconfig.util.IdGenerator;
+import com.ca.apim.gateway.cagatewayconfig.util.NameBasedIdGenerator;
 import com.ca.apim.gateway.cagatewayconfig.util.environment.EnvironmentConfigurationUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.BundleStreamReader;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
 import com.google.common.collect.ImmutableMap;
 import org.jetbrains.annotations.Nullable;
@@ -36,6 +38,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import static com.ca.apim.gateway.cagatewayconfig.util.NameBasedIdGenerator.NAME_BASED_IDS_PROPERTY;
 import static com.ca.apim.gateway.cagatewayconfig.util.gateway.CertificateUtils.createX509CertificateFactory;
 import static com.ca.apim.gateway.cagatewayconfig.util.gateway.ConnectionUtils.createAcceptAllSocketFactory;
 import static com.google.common.collect.ImmutableSet.copyOf;
@@ -49,10 +52,11 @@ public class ConfigBuilderInjectionProvider implements InjectionProvider {
     public @Nullable Map<Class, Object> getSingleInstances(InjectionProviderContext context) {
         return ImmutableMap.<Class, Object>builder()
                 .put(DocumentTools.class, DocumentTools.INSTANCE)
+                .put(BundleStreamReader.class, BundleStreamReader.INSTANCE)
                 .put(JsonTools.class, JsonTools.INSTANCE)
                 .put(DocumentFileUtils.class, DocumentFileUtils.INSTANCE)
                 .put(FileUtils.class, FileUtils.INSTANCE)
-                .put(IdGenerator.class, new IdGenerator())
+                .put(IdGenerator.class, createIdGenerator())
                 .put(SSLSocketFactory.class, createAcceptAllSocketFactory())
                 .put(CertificateFactory.class, createX509CertificateFactory())
                 .build();
@@ -84,4 +88,9 @@ public class ConfigBuilderInjectionProvider implements InjectionProvider {
                 .put(PolicyConverter.class, copyOf(context.getDefaultReflections().getSubTypesOf(PolicyConverter.class)))
                 .build();
     }
+
+    private static IdGenerator createIdGenerator() {
+        // name based ids are opt-in, so that building twice produces the same bundles
+        return Boolean.getBoolean(NAME_BASED_IDS_PROPERTY) ? new NameBasedIdGenerator() : new IdGenerator();
+    }
 }
@@ -9,8 +9,10 @@ package com.ca.apim.gateway.cagatewayconfig.util.injection;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.AbstractModule;
 import com.google.inject.Injector;
+import com.google.inject.Module;
 import com.google.inject.multibindings.Multibinder;
 import com.google.inject.name.Names;
+import com.google.inject.util.Modules;
 import org.reflections.Reflections;
 
 import java.io.IOException;
@@ -130,4 +132,15 @@ public class InjectionRegistry extends AbstractModule {
         return injector;
     }
 
+    /**
+     * Creates a new injector with some of the bindings replaced. The shared injector is not changed.
+     *
+     * @param overrides module with the bindings to replace
+     * @return the new injector
+     */
+    @VisibleForTesting
+    public static Injector createWithOverrides(Module overrides) {
+        return createInjector(Modules.override(INSTANCE).with(overrides));
+    }
+
 }
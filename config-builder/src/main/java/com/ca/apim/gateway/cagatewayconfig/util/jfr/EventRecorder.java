@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.jfr;
+
+import com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents.Type;
+
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Records a step as a Flight Recorder event. Implemented by the recorder of the jfr source set, which is only compiled by
+ * a JDK with the jdk.jfr API and only loaded by {@link FlightRecorderEvents} when the JVM has it.
+ */
+interface EventRecorder {
+
+    <T> T record(Type type, String bundle, String entityType, String name, Supplier<T> action, ToIntFunction<? super T> entityCount);
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.jfr;
+
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Records the steps of the bundle pipelines as Java Flight Recorder events, so a recording of a Gradle build or of the
+ * environment creator shows which bundle, entity type or policy is slow next to the GC and lock contention of the JVM.
+ * <p>
+ * The events are only created when the JVM has the Flight Recorder and a recording has them enabled, otherwise the step
+ * is just run. The event classes use the jdk.jfr API, which Java 8 only has from update 262, so they are in the jfr source
+ * set: it is only compiled by a JDK that has the API, and its recorder is only loaded, through reflection, by a JVM that
+ * has it.
+ */
+public final class FlightRecorderEvents {
+
+    private static final String RECORDER_CLASS_NAME = "com.ca.apim.gateway.cagatewayconfig.util.jfr.ConfigBuilderEventRecorder";
+    private static final EventRecorder RECORDER = loadRecorder();
+
+    /**
+     * The steps recorded as events.
+     */
+    public enum Type {
+        PARSE,
+        LOAD,
+        BUILD,
+        CONVERT_POLICY,
+        LINK,
+        WRITE,
+        DETEMPLATIZE,
+        CREATE_KEY_STORE
+    }
+
+    private FlightRecorderEvents() {
+    }
+
+    /**
+     * Runs the step, recording it as an event if enabled.
+     *
+     * @param type        type of the step
+     * @param bundle      name of the bundle the step is for, null if not applicable
+     * @param entityType  type of the entities handled by the step, null if not applicable
+     * @param name        name of the entity, file or component handled by the step, null if not applicable
+     * @param action      the step
+     * @param entityCount number of entities handled by the step, called after it and only if the event is recorded, null
+     *                    if not applicable
+     */
+    public static void record(Type type, String bundle, String entityType, String name, Runnable action, IntSupplier entityCount) {
+        record(type, bundle, entityType, name, () -> {
+            action.run();
+            return null;
+        }, entityCount == null ? null : result -> entityCount.getAsInt());
+    }
+
+    /**
+     * Runs the step, recording it as an event if enabled. Nothing is recorded if it fails.
+     *
+     * @param type        type of the step
+     * @param bundle      name of the bundle the step is for, null if not applicable
+     * @param entityType  type of the entities handled by the step, null if not applicable
+     * @param name        name of the entity, file or component handled by the step, null if not applicable
+     * @param action      the step
+     * @param entityCount number of entities in the result of the step, called only if the event is recorded, null if not
+     *                    applicable
+     * @param <T>         type of the step result
+     * @return the step result
+     */
+    public static <T> T record(Type type, String bundle, String entityType, String name, Supplier<T> action, ToIntFunction<? super T> entityCount) {
+        if (RECORDER == null) {
+            return action.get();
+        }
+        return RECORDER.record(type, bundle, entityType, name, action, entityCount);
+    }
+
+    /**
+     * @return the recorder of the events, null if the JVM has no Flight Recorder or the events were not compiled
+     */
+    private static EventRecorder loadRecorder() {
+        final ClassLoader classLoader = FlightRecorderEvents.class.getClassLoader();
+        try {
+            Class.forName("jdk.jfr.Event", false, classLoader);
+            return (EventRecorder) Class.forName(RECORDER_CLASS_NAME, true, classLoader).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
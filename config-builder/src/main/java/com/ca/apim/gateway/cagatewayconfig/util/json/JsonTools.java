@@ -20,6 +20,7 @@ import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -37,6 +38,7 @@ public class JsonTools {
     public static final String YML_EXTENSION = "yml";
     private static final String YAML_EXTENSION = "yaml";
     private final Map<String, ObjectMapper> objectMapperMap = new HashMap<>();
+    private final Map<String, Map<Class<?>, ObjectReader>> objectReaderMap = new ConcurrentHashMap<>();
     private final FileUtils fileUtils;
     private String outputType;
     private String fileExtension;
@@ -69,6 +71,19 @@ public class JsonTools {
         return objectMapper;
     }
 
+    /**
+     * Returns a reader for the bean class, created once per type and class so the root deserializer is only resolved
+     * the first time it is asked for. Readers are immutable and can be shared between threads.
+     *
+     * @param type      the value type, JSON or YAML
+     * @param beanClass the class of the values read
+     * @return the reader for values of the bean class
+     */
+    public ObjectReader getObjectReader(final String type, final Class<?> beanClass) {
+        final ObjectMapper objectMapper = getObjectMapper(type);
+        return objectReaderMap.computeIfAbsent(type, t -> new ConcurrentHashMap<>()).computeIfAbsent(beanClass, objectMapper::readerFor);
+    }
+
     public File getDocumentFile(final File rootDir, final String fileName) {
         return Optional.ofNullable(findFile(rootDir, fileName)).orElseGet(() -> findFile(new File(rootDir, "config"), fileName));
     }
@@ -115,6 +130,14 @@ public class JsonTools {
         }
     }
 
+    public <T> T readValue(final String value, final String type, final Class<T> beanClass) {
+        try {
+            return getObjectReader(type, beanClass).readValue(value);
+        } catch (IOException e) {
+            throw new JsonToolsException("Could not parse configuration value for type: " + beanClass.getName() + " Message:" + e.getMessage(), e);
+        }
+    }
+
     @NotNull
     public String getTypeFromFile(File file) {
         String type = getTypeFromExtension(getExtension(file.getName()));
@@ -7,7 +7,10 @@
 package com.ca.apim.gateway.cagatewayconfig.util.keystore;
 
 import com.ca.apim.gateway.cagatewayconfig.beans.PrivateKey;
+import com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.jetbrains.annotations.NotNull;
@@ -21,16 +24,32 @@ import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.util.Base64;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.PRIVATE_KEY_TYPE;
+import static com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents.Type.CREATE_KEY_STORE;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.security.KeyStore.getInstance;
+import static java.util.Collections.emptyMap;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 
+/**
+ * Creates the key store with the private keys used by the gateway.
+ * The source key stores are decoded in parallel, as deriving the keys from their passwords is expensive, and the decoded keys
+ * are cached by the contents of their files, so creating the key store again with unchanged keys does not decode them again.
+ * Only the keys of the last key store created are cached, so the keys that are no longer used are not held in memory.
+ */
 @Singleton
 @SuppressWarnings("squid:S2068") // sonarcloud believes 'password' field names may have hardcoded passwords
 public class KeystoreHelper {
 
     private static final SecureRandom RANDOM = new SecureRandom();
     private final char[] keystorePassword;
+    private volatile Map<String, DecodedKey> decodedKeys = emptyMap();
+    private volatile CreatedKeyStore lastKeyStore;
 
     @VisibleForTesting
     public KeystoreHelper() {
@@ -41,21 +60,35 @@ public class KeystoreHelper {
 
     /**
      * Create a PKCS12 KeyStore and write it to a byte array, to be used during the environment application.
+     * If the keys are the same as the ones of the previously created key store, that key store is returned.
      *
      * @param privateKeys private Keys to be added to this keystore
      * @return a byte array containing the keystore data
      */
     @VisibleForTesting
     public byte[] createKeyStore(Collection<PrivateKey> privateKeys) {
-        // if no private Keys specified do nothing
+        // if no private Keys specified do nothing, and forget the keys of the previous key store
         if (privateKeys.isEmpty()) {
+            decodedKeys = emptyMap();
+            lastKeyStore = null;
             return new byte[0];
         }
 
-        KeyStore ks = createKeyStoreInstance(privateKeys);
+        return FlightRecorderEvents.record(CREATE_KEY_STORE, null, PRIVATE_KEY_TYPE, null, () -> {
+            BouncyCastleRegistration.register();
+            final List<DecodedKey> keys = decodeKeys(privateKeys);
+            decodedKeys = keys.stream().collect(toMap(k -> k.fingerprint, identity(), (first, second) -> first));
+            final List<String> fingerprints = keys.stream().map(k -> k.fingerprint).collect(toList());
+            final CreatedKeyStore previous = lastKeyStore;
+            if (previous != null && previous.fingerprints.equals(fingerprints)) {
+                return previous.keyStore.clone();
+            }
 
-        // transform it to byte array so it can be written properly anywhere
-        return toBytes(ks);
+            // transform it to byte array so it can be written properly anywhere
+            final byte[] keyStore = toBytes(createKeyStoreInstanceWithKeys(keys));
+            lastKeyStore = new CreatedKeyStore(fingerprints, keyStore.clone());
+            return keyStore;
+        }, keyStore -> privateKeys.size());
     }
 
     @VisibleForTesting
@@ -71,8 +104,11 @@ public class KeystoreHelper {
 
     @VisibleForTesting
     KeyStore createKeyStoreInstance(Collection<PrivateKey> privateKeys) {
-        Security.insertProviderAt(new BouncyCastleProvider(), 1);
+        BouncyCastleRegistration.register();
+        return createKeyStoreInstanceWithKeys(decodeKeys(privateKeys));
+    }
 
+    private KeyStore createKeyStoreInstanceWithKeys(List<DecodedKey> keys) {
         // create a default Keystore
         KeyStore ks;
         try {
@@ -81,11 +117,24 @@ public class KeystoreHelper {
             throw new KeyStoreCreationException("Error creating default key store", e);
         }
 
-        // for each private key, loads its key and cert chain and add to the keystore
-        privateKeys.forEach(pk -> storeKey(ks, pk));
+        // add each private key with its cert chain to the keystore
+        keys.forEach(k -> storeKey(ks, k));
         return ks;
     }
 
+    /**
+     * Decodes the keys in parallel, keeping their order, reusing the keys decoded for the last key store created.
+     */
+    private List<DecodedKey> decodeKeys(Collection<PrivateKey> privateKeys) {
+        final Map<String, DecodedKey> cached = decodedKeys;
+        return privateKeys.parallelStream().map(pk -> decodeKey(pk, cached)).collect(toList());
+    }
+
+    @VisibleForTesting
+    int getDecodedKeyCount() {
+        return decodedKeys.size();
+    }
+
     @VisibleForTesting
     KeyStore loadKeyStore(InputStream stream, char[] password) throws CertificateException, NoSuchAlgorithmException, IOException, KeyStoreException {
         KeyStore ks = getInstance(getKeyStoreType());
@@ -96,16 +145,48 @@ public class KeystoreHelper {
 
     @VisibleForTesting
     void storeKey(KeyStore ks, PrivateKey pk) {
+        storeKey(ks, decodeKey(pk, emptyMap()));
+    }
+
+    private void storeKey(KeyStore ks, DecodedKey key) {
+        try {
+            ks.setKeyEntry(key.alias, key.key, keystorePassword, key.certificates);
+        } catch (KeyStoreException e) {
+            throw new KeyStoreCreationException("Error adding Private Key '" + key.alias + "' to Key Store", e);
+        }
+    }
+
+    private DecodedKey decodeKey(PrivateKey pk, Map<String, DecodedKey> decoded) {
+        final String fingerprint = fingerprint(pk);
+        final DecodedKey cached = decoded.get(fingerprint);
+        if (cached != null) {
+            return cached;
+        }
+
         KeyStore privateKeyStore = loadKeyStore(pk);
         Key privateKey = getKeyFromKeyStore(pk, privateKeyStore);
-
         Certificate[] certificates = loadCertificatesForPrivateKey(pk, privateKeyStore);
 
-        try {
-            ks.setKeyEntry(pk.getAlias(), privateKey, keystorePassword, certificates);
-        } catch (KeyStoreException e) {
-            throw new KeyStoreCreationException("Error adding Private Key '" + pk.getAlias() + "' to Key Store", e);
+        return new DecodedKey(fingerprint, pk.getAlias(), privateKey, certificates);
+    }
+
+    /**
+     * Hash of everything the decoded key depends on: its alias, its password and the contents of its file.
+     */
+    private static String fingerprint(PrivateKey pk) {
+        final Hasher hasher = Hashing.sha256().newHasher()
+                .putString(pk.getAlias(), UTF_8).putByte((byte) 0)
+                .putString(pk.getKeyPassword(), UTF_8).putByte((byte) 0);
+        try (InputStream stream = pk.getPrivateKeyFile().getWithIO()) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                hasher.putBytes(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new KeyStoreCreationException("Error loading Key file for '" + pk.getAlias() + "'", e);
         }
+        return hasher.hash().toString();
     }
 
     @NotNull
@@ -150,4 +231,44 @@ public class KeystoreHelper {
     public String getKeyStoreType() {
         return "PKCS12";
     }
+
+    /**
+     * Registers the BouncyCastle provider the first time it is needed, once per JVM.
+     */
+    private static final class BouncyCastleRegistration {
+        static {
+            Security.insertProviderAt(new BouncyCastleProvider(), 1);
+        }
+
+        private BouncyCastleRegistration() {
+        }
+
+        static void register() {
+            // registered by the class initialization
+        }
+    }
+
+    private static final class DecodedKey {
+        private final String fingerprint;
+        private final String alias;
+        private final Key key;
+        private final Certificate[] certificates;
+
+        private DecodedKey(String fingerprint, String alias, Key key, Certificate[] certificates) {
+            this.fingerprint = fingerprint;
+            this.alias = alias;
+            this.key = key;
+            this.certificates = certificates;
+        }
+    }
+
+    private static final class CreatedKeyStore {
+        private final List<String> fingerprints;
+        private final byte[] keyStore;
+
+        private CreatedKeyStore(List<String> fingerprints, byte[] keyStore) {
+            this.fingerprints = fingerprints;
+            this.keyStore = keyStore;
+        }
+    }
 }
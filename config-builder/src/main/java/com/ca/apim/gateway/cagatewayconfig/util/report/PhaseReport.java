@@ -0,0 +1,401 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.report;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_EMPTY;
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
+/**
+ * Wall time, CPU time, entity count and bytes processed of each phase of a build, for example the loaders, entity builders
+ * and file writing of the build-bundle task. Phases can be recorded from several threads at once.
+ * <p>
+ * A phase that is part of another one is named after it, separated with a {@value #SEPARATOR}. The CPU time of a phase
+ * is the one of the thread that ran it, so for a phase running its work in parallel it only counts the part of the work
+ * done by that thread, the parts are in its nested phases.
+ * <p>
+ * When profiling memory the bytes allocated by each phase and the heap high-water mark at its end are recorded as well,
+ * and estimates of the size of the structures a phase keeps in memory can be added to it. The allocated bytes are counted
+ * the same way as the CPU time, by the thread that ran the phase. The high-water mark is the one of the whole JVM since the
+ * report was created, so it includes the memory used by anything else running in it, like other tasks of a Gradle daemon.
+ * <p>
+ * When timing entities the wall time spent on each individual entity, for example each policy, is recorded as well, by
+ * entity type and name, to find the entities that are the slowest to build.
+ */
+@JsonPropertyOrder({"name", "wallTimeNanos", "profilingMemory", "timingEntities", "phases", "entityWallTimeNanos"})
+public class PhaseReport {
+
+    public static final String SEPARATOR = "/";
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final String name;
+    private final boolean profilingMemory;
+    private final boolean timingEntities;
+    private final long start = System.nanoTime();
+    private final List<Phase> phases = new ArrayList<>();
+    private final Map<String, Map<String, Long>> entityWallTimeNanos = new TreeMap<>();
+
+    public PhaseReport(String name) {
+        this(name, false);
+    }
+
+    /**
+     * @param name            name of the report
+     * @param profilingMemory whether to record the memory used by each phase
+     */
+    public PhaseReport(String name, boolean profilingMemory) {
+        this(name, profilingMemory, false);
+    }
+
+    /**
+     * @param name            name of the report
+     * @param profilingMemory whether to record the memory used by each phase
+     * @param timingEntities  whether to record the time spent on each entity
+     */
+    public PhaseReport(String name, boolean profilingMemory, boolean timingEntities) {
+        this.name = name;
+        this.profilingMemory = profilingMemory;
+        this.timingEntities = timingEntities;
+        if (profilingMemory) {
+            resetPeakHeapBytes();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isProfilingMemory() {
+        return profilingMemory;
+    }
+
+    public boolean isTimingEntities() {
+        return timingEntities;
+    }
+
+    /**
+     * @return the time from the creation of the report to the end of the last phase
+     */
+    public long getWallTimeNanos() {
+        return getPhases().stream().mapToLong(p -> p.getStartNanos() + p.getWallTimeNanos()).max().orElse(0);
+    }
+
+    /**
+     * @return the recorded phases, in the order they started
+     */
+    public List<Phase> getPhases() {
+        final List<Phase> sortedPhases;
+        synchronized (phases) {
+            sortedPhases = new ArrayList<>(phases);
+        }
+        sortedPhases.sort(Comparator.comparingLong(Phase::getStartNanos));
+        return sortedPhases;
+    }
+
+    /**
+     * Runs the phase and records its times. Nothing is recorded if it fails.
+     *
+     * @param phase  name of the phase
+     * @param action the phase
+     */
+    public void record(String phase, Runnable action) {
+        record(phase, action, null);
+    }
+
+    /**
+     * Runs the phase and records its times and the number of entities it handled. Nothing is recorded if it fails.
+     *
+     * @param phase       name of the phase
+     * @param action      the phase
+     * @param entityCount number of entities handled by the phase, called after it
+     */
+    public void record(String phase, Runnable action, IntSupplier entityCount) {
+        record(phase, () -> {
+            action.run();
+            return null;
+        }, entityCount == null ? null : result -> entityCount.getAsInt());
+    }
+
+    /**
+     * Runs the phase and records its times and the number of entities in its result. Nothing is recorded if it fails.
+     *
+     * @param phase       name of the phase
+     * @param action      the phase
+     * @param entityCount number of entities in the result of the phase, null if not applicable
+     * @param <T>         type of the phase result
+     * @return the phase result
+     */
+    public <T> T record(String phase, Supplier<T> action, ToIntFunction<? super T> entityCount) {
+        return record(phase, action, entityCount, null);
+    }
+
+    /**
+     * Runs the phase and records its times, the number of entities in its result and the number of bytes it read or
+     * wrote. Nothing is recorded if it fails.
+     *
+     * @param phase       name of the phase
+     * @param action      the phase
+     * @param entityCount number of entities in the result of the phase, null if not applicable
+     * @param byteCount   number of bytes read or written by the phase, called with its result, null if not applicable
+     * @param <T>         type of the phase result
+     * @return the phase result
+     */
+    public <T> T record(String phase, Supplier<T> action, ToIntFunction<? super T> entityCount, ToLongFunction<? super T> byteCount) {
+        final long allocatedStart = profilingMemory ? currentThreadAllocatedBytes() : -1;
+        final long cpuStart = currentThreadCpuTime();
+        final long wallStart = System.nanoTime();
+        final T result = action.get();
+        final long wallTime = System.nanoTime() - wallStart;
+        final long cpuEnd = currentThreadCpuTime();
+        final long allocatedEnd = profilingMemory ? currentThreadAllocatedBytes() : -1;
+
+        final Phase recordedPhase = new Phase(
+                phase,
+                wallStart - start,
+                wallTime,
+                cpuStart < 0 || cpuEnd < 0 ? null : cpuEnd - cpuStart,
+                entityCount == null ? null : entityCount.applyAsInt(result),
+                byteCount == null ? null : byteCount.applyAsLong(result));
+        if (profilingMemory) {
+            recordedPhase.allocatedBytes = allocatedStart < 0 || allocatedEnd < 0 ? null : allocatedEnd - allocatedStart;
+            recordedPhase.peakHeapBytes = peakHeapBytes();
+        }
+        synchronized (phases) {
+            phases.add(recordedPhase);
+        }
+        return result;
+    }
+
+    /**
+     * Adds estimates of the size of the structures kept in memory by a recorded phase, for example the entity maps of the
+     * bundle it loaded. The estimates are only computed when profiling memory, after the phase so they are not part of its
+     * times.
+     *
+     * @param phase     name of the recorded phase, the last one with that name if it was recorded several times
+     * @param estimates the estimated size in bytes of each structure, by structure name
+     */
+    public void estimateRetainedBytes(String phase, Supplier<Map<String, Long>> estimates) {
+        if (!profilingMemory) {
+            return;
+        }
+        final Map<String, Long> retainedBytes = estimates.get();
+        synchronized (phases) {
+            for (int i = phases.size() - 1; i >= 0; i--) {
+                if (phases.get(i).getName().equals(phase)) {
+                    phases.get(i).retainedBytes.putAll(retainedBytes);
+                    return;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Phase '" + phase + "' was not recorded");
+    }
+
+    /**
+     * Runs the work done for a single entity and, when timing entities, adds its wall time to the one of the entity. An
+     * entity can be recorded several times, for example once for each step of its building.
+     *
+     * @param entityType type of the entity
+     * @param entityName name of the entity, unique for its type
+     * @param action     the work done for the entity
+     * @param <T>        type of the result
+     * @return the result
+     */
+    public <T> T recordEntity(String entityType, String entityName, Supplier<T> action) {
+        if (!timingEntities) {
+            return action.get();
+        }
+        final long wallStart = System.nanoTime();
+        final T result = action.get();
+        final long wallTime = System.nanoTime() - wallStart;
+        synchronized (entityWallTimeNanos) {
+            entityWallTimeNanos.computeIfAbsent(entityType, t -> new TreeMap<>()).merge(entityName, wallTime, Long::sum);
+        }
+        return result;
+    }
+
+    /**
+     * Runs the work done for a single entity and, when timing entities, adds its wall time to the one of the entity.
+     *
+     * @param entityType type of the entity
+     * @param entityName name of the entity, unique for its type
+     * @param action     the work done for the entity
+     */
+    public void recordEntity(String entityType, String entityName, Runnable action) {
+        recordEntity(entityType, entityName, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return the wall time spent on each entity, by entity type and name, empty if not timing entities
+     */
+    @JsonInclude(NON_EMPTY)
+    public Map<String, Map<String, Long>> getEntityWallTimeNanos() {
+        synchronized (entityWallTimeNanos) {
+            final Map<String, Map<String, Long>> copy = new TreeMap<>();
+            entityWallTimeNanos.forEach((type, times) -> copy.put(type, new TreeMap<>(times)));
+            return copy;
+        }
+    }
+
+    /**
+     * Resets the heap high-water mark of the JVM, to measure the one of what runs next.
+     */
+    public static void resetPeakHeapBytes() {
+        ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    /**
+     * @return how many phases the named phase is part of
+     */
+    static int depth(String phase) {
+        int depth = 0;
+        for (int i = phase.indexOf(SEPARATOR); i >= 0; i = phase.indexOf(SEPARATOR, i + 1)) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private static long currentThreadCpuTime() {
+        return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : -1;
+    }
+
+    @SuppressWarnings("squid:S1191") // the allocated bytes are only available from the HotSpot extension of the MXBean
+    private static long currentThreadAllocatedBytes() {
+        if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+            if (threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled()) {
+                return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the sum of the peak usage of the heap pools since they were last reset, an upper bound of the heap
+     * high-water mark as the pools may have peaked at different times
+     */
+    public static long peakHeapBytes() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .map(MemoryPoolMXBean::getPeakUsage)
+                .filter(Objects::nonNull)
+                .mapToLong(MemoryUsage::getUsed)
+                .sum();
+    }
+
+    @JsonInclude(NON_NULL)
+    @JsonPropertyOrder({"name", "startNanos", "wallTimeNanos", "cpuTimeNanos", "entities", "bytes", "allocatedBytes", "peakHeapBytes", "retainedBytes"})
+    public static class Phase {
+        private final String name;
+        private final long startNanos;
+        private final long wallTimeNanos;
+        private final Long cpuTimeNanos;
+        private final Integer entities;
+        private final Long bytes;
+        private Long allocatedBytes;
+        private Long peakHeapBytes;
+        private final Map<String, Long> retainedBytes = new TreeMap<>();
+
+        Phase(String name, long startNanos, long wallTimeNanos, Long cpuTimeNanos, Integer entities, Long bytes) {
+            this.name = name;
+            this.startNanos = startNanos;
+            this.wallTimeNanos = wallTimeNanos;
+            this.cpuTimeNanos = cpuTimeNanos;
+            this.entities = entities;
+            this.bytes = bytes;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the time from the creation of the report to the start of the phase
+         */
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        public long getWallTimeNanos() {
+            return wallTimeNanos;
+        }
+
+        /**
+         * @return the CPU time of the thread that ran the phase, null if the JVM does not measure it
+         */
+        public Long getCpuTimeNanos() {
+            return cpuTimeNanos;
+        }
+
+        /**
+         * @return the number of entities handled by the phase, null if not applicable
+         */
+        public Integer getEntities() {
+            return entities;
+        }
+
+        /**
+         * @return the number of bytes read or written by the phase, null if not applicable
+         */
+        public Long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return the bytes allocated by the thread that ran the phase, null if not profiling memory or if the JVM does not
+         * measure it
+         */
+        public Long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        /**
+         * @return the heap high-water mark at the end of the phase, null if not profiling memory
+         */
+        public Long getPeakHeapBytes() {
+            return peakHeapBytes;
+        }
+
+        /**
+         * @return the estimated size in bytes of the structures kept in memory by the phase, by structure name
+         */
+        @JsonInclude(NON_EMPTY)
+        public Map<String, Long> getRetainedBytes() {
+            return retainedBytes;
+        }
+
+        /**
+         * @return how many phases this one is part of
+         */
+        int getDepth() {
+            return depth(name);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.report;
+
+import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayCallReport;
+import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtilsException;
+import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
+import com.ca.apim.gateway.cagatewayconfig.util.json.JsonToolsException;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport.Phase;
+import com.ca.apim.gateway.cagatewayconfig.util.report.ProfileReport.PhaseStatistics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools.JSON;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes a {@link PhaseReport} or {@link ProfileReport} to a folder as JSON, to be processed by other tools, and as a
+ * summary table to be read. Also writes the {@link GatewayCallReport} of a call to the gateway as JSON, with a one line
+ * summary to be logged.
+ */
+@Singleton
+public class PhaseReportWriter {
+
+    public static final String REPORT_FILE_NAME = "phases.json";
+    public static final String SUMMARY_FILE_NAME = "phases.txt";
+    public static final String PROFILE_REPORT_FILE_NAME = "profile.json";
+    public static final String PROFILE_SUMMARY_FILE_NAME = "profile.txt";
+    public static final String CALL_REPORT_FILE_NAME = "gateway-call.json";
+    // for the callers that write a report without creating the injector
+    public static final PhaseReportWriter INSTANCE = new PhaseReportWriter(JsonTools.INSTANCE);
+
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+    private static final double BYTES_PER_KILOBYTE = 1024d;
+    private static final double BYTES_PER_MEGABYTE = 1024d * 1024d;
+    private static final String INDENT = "  ";
+
+    private final JsonTools jsonTools;
+
+    @Inject
+    PhaseReportWriter(final JsonTools jsonTools) {
+        this.jsonTools = jsonTools;
+    }
+
+    /**
+     * Writes the report and its summary into the folder, replacing the ones of a previous build.
+     *
+     * @param report    the report to write
+     * @param directory the folder to write the report to, created if it does not exist
+     */
+    public void write(final PhaseReport report, final File directory) {
+        try {
+            Files.createDirectories(directory.toPath());
+            writeJson(report, new File(directory, REPORT_FILE_NAME));
+            Files.write(new File(directory, SUMMARY_FILE_NAME).toPath(), summarize(report).getBytes(UTF_8));
+        } catch (IOException e) {
+            throw new DocumentFileUtilsException("Error writing the phase report to '" + directory + "': " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes the profile and its summary into the folder, replacing the ones of a previous run.
+     *
+     * @param report    the profile to write
+     * @param directory the folder to write the profile to, created if it does not exist
+     */
+    public void write(final ProfileReport report, final File directory) {
+        try {
+            Files.createDirectories(directory.toPath());
+            jsonTools.getObjectWriter(JSON).writeValue(new File(directory, PROFILE_REPORT_FILE_NAME), report);
+            Files.write(new File(directory, PROFILE_SUMMARY_FILE_NAME).toPath(), summarize(report).getBytes(UTF_8));
+        } catch (IOException e) {
+            throw new DocumentFileUtilsException("Error writing the profile report to '" + directory + "': " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes the report of a call to the gateway into the folder as JSON, replacing the one of a previous call.
+     *
+     * @param report    the report to write
+     * @param directory the folder to write the report to, created if it does not exist
+     */
+    public void write(final GatewayCallReport report, final File directory) {
+        try {
+            Files.createDirectories(directory.toPath());
+            jsonTools.getObjectWriter(JSON).writeValue(new File(directory, CALL_REPORT_FILE_NAME), report);
+        } catch (IOException e) {
+            throw new DocumentFileUtilsException("Error writing the gateway call report to '" + directory + "': " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes the report as JSON, without the summary.
+     *
+     * @param report     the report to write
+     * @param reportFile the file to write the report to, in an existing folder
+     */
+    public void writeJson(final PhaseReport report, final File reportFile) {
+        try {
+            jsonTools.getObjectWriter(JSON).writeValue(reportFile, report);
+        } catch (IOException e) {
+            throw new DocumentFileUtilsException("Error writing the phase report to '" + reportFile + "': " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Formats the report as JSON on a single line, to be logged.
+     *
+     * @param report the report to format
+     * @return the report as JSON
+     */
+    public String toJson(final PhaseReport report) {
+        try {
+            return jsonTools.getObjectMapper(JSON).writeValueAsString(report);
+        } catch (JsonProcessingException e) {
+            throw new JsonToolsException("Error formatting the phase report: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Formats the report as a table, with a line for each phase in the order they started. Nested phases are indented
+     * under the phase they are part of. When the report profiled memory, the table has the allocated bytes and heap
+     * high-water mark of each phase and is followed by the retained size estimates.
+     *
+     * @param report the report to format
+     * @return the summary table
+     */
+    public String summarize(final PhaseReport report) {
+        final List<Phase> phases = report.getPhases();
+        final int nameWidth = Math.max("Phase".length(), phases.stream()
+                .mapToInt(p -> displayName(p).length())
+                .max()
+                .orElse(0));
+        final String format = "%-" + nameWidth + "s %12s %12s %10s %14s" + (report.isProfilingMemory() ? " %14s %14s" : "") + "%n";
+
+        final StringBuilder summary = new StringBuilder();
+        summary.append(report.getName()).append(System.lineSeparator());
+        summary.append(String.format(Locale.ROOT, format, "Phase", "Wall (ms)", "CPU (ms)", "Entities", "Bytes", "Allocated (MB)", "Peak heap (MB)"));
+        phases.forEach(p -> summary.append(String.format(Locale.ROOT, format,
+                displayName(p),
+                millis(p.getWallTimeNanos()),
+                p.getCpuTimeNanos() == null ? "-" : millis(p.getCpuTimeNanos()),
+                p.getEntities() == null ? "" : p.getEntities().toString(),
+                p.getBytes() == null ? "" : p.getBytes().toString(),
+                p.getAllocatedBytes() == null ? "-" : megabytes(p.getAllocatedBytes()),
+                p.getPeakHeapBytes() == null ? "-" : megabytes(p.getPeakHeapBytes()))));
+        summary.append(String.format(Locale.ROOT, format, "Total", millis(report.getWallTimeNanos()), "", "", "", "", ""));
+
+        if (phases.stream().anyMatch(p -> !p.getRetainedBytes().isEmpty())) {
+            final String retainedFormat = "%-" + nameWidth + "s %-30s %14s%n";
+            summary.append(System.lineSeparator());
+            summary.append(String.format(Locale.ROOT, retainedFormat, "Phase", "Structure", "Retained (MB)"));
+            phases.forEach(p -> p.getRetainedBytes().forEach((structure, bytes) ->
+                    summary.append(String.format(Locale.ROOT, retainedFormat, p.getName(), structure, megabytes(bytes)))));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Formats the profile as a table with the median and 95th percentile times of each phase, indented like the ones of
+     * {@link #summarize(PhaseReport)}, followed by a table of the slowest entities of each type.
+     *
+     * @param report the profile to format
+     * @return the summary tables
+     */
+    public String summarize(final ProfileReport report) {
+        final List<PhaseStatistics> phases = report.getPhases();
+        final int nameWidth = Math.max("Phase".length(), phases.stream()
+                .mapToInt(p -> displayName(p.getName(), p.getDepth()).length())
+                .max()
+                .orElse(0));
+        final String format = "%-" + nameWidth + "s %12s %12s %12s %12s %10s%n";
+
+        final StringBuilder summary = new StringBuilder();
+        summary.append(String.format(Locale.ROOT, "%s: %d runs after %d warmup runs, peak heap %s MB%n",
+                report.getName(), report.getIterations(), report.getWarmups(), megabytes(report.getPeakHeapBytes())));
+        summary.append(String.format(Locale.ROOT, format, "Phase", "p50 (ms)", "p95 (ms)", "CPU p50 (ms)", "CPU p95 (ms)", "Entities"));
+        phases.forEach(p -> summary.append(String.format(Locale.ROOT, format,
+                displayName(p.getName(), p.getDepth()),
+                millis(p.getWallTimeNanosP50()),
+                millis(p.getWallTimeNanosP95()),
+                p.getCpuTimeNanosP50() == null ? "-" : millis(p.getCpuTimeNanosP50()),
+                p.getCpuTimeNanosP95() == null ? "-" : millis(p.getCpuTimeNanosP95()),
+                p.getEntities() == null ? "" : p.getEntities().toString())));
+        summary.append(String.format(Locale.ROOT, format, "Total", millis(report.getWallTimeNanosP50()), millis(report.getWallTimeNanosP95()), "", "", ""));
+
+        report.getSlowestEntities().forEach((type, entities) -> {
+            final int entityWidth = Math.max(type.length() + "Slowest ".length(), entities.stream().mapToInt(e -> e.getName().length()).max().orElse(0));
+            final String entityFormat = "%-" + entityWidth + "s %12s %12s%n";
+            summary.append(System.lineSeparator());
+            summary.append(String.format(Locale.ROOT, entityFormat, "Slowest " + type, "p50 (ms)", "p95 (ms)"));
+            entities.forEach(e -> summary.append(String.format(Locale.ROOT, entityFormat, e.getName(), millis(e.getWallTimeNanosP50()), millis(e.getWallTimeNanosP95()))));
+        });
+        return summary.toString();
+    }
+
+    /**
+     * Formats the report of a call to the gateway on a single line, with the time spent resolving, connecting,
+     * handshaking and waiting for the first byte of the response out of the total time.
+     *
+     * @param report the report to format
+     * @return the summary line
+     */
+    public String summarize(final GatewayCallReport report) {
+        return String.format(Locale.ROOT, "%s %s: %s in %s ms (DNS %s ms, connect %s ms, TLS %s ms, first byte %s ms), %s KB sent, %s KB received, %d requests, %d retries",
+                report.getMethod(),
+                report.getUri(),
+                report.getStatus() == 0 ? "no response" : "status " + report.getStatus(),
+                millis(report.getTotalNanos()),
+                millis(report.getDnsNanos()),
+                millis(report.getConnectNanos()),
+                millis(report.getTlsNanos()),
+                millis(report.getFirstByteNanos()),
+                kilobytes(report.getBytesSent()),
+                kilobytes(report.getBytesReceived()),
+                report.getRequests(),
+                report.getRetries());
+    }
+
+    private static String displayName(Phase phase) {
+        return displayName(phase.getName(), phase.getDepth());
+    }
+
+    private static String displayName(String phase, int depth) {
+        return StringUtils.repeat(INDENT, depth) + phase.substring(phase.lastIndexOf(PhaseReport.SEPARATOR) + 1);
+    }
+
+    private static String megabytes(long bytes) {
+        return String.format(Locale.ROOT, "%.1f", bytes / BYTES_PER_MEGABYTE);
+    }
+
+    private static String kilobytes(long bytes) {
+        return String.format(Locale.ROOT, "%.1f", bytes / BYTES_PER_KILOBYTE);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / NANOS_PER_MILLI);
+    }
+}
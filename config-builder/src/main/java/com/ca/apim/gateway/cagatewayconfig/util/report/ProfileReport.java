@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.report;
+
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport.Phase;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
+/**
+ * The median and 95th percentile of the times of each phase over several runs of a build, with the slowest entities of
+ * each type, built from the {@link PhaseReport} of each run. Percentiles are computed with the nearest-rank method, so
+ * they are times of actual runs.
+ */
+@JsonPropertyOrder({"name", "warmups", "iterations", "wallTimeNanosP50", "wallTimeNanosP95", "peakHeapBytes", "phases", "slowestEntities"})
+public class ProfileReport {
+
+    private final String name;
+    private final int warmups;
+    private final int iterations;
+    private final long wallTimeNanosP50;
+    private final long wallTimeNanosP95;
+    private final long peakHeapBytes;
+    private final List<PhaseStatistics> phases;
+    private final Map<String, List<EntityStatistics>> slowestEntities;
+
+    private ProfileReport(String name, int warmups, int iterations, long wallTimeNanosP50, long wallTimeNanosP95, long peakHeapBytes,
+                          List<PhaseStatistics> phases, Map<String, List<EntityStatistics>> slowestEntities) {
+        this.name = name;
+        this.warmups = warmups;
+        this.iterations = iterations;
+        this.wallTimeNanosP50 = wallTimeNanosP50;
+        this.wallTimeNanosP95 = wallTimeNanosP95;
+        this.peakHeapBytes = peakHeapBytes;
+        this.phases = phases;
+        this.slowestEntities = slowestEntities;
+    }
+
+    /**
+     * @param name            name of the profiled build
+     * @param warmups         number of runs done before the measured ones
+     * @param reports         the report of each measured run
+     * @param peakHeapBytes   the heap high-water mark of the measured runs
+     * @param slowestEntities the number of slowest entities to keep for each entity type
+     * @return the statistics of the reports
+     */
+    public static ProfileReport create(String name, int warmups, List<PhaseReport> reports, long peakHeapBytes, int slowestEntities) {
+        if (reports.isEmpty()) {
+            throw new IllegalArgumentException("No report to profile");
+        }
+        final List<Long> wallTimes = reports.stream().map(PhaseReport::getWallTimeNanos).collect(Collectors.toList());
+        return new ProfileReport(name, warmups, reports.size(), percentile(wallTimes, 50), percentile(wallTimes, 95), peakHeapBytes,
+                phaseStatistics(reports), slowestEntities(reports, slowestEntities));
+    }
+
+    /**
+     * Phases recorded several times in a run, or only in some of the runs, are summed for each run they are in.
+     */
+    private static List<PhaseStatistics> phaseStatistics(List<PhaseReport> reports) {
+        final Map<String, List<Long>> wallTimes = new LinkedHashMap<>();
+        final Map<String, List<Long>> cpuTimes = new HashMap<>();
+        final Map<String, Integer> entities = new HashMap<>();
+        for (PhaseReport report : reports) {
+            final Map<String, Long> reportWallTimes = new LinkedHashMap<>();
+            final Map<String, Long> reportCpuTimes = new HashMap<>();
+            for (Phase phase : report.getPhases()) {
+                reportWallTimes.merge(phase.getName(), phase.getWallTimeNanos(), Long::sum);
+                if (phase.getCpuTimeNanos() != null) {
+                    reportCpuTimes.merge(phase.getName(), phase.getCpuTimeNanos(), Long::sum);
+                }
+                if (phase.getEntities() != null) {
+                    entities.put(phase.getName(), phase.getEntities());
+                }
+            }
+            reportWallTimes.forEach((phase, time) -> wallTimes.computeIfAbsent(phase, p -> new ArrayList<>()).add(time));
+            reportCpuTimes.forEach((phase, time) -> cpuTimes.computeIfAbsent(phase, p -> new ArrayList<>()).add(time));
+        }
+
+        return wallTimes.entrySet().stream()
+                .map(e -> new PhaseStatistics(
+                        e.getKey(),
+                        entities.get(e.getKey()),
+                        percentile(e.getValue(), 50),
+                        percentile(e.getValue(), 95),
+                        cpuTimes.containsKey(e.getKey()) ? percentile(cpuTimes.get(e.getKey()), 50) : null,
+                        cpuTimes.containsKey(e.getKey()) ? percentile(cpuTimes.get(e.getKey()), 95) : null))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The entities are ordered by their median time, slowest first.
+     */
+    private static Map<String, List<EntityStatistics>> slowestEntities(List<PhaseReport> reports, int count) {
+        final Map<String, Map<String, List<Long>>> entityTimes = new TreeMap<>();
+        reports.forEach(report -> report.getEntityWallTimeNanos().forEach((type, times) -> times.forEach((entity, time) ->
+                entityTimes.computeIfAbsent(type, t -> new HashMap<>()).computeIfAbsent(entity, e -> new ArrayList<>()).add(time))));
+
+        final Map<String, List<EntityStatistics>> slowestEntities = new TreeMap<>();
+        entityTimes.forEach((type, times) -> slowestEntities.put(type, times.entrySet().stream()
+                .map(e -> new EntityStatistics(e.getKey(), percentile(e.getValue(), 50), percentile(e.getValue(), 95)))
+                .sorted(Comparator.comparingLong(EntityStatistics::getWallTimeNanosP50).reversed().thenComparing(EntityStatistics::getName))
+                .limit(count)
+                .collect(Collectors.toList())));
+        return slowestEntities;
+    }
+
+    /**
+     * @param values     the values, not empty
+     * @param percentile the percentile, from 1 to 100
+     * @return the smallest value greater than or equal to the given percent of the values
+     */
+    static long percentile(List<Long> values, int percentile) {
+        final List<Long> sortedValues = new ArrayList<>(values);
+        Collections.sort(sortedValues);
+        final int rank = (int) Math.ceil(percentile / 100d * sortedValues.size());
+        return sortedValues.get(Math.max(rank, 1) - 1);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the number of runs done before the measured ones, to load and compile the classes of the build
+     */
+    public int getWarmups() {
+        return warmups;
+    }
+
+    /**
+     * @return the number of measured runs
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    public long getWallTimeNanosP50() {
+        return wallTimeNanosP50;
+    }
+
+    public long getWallTimeNanosP95() {
+        return wallTimeNanosP95;
+    }
+
+    /**
+     * @return the heap high-water mark of the measured runs, including what else runs in the JVM
+     */
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    /**
+     * @return the statistics of each phase, in the order they started in the first run
+     */
+    public List<PhaseStatistics> getPhases() {
+        return phases;
+    }
+
+    /**
+     * @return the slowest entities of each entity type timed by the build
+     */
+    public Map<String, List<EntityStatistics>> getSlowestEntities() {
+        return slowestEntities;
+    }
+
+    @JsonInclude(NON_NULL)
+    @JsonPropertyOrder({"name", "entities", "wallTimeNanosP50", "wallTimeNanosP95", "cpuTimeNanosP50", "cpuTimeNanosP95"})
+    public static class PhaseStatistics {
+        private final String name;
+        private final Integer entities;
+        private final long wallTimeNanosP50;
+        private final long wallTimeNanosP95;
+        private final Long cpuTimeNanosP50;
+        private final Long cpuTimeNanosP95;
+
+        PhaseStatistics(String name, Integer entities, long wallTimeNanosP50, long wallTimeNanosP95, Long cpuTimeNanosP50, Long cpuTimeNanosP95) {
+            this.name = name;
+            this.entities = entities;
+            this.wallTimeNanosP50 = wallTimeNanosP50;
+            this.wallTimeNanosP95 = wallTimeNanosP95;
+            this.cpuTimeNanosP50 = cpuTimeNanosP50;
+            this.cpuTimeNanosP95 = cpuTimeNanosP95;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the number of entities handled by the phase in the last run, null if not applicable
+         */
+        public Integer getEntities() {
+            return entities;
+        }
+
+        public long getWallTimeNanosP50() {
+            return wallTimeNanosP50;
+        }
+
+        public long getWallTimeNanosP95() {
+            return wallTimeNanosP95;
+        }
+
+        /**
+         * @return the median CPU time of the thread that ran the phase, null if the JVM does not measure it
+         */
+        public Long getCpuTimeNanosP50() {
+            return cpuTimeNanosP50;
+        }
+
+        public Long getCpuTimeNanosP95() {
+            return cpuTimeNanosP95;
+        }
+
+        /**
+         * @return how many phases this one is part of
+         */
+        int getDepth() {
+            return PhaseReport.depth(name);
+        }
+    }
+
+    @JsonPropertyOrder({"name", "wallTimeNanosP50", "wallTimeNanosP95"})
+    public static class EntityStatistics {
+        private final String name;
+        private final long wallTimeNanosP50;
+        private final long wallTimeNanosP95;
+
+        EntityStatistics(String name, long wallTimeNanosP50, long wallTimeNanosP95) {
+            this.name = name;
+            this.wallTimeNanosP50 = wallTimeNanosP50;
+            this.wallTimeNanosP95 = wallTimeNanosP95;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getWallTimeNanosP50() {
+            return wallTimeNanosP50;
+        }
+
+        public long getWallTimeNanosP95() {
+            return wallTimeNanosP95;
+        }
+    }
+}
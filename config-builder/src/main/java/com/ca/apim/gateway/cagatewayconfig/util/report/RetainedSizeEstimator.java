@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.report;
+
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.beans.GatewayEntity;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates the memory retained by the structures built by the tasks: the entity maps of a bundle, the policy documents
+ * and their serialized form, the dependency bundles and bundle documents.
+ * <p>
+ * The estimates walk the object graph and add sizes assumed for a 64-bit JVM, so they are meant to compare structures and
+ * builds with each other, not to match a heap dump. Objects reachable from several structures are only counted once, in
+ * the first one. JDK objects other than strings, collections, arrays and DOM nodes are counted as empty objects.
+ */
+public class RetainedSizeEstimator {
+
+    public static final String ENTITIES = "entities";
+    public static final String POLICY_DOCUMENTS = "policyDocuments";
+    public static final String POLICY_XML = "policyXml";
+
+    private static final String PACKAGE_PREFIX = "com.ca.apim.gateway.";
+    private static final long OBJECT_HEADER = 16;
+    private static final long REFERENCE = 8;
+    private static final long STRING = 40;
+    private static final long MAP = 64;
+    private static final long MAP_ENTRY = 48;
+    private static final long COLLECTION = 40;
+    private static final long COLLECTION_ELEMENT = 24;
+    private static final long DOM_NODE = 96;
+
+    private static final Map<Class<?>, List<Field>> FIELDS = new ConcurrentHashMap<>();
+
+    private RetainedSizeEstimator() {
+    }
+
+    /**
+     * Estimates the policy documents, their serialized form and the entity map of each entity type of the bundle. The
+     * policy documents and serialized policies are not counted in the policy entities.
+     *
+     * @param bundle the bundle
+     * @return the estimated size in bytes of each structure, by structure name
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Long> estimate(Bundle bundle) {
+        final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Map<String, Long> sizes = new LinkedHashMap<>();
+        sizes.put(POLICY_DOCUMENTS, bundle.getPolicies().values().stream().mapToLong(p -> estimate(p.getPolicyDocument(), visited)).sum());
+        sizes.put(POLICY_XML, bundle.getPolicies().values().stream().mapToLong(p -> estimate(p.getPolicyXML(), visited)).sum());
+        bundle.getEntityTypes().stream()
+                .sorted(Comparator.comparing(Class<?>::getSimpleName))
+                .forEach(type -> sizes.put(ENTITIES + PhaseReport.SEPARATOR + type.getSimpleName(), estimate(bundle.getEntities((Class<GatewayEntity>) type), visited)));
+        return sizes;
+    }
+
+    /**
+     * Estimates everything reachable from the object, for example a set of dependency bundles or a bundle document.
+     *
+     * @param object the object
+     * @return the estimated size in bytes
+     */
+    public static long estimate(Object object) {
+        return estimate(object, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    private static long estimate(Object root, Set<Object> visited) {
+        // the graph is walked with a stack, as the policy dependencies can be nested deeper than the call stack allows
+        final Deque<Object> pending = new ArrayDeque<>();
+        long size = 0;
+        if (root != null) {
+            pending.push(root);
+        }
+        while (!pending.isEmpty()) {
+            final Object object = pending.pop();
+            if (visited.add(object)) {
+                size += shallowSize(object, pending);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the size of the object without the objects it references, which are added to the pending ones
+     */
+    private static long shallowSize(Object object, Deque<Object> pending) {
+        if (object instanceof String) {
+            return STRING + 2L * ((String) object).length();
+        } else if (object instanceof Node) {
+            return nodeSize((Node) object, pending);
+        } else if (object instanceof Map) {
+            final Map<?, ?> map = (Map<?, ?>) object;
+            map.forEach((key, value) -> {
+                push(pending, key);
+                push(pending, value);
+            });
+            return MAP + MAP_ENTRY * map.size();
+        } else if (object instanceof Collection) {
+            final Collection<?> collection = (Collection<?>) object;
+            collection.forEach(element -> push(pending, element));
+            return COLLECTION + COLLECTION_ELEMENT * collection.size();
+        } else if (object.getClass().isArray()) {
+            return arraySize(object, pending);
+        } else if (object instanceof Enum || object instanceof Class) {
+            // shared by everything
+            return 0;
+        } else if (object.getClass().getName().startsWith(PACKAGE_PREFIX)) {
+            final List<Field> fields = fields(object.getClass());
+            fields.stream().filter(f -> !f.getType().isPrimitive()).forEach(f -> push(pending, fieldValue(f, object)));
+            return OBJECT_HEADER + REFERENCE * fields.size();
+        }
+        return OBJECT_HEADER;
+    }
+
+    private static long nodeSize(Node node, Deque<Object> pending) {
+        final NodeList children = node.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            pending.push(children.item(i));
+        }
+        final NamedNodeMap attributes = node.getAttributes();
+        if (attributes != null) {
+            for (int i = 0; i < attributes.getLength(); i++) {
+                pending.push(attributes.item(i));
+            }
+        }
+        // element names are shared by the document, the values of text and attributes are not
+        final String value = node.getNodeType() == Node.ELEMENT_NODE ? null : node.getNodeValue();
+        return DOM_NODE + (value == null ? 0 : STRING + 2L * value.length());
+    }
+
+    private static long arraySize(Object array, Deque<Object> pending) {
+        final int length = Array.getLength(array);
+        final Class<?> componentType = array.getClass().getComponentType();
+        if (!componentType.isPrimitive()) {
+            for (int i = 0; i < length; i++) {
+                push(pending, Array.get(array, i));
+            }
+            return OBJECT_HEADER + REFERENCE * length;
+        }
+        final long elementSize;
+        if (componentType == boolean.class || componentType == byte.class) {
+            elementSize = 1;
+        } else if (componentType == char.class || componentType == short.class) {
+            elementSize = 2;
+        } else if (componentType == int.class || componentType == float.class) {
+            elementSize = 4;
+        } else {
+            elementSize = 8;
+        }
+        return OBJECT_HEADER + elementSize * length;
+    }
+
+    private static void push(Deque<Object> pending, Object object) {
+        if (object != null) {
+            pending.push(object);
+        }
+    }
+
+    private static List<Field> fields(Class<?> type) {
+        return FIELDS.computeIfAbsent(type, t -> {
+            final List<Field> fields = new ArrayList<>();
+            // the fields of JDK super classes are not accessible, they are counted as the object header
+            for (Class<?> c = t; c != null && c.getName().startsWith(PACKAGE_PREFIX); c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields;
+        });
+    }
+
+    private static Object fieldValue(Field field, Object object) {
+        try {
+            return field.get(object);
+        } catch (IllegalAccessException e) {
+            // counted as a reference only
+            return null;
+        }
+    }
+}
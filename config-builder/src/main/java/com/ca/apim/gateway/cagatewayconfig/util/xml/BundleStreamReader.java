@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.xml;
+
+import org.apache.commons.io.FileUtils;
+import org.jetbrains.annotations.Nullable;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static javax.xml.stream.XMLStreamConstants.*;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Reads bundle documents as a stream of XML events instead of parsing them into a single DOM.
+ * Only the elements of interest (bundle items and dependency graph entries) are materialized, each one into its own small
+ * document, so the memory needed to read a bundle is bound by the size of its biggest item rather than the size of the bundle.
+ * Materialized elements look the same as the ones produced by {@link DocumentTools#parse(File)}: element and attribute
+ * names are kept with their prefixes (eg. l7:Item).
+ */
+public class BundleStreamReader {
+    public static final BundleStreamReader INSTANCE = new BundleStreamReader(DocumentTools.INSTANCE);
+
+    private final DocumentTools documentTools;
+    private final XMLInputFactory inputFactory;
+
+    BundleStreamReader(final DocumentTools documentTools) {
+        this.documentTools = documentTools;
+        this.inputFactory = XMLInputFactory.newInstance();
+        this.inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Reads all the items in the bundle file, handing each one to the item consumer as soon as it is read.
+     *
+     * @param bundleFile      the bundle file to read
+     * @param stripWhitespace if true whitespace only text nodes are dropped, same as {@link DocumentTools#cleanup(Document)}
+     * @param itemConsumer    consumer for the l7:Item elements
+     * @throws DocumentParseException if the bundle cannot be read
+     */
+    public void readItems(final File bundleFile, final boolean stripWhitespace, final Consumer<Element> itemConsumer) throws DocumentParseException {
+        readBundle(bundleFile, stripWhitespace, type -> true, itemConsumer, null);
+    }
+
+    /**
+     * Reads all the items in the bundle, handing each one to the item consumer as soon as it is read.
+     *
+     * @param bundle          reader for the bundle document
+     * @param stripWhitespace if true whitespace only text nodes are dropped, same as {@link DocumentTools#cleanup(Document)}
+     * @param itemConsumer    consumer for the l7:Item elements
+     * @throws DocumentParseException if the bundle cannot be read
+     */
+    public void readItems(final Reader bundle, final boolean stripWhitespace, final Consumer<Element> itemConsumer) throws DocumentParseException {
+        try {
+            final XMLStreamReader reader = createReader(bundle);
+            try {
+                readBundle(reader, stripWhitespace, type -> true, itemConsumer, null);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new DocumentParseException("Exception parsing document from a reader", e);
+        }
+    }
+
+    /**
+     * Reads the items in the bundle file whose l7:Type is accepted by the type filter, handing each one to the item consumer
+     * as soon as it is read. Items of any other type are skipped without building their l7:Resource, so this requires the
+     * l7:Type to come before the l7:Resource in the item (as it does in every bundle exported by the gateway).
+     *
+     * @param bundleFile      the bundle file to read
+     * @param stripWhitespace if true whitespace only text nodes are dropped, same as {@link DocumentTools#cleanup(Document)}
+     * @param typeFilter      filter for the item types to materialize
+     * @param itemConsumer    consumer for the accepted l7:Item elements
+     * @throws DocumentParseException if the bundle cannot be read
+     */
+    public void readItems(final File bundleFile,
+                          final boolean stripWhitespace,
+                          final Predicate<String> typeFilter,
+                          final Consumer<Element> itemConsumer) throws DocumentParseException {
+        readBundle(bundleFile, stripWhitespace, typeFilter, itemConsumer, null);
+    }
+
+    /**
+     * Reads all the items and the dependency graph entries in the bundle file, handing each one to its consumer as soon as it is read.
+     *
+     * @param bundleFile         the bundle file to read
+     * @param stripWhitespace    if true whitespace only text nodes are dropped, same as {@link DocumentTools#cleanup(Document)}
+     * @param itemConsumer       consumer for the l7:Item elements
+     * @param dependencyConsumer consumer for the top level l7:Dependency elements of the l7:DependencyGraph, null to skip the graph
+     * @throws DocumentParseException if the bundle cannot be read
+     */
+    public void readBundle(final File bundleFile,
+                           final boolean stripWhitespace,
+                           final Consumer<Element> itemConsumer,
+                           @Nullable final Consumer<Element> dependencyConsumer) throws DocumentParseException {
+        readBundle(bundleFile, stripWhitespace, type -> true, itemConsumer, dependencyConsumer);
+    }
+
+    /**
+     * Reads the l7:Mapping elements of the bundle, handing each one to the mapping consumer as soon as it is read. The
+     * l7:References section is skipped without materializing anything, so only the mappings are ever built.
+     *
+     * @param bundle          reader for the bundle document
+     * @param mappingConsumer consumer for the l7:Mapping elements
+     * @throws DocumentParseException if the bundle cannot be read
+     */
+    public void readMappings(final Reader bundle, final Consumer<Element> mappingConsumer) throws DocumentParseException {
+        try {
+            final XMLStreamReader reader = createReader(bundle);
+            try {
+                readMappings(reader, mappingConsumer);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new DocumentParseException("Exception parsing document from a reader", e);
+        }
+    }
+
+    private void readMappings(final XMLStreamReader reader, final Consumer<Element> mappingConsumer) throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() == START_ELEMENT) {
+                final String name = qualifiedName(reader.getPrefix(), reader.getLocalName());
+                if (REFERENCES.equals(name)) {
+                    skipElement(reader);
+                } else if (MAPPING.equals(name)) {
+                    mappingConsumer.accept(readElement(reader, true));
+                }
+            }
+        }
+    }
+
+    private void readBundle(final File bundleFile,
+                            final boolean stripWhitespace,
+                            final Predicate<String> typeFilter,
+                            final Consumer<Element> itemConsumer,
+                            @Nullable final Consumer<Element> dependencyConsumer) throws DocumentParseException {
+        try (InputStream inputStream = FileUtils.openInputStream(bundleFile)) {
+            final XMLStreamReader reader = createReader(inputStream);
+            try {
+                readBundle(reader, stripWhitespace, typeFilter, itemConsumer, dependencyConsumer);
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            throw new DocumentParseException("Exception reading file: " + bundleFile, e);
+        } catch (XMLStreamException e) {
+            throw new DocumentParseException("Exception parsing document from file: " + bundleFile, e);
+        }
+    }
+
+    private XMLStreamReader createReader(final InputStream inputStream) throws XMLStreamException {
+        // the factory is not guaranteed to be thread safe, the readers it creates are independent
+        synchronized (inputFactory) {
+            return inputFactory.createXMLStreamReader(inputStream);
+        }
+    }
+
+    private XMLStreamReader createReader(final Reader reader) throws XMLStreamException {
+        synchronized (inputFactory) {
+            return inputFactory.createXMLStreamReader(reader);
+        }
+    }
+
+    private void readBundle(final XMLStreamReader reader,
+                            final boolean stripWhitespace,
+                            final Predicate<String> typeFilter,
+                            final Consumer<Element> itemConsumer,
+                            @Nullable final Consumer<Element> dependencyConsumer) throws XMLStreamException {
+        // names of the elements enclosing the current position, used to locate the dependency graph entries
+        final Deque<String> path = new ArrayDeque<>();
+        while (reader.hasNext()) {
+            final int event = reader.next();
+            if (event == START_ELEMENT) {
+                final String name = qualifiedName(reader.getPrefix(), reader.getLocalName());
+                if (ITEM.equals(name)) {
+                    final Element item = readItem(reader, stripWhitespace, typeFilter);
+                    if (item != null) {
+                        itemConsumer.accept(item);
+                    }
+                } else if (dependencyConsumer != null && isDependencyGraphEntry(name, path)) {
+                    dependencyConsumer.accept(readElement(reader, stripWhitespace));
+                } else {
+                    path.push(name);
+                }
+            } else if (event == END_ELEMENT) {
+                path.pop();
+            }
+        }
+    }
+
+    private static boolean isDependencyGraphEntry(final String name, final Deque<String> path) {
+        if (!DEPENDENCY.equals(name) || path.size() < 2) {
+            return false;
+        }
+        final String parent = path.pop();
+        final boolean entry = DEPENDENCIES.equals(parent) && DEPENDENCY_GRAPH.equals(path.peek());
+        path.push(parent);
+        return entry;
+    }
+
+    /**
+     * Materializes the item the reader is positioned at into a new document, or skips it if its type is not accepted by the
+     * filter. The reader is left at the item end element in both cases.
+     */
+    @Nullable
+    private Element readItem(final XMLStreamReader reader, final boolean stripWhitespace, final Predicate<String> typeFilter) throws XMLStreamException {
+        final Document document = documentTools.getDocumentBuilder().newDocument();
+        final Element item = createElement(reader, document);
+        document.appendChild(item);
+
+        while (true) {
+            switch (reader.next()) {
+                case START_ELEMENT:
+                    final Element child = createElement(reader, document);
+                    item.appendChild(child);
+                    readContent(reader, document, child, stripWhitespace);
+                    if (TYPE.equals(child.getNodeName()) && !typeFilter.test(child.getTextContent())) {
+                        skipElement(reader);
+                        return null;
+                    }
+                    break;
+                case END_ELEMENT:
+                    return item;
+                default:
+                    appendText(reader, document, item, stripWhitespace);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Materializes the element the reader is positioned at into a new document. The reader is left at its end element.
+     */
+    private Element readElement(final XMLStreamReader reader, final boolean stripWhitespace) throws XMLStreamException {
+        final Document document = documentTools.getDocumentBuilder().newDocument();
+        final Element root = createElement(reader, document);
+        document.appendChild(root);
+        readContent(reader, document, root, stripWhitespace);
+        return root;
+    }
+
+    /**
+     * Reads the content of the element the reader is positioned at into the given element. The reader is left at its end element.
+     */
+    private static void readContent(final XMLStreamReader reader, final Document document, final Element element, final boolean stripWhitespace) throws XMLStreamException {
+        Element current = element;
+        while (current != null) {
+            switch (reader.next()) {
+                case START_ELEMENT:
+                    final Element child = createElement(reader, document);
+                    current.appendChild(child);
+                    current = child;
+                    break;
+                case END_ELEMENT:
+                    current = current == element ? null : (Element) current.getParentNode();
+                    break;
+                default:
+                    appendText(reader, document, current, stripWhitespace);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Skips the rest of the element the reader is currently in, without materializing anything. The reader is left at its end element.
+     */
+    private static void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            final int event = reader.next();
+            if (event == START_ELEMENT) {
+                depth++;
+            } else if (event == END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static void appendText(final XMLStreamReader reader, final Document document, final Element element, final boolean stripWhitespace) {
+        switch (reader.getEventType()) {
+            case CHARACTERS:
+            case CDATA:
+            case SPACE:
+                if (!stripWhitespace || !reader.isWhiteSpace()) {
+                    element.appendChild(document.createTextNode(reader.getText()));
+                }
+                break;
+            default:
+                // comments and processing instructions are not needed
+                break;
+        }
+    }
+
+    private static Element createElement(final XMLStreamReader reader, final Document document) {
+        final Element element = document.createElement(qualifiedName(reader.getPrefix(), reader.getLocalName()));
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            final String prefix = reader.getNamespacePrefix(i);
+            element.setAttribute(isEmpty(prefix) ? "xmlns" : "xmlns:" + prefix, reader.getNamespaceURI(i));
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            element.setAttribute(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)), reader.getAttributeValue(i));
+        }
+        return element;
+    }
+
+    private static String qualifiedName(final String prefix, final String localName) {
+        return isEmpty(prefix) ? localName : prefix + ':' + localName;
+    }
+}
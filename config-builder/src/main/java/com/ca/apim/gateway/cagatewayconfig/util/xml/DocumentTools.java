@@ -38,17 +38,16 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 public class DocumentTools {
     public static final DocumentTools INSTANCE = new DocumentTools();
 
+    private final DocumentBuilderFactory dbFactory;
     private final DocumentBuilder builder;
+    // DocumentBuilder is not thread safe, each thread parses with its own
+    private final ThreadLocal<DocumentBuilder> parser = ThreadLocal.withInitial(this::newDocumentBuilder);
     private final XPathFactory xPathFactory;
     private final TransformerFactory transformerFactory;
 
     public DocumentTools() {
-        final DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-        try {
-            builder = dbFactory.newDocumentBuilder();
-        } catch (ParserConfigurationException e) {
-            throw new DocumentToolsException("Unexpected exception creating DocumentBuilder", e);
-        }
+        dbFactory = DocumentBuilderFactory.newInstance();
+        builder = newDocumentBuilder();
 
         xPathFactory = XPathFactory.newInstance();
 
@@ -61,6 +60,17 @@ public class DocumentTools {
         }
     }
 
+    private DocumentBuilder newDocumentBuilder() {
+        // the factory is not thread safe either
+        synchronized (dbFactory) {
+            try {
+                return dbFactory.newDocumentBuilder();
+            } catch (ParserConfigurationException e) {
+                throw new DocumentToolsException("Unexpected exception creating DocumentBuilder", e);
+            }
+        }
+    }
+
     public Transformer getTransformer() {
         try {
             return configureTransformer(transformerFactory.newTransformer());
@@ -112,9 +122,9 @@ public class DocumentTools {
      * @return The parsed document
      * @throws DocumentParseException Thrown if there is an exception while parsing the document
      */
-    private synchronized Document parse(final InputStream inputStream) throws DocumentParseException {
+    private Document parse(final InputStream inputStream) throws DocumentParseException {
         try {
-            return builder.parse(inputStream);
+            return parser.get().parse(inputStream);
         } catch (SAXException | IOException e) {
             throw new DocumentParseException("Exception parsing document from input stream", e);
         }
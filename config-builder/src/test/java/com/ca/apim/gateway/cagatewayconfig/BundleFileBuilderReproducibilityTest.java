@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig;
+
+import com.ca.apim.gateway.cagatewayconfig.util.IdGenerator;
+import com.ca.apim.gateway.cagatewayconfig.util.NameBasedIdGenerator;
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class BundleFileBuilderReproducibilityTest {
+
+    private static final String POLICY = "<wsp:Policy xmlns:wsp=\"http://schemas.xmlsoap.org/ws/2002/12/policy\" xmlns:L7p=\"http://www.layer7tech.com/ws/policy\">\n" +
+            "    <wsp:All wsp:Usage=\"Required\">\n" +
+            "        <L7p:CommentAssertion>\n" +
+            "            <L7p:Comment stringValue=\"%s\"/>\n" +
+            "        </L7p:CommentAssertion>\n" +
+            "    </wsp:All>\n" +
+            "</wsp:Policy>\n";
+
+    @Test
+    void buildBundleTwiceNameBasedIds(TemporaryFolder temporaryFolder) throws IOException {
+        File rootDir = temporaryFolder.createDirectory("gateway");
+        writeSolution(rootDir);
+
+        BundleFileBuilder bundleFileBuilder = InjectionRegistry.createWithOverrides(binder -> binder.bind(IdGenerator.class).toInstance(new NameBasedIdGenerator()))
+                .getInstance(BundleFileBuilder.class);
+
+        File firstOutput = temporaryFolder.createDirectory("first");
+        File secondOutput = temporaryFolder.createDirectory("second");
+        bundleFileBuilder.buildBundle(rootDir, firstOutput, Collections.emptyList(), "my-bundle");
+        bundleFileBuilder.buildBundle(rootDir, secondOutput, Collections.emptyList(), "my-bundle");
+
+        String bundle = FileUtils.readFileToString(new File(firstOutput, "my-bundle.bundle"), UTF_8);
+        assertTrue(bundle.contains("my-folder"));
+        assertEquals(bundle, FileUtils.readFileToString(new File(secondOutput, "my-bundle.bundle"), UTF_8));
+        assertEquals(
+                FileUtils.readFileToString(new File(firstOutput, "my-bundle.bundle.index"), UTF_8),
+                FileUtils.readFileToString(new File(secondOutput, "my-bundle.bundle.index"), UTF_8));
+    }
+
+    private static void writeSolution(File rootDir) throws IOException {
+        FileUtils.writeStringToFile(new File(rootDir, "policy/my-folder/my-service.xml"), String.format(POLICY, "service"), UTF_8);
+        FileUtils.writeStringToFile(new File(rootDir, "policy/my-folder/my-encass.xml"), String.format(POLICY, "encass"), UTF_8);
+        FileUtils.writeStringToFile(new File(rootDir, "config/services.yml"), "my-folder/my-service:\n" +
+                "  policy: \"my-folder/my-service\"\n" +
+                "  httpMethods:\n" +
+                "  - GET\n" +
+                "  url: \"/my-service\"\n", UTF_8);
+        FileUtils.writeStringToFile(new File(rootDir, "config/encass.yml"), "my-encass:\n" +
+                "  policy: \"my-folder/my-encass\"\n" +
+                "  arguments:\n" +
+                "  - name: \"in\"\n" +
+                "    type: \"string\"\n" +
+                "  results:\n" +
+                "  - name: \"out\"\n" +
+                "    type: \"string\"\n", UTF_8);
+        FileUtils.writeStringToFile(new File(rootDir, "config/static.properties"), "my-property=value\n", UTF_8);
+    }
+}
@@ -10,10 +10,14 @@ import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.beans.Policy;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.BundleEntityBuilder;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityBuilder;
+import com.ca.apim.gateway.cagatewayconfig.bundle.index.BundleIndexer;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.EntityBundleLoader;
 import com.ca.apim.gateway.cagatewayconfig.config.loader.EntityLoader;
 import com.ca.apim.gateway.cagatewayconfig.config.loader.EntityLoaderRegistry;
 import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport.Phase;
+import com.ca.apim.gateway.cagatewayconfig.util.report.RetainedSizeEstimator;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,8 +27,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import javax.xml.parsers.DocumentBuilder;
 import java.io.File;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Map;
 
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -44,6 +55,8 @@ class BundleFileBuilderTest {
     DocumentTools documentTools;
     @Mock
     DocumentBuilder documentBuilder;
+    @Mock
+    BundleIndexer bundleIndexer;
 
     @BeforeEach
     void beforeEach() {
@@ -52,10 +65,11 @@ class BundleFileBuilderTest {
 
     @Test
     void buildBundleNoSource() {
-        BundleFileBuilder bundleFileBuilder = new BundleFileBuilder(documentTools, documentFileUtils, entityLoaderRegistry, bundleEntityBuilder, entityBundleLoader);
+        BundleFileBuilder bundleFileBuilder = new BundleFileBuilder(documentTools, documentFileUtils, entityLoaderRegistry, bundleEntityBuilder, entityBundleLoader, bundleIndexer);
         bundleFileBuilder.buildBundle(null, new File("output"), Collections.emptyList(), "my-bundle");
 
-        verify(bundleEntityBuilder).build(argThat(bundle -> bundle.getPolicies().isEmpty()), eq(EntityBuilder.BundleType.DEPLOYMENT), any());
+        verify(bundleEntityBuilder).build(argThat(bundle -> bundle.getPolicies().isEmpty()), eq(EntityBuilder.BundleType.DEPLOYMENT), any(), any());
+        verify(bundleIndexer).writeIndex(any(), eq(new File("output", "my-bundle.bundle")), eq(new File("output", "my-bundle.bundle.index")));
     }
 
     @Test
@@ -64,10 +78,36 @@ class BundleFileBuilderTest {
         policy.setName("from-file");
         when(entityLoaderRegistry.getEntityLoaders()).thenReturn(Collections.singleton(new TestPolicyLoader(policy)));
 
-        BundleFileBuilder bundleFileBuilder = new BundleFileBuilder(documentTools, documentFileUtils, entityLoaderRegistry, bundleEntityBuilder, entityBundleLoader);
-        bundleFileBuilder.buildBundle(new File("input"), new File("output"), Collections.emptyList(), "my-bundle");
+        BundleFileBuilder bundleFileBuilder = new BundleFileBuilder(documentTools, documentFileUtils, entityLoaderRegistry, bundleEntityBuilder, entityBundleLoader, bundleIndexer);
+        PhaseReport report = bundleFileBuilder.buildBundle(new File("input"), new File("output"), Collections.emptyList(), "my-bundle");
+
+        verify(bundleEntityBuilder).build(argThat(bundle -> bundle.getPolicies().containsKey(policy.getName()) && bundle.getPolicies().containsValue(policy)), eq(EntityBuilder.BundleType.DEPLOYMENT), any(), same(report));
+
+        assertEquals("my-bundle", report.getName());
+        assertEquals(
+                Arrays.asList("load", "load/POLICY_TEST", "folders", "dependencies", "write", "index"),
+                report.getPhases().stream().map(Phase::getName).collect(toList()));
+        assertEquals(Integer.valueOf(1), report.getPhases().get(1).getEntities());
+        assertEquals(Integer.valueOf(0), report.getPhases().get(3).getEntities());
+        assertNull(report.getPhases().get(4).getEntities());
+    }
+
+    @Test
+    void buildBundleProfilingMemory() {
+        Policy policy = new Policy();
+        policy.setName("from-file");
+        policy.setPolicyXML("<wsp:Policy/>");
+        when(entityLoaderRegistry.getEntityLoaders()).thenReturn(Collections.singleton(new TestPolicyLoader(policy)));
+
+        BundleFileBuilder bundleFileBuilder = new BundleFileBuilder(documentTools, documentFileUtils, entityLoaderRegistry, bundleEntityBuilder, entityBundleLoader, bundleIndexer);
+        PhaseReport report = bundleFileBuilder.buildBundle(new File("input"), new File("output"), Collections.emptyList(), "my-bundle", true);
 
-        verify(bundleEntityBuilder).build(argThat(bundle -> bundle.getPolicies().containsKey(policy.getName()) && bundle.getPolicies().containsValue(policy)), eq(EntityBuilder.BundleType.DEPLOYMENT), any());
+        assertTrue(report.isProfilingMemory());
+        Map<String, Long> loadRetainedBytes = report.getPhases().get(0).getRetainedBytes();
+        assertTrue(loadRetainedBytes.get(RetainedSizeEstimator.ENTITIES + "/Policy") > 0);
+        assertEquals(Long.valueOf(40 + 2 * policy.getPolicyXML().length()), loadRetainedBytes.get(RetainedSizeEstimator.POLICY_XML));
+        assertTrue(report.getPhases().get(3).getRetainedBytes().containsKey(BundleFileBuilder.DEPENDENCY_BUNDLES));
+        report.getPhases().forEach(phase -> assertNotNull(phase.getPeakHeapBytes()));
     }
 
     static class TestPolicyLoader implements EntityLoader {
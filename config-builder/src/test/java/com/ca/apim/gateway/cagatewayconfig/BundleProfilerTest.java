@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig;
+
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport;
+import com.ca.apim.gateway.cagatewayconfig.util.report.ProfileReport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BundleProfilerTest {
+
+    @Mock
+    BundleFileBuilder bundleFileBuilder;
+
+    @Test
+    void profile() {
+        File input = new File("input");
+        File output = new File("output");
+        List<File> dependencies = Collections.singletonList(new File("dependency.bundle"));
+        when(bundleFileBuilder.buildBundle(eq(input), eq(output), eq(dependencies), eq("my-bundle"), any(PhaseReport.class))).thenAnswer(invocation -> {
+            PhaseReport report = invocation.getArgument(4);
+            report.record("load", () -> report.recordEntity("POLICY", "policy", () -> {
+            }));
+            return report;
+        });
+
+        ProfileReport profile = new BundleProfiler(bundleFileBuilder).profile(input, output, dependencies, "my-bundle", 2, 3, 5);
+
+        // the warmup runs do not time the entities
+        verify(bundleFileBuilder, times(2)).buildBundle(eq(input), eq(output), eq(dependencies), eq("my-bundle"), argThat((PhaseReport r) -> !r.isTimingEntities()));
+        verify(bundleFileBuilder, times(3)).buildBundle(eq(input), eq(output), eq(dependencies), eq("my-bundle"), argThat(PhaseReport::isTimingEntities));
+        assertEquals(2, profile.getWarmups());
+        assertEquals(3, profile.getIterations());
+        assertEquals("load", profile.getPhases().get(0).getName());
+        assertEquals("policy", profile.getSlowestEntities().get("POLICY").get(0).getName());
+        assertTrue(profile.getPeakHeapBytes() > 0);
+    }
+
+    @Test
+    void profileWithoutIterations() {
+        BundleProfiler bundleProfiler = new BundleProfiler(bundleFileBuilder);
+        File output = new File("output");
+        List<File> dependencies = Collections.emptyList();
+
+        assertThrows(IllegalArgumentException.class, () -> bundleProfiler.profile(null, output, dependencies, "my-bundle", 1, 0, 5));
+        verifyZeroInteractions(bundleFileBuilder);
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.beans;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BundleTest {
+
+    @Test
+    void putAllKeepsFoldersConcurrent() {
+        Bundle other = new Bundle();
+        Folder folder = new Folder("1", "folder");
+        other.putAllFolders(singletonMap("folder", folder));
+        other.putAllServices(singletonMap("service", new Service()));
+        Bundle bundle = new Bundle();
+
+        bundle.putAll(other);
+
+        assertTrue(bundle.getFolders() instanceof ConcurrentHashMap, bundle.getFolders().getClass().getName());
+        assertSame(folder, bundle.getFolders().get("folder"));
+        assertEquals(1, bundle.getServices().size());
+    }
+}
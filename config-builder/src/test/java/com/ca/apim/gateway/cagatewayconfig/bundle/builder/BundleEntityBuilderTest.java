@@ -8,6 +8,7 @@ package com.ca.apim.gateway.cagatewayconfig.bundle.builder;
 
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityBuilder.BundleType;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
@@ -19,6 +20,7 @@ import java.util.List;
 
 import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.LISTEN_PORT_TYPE;
 import static java.util.Collections.singleton;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 class BundleEntityBuilderTest {
@@ -32,6 +34,20 @@ class BundleEntityBuilderTest {
         assertNotNull(element);
     }
 
+    @Test
+    void buildRecordsPhases() {
+        BundleEntityBuilder builder = new BundleEntityBuilder(singleton(new TestEntityBuilder()), new BundleDocumentBuilder());
+        PhaseReport report = new PhaseReport("test");
+
+        builder.build(new Bundle(), BundleType.DEPLOYMENT, DocumentTools.INSTANCE.getDocumentBuilder().newDocument(), report);
+
+        assertEquals(2, report.getPhases().size());
+        assertEquals("build/TestEntityBuilder", report.getPhases().get(0).getName());
+        assertEquals(Integer.valueOf(1), report.getPhases().get(0).getEntities());
+        assertEquals("document", report.getPhases().get(1).getName());
+        assertEquals(Integer.valueOf(1), report.getPhases().get(1).getEntities());
+    }
+
     private static class TestEntityBuilder implements EntityBuilder {
         @Override
         public List<Entity> build(Bundle bundle, BundleType bundleType, Document document) {
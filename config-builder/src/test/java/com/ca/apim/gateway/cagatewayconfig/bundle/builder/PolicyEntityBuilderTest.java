@@ -11,6 +11,7 @@ import com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityBuilder.BundleTy
 import com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes;
 import com.ca.apim.gateway.cagatewayconfig.util.gateway.MappingProperties;
 import com.ca.apim.gateway.cagatewayconfig.util.properties.PropertyConstants;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport;
 import com.ca.apim.gateway.cagatewayconfig.util.string.EncodeDecodeUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
@@ -109,6 +110,24 @@ class PolicyEntityBuilderTest {
         });
     }
 
+    @Test
+    void buildTimingPolicies() {
+        policy.setParentFolder(Folder.ROOT_FOLDER);
+        policy.setGuid("policyGuid");
+        policy.setId("policyID");
+        policy.setName(policy.getPath());
+        policy.setPolicyXML("<wsp:Policy xmlns:wsp=\"http://schemas.xmlsoap.org/ws/2002/12/policy\"><wsp:All wsp:Usage=\"Required\"/></wsp:Policy>");
+        bundle.getPolicies().put(policy.getPath(), policy);
+        PhaseReport report = new PhaseReport("my-bundle", false, true);
+
+        PolicyEntityBuilder builder = new PolicyEntityBuilder(DocumentTools.INSTANCE);
+        final List<Entity> entities = builder.build(bundle, BundleType.DEPLOYMENT, DocumentTools.INSTANCE.getDocumentBuilder().newDocument(), report);
+
+        assertEquals(1, entities.size());
+        assertEquals(Collections.singleton(EntityTypes.POLICY_TYPE), report.getEntityWallTimeNanos().keySet());
+        assertEquals(Collections.singleton(policy.getPath()), report.getEntityWallTimeNanos().get(EntityTypes.POLICY_TYPE).keySet());
+    }
+
     @Test
     void testPrepareSetVariableAssertionNoENV() throws DocumentParseException {
         Element setVariableAssertionElement = createSetVariableAssertion(document, "my-var", "base64Text");
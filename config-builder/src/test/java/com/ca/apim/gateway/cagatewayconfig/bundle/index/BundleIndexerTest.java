@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.index;
+
+import com.ca.apim.gateway.cagatewayconfig.beans.*;
+import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadException;
+import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class BundleIndexerTest {
+
+    private final BundleIndexer bundleIndexer = new BundleIndexer(JsonTools.INSTANCE);
+
+    @Test
+    void writeAndLoadIndex(TemporaryFolder temporaryFolder) throws IOException {
+        Bundle bundle = new Bundle();
+        Policy policy = PolicyType.INCLUDE.createPolicyObject();
+        policy.setPath("my-folder/my-policy");
+        policy.setName("my-policy");
+        policy.setId("policy-id");
+        policy.setGuid("policy-guid");
+        policy.setPolicyType(PolicyType.INCLUDE);
+        policy.setPolicyXML("<wsp:Policy/>");
+        bundle.getPolicies().put(policy.getPath(), policy);
+
+        Encass encass = new Encass();
+        encass.setName("my-encass");
+        encass.setId("encass-id");
+        encass.setGuid("encass-guid");
+        encass.setPolicy(policy.getPath());
+        encass.setPolicyId(policy.getId());
+        encass.setArguments(new LinkedHashSet<>(Arrays.asList(new EncassArgument("in1", "string", true), new EncassArgument("in2", "message", false))));
+        encass.setResults(new LinkedHashSet<>(Collections.singletonList(new EncassResult("out", "string"))));
+        bundle.getEncasses().put(encass.getName(), encass);
+
+        File bundleFile = writeBundleFile(temporaryFolder, "<l7:Bundle/>");
+        File indexFile = new File(temporaryFolder.getRoot(), "my-bundle.bundle.index");
+        bundleIndexer.writeIndex(bundle, bundleFile, indexFile);
+        assertTrue(indexFile.isFile());
+        assertTrue(BundleIndexer.isIndexOf(indexFile, bundleFile));
+
+        Bundle loaded = new Bundle();
+        bundleIndexer.loadIndex(indexFile, loaded);
+
+        Policy loadedPolicy = loaded.getPolicies().get("my-folder/my-policy");
+        assertNotNull(loadedPolicy);
+        assertEquals("my-policy", loadedPolicy.getName());
+        assertEquals("policy-id", loadedPolicy.getId());
+        assertEquals("policy-guid", loadedPolicy.getGuid());
+        assertEquals(PolicyType.INCLUDE, loadedPolicy.getPolicyType());
+        // policy bodies are not part of the index
+        assertNull(loadedPolicy.getPolicyXML());
+
+        Encass loadedEncass = loaded.getEncasses().get("my-encass");
+        assertNotNull(loadedEncass);
+        assertEquals("encass-guid", loadedEncass.getGuid());
+        assertEquals("my-folder/my-policy", loadedEncass.getPolicy());
+        assertEquals("policy-id", loadedEncass.getPolicyId());
+        assertEquals(2, loadedEncass.getArguments().size());
+        assertEquals("in1", loadedEncass.getArguments().iterator().next().getName());
+        assertTrue(loadedEncass.getArguments().iterator().next().getRequireExplicit());
+        assertEquals(1, loadedEncass.getResults().size());
+        assertEquals("out", loadedEncass.getResults().iterator().next().getName());
+    }
+
+    @Test
+    void indexOfChangedBundle(TemporaryFolder temporaryFolder) throws IOException {
+        File bundleFile = writeBundleFile(temporaryFolder, "<l7:Bundle>one</l7:Bundle>");
+        File indexFile = new File(temporaryFolder.getRoot(), "my-bundle.bundle.index");
+        bundleIndexer.writeIndex(new Bundle(), bundleFile, indexFile);
+
+        // same size, different content
+        FileUtils.writeStringToFile(bundleFile, "<l7:Bundle>two</l7:Bundle>", UTF_8);
+        assertFalse(BundleIndexer.isIndexOf(indexFile, bundleFile));
+
+        FileUtils.writeStringToFile(bundleFile, "<l7:Bundle>three</l7:Bundle>", UTF_8);
+        assertFalse(BundleIndexer.isIndexOf(indexFile, bundleFile));
+    }
+
+    @Test
+    void indexWithoutBundleHash(TemporaryFolder temporaryFolder) throws IOException {
+        File bundleFile = writeBundleFile(temporaryFolder, "<l7:Bundle/>");
+        File indexFile = temporaryFolder.createFile("old.bundle.index");
+        FileUtils.writeStringToFile(indexFile, "{\"policies\":[],\"encasses\":[]}", UTF_8);
+
+        assertFalse(BundleIndexer.isIndexOf(indexFile, bundleFile));
+    }
+
+    @Test
+    void invalidIndexOfBundle(TemporaryFolder temporaryFolder) throws IOException {
+        File bundleFile = writeBundleFile(temporaryFolder, "<l7:Bundle/>");
+        File indexFile = temporaryFolder.createFile("invalid.bundle.index");
+        FileUtils.writeStringToFile(indexFile, "{ not json", UTF_8);
+
+        assertFalse(BundleIndexer.isIndexOf(indexFile, bundleFile));
+    }
+
+    @Test
+    void loadInvalidIndex(TemporaryFolder temporaryFolder) throws IOException {
+        File indexFile = temporaryFolder.createFile("invalid.bundle.index");
+        FileUtils.writeStringToFile(indexFile, "{ not json", UTF_8);
+
+        assertThrows(BundleLoadException.class, () -> bundleIndexer.loadIndex(indexFile, new Bundle()));
+    }
+
+    private static File writeBundleFile(TemporaryFolder temporaryFolder, String content) throws IOException {
+        File bundleFile = new File(temporaryFolder.getRoot(), "my-bundle.bundle");
+        FileUtils.writeStringToFile(bundleFile, content, UTF_8);
+        return bundleFile;
+    }
+}
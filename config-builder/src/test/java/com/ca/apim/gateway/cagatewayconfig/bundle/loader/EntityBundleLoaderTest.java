@@ -7,11 +7,13 @@
 package com.ca.apim.gateway.cagatewayconfig.bundle.loader;
 
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.bundle.index.BundleIndexer;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.CassandraConnectionsLoader;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadException;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleEntityLoaderRegistry;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.JdbcConnectionLoader;
 import com.ca.apim.gateway.cagatewayconfig.util.TestUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.BundleStreamReader;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,27 +24,32 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.*;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 import java.io.File;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
-import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.ITEM;
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.TYPE;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElementTextContent;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 @Extensions({ @ExtendWith(MockitoExtension.class) })
 class EntityBundleLoaderTest {
 
     @Mock
-    private DocumentTools documentTools;
+    private BundleStreamReader bundleStreamReader;
+    @Mock
+    private BundleIndexer bundleIndexer;
     private BundleEntityLoaderRegistry registry;
 
     @BeforeEach
@@ -56,32 +63,25 @@ class EntityBundleLoaderTest {
     }
 
     @Test
+    @SuppressWarnings("unchecked")
     void load() throws DocumentParseException {
         Document realDocument = DocumentTools.INSTANCE.getDocumentBuilder().newDocument();
-        Document mockDocument = mock(Document.class);
-        when(mockDocument.getElementsByTagName(eq(ITEM))).thenReturn(new NodeList() {
-
-            private List<Element> elements = Stream.of(
-                    TestUtils.createJdbcXml(realDocument),
-                    TestUtils.createCassandraXml(realDocument, true, true),
-                    TestUtils.createUnsupportedElement(realDocument)
-            ).collect(toList());
-
-            @Override
-            public Node item(int index) {
-                return elements.get(index);
-            }
-
-            @Override
-            public int getLength() {
-                return elements.size();
-            }
-        });
-
-        when(documentTools.parse(any(File.class))).thenReturn(mockDocument);
-
-        EntityBundleLoader loader = new EntityBundleLoader(documentTools, registry);
-        final Bundle bundle = loader.load(mock(File.class));
+        List<Element> elements = Stream.of(
+                TestUtils.createJdbcXml(realDocument),
+                TestUtils.createCassandraXml(realDocument, true, true),
+                TestUtils.createUnsupportedElement(realDocument)
+        ).collect(toList());
+
+        // hand over only the items accepted by the type filter, as the stream reader does
+        doAnswer(invocation -> {
+            Predicate<String> typeFilter = invocation.getArgument(2);
+            Consumer<Element> itemConsumer = invocation.getArgument(3);
+            elements.stream().filter(e -> typeFilter.test(getSingleChildElementTextContent(e, TYPE))).forEach(itemConsumer);
+            return null;
+        }).when(bundleStreamReader).readItems(any(File.class), anyBoolean(), any(Predicate.class), any(Consumer.class));
+
+        EntityBundleLoader loader = new EntityBundleLoader(bundleStreamReader, registry, bundleIndexer);
+        final Bundle bundle = loader.load(new File("dependency.bundle"));
 
         assertNotNull(bundle);
         assertFalse(bundle.getCassandraConnections().isEmpty());
@@ -91,9 +91,32 @@ class EntityBundleLoaderTest {
     }
 
     @Test
+    void loadElement() {
+        Document document = DocumentTools.INSTANCE.getDocumentBuilder().newDocument();
+        Element bundleElement = document.createElement("l7:Bundle");
+        bundleElement.appendChild(TestUtils.createJdbcXml(document));
+        bundleElement.appendChild(TestUtils.createUnsupportedElement(document));
+
+        final Bundle bundle = new EntityBundleLoader(bundleStreamReader, registry, bundleIndexer).load(bundleElement);
+
+        assertEquals(1, bundle.getJdbcConnections().size());
+        assertTrue(bundle.getCassandraConnections().isEmpty());
+    }
+
+    @Test
+    void loadIndex() {
+        File indexFile = new File("dependency.bundle.index");
+        final Bundle bundle = new EntityBundleLoader(bundleStreamReader, registry, bundleIndexer).load(indexFile);
+
+        verify(bundleIndexer).loadIndex(indexFile, bundle);
+        verifyZeroInteractions(bundleStreamReader);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
     void tryLoadParseException() throws DocumentParseException {
-        when(documentTools.parse(any(File.class))).thenThrow(DocumentParseException.class);
-        assertThrows(BundleLoadException.class, () -> new EntityBundleLoader(documentTools, registry).load(mock(File.class)));
+        doThrow(DocumentParseException.class).when(bundleStreamReader).readItems(any(File.class), anyBoolean(), any(Predicate.class), any(Consumer.class));
+        assertThrows(BundleLoadException.class, () -> new EntityBundleLoader(bundleStreamReader, registry, bundleIndexer).load(new File("dependency.bundle")));
     }
 
-}
\ No newline at end of file
+}
@@ -19,15 +19,19 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class XMLPolicyConverterTest {
 
+    private static final int CONVERSIONS = 1000;
+
     private XMLPolicyConverter xmlPolicyConverter;
     @Mock
     private DocumentTools documentFileUtils;
@@ -55,4 +59,24 @@ class XMLPolicyConverterTest {
         String xmlString = IOUtils.toString(xmlStream, StandardCharsets.UTF_8);
         assertEquals("out", xmlString);
     }
+
+    @Test
+    void convertFromPolicyElementWritesToConnectedPipe() {
+        // the xml is written as soon as the writer thread starts, which failed when the pipe was not connected yet
+        // and left the reader waiting forever
+        doAnswer(invocation -> {
+            try (OutputStream stream = invocation.getArgument(1)) {
+                IOUtils.write("out", stream, StandardCharsets.UTF_8);
+            }
+            return null;
+        }).when(documentFileUtils).printXML(nullable(Element.class), any(OutputStream.class), any(Boolean.class));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            for (int i = 0; i < CONVERSIONS; i++) {
+                try (InputStream xmlStream = xmlPolicyConverter.convertFromPolicyElement(null)) {
+                    assertEquals("out", IOUtils.toString(xmlStream, StandardCharsets.UTF_8));
+                }
+            }
+        });
+    }
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.environment;
+
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class BundleCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<List<File>, Bundle> loader = files -> {
+        loads.incrementAndGet();
+        return new Bundle();
+    };
+
+    @Test
+    void getBundleLoadsOnce(TemporaryFolder temporaryFolder) throws IOException {
+        File folder = temporaryFolder.createDirectory("bundles");
+        writeStringToFile(new File(folder, "my-bundle.bundle"), "<l7:Bundle/>", UTF_8);
+        BundleCache cache = new BundleCache();
+
+        Bundle bundle = cache.getBundle(folder.getPath(), loader);
+        assertSame(bundle, cache.getBundle(folder.getPath(), loader));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getStats().getHitCount());
+        assertEquals(1, cache.getStats().getMissCount());
+    }
+
+    @Test
+    void getBundleReloadsChangedFiles(TemporaryFolder temporaryFolder) throws IOException {
+        File folder = temporaryFolder.createDirectory("bundles");
+        File bundleFile = new File(folder, "my-bundle.bundle");
+        writeStringToFile(bundleFile, "<l7:Bundle/>", UTF_8);
+        BundleCache cache = new BundleCache();
+
+        Bundle bundle = cache.getBundle(folder.getPath(), loader);
+
+        // touched, but with the same content
+        assertTrue(bundleFile.setLastModified(bundleFile.lastModified() - 10000));
+        assertSame(bundle, cache.getBundle(folder.getPath(), loader));
+        assertEquals(1, loads.get());
+
+        writeStringToFile(bundleFile, "<l7:Bundle></l7:Bundle>", UTF_8);
+        assertNotSame(bundle, cache.getBundle(folder.getPath(), loader));
+        assertEquals(2, loads.get());
+
+        // a new bundle in the folder
+        writeStringToFile(new File(folder, "another-bundle.bundle"), "<l7:Bundle/>", UTF_8);
+        cache.getBundle(folder.getPath(), loader);
+        assertEquals(3, loads.get());
+        assertEquals(3, cache.getStats().getMissCount());
+    }
+
+    @Test
+    void getBundleEvictsLeastRecentlyUsed(TemporaryFolder temporaryFolder) throws IOException {
+        BundleCache cache = new BundleCache(2);
+        File first = temporaryFolder.createDirectory("first");
+        File second = temporaryFolder.createDirectory("second");
+        File third = temporaryFolder.createDirectory("third");
+
+        cache.getBundle(first.getPath(), loader);
+        cache.getBundle(second.getPath(), loader);
+        cache.getBundle(first.getPath(), loader);
+        cache.getBundle(third.getPath(), loader);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getStats().getEvictionCount());
+
+        // second was the least recently used one
+        cache.getBundle(first.getPath(), loader);
+        assertEquals(3, loads.get());
+        cache.getBundle(second.getPath(), loader);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void getBundleSharesConcurrentLoad(TemporaryFolder temporaryFolder) throws Exception {
+        File folder = temporaryFolder.createDirectory("bundles");
+        writeStringToFile(new File(folder, "my-bundle.bundle"), "<l7:Bundle/>", UTF_8);
+        BundleCache cache = new BundleCache();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<List<File>, Bundle> slowLoader = files -> {
+            loading.countDown();
+            try {
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return loader.apply(files);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Bundle>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.getBundle(folder.getPath(), slowLoader)));
+            assertTrue(loading.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> cache.getBundle(folder.getPath(), slowLoader)));
+            }
+            release.countDown();
+
+            Bundle bundle = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<Bundle> result : results) {
+                assertSame(bundle, result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void invalidateAll(TemporaryFolder temporaryFolder) throws IOException {
+        File folder = temporaryFolder.createDirectory("bundles");
+        BundleCache cache = new BundleCache();
+
+        cache.getBundle(folder.getPath(), loader);
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        cache.getBundle(folder.getPath(), loader);
+        assertEquals(2, loads.get());
+    }
+}
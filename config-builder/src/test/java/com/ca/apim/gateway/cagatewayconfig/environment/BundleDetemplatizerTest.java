@@ -7,15 +7,20 @@
 package com.ca.apim.gateway.cagatewayconfig.environment;
 
 import com.ca.apim.gateway.cagatewayconfig.beans.*;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Test;
 import org.testcontainers.shaded.com.google.common.collect.ImmutableMap;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map;
 
 import static com.ca.apim.gateway.cagatewayconfig.beans.IdentityProvider.INTERNAL_IDP_ID;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class BundleDetemplatizerTest {
 
@@ -207,6 +212,58 @@ class BundleDetemplatizerTest {
                 "</l7:Bundle>", detemplatizedBundle);
     }
 
+    @Test
+    void detemplatizeLargeBundle() throws IOException {
+        Map<String,ContextVariableEnvironmentProperty> contextEnv = new HashMap<>();
+        contextEnv.put("myEnvironmentVariable", new ContextVariableEnvironmentProperty("myEnvironmentVariable", "abc"));
+        Map<String,ServiceEnvironmentProperty> serviceEnv = new HashMap<>();
+        serviceEnv.put("my-gateway-api.myEnvironmentVariable", new ServiceEnvironmentProperty("my-gateway-api.myEnvironmentVariable", "def"));
+        Bundle bundle = new Bundle();
+        bundle.putAllContextVariableEnvironmentProperties(contextEnv);
+        bundle.putAllServiceEnvironmentProperties(serviceEnv);
+        BundleDetemplatizer bundleDetemplatizer = new BundleDetemplatizer(bundle);
+
+        // references at every offset, so some of them are split between reads
+        StringBuilder templatized = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            String padding = StringUtils.repeat('x', i % 97);
+            templatized.append(padding).append("&lt;L7p:Base64Expression ENV_PARAM_NAME=\"ENV.myEnvironmentVariable\"/&gt;")
+                    .append(padding).append("<l7:StringValue>SERVICE_PROPERTY_ENV.my-gateway-api.myEnvironmentVariable</l7:StringValue>\n");
+            expected.append(padding).append("&lt;L7p:Base64Expression stringValue=\"YWJj\"/&gt;")
+                    .append(padding).append("<l7:StringValue>def</l7:StringValue>\n");
+        }
+
+        StringWriter writer = new StringWriter();
+        bundleDetemplatizer.detemplatizeBundle(new StringReader(templatized.toString()), writer);
+        assertEquals(expected.toString(), writer.toString());
+    }
+
+    @Test
+    void detemplatizeTooLongReference() {
+        Bundle bundle = new Bundle();
+        BundleDetemplatizer bundleDetemplatizer = new BundleDetemplatizer(bundle);
+
+        // the reference is longer than the part of the bundle kept in memory, so it would not be replaced
+        String templatized = "&lt;L7p:Base64Expression ENV_PARAM_NAME=\"ENV." + StringUtils.repeat('x', 30000) + "\"/&gt;\n" + StringUtils.repeat('y', 20000);
+
+        BundleDetemplatizeException exception = assertThrows(BundleDetemplatizeException.class, () -> bundleDetemplatizer.detemplatizeBundle(new StringReader(templatized), new StringWriter()));
+        assertTrue(exception.getMessage().startsWith("Environment reference is not closed within 16384 characters: L7p:Base64Expression ENV_PARAM_NAME=\"ENV.xxx"), exception.getMessage());
+    }
+
+    @Test
+    void detemplatizeUnclosedReferenceInLargeBundle() throws IOException {
+        Bundle bundle = new Bundle();
+        BundleDetemplatizer bundleDetemplatizer = new BundleDetemplatizer(bundle);
+
+        // references cannot span lines, so a start without a closing quote on its line is not a reference
+        String templatized = "<l7:StringValue>SERVICE_PROPERTY_ENV.\n" + StringUtils.repeat('x', 40000);
+
+        StringWriter writer = new StringWriter();
+        bundleDetemplatizer.detemplatizeBundle(new StringReader(templatized), writer);
+        assertEquals(templatized, writer.toString());
+    }
+
     @Test
     void detemplatizeBundleStringMissingEnv() {
         Map<String,ContextVariableEnvironmentProperty> env = new HashMap<>();
@@ -90,6 +90,25 @@ class BundleEnvironmentValidatorTest {
         assertTrue(exception.getMessage().contains("myPassword"));
     }
 
+    @Test
+    void validateEnvironmentProvidedMissingSeveral() {
+        Bundle environmentBundle = new Bundle();
+        BundleEnvironmentValidator bundleEnvironmentValidator = new BundleEnvironmentValidator(environmentBundle);
+        Executable validateBundle = () -> bundleEnvironmentValidator.validateEnvironmentProvided("myBundle", "" +
+                "<l7:Bundle xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\">\n" +
+                "    <l7:References>" +
+                "    </l7:References>\n" +
+                "    <l7:Mappings>" +
+                failOnNewMapping("SECURE_PASSWORD", "myPassword") +
+                failOnNewMapping("JDBC_CONNECTION", "myConnection") +
+                "    </l7:Mappings>\n" +
+                "</l7:Bundle>", APPLICATION);
+
+        MissingEnvironmentException exception = assertThrows(MissingEnvironmentException.class, validateBundle);
+        assertTrue(exception.getMessage().contains("myPassword"));
+        assertTrue(exception.getMessage().contains("myConnection"));
+    }
+
     @Test
     void validateEnvironmentProvidedJDBCConnection() {
         Bundle environmentBundle = new Bundle();
@@ -530,4 +549,20 @@ class BundleEnvironmentValidatorTest {
         BundleEnvironmentValidator bundleEnvironmentValidator = new BundleEnvironmentValidator(environmentBundle);
         assertThrows(DeploymentBundleException.class, () -> bundleEnvironmentValidator.validateEnvironmentProvided("myBundle", "bundle", APPLICATION));
     }
-}
\ No newline at end of file
+
+    static String failOnNewMapping(String type, String name) {
+        return "        <l7:Mapping action=\"NewOrExisting\" srcId=\"89dbda0631bd25a08c73c96aebec7f5a\" type=\"" + type + "\">\n" +
+                "            <l7:Properties>\n" +
+                "                <l7:Property key=\"MapBy\">\n" +
+                "                    <l7:StringValue>name</l7:StringValue>\n" +
+                "                </l7:Property>\n" +
+                "                <l7:Property key=\"MapTo\">\n" +
+                "                    <l7:StringValue>" + name + "</l7:StringValue>\n" +
+                "                </l7:Property>\n" +
+                "                <l7:Property key=\"FailOnNew\">\n" +
+                "                    <l7:BooleanValue>true</l7:BooleanValue>\n" +
+                "                </l7:Property>\n" +
+                "            </l7:Properties>\n" +
+                "        </l7:Mapping>";
+    }
+}
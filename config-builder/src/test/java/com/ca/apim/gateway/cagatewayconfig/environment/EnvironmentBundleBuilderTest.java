@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.environment;
+
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.json.JsonToolsException;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleCreationMode.PLUGIN;
+import static org.apache.commons.lang3.StringUtils.EMPTY;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnvironmentBundleBuilderTest {
+
+    private final EnvironmentBundleBuilder environmentBundleBuilder = InjectionRegistry.getInstance(EnvironmentBundleBuilder.class);
+
+    @Test
+    void build() {
+        Map<String, String> environmentProperties = new LinkedHashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            environmentProperties.put("ENV.CONTEXT_VARIABLE_PROPERTY.variable-" + i, "value-" + i);
+            environmentProperties.put("ENV.PROPERTY.property-" + i, "value-" + i);
+        }
+        for (int i = 0; i < 10; i++) {
+            environmentProperties.put("ENV.LISTEN_PORT.port-" + i, "{\"port\": " + (8000 + i) + ", \"protocol\": \"HTTP\"}");
+        }
+        environmentProperties.put("ENV.UNKNOWN.value", "ignored");
+        environmentProperties.put("NOT_ENV.PROPERTY.value", "ignored");
+
+        Bundle bundle = new Bundle();
+        bundle.setName("environment.bundle");
+        environmentBundleBuilder.build(bundle, environmentProperties, EMPTY, PLUGIN);
+
+        assertEquals(1000, bundle.getContextVariableEnvironmentProperties().size());
+        assertEquals("value-999", bundle.getContextVariableEnvironmentProperties().get("variable-999").getValue());
+        assertEquals(1000, bundle.getGlobalEnvironmentProperties().size());
+        assertEquals("value-0", bundle.getGlobalEnvironmentProperties().get("property-0").getValue());
+        assertEquals(10, bundle.getListenPorts().size());
+        assertEquals(8009, bundle.getListenPorts().get("port-9").getPort());
+    }
+
+    @Test
+    void buildInvalidValue() {
+        Map<String, String> environmentProperties = new LinkedHashMap<>();
+        environmentProperties.put("ENV.CONTEXT_VARIABLE_PROPERTY.variable", "value");
+        environmentProperties.put("ENV.LISTEN_PORT.port", "{\"port\": ");
+
+        assertThrows(JsonToolsException.class, () -> environmentBundleBuilder.build(new Bundle(), environmentProperties, EMPTY, PLUGIN));
+    }
+}
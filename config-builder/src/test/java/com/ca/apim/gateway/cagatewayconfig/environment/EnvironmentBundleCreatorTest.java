@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.environment;
+
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.google.common.collect.ImmutableMap;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Map;
+
+import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleCreationMode.PLUGIN;
+import static java.nio.charset.Charset.defaultCharset;
+import static java.util.Collections.singletonMap;
+import static org.apache.commons.io.FileUtils.readFileToString;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class EnvironmentBundleCreatorTest {
+
+    private static final String BUNDLE = "<l7:Bundle xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\">\n" +
+            "    <l7:References>\n" +
+            "        <l7:Item>\n" +
+            "            <l7:Resource>&lt;L7p:Base64Expression ENV_PARAM_NAME=\"ENV.myEnvironmentVariable\"/&gt;</l7:Resource>\n" +
+            "        </l7:Item>\n" +
+            "    </l7:References>\n" +
+            "    <l7:Mappings/>\n" +
+            "</l7:Bundle>";
+
+    private final EnvironmentBundleCreator environmentBundleCreator = InjectionRegistry.getInstance(EnvironmentBundleCreator.class);
+
+    @Test
+    void createEnvironmentBundles(TemporaryFolder temporaryFolder) throws IOException {
+        File templatizedFolder = temporaryFolder.createDirectory("templatized");
+        writeStringToFile(new File(templatizedFolder, "my-bundle.bundle"), BUNDLE, defaultCharset());
+        File outputFolder = temporaryFolder.createDirectory("output");
+
+        Map<String, Map<String, String>> environments = ImmutableMap.of(
+                "dev", environment("dev-value"),
+                "qa", environment("qa-value"),
+                "prod", environment("prod-value"));
+        Map<String, Long> creationTimes = environmentBundleCreator.createEnvironmentBundles(environments, outputFolder.getPath(), templatizedFolder.getPath(), PLUGIN, name -> name + "-environment.bundle");
+
+        assertEquals(Arrays.asList("dev", "qa", "prod"), new ArrayList<>(creationTimes.keySet()));
+        environments.keySet().forEach(name -> {
+            File environmentFolder = new File(outputFolder, name);
+            assertTrue(new File(environmentFolder, name + "-environment.bundle").isFile(), name);
+            try {
+                String detemplatized = readFileToString(new File(environmentFolder, "my-bundle.bundle"), defaultCharset());
+                assertTrue(detemplatized.contains("stringValue=\"" + Base64.getEncoder().encodeToString((name + "-value").getBytes()) + "\""), name);
+            } catch (IOException e) {
+                fail(e);
+            }
+        });
+        // the templatized bundle is left as it was
+        assertEquals(BUNDLE, readFileToString(new File(templatizedFolder, "my-bundle.bundle"), defaultCharset()));
+    }
+
+    @Test
+    void createEnvironmentBundlesMissingValues(TemporaryFolder temporaryFolder) throws IOException {
+        File templatizedFolder = temporaryFolder.createDirectory("templatized");
+        writeStringToFile(new File(templatizedFolder, "my-bundle.bundle"), BUNDLE, defaultCharset());
+        File outputFolder = temporaryFolder.createDirectory("output");
+
+        Map<String, Map<String, String>> environments = ImmutableMap.of(
+                "dev", environment("dev-value"),
+                "qa", ImmutableMap.of(),
+                "prod", ImmutableMap.of());
+        DeploymentBundleException exception = assertThrows(DeploymentBundleException.class, () -> environmentBundleCreator.createEnvironmentBundles(environments, outputFolder.getPath(), templatizedFolder.getPath(), PLUGIN, name -> name + "-environment.bundle"));
+        assertTrue(exception.getMessage().contains("qa: "), exception.getMessage());
+        assertTrue(exception.getMessage().contains("prod: "), exception.getMessage());
+        assertEquals(2, exception.getSuppressed().length);
+        assertTrue(new File(new File(outputFolder, "dev"), "dev-environment.bundle").isFile());
+    }
+
+    @Test
+    void createEnvironmentBundlesInvalidName(TemporaryFolder temporaryFolder) {
+        assertThrows(IllegalArgumentException.class, () -> environmentBundleCreator.createEnvironmentBundles(singletonMap("../prod", environment("value")), temporaryFolder.getRoot().getPath(), temporaryFolder.getRoot().getPath(), PLUGIN, name -> name + "-environment.bundle"));
+    }
+
+    private static Map<String, String> environment(String value) {
+        return singletonMap("ENV.CONTEXT_VARIABLE_PROPERTY.myEnvironmentVariable", value);
+    }
+}
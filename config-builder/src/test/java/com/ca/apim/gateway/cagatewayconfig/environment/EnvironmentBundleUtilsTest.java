@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.environment;
+
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.beans.ContextVariableEnvironmentProperty;
+import com.ca.apim.gateway.cagatewayconfig.beans.StoredPassword;
+import com.ca.apim.gateway.cagatewayconfig.environment.TemplatizedBundle.FileTemplatizedBundle;
+import com.ca.apim.gateway.cagatewayconfig.environment.TemplatizedBundle.StringTemplatizedBundle;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.ca.apim.gateway.cagatewayconfig.environment.BundleEnvironmentValidatorTest.failOnNewMapping;
+import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleCreationMode.APPLICATION;
+import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleUtils.processDeploymentBundles;
+import static java.nio.charset.Charset.defaultCharset;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class EnvironmentBundleUtilsTest {
+
+    private static final String BUNDLE = "<l7:Bundle xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\">\n" +
+            "    <l7:References>\n" +
+            "        <l7:Item>\n" +
+            "            <l7:Resource>&lt;L7p:Base64Expression ENV_PARAM_NAME=\"ENV.myEnvironmentVariable\"/&gt;</l7:Resource>\n" +
+            "        </l7:Item>\n" +
+            "    </l7:References>\n" +
+            "    <l7:Mappings>\n" +
+            "%s" +
+            "    </l7:Mappings>\n" +
+            "</l7:Bundle>";
+
+    @Test
+    void processDeploymentBundlesInParallel() {
+        Bundle environmentBundle = new Bundle();
+        environmentBundle.getStoredPasswords().put("myPassword", new StoredPassword());
+        environmentBundle.putAllContextVariableEnvironmentProperties(singletonMap("myEnvironmentVariable", new ContextVariableEnvironmentProperty("myEnvironmentVariable", "abc")));
+
+        List<TemplatizedBundle> templatizedBundles = IntStream.range(0, 20)
+                .mapToObj(i -> new StringTemplatizedBundle("bundle" + i, String.format(BUNDLE, failOnNewMapping("SECURE_PASSWORD", "myPassword"))))
+                .collect(toList());
+        processDeploymentBundles(environmentBundle, templatizedBundles, APPLICATION);
+
+        templatizedBundles.forEach(tb -> {
+            assertFalse(tb.getContents().contains("ENV_PARAM_NAME"), tb.getName());
+            assertTrue(tb.getContents().contains("L7p:Base64Expression stringValue=\"YWJj\""), tb.getName());
+        });
+    }
+
+    @Test
+    void processFileDeploymentBundleInPlace(TemporaryFolder temporaryFolder) throws IOException {
+        Bundle environmentBundle = new Bundle();
+        environmentBundle.getStoredPasswords().put("myPassword", new StoredPassword());
+        environmentBundle.putAllContextVariableEnvironmentProperties(singletonMap("myEnvironmentVariable", new ContextVariableEnvironmentProperty("myEnvironmentVariable", "abc")));
+
+        File bundleFile = temporaryFolder.createFile("my-bundle.bundle");
+        FileUtils.writeStringToFile(bundleFile, String.format(BUNDLE, failOnNewMapping("SECURE_PASSWORD", "myPassword")), defaultCharset());
+        processDeploymentBundles(environmentBundle, singletonList(new FileTemplatizedBundle(bundleFile, bundleFile)), APPLICATION);
+
+        String detemplatized = FileUtils.readFileToString(bundleFile, defaultCharset());
+        assertFalse(detemplatized.contains("ENV_PARAM_NAME"));
+        assertTrue(detemplatized.contains("L7p:Base64Expression stringValue=\"YWJj\""));
+        // no temporary file left behind
+        assertArrayEquals(new File[]{bundleFile}, temporaryFolder.getRoot().listFiles());
+    }
+
+    @Test
+    void processFileDeploymentBundleMissingEnvironment(TemporaryFolder temporaryFolder) throws IOException {
+        Bundle environmentBundle = new Bundle();
+        environmentBundle.getStoredPasswords().put("myPassword", new StoredPassword());
+
+        File bundleFile = temporaryFolder.createFile("my-bundle.bundle");
+        File newFile = new File(temporaryFolder.getRoot(), "new.bundle");
+        FileUtils.writeStringToFile(bundleFile, String.format(BUNDLE, failOnNewMapping("SECURE_PASSWORD", "myPassword")), defaultCharset());
+
+        assertThrows(BundleDetemplatizeException.class, () -> processDeploymentBundles(environmentBundle, singletonList(new FileTemplatizedBundle(bundleFile, newFile)), APPLICATION));
+        assertArrayEquals(new File[]{bundleFile}, temporaryFolder.getRoot().listFiles());
+    }
+
+    @Test
+    void processDeploymentBundlesReportsAllMissingEnvironment() {
+        Bundle environmentBundle = new Bundle();
+        environmentBundle.putAllContextVariableEnvironmentProperties(singletonMap("myEnvironmentVariable", new ContextVariableEnvironmentProperty("myEnvironmentVariable", "abc")));
+
+        List<TemplatizedBundle> templatizedBundles = IntStream.range(0, 4)
+                .mapToObj(i -> new StringTemplatizedBundle("bundle" + i, String.format(BUNDLE, failOnNewMapping("SECURE_PASSWORD", "password" + i))))
+                .collect(toList());
+
+        MissingEnvironmentException exception = assertThrows(MissingEnvironmentException.class, () -> processDeploymentBundles(environmentBundle, templatizedBundles, APPLICATION));
+        IntStream.range(0, 4).forEach(i -> {
+            assertTrue(exception.getMessage().contains("bundle" + i + ": "), exception.getMessage());
+            assertTrue(exception.getMessage().contains("password" + i), exception.getMessage());
+        });
+        assertEquals(4, exception.getSuppressed().length);
+    }
+
+    @Test
+    void processDeploymentBundlesSingleFailure() {
+        Bundle environmentBundle = new Bundle();
+
+        List<TemplatizedBundle> templatizedBundles = singletonList(new StringTemplatizedBundle("bundle", String.format(BUNDLE, failOnNewMapping("SECURE_PASSWORD", "myPassword"))));
+
+        MissingEnvironmentException exception = assertThrows(MissingEnvironmentException.class, () -> processDeploymentBundles(environmentBundle, templatizedBundles, APPLICATION));
+        assertTrue(exception.getMessage().contains("myPassword"));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.environment;
+
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.w3c.dom.Element;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getChildElements;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElement;
+import static java.nio.charset.Charset.defaultCharset;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class FullBundleCreatorTest {
+
+    private static final String BUNDLE = "<l7:Bundle xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\">\n" +
+            "    <l7:References>\n" +
+            "%s" +
+            "    </l7:References>\n" +
+            "    <l7:Mappings>\n" +
+            "%s" +
+            "    </l7:Mappings>\n" +
+            "</l7:Bundle>";
+
+    private final FullBundleCreator fullBundleCreator = InjectionRegistry.getInstance(FullBundleCreator.class);
+
+    @Test
+    void createFullBundle(TemporaryFolder temporaryFolder) throws IOException, DocumentParseException {
+        File first = temporaryFolder.createFile("first.bundle");
+        writeStringToFile(first, String.format(BUNDLE,
+                item("policy-1", "POLICY") + item("folder-1", "FOLDER"),
+                mapping("policy-1", "POLICY", "NewOrUpdate") + mapping("folder-1", "FOLDER", "NewOrUpdate") + mapping("policy-3", "POLICY", "Ignore")), defaultCharset());
+        File second = temporaryFolder.createFile("second.bundle");
+        writeStringToFile(second, String.format(BUNDLE,
+                item("policy-1", "POLICY") + item("policy-3", "POLICY"),
+                mapping("policy-1", "POLICY", "Ignore") + mapping("policy-3", "POLICY", "NewOrUpdate")), defaultCharset());
+        File output = temporaryFolder.createDirectory("output");
+
+        fullBundleCreator.createFullBundle(emptyMap(), Arrays.asList(first, second), output.getPath(), "full.bundle");
+
+        Element bundle = DocumentTools.INSTANCE.parse(new File(output, "full.bundle")).getDocumentElement();
+        // the environment items and mappings come first
+        List<Element> items = getChildElements(getSingleChildElement(bundle, REFERENCES), ITEM);
+        items = items.subList(items.size() - 3, items.size());
+        assertEquals(Arrays.asList("policy-1", "folder-1", "policy-3"), items.stream().map(i -> getSingleChildElement(i, ID).getTextContent()).collect(toList()));
+        assertEquals("<wsp:Policy/>", getSingleChildElement(items.get(0), RESOURCE).getTextContent());
+
+        List<Element> mappings = getChildElements(getSingleChildElement(bundle, MAPPINGS), MAPPING);
+        mappings = mappings.subList(mappings.size() - 3, mappings.size());
+        assertEquals(Arrays.asList("policy-1", "folder-1", "policy-3"), mappings.stream().map(m -> m.getAttribute(ATTRIBUTE_SRCID)).collect(toList()));
+        // the first bundle mapping for policy-3 is ignored, the item is only added by the second one
+        assertEquals(Arrays.asList("NewOrUpdate", "NewOrUpdate", "NewOrUpdate"), mappings.stream().map(m -> m.getAttribute(ATTRIBUTE_ACTION)).collect(toList()));
+
+        // only the full bundle is left in the output folder
+        assertArrayEquals(new File[]{new File(output, "full.bundle")}, output.listFiles());
+    }
+
+    @Test
+    void createFullBundleInvalidDeploymentBundle(TemporaryFolder temporaryFolder) throws IOException {
+        File invalid = temporaryFolder.createFile("invalid.bundle");
+        writeStringToFile(invalid, "<l7:Bundle xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\"><l7:References>", defaultCharset());
+        File output = temporaryFolder.createDirectory("output");
+
+        // rejected while validating it against the environment
+        DeploymentBundleException exception = assertThrows(DeploymentBundleException.class, () -> fullBundleCreator.createFullBundle(emptyMap(), singletonList(invalid), output.getPath(), "full.bundle"));
+        assertTrue(exception.getMessage().contains("invalid.bundle"));
+    }
+
+    private static String item(String id, String type) {
+        return "        <l7:Item>\n" +
+                "            <l7:Name>" + id + "</l7:Name>\n" +
+                "            <l7:Id>" + id + "</l7:Id>\n" +
+                "            <l7:Type>" + type + "</l7:Type>\n" +
+                "            <l7:Resource>&lt;wsp:Policy/&gt;</l7:Resource>\n" +
+                "        </l7:Item>\n";
+    }
+
+    private static String mapping(String id, String type, String action) {
+        return "        <l7:Mapping action=\"" + action + "\" srcId=\"" + id + "\" type=\"" + type + "\"/>\n";
+    }
+}
@@ -9,6 +9,10 @@ package com.ca.apim.gateway.cagatewayconfig.util;
 import org.junit.Assert;
 import org.junit.jupiter.api.Test;
 
+import java.util.UUID;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.POLICY_TYPE;
+
 class IdGeneratorTest {
 
     @Test
@@ -19,5 +23,18 @@ class IdGeneratorTest {
         String id1 = idGenerator.generate();
         Assert.assertNotEquals(id1, idGenerator.generate());
         Assert.assertNotEquals(id1, idGenerator2.generate());
+        Assert.assertTrue(id1.matches("[0-9a-f]{32}"));
+    }
+
+    @Test
+    void generateForEntityIsRandom() {
+        IdGenerator idGenerator = new IdGenerator();
+
+        String id1 = idGenerator.generate("my-bundle", POLICY_TYPE, "my-policy");
+        Assert.assertNotEquals(id1, idGenerator.generate("my-bundle", POLICY_TYPE, "my-policy"));
+
+        String guid = idGenerator.generateGuid("my-bundle", POLICY_TYPE, "my-policy");
+        Assert.assertEquals(guid, UUID.fromString(guid).toString());
+        Assert.assertNotEquals(guid, idGenerator.generateGuid("my-bundle", POLICY_TYPE, "my-policy"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.ENCAPSULATED_ASSERTION_TYPE;
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.POLICY_TYPE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameBasedIdGeneratorTest {
+
+    private final IdGenerator idGenerator = new NameBasedIdGenerator();
+
+    @Test
+    void generateSameInputSameId() {
+        String id = idGenerator.generate("my-bundle", POLICY_TYPE, "my-folder/my-policy");
+        assertEquals(id, idGenerator.generate("my-bundle", POLICY_TYPE, "my-folder/my-policy"));
+        assertEquals(id, new NameBasedIdGenerator().generate("my-bundle", POLICY_TYPE, "my-folder/my-policy"));
+        assertTrue(id.matches("[0-9a-f]{32}"), id);
+    }
+
+    @Test
+    void generateDifferentInputDifferentId() {
+        String id = idGenerator.generate("my-bundle", POLICY_TYPE, "my-folder/my-policy");
+        assertNotEquals(id, idGenerator.generate("other-bundle", POLICY_TYPE, "my-folder/my-policy"));
+        assertNotEquals(id, idGenerator.generate("my-bundle", ENCAPSULATED_ASSERTION_TYPE, "my-folder/my-policy"));
+        assertNotEquals(id, idGenerator.generate("my-bundle", POLICY_TYPE, "my-folder/other-policy"));
+        assertNotEquals(idGenerator.generate("ab", POLICY_TYPE, "c"), idGenerator.generate("a", POLICY_TYPE, "bc"));
+        assertNotEquals(id, idGenerator.generateGuid("my-bundle", POLICY_TYPE, "my-folder/my-policy").replace("-", ""));
+    }
+
+    @Test
+    void generateGuid() {
+        String guid = idGenerator.generateGuid("my-bundle", POLICY_TYPE, "my-folder/my-policy");
+        assertEquals(guid, idGenerator.generateGuid("my-bundle", POLICY_TYPE, "my-folder/my-policy"));
+        assertNotEquals(guid, idGenerator.generateGuid(null, POLICY_TYPE, "my-folder/my-policy"));
+
+        UUID uuid = UUID.fromString(guid);
+        assertEquals(guid, uuid.toString());
+        assertEquals(5, uuid.version());
+        assertEquals(2, uuid.variant());
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.connection;
+
+import com.ca.apim.gateway.testfixtures.restman.Failure;
+import com.ca.apim.gateway.testfixtures.restman.RestmanServer;
+import com.ca.apim.gateway.testfixtures.restman.RestmanServer.RecordedRequest;
+import com.ca.apim.gateway.testfixtures.restman.SyntheticBundles;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.entity.ByteArrayEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClient.getRestmanBundleEndpoint;
+import static com.ca.apim.gateway.testfixtures.restman.RestmanServer.MAX_CALL_OVERHEAD;
+import static com.ca.apim.gateway.testfixtures.restman.RestmanServer.PASSWORD;
+import static com.ca.apim.gateway.testfixtures.restman.RestmanServer.USER_NAME;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.apache.commons.io.IOUtils.toByteArray;
+import static org.apache.http.entity.ContentType.APPLICATION_XML;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GatewayClientTest {
+
+    private RestmanServer server;
+
+    @AfterEach
+    void after() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void exportOverHttps() throws IOException {
+        server = RestmanServer.startHttps();
+        byte[] bundle = SyntheticBundles.clusterProperties(100, 100);
+        server.setExportBundle(bundle);
+
+        assertArrayEquals(bundle, export());
+
+        // the first request is challenged for credentials
+        List<RecordedRequest> requests = server.getRequests();
+        assertEquals(2, requests.size());
+        assertEquals(401, requests.get(0).getStatus());
+        assertEquals(200, requests.get(1).getStatus());
+        assertEquals("GET", requests.get(1).getMethod());
+        assertEquals("/restman/1.0/bundle?folder=0000000000000000ffffffffffffec76", requests.get(1).getUri());
+        assertNotNull(requests.get(1).getKeyPassphrase());
+    }
+
+    @Test
+    void exportReport() throws IOException {
+        server = RestmanServer.startHttps();
+        server.setLatencyMillis(50);
+        byte[] bundle = SyntheticBundles.clusterProperties(100, 100);
+        server.setExportBundle(bundle);
+        GatewayCallReport report = new GatewayCallReport();
+        RequestBuilder requestBuilder = RequestBuilder.get(getRestmanBundleEndpoint(server.getUrl()));
+
+        assertArrayEquals(bundle, toByteArray(GatewayClient.INSTANCE.makeGatewayAPICall(requestBuilder, USER_NAME, PASSWORD, report)));
+
+        assertEquals("GET", report.getMethod());
+        assertEquals(getRestmanBundleEndpoint(server.getUrl()), report.getUri());
+        assertEquals(200, report.getStatus());
+        assertNull(report.getError());
+        assertEquals(2, report.getRequests());
+        assertEquals(0, report.getRetries());
+        assertTrue(report.getTlsNanos() > 0);
+        assertTrue(report.getConnectNanos() > 0);
+        // the challenge and the export both wait for the latency before the head of the export response
+        assertTrue(report.getFirstByteNanos() >= MILLISECONDS.toNanos(100), "first byte after " + report.getFirstByteNanos() + "ns");
+        assertTrue(report.getTotalNanos() >= report.getFirstByteNanos());
+        assertTrue(report.getTotalNanos() >= report.getDnsNanos() + report.getConnectNanos() + report.getTlsNanos());
+        assertTrue(report.getBytesReceived() > bundle.length, report.getBytesReceived() + " bytes received");
+        assertTrue(report.getBytesSent() > 0);
+    }
+
+    @Test
+    void importReport() {
+        server = RestmanServer.startHttp();
+        byte[] bundle = SyntheticBundles.clusterProperties(100, 100);
+        GatewayCallReport report = new GatewayCallReport();
+        RequestBuilder requestBuilder = RequestBuilder.put(getRestmanBundleEndpoint(server.getUrl()))
+                .setEntity(new ByteArrayEntity(bundle, APPLICATION_XML));
+
+        GatewayClient.INSTANCE.makeGatewayAPICall(requestBuilder, USER_NAME, PASSWORD, report);
+
+        assertEquals("PUT", report.getMethod());
+        assertEquals(200, report.getStatus());
+        assertEquals(0, report.getTlsNanos());
+        // the bundle is sent before and after the challenge for credentials
+        assertTrue(report.getBytesSent() > 2L * bundle.length, report.getBytesSent() + " bytes sent");
+    }
+
+    @Test
+    void exportChunked() throws IOException {
+        server = RestmanServer.startHttp();
+        server.setChunked(true);
+        byte[] bundle = SyntheticBundles.clusterProperties(1000, 100);
+        server.setExportBundle(bundle);
+
+        assertArrayEquals(bundle, export());
+    }
+
+    @Test
+    void importBundle() throws IOException {
+        server = RestmanServer.startHttps();
+        byte[] bundle = SyntheticBundles.clusterProperties(100, 100);
+
+        String result = new String(toByteArray(importBundle(bundle)));
+
+        assertTrue(result.contains("BUNDLE MAPPINGS"), result);
+        assertEquals(1, server.getImportedBundles().size());
+        assertArrayEquals(bundle, server.getImportedBundles().get(0));
+    }
+
+    @Test
+    void exportWrongPassword() {
+        server = RestmanServer.startHttp();
+        RequestBuilder requestBuilder = RequestBuilder.get(getRestmanBundleEndpoint(server.getUrl()));
+
+        GatewayClientException exception = assertThrows(GatewayClientException.class, () -> GatewayClient.INSTANCE.makeGatewayAPICall(requestBuilder, USER_NAME, "wrong"));
+        assertTrue(exception.getMessage().contains("returned status 401"), exception.getMessage());
+    }
+
+    @Test
+    void exportServerError() {
+        server = RestmanServer.startHttp();
+        server.fail(Failure.status(503));
+        GatewayCallReport report = new GatewayCallReport();
+        RequestBuilder requestBuilder = RequestBuilder.get(getRestmanBundleEndpoint(server.getUrl()));
+
+        GatewayClientException exception = assertThrows(GatewayClientException.class, () -> GatewayClient.INSTANCE.makeGatewayAPICall(requestBuilder, USER_NAME, PASSWORD, report));
+        assertTrue(exception.getMessage().contains("returned status 503"), exception.getMessage());
+        assertEquals(503, report.getStatus());
+        // the error is recorded without the response body
+        assertEquals("API Call (GET) to gateway returned status 503 for uri: " + getRestmanBundleEndpoint(server.getUrl()), report.getError());
+        assertTrue(report.getTotalNanos() > 0);
+    }
+
+    @Test
+    void exportTruncated() {
+        server = RestmanServer.startHttp();
+        server.setExportBundle(SyntheticBundles.clusterProperties(1000, 100));
+        server.fail(Failure.TRUNCATE);
+
+        assertThrows(GatewayClientException.class, this::export);
+    }
+
+    @Test
+    void exportTruncatedChunked() {
+        server = RestmanServer.startHttp();
+        server.setChunked(true);
+        server.setExportBundle(SyntheticBundles.clusterProperties(1000, 100));
+        server.fail(Failure.TRUNCATE);
+
+        assertThrows(GatewayClientException.class, this::export);
+    }
+
+    @Test
+    void exportRetriedAfterDisconnect() throws IOException {
+        server = RestmanServer.startHttp();
+        byte[] bundle = SyntheticBundles.clusterProperties(10, 10);
+        server.setExportBundle(bundle);
+        server.fail(Failure.DISCONNECT);
+
+        // a GET is idempotent so the http client retries it
+        GatewayCallReport report = new GatewayCallReport();
+        RequestBuilder requestBuilder = RequestBuilder.get(getRestmanBundleEndpoint(server.getUrl()));
+        assertArrayEquals(bundle, toByteArray(GatewayClient.INSTANCE.makeGatewayAPICall(requestBuilder, USER_NAME, PASSWORD, report)));
+        assertEquals(200, server.getRequests().get(server.getRequests().size() - 1).getStatus());
+        assertEquals(1, report.getRetries());
+        assertEquals(3, report.getRequests());
+    }
+
+    @Test
+    void importNotRetriedAfterDisconnect() {
+        server = RestmanServer.startHttp();
+        server.fail(Failure.DISCONNECT);
+
+        GatewayCallReport report = new GatewayCallReport();
+        RequestBuilder requestBuilder = RequestBuilder.put(getRestmanBundleEndpoint(server.getUrl()))
+                .setEntity(new ByteArrayEntity(SyntheticBundles.clusterProperties(10, 10), APPLICATION_XML));
+
+        assertThrows(GatewayClientException.class, () -> GatewayClient.INSTANCE.makeGatewayAPICall(requestBuilder, USER_NAME, PASSWORD, report));
+        assertTrue(server.getImportedBundles().isEmpty());
+        assertEquals(0, report.getRetries());
+        assertEquals(0, report.getStatus());
+        assertTrue(report.getError().contains("NoHttpResponseException"), report.getError());
+    }
+
+    @Test
+    void exportLargeBundle() throws IOException {
+        server = RestmanServer.startHttp();
+        server.setChunked(true);
+        byte[] bundle = SyntheticBundles.clusterProperties(1000, 200);
+        server.setExportBundle(bundle);
+        GatewayCallReport report = new GatewayCallReport();
+        RequestBuilder requestBuilder = RequestBuilder.get(getRestmanBundleEndpoint(server.getUrl()));
+
+        assertArrayEquals(bundle, toByteArray(GatewayClient.INSTANCE.makeGatewayAPICall(requestBuilder, USER_NAME, PASSWORD, report)));
+
+        // the bundle is downloaded once, after the challenge for credentials, on the same connection
+        assertEquals(2, report.getRequests());
+        assertEquals(1, server.getRequests().stream().filter(r -> r.getStatus() == 200).count());
+        assertTrue(report.getBytesReceived() > bundle.length, report.getBytesReceived() + " bytes received");
+        assertTrue(report.getBytesReceived() < bundle.length + MAX_CALL_OVERHEAD, report.getBytesReceived() + " bytes received");
+    }
+
+    @Test
+    void importLargeBundle() throws IOException {
+        server = RestmanServer.startHttp();
+        byte[] bundle = SyntheticBundles.clusterProperties(1000, 200);
+        GatewayCallReport report = new GatewayCallReport();
+        RequestBuilder requestBuilder = RequestBuilder.put(getRestmanBundleEndpoint(server.getUrl()))
+                .setEntity(new ByteArrayEntity(bundle, APPLICATION_XML));
+
+        toByteArray(GatewayClient.INSTANCE.makeGatewayAPICall(requestBuilder, USER_NAME, PASSWORD, report));
+
+        // the bundle is sent twice, before and after the challenge for credentials, and no more
+        assertEquals(2, report.getRequests());
+        assertEquals(2, server.getRequests().size());
+        assertTrue(server.getRequests().stream().allMatch(r -> r.getBodyLength() == bundle.length), server.getRequests().toString());
+        assertTrue(report.getBytesSent() > 2L * bundle.length, report.getBytesSent() + " bytes sent");
+        assertTrue(report.getBytesSent() < 2L * bundle.length + MAX_CALL_OVERHEAD, report.getBytesSent() + " bytes sent");
+        assertArrayEquals(bundle, server.getImportedBundles().get(0));
+    }
+
+    private byte[] export() throws IOException {
+        RequestBuilder requestBuilder = RequestBuilder.get(getRestmanBundleEndpoint(server.getUrl()) + "?folder=0000000000000000ffffffffffffec76");
+        return toByteArray(GatewayClient.INSTANCE.makeGatewayAPICall(requestBuilder, USER_NAME, PASSWORD));
+    }
+
+    private InputStream importBundle(byte[] bundle) {
+        RequestBuilder requestBuilder = RequestBuilder.put(getRestmanBundleEndpoint(server.getUrl()))
+                .setEntity(new ByteArrayEntity(bundle, APPLICATION_XML));
+        return GatewayClient.INSTANCE.makeGatewayAPICall(requestBuilder, USER_NAME, PASSWORD);
+    }
+}
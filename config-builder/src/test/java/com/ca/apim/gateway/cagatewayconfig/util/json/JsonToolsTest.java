@@ -6,6 +6,7 @@
 
 package com.ca.apim.gateway.cagatewayconfig.util.json;
 
+import com.ca.apim.gateway.cagatewayconfig.beans.ListenPort;
 import com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
@@ -39,6 +40,20 @@ class JsonToolsTest {
         assertNotNull(jsonTools.getObjectWriter());
     }
 
+    @Test
+    void getObjectReader() {
+        assertSame(jsonTools.getObjectReader(JsonTools.JSON, ListenPort.class), jsonTools.getObjectReader(JsonTools.JSON, ListenPort.class));
+        assertNotSame(jsonTools.getObjectReader(JsonTools.JSON, ListenPort.class), jsonTools.getObjectReader(JsonTools.YAML, ListenPort.class));
+        assertThrows(IllegalArgumentException.class, () -> jsonTools.getObjectReader("xyz", ListenPort.class));
+    }
+
+    @Test
+    void readValue() {
+        assertEquals(8443, jsonTools.readValue("{\"port\": 8443}", JsonTools.JSON, ListenPort.class).getPort());
+        assertEquals(8443, jsonTools.readValue("port: 8443", JsonTools.YAML, ListenPort.class).getPort());
+        assertThrows(JsonToolsException.class, () -> jsonTools.readValue("{\"port\": ", JsonTools.JSON, ListenPort.class));
+    }
+
     @Test
     void getTypeFromFile() {
         assertEquals(JsonTools.YAML, jsonTools.getTypeFromFile(new File("test.yml")));
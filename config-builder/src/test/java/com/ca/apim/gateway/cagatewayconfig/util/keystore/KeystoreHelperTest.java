@@ -8,6 +8,7 @@ package com.ca.apim.gateway.cagatewayconfig.util.keystore;
 
 import com.ca.apim.gateway.cagatewayconfig.beans.PrivateKey;
 import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,6 +22,7 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
+import java.security.Security;
 import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
@@ -60,6 +62,44 @@ class KeystoreHelperTest {
         assertNotNull(ks.getKey("test2", EMPTY.toCharArray()));
     }
 
+    @Test
+    void createKeyStoreWithSameKeys() throws IOException, KeyStoreException, CertificateException, NoSuchAlgorithmException {
+        KeystoreHelper keystoreHelper = new KeystoreHelper();
+        final byte[] keyStore = keystoreHelper.createKeyStore(Arrays.asList(createPrivateKey("test"), createPrivateKey("test2")));
+
+        // same keys, the key store is not created again
+        assertArrayEquals(keyStore, keystoreHelper.createKeyStore(Arrays.asList(createPrivateKey("test"), createPrivateKey("test2"))));
+
+        final byte[] oneKeyStore = keystoreHelper.createKeyStore(singletonList(createPrivateKey("test")));
+        assertFalse(Arrays.equals(keyStore, oneKeyStore));
+        KeyStore ks = getInstance("PKCS12");
+        ks.load(new ByteArrayInputStream(oneKeyStore), keystoreHelper.getKeystorePassword());
+        assertEquals(1, ks.size());
+        assertTrue(ks.containsAlias("test"));
+    }
+
+    @Test
+    void createKeyStoreKeepsOnlyCurrentKeys() throws IOException {
+        KeystoreHelper keystoreHelper = new KeystoreHelper();
+        keystoreHelper.createKeyStore(Arrays.asList(createPrivateKey("test"), createPrivateKey("test2")));
+        assertEquals(2, keystoreHelper.getDecodedKeyCount());
+
+        // the key that is no longer used is not kept
+        keystoreHelper.createKeyStore(singletonList(createPrivateKey("test")));
+        assertEquals(1, keystoreHelper.getDecodedKeyCount());
+
+        keystoreHelper.createKeyStore(emptyList());
+        assertEquals(0, keystoreHelper.getDecodedKeyCount());
+    }
+
+    @Test
+    void createKeyStoreRegistersProviderOnce() throws IOException {
+        new KeystoreHelper().createKeyStore(singletonList(createPrivateKey("test")));
+        new KeystoreHelper().createKeyStore(singletonList(createPrivateKey("test")));
+
+        assertEquals(1, Arrays.stream(Security.getProviders()).filter(p -> BouncyCastleProvider.PROVIDER_NAME.equals(p.getName())).count());
+    }
+
     @Test
     void createEmptyKeyStore() {
         KeystoreHelper keystoreHelper = new KeystoreHelper();
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.report;
+
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport.Phase;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhaseReportTest {
+
+    @Test
+    void record() {
+        PhaseReport report = new PhaseReport("my-bundle");
+
+        List<String> result = report.record("load", () -> Arrays.asList("one", "two"), List::size);
+        report.record("write", () -> {
+        });
+
+        assertEquals(Arrays.asList("one", "two"), result);
+        assertEquals("my-bundle", report.getName());
+        List<Phase> phases = report.getPhases();
+        assertEquals(2, phases.size());
+        assertEquals("load", phases.get(0).getName());
+        assertEquals(Integer.valueOf(2), phases.get(0).getEntities());
+        assertEquals("write", phases.get(1).getName());
+        assertNull(phases.get(1).getEntities());
+        assertNull(phases.get(1).getBytes());
+        assertTrue(phases.get(1).getStartNanos() >= phases.get(0).getStartNanos() + phases.get(0).getWallTimeNanos());
+        assertEquals(phases.get(1).getStartNanos() + phases.get(1).getWallTimeNanos(), report.getWallTimeNanos());
+    }
+
+    @Test
+    void recordBytes() {
+        PhaseReport report = new PhaseReport("my-bundle");
+
+        String result = report.record("write", () -> "contents", null, String::length);
+
+        assertEquals("contents", result);
+        Phase phase = report.getPhases().get(0);
+        assertEquals(Long.valueOf(8), phase.getBytes());
+        assertNull(phase.getEntities());
+    }
+
+    @Test
+    void recordProfilingMemory() {
+        PhaseReport report = new PhaseReport("my-bundle", true);
+
+        byte[] result = report.record("load", () -> new byte[1_000_000], null);
+        report.estimateRetainedBytes("load", () -> Collections.singletonMap("bytes", (long) result.length));
+
+        assertTrue(report.isProfilingMemory());
+        Phase phase = report.getPhases().get(0);
+        assertNotNull(phase.getAllocatedBytes());
+        assertTrue(phase.getAllocatedBytes() >= 1_000_000, phase.getAllocatedBytes().toString());
+        assertNotNull(phase.getPeakHeapBytes());
+        assertTrue(phase.getPeakHeapBytes() > 0);
+        assertEquals(Collections.singletonMap("bytes", 1_000_000L), phase.getRetainedBytes());
+        assertThrows(IllegalArgumentException.class, () -> report.estimateRetainedBytes("write", Collections::emptyMap));
+    }
+
+    @Test
+    void recordNotProfilingMemory() {
+        PhaseReport report = new PhaseReport("my-bundle");
+
+        report.record("load", () -> new byte[1_000_000], null);
+        report.estimateRetainedBytes("load", () -> {
+            throw new AssertionError("estimated when not profiling");
+        });
+
+        assertFalse(report.isProfilingMemory());
+        Phase phase = report.getPhases().get(0);
+        assertNull(phase.getAllocatedBytes());
+        assertNull(phase.getPeakHeapBytes());
+        assertTrue(phase.getRetainedBytes().isEmpty());
+    }
+
+    @Test
+    void recordEntity() {
+        PhaseReport report = new PhaseReport("my-bundle", false, true);
+
+        String result = report.recordEntity("POLICY", "policy-a", () -> "built");
+        report.recordEntity("POLICY", "policy-a", () -> {
+        });
+        report.recordEntity("SERVICE", "service", () -> {
+        });
+
+        assertEquals("built", result);
+        assertTrue(report.isTimingEntities());
+        assertEquals(Arrays.asList("POLICY", "SERVICE"), Arrays.asList(report.getEntityWallTimeNanos().keySet().toArray()));
+        assertEquals(Collections.singleton("policy-a"), report.getEntityWallTimeNanos().get("POLICY").keySet());
+        assertTrue(report.getEntityWallTimeNanos().get("POLICY").get("policy-a") >= 0);
+        assertTrue(report.getPhases().isEmpty());
+    }
+
+    @Test
+    void recordEntityNotTimingEntities() {
+        PhaseReport report = new PhaseReport("my-bundle");
+
+        assertEquals("built", report.recordEntity("POLICY", "policy-a", () -> "built"));
+        assertFalse(report.isTimingEntities());
+        assertTrue(report.getEntityWallTimeNanos().isEmpty());
+    }
+
+    @Test
+    void recordNestedPhasesInParallel() {
+        PhaseReport report = new PhaseReport("my-bundle");
+
+        report.record("load", () -> IntStream.range(0, 20).parallel().forEach(i -> report.record("load/" + i, () -> {
+        }, () -> i)), () -> 20);
+
+        List<Phase> phases = report.getPhases();
+        assertEquals(21, phases.size());
+        // the phases are sorted by start, so the nested ones are after the one they are part of
+        assertEquals("load", phases.get(0).getName());
+        assertEquals(0, phases.get(0).getDepth());
+        assertEquals(1, phases.get(1).getDepth());
+        assertEquals(IntStream.range(0, 20).mapToObj(i -> "load/" + i).sorted().collect(toList()),
+                phases.stream().skip(1).map(Phase::getName).sorted().collect(toList()));
+        assertEquals(190, phases.stream().skip(1).mapToInt(Phase::getEntities).sum());
+    }
+
+    @Test
+    void recordFailedPhase() {
+        PhaseReport report = new PhaseReport("my-bundle");
+
+        assertThrows(IllegalStateException.class, () -> report.record("load", () -> {
+            throw new IllegalStateException();
+        }));
+        assertTrue(report.getPhases().isEmpty());
+        assertEquals(0, report.getWallTimeNanos());
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.report;
+
+import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayCallReport;
+import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class PhaseReportWriterTest {
+
+    private final PhaseReportWriter phaseReportWriter = new PhaseReportWriter(JsonTools.INSTANCE);
+
+    @Test
+    void write(TemporaryFolder temporaryFolder) throws IOException {
+        PhaseReport report = createReport();
+        File reportDirectory = new File(temporaryFolder.getRoot(), "reports/build-bundle");
+
+        phaseReportWriter.write(report, reportDirectory);
+
+        JsonNode json = new ObjectMapper().readTree(new File(reportDirectory, PhaseReportWriter.REPORT_FILE_NAME));
+        assertEquals("my-bundle", json.get("name").asText());
+        assertEquals(report.getWallTimeNanos(), json.get("wallTimeNanos").asLong());
+        assertEquals(3, json.get("phases").size());
+        assertEquals("load", json.get("phases").get(0).get("name").asText());
+        assertEquals(1, json.get("phases").get(0).get("entities").asInt());
+        assertEquals("load/POLICY", json.get("phases").get(1).get("name").asText());
+        assertTrue(json.get("phases").get(1).has("wallTimeNanos"));
+        assertFalse(json.get("phases").get(2).has("entities"));
+        assertEquals(8, json.get("phases").get(2).get("bytes").asLong());
+        assertFalse(json.get("phases").get(0).has("bytes"));
+
+        assertEquals(phaseReportWriter.summarize(report), new String(Files.readAllBytes(new File(reportDirectory, PhaseReportWriter.SUMMARY_FILE_NAME).toPath()), UTF_8));
+    }
+
+    @Test
+    void toJson() throws IOException {
+        PhaseReport report = createReport();
+
+        String json = phaseReportWriter.toJson(report);
+
+        assertFalse(json.contains("\n"), json);
+        JsonNode node = new ObjectMapper().readTree(json);
+        assertEquals("my-bundle", node.get("name").asText());
+        assertEquals(3, node.get("phases").size());
+    }
+
+    @Test
+    void summarize() {
+        String[] lines = phaseReportWriter.summarize(createReport()).split("\\R");
+
+        assertEquals(6, lines.length);
+        assertEquals("my-bundle", lines[0]);
+        assertTrue(lines[1].matches("Phase\\s+Wall \\(ms\\)\\s+CPU \\(ms\\)\\s+Entities\\s+Bytes"), lines[1]);
+        assertTrue(lines[2].matches("load\\s+\\d+\\.\\d\\s+(\\d+\\.\\d|-)\\s+1\\s*"), lines[2]);
+        assertTrue(lines[3].matches(" {2}POLICY\\s+\\d+\\.\\d\\s+(\\d+\\.\\d|-)\\s+1\\s*"), lines[3]);
+        assertTrue(lines[4].matches("write\\s+\\d+\\.\\d\\s+(\\d+\\.\\d|-)\\s+8"), lines[4]);
+        assertTrue(lines[5].matches("Total\\s+\\d+\\.\\d\\s*"), lines[5]);
+    }
+
+    @Test
+    void summarizeProfilingMemory() {
+        PhaseReport report = new PhaseReport("my-bundle", true);
+        report.record("load", () -> Collections.singletonList("policy"), List::size);
+        report.estimateRetainedBytes("load", () -> Collections.singletonMap("entities/Policy", 3L * 1024 * 1024));
+
+        String[] lines = phaseReportWriter.summarize(report).split("\\R");
+
+        assertEquals(7, lines.length);
+        assertTrue(lines[1].matches("Phase\\s+Wall \\(ms\\)\\s+CPU \\(ms\\)\\s+Entities\\s+Bytes\\s+Allocated \\(MB\\)\\s+Peak heap \\(MB\\)"), lines[1]);
+        assertTrue(lines[2].matches("load\\s+\\d+\\.\\d\\s+(\\d+\\.\\d|-)\\s+1\\s+(\\d+\\.\\d|-)\\s+\\d+\\.\\d"), lines[2]);
+        assertTrue(lines[3].matches("Total\\s+\\d+\\.\\d\\s*"), lines[3]);
+        assertEquals("", lines[4]);
+        assertTrue(lines[5].matches("Phase\\s+Structure\\s+Retained \\(MB\\)"), lines[5]);
+        assertTrue(lines[6].matches("load\\s+entities/Policy\\s+3\\.0"), lines[6]);
+    }
+
+    @Test
+    void writeProfile(TemporaryFolder temporaryFolder) throws IOException {
+        ProfileReport report = createProfileReport();
+        File reportDirectory = new File(temporaryFolder.getRoot(), "reports/gateway-profile");
+
+        phaseReportWriter.write(report, reportDirectory);
+
+        JsonNode json = new ObjectMapper().readTree(new File(reportDirectory, PhaseReportWriter.PROFILE_REPORT_FILE_NAME));
+        assertEquals("my-bundle", json.get("name").asText());
+        assertEquals(1, json.get("warmups").asInt());
+        assertEquals(2, json.get("iterations").asInt());
+        assertEquals(1024, json.get("peakHeapBytes").asLong());
+        assertEquals(3, json.get("phases").size());
+        assertEquals("load/POLICY", json.get("phases").get(1).get("name").asText());
+        assertTrue(json.get("phases").get(1).has("wallTimeNanosP95"));
+        assertFalse(json.get("phases").get(1).has("depth"));
+        assertEquals("policy", json.get("slowestEntities").get("POLICY").get(0).get("name").asText());
+
+        assertEquals(phaseReportWriter.summarize(report), new String(Files.readAllBytes(new File(reportDirectory, PhaseReportWriter.PROFILE_SUMMARY_FILE_NAME).toPath()), UTF_8));
+    }
+
+    @Test
+    void summarizeProfile() {
+        String[] lines = phaseReportWriter.summarize(createProfileReport()).split("\\R");
+
+        assertEquals(9, lines.length);
+        assertEquals("my-bundle: 2 runs after 1 warmup runs, peak heap 0.0 MB", lines[0]);
+        assertTrue(lines[1].matches("Phase\\s+p50 \\(ms\\)\\s+p95 \\(ms\\)\\s+CPU p50 \\(ms\\)\\s+CPU p95 \\(ms\\)\\s+Entities"), lines[1]);
+        assertTrue(lines[2].matches("load(\\s+\\d+\\.\\d){2}(\\s+(\\d+\\.\\d|-)){2}\\s+1"), lines[2]);
+        assertTrue(lines[3].matches(" {2}POLICY(\\s+\\d+\\.\\d){2}(\\s+(\\d+\\.\\d|-)){2}\\s+1"), lines[3]);
+        assertTrue(lines[4].matches("write(\\s+\\d+\\.\\d){2}(\\s+(\\d+\\.\\d|-)){2}\\s*"), lines[4]);
+        assertTrue(lines[5].matches("Total(\\s+\\d+\\.\\d){2}\\s*"), lines[5]);
+        assertEquals("", lines[6]);
+        assertTrue(lines[7].matches("Slowest POLICY\\s+p50 \\(ms\\)\\s+p95 \\(ms\\)"), lines[7]);
+        assertTrue(lines[8].matches("policy(\\s+\\d+\\.\\d){2}"), lines[8]);
+    }
+
+    @Test
+    void writeCallReport(TemporaryFolder temporaryFolder) throws IOException {
+        File reportDirectory = new File(temporaryFolder.getRoot(), "reports/export-raw");
+
+        phaseReportWriter.write(new GatewayCallReport(), reportDirectory);
+
+        JsonNode json = new ObjectMapper().readTree(new File(reportDirectory, PhaseReportWriter.CALL_REPORT_FILE_NAME));
+        assertEquals(0, json.get("status").asInt());
+        assertEquals(0, json.get("totalNanos").asLong());
+        assertEquals(0, json.get("bytesReceived").asLong());
+        assertFalse(json.has("error"));
+    }
+
+    @Test
+    void summarizeCallReport() {
+        assertEquals("null null: no response in 0.0 ms (DNS 0.0 ms, connect 0.0 ms, TLS 0.0 ms, first byte 0.0 ms), 0.0 KB sent, 0.0 KB received, 0 requests, 0 retries",
+                phaseReportWriter.summarize(new GatewayCallReport()));
+    }
+
+    private static ProfileReport createProfileReport() {
+        List<PhaseReport> reports = Arrays.asList(createReport(new PhaseReport("my-bundle", false, true)), createReport(new PhaseReport("my-bundle", false, true)));
+        reports.forEach(r -> r.recordEntity("POLICY", "policy", () -> {
+        }));
+        return ProfileReport.create("my-bundle", 1, reports, 1024, 10);
+    }
+
+    private static PhaseReport createReport() {
+        return createReport(new PhaseReport("my-bundle"));
+    }
+
+    private static PhaseReport createReport(PhaseReport report) {
+        report.record("load", () -> report.record("load/POLICY", () -> Collections.singletonList("policy"), List::size), List::size);
+        report.record("write", () -> "contents", null, String::length);
+        return report;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.report;
+
+import com.ca.apim.gateway.cagatewayconfig.util.report.ProfileReport.EntityStatistics;
+import com.ca.apim.gateway.cagatewayconfig.util.report.ProfileReport.PhaseStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProfileReportTest {
+
+    @Test
+    void percentile() {
+        List<Long> values = Arrays.asList(5L, 1L, 4L, 2L, 3L, 6L, 7L, 8L, 9L, 10L);
+
+        assertEquals(5, ProfileReport.percentile(values, 50));
+        assertEquals(10, ProfileReport.percentile(values, 95));
+        assertEquals(1, ProfileReport.percentile(values, 1));
+        assertEquals(10, ProfileReport.percentile(values, 100));
+        assertEquals(7, ProfileReport.percentile(Collections.singletonList(7L), 95));
+    }
+
+    @Test
+    void create() {
+        List<PhaseReport> reports = Arrays.asList(createReport(true), createReport(false), createReport(true));
+
+        ProfileReport profile = ProfileReport.create("my-bundle", 2, reports, 1024, 1);
+
+        assertEquals("my-bundle", profile.getName());
+        assertEquals(2, profile.getWarmups());
+        assertEquals(3, profile.getIterations());
+        assertEquals(1024, profile.getPeakHeapBytes());
+        assertTrue(profile.getWallTimeNanosP95() >= profile.getWallTimeNanosP50());
+
+        List<PhaseStatistics> phases = profile.getPhases();
+        assertEquals(Arrays.asList("load", "load/POLICY", "write"), phases.stream().map(PhaseStatistics::getName).collect(toList()));
+        assertEquals(Integer.valueOf(2), phases.get(0).getEntities());
+        assertEquals(1, phases.get(1).getDepth());
+        assertNull(phases.get(2).getEntities());
+        phases.forEach(p -> assertTrue(p.getWallTimeNanosP95() >= p.getWallTimeNanosP50(), p.getName()));
+
+        // only the slowest policy is kept, the sleeping one
+        List<EntityStatistics> slowestPolicies = profile.getSlowestEntities().get("POLICY");
+        assertEquals(1, slowestPolicies.size());
+        assertEquals("slow-policy", slowestPolicies.get(0).getName());
+        assertTrue(slowestPolicies.get(0).getWallTimeNanosP50() >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    void createWithoutReports() {
+        assertThrows(IllegalArgumentException.class, () -> ProfileReport.create("my-bundle", 0, Collections.emptyList(), 0, 10));
+    }
+
+    private static PhaseReport createReport(boolean writing) {
+        PhaseReport report = new PhaseReport("my-bundle", false, true);
+        report.record("load", () -> report.record("load/POLICY", () -> {
+            report.recordEntity("POLICY", "fast-policy", () -> {
+            });
+            report.recordEntity("POLICY", "slow-policy", () -> sleep(20));
+            return Arrays.asList("fast-policy", "slow-policy");
+        }, List::size), List::size);
+        if (writing) {
+            report.record("write", () -> {
+            });
+        }
+        return report;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
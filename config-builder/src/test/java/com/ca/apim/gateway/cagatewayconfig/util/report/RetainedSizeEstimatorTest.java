@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.report;
+
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.beans.ClusterProperty;
+import com.ca.apim.gateway.cagatewayconfig.beans.Policy;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.report.RetainedSizeEstimator.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetainedSizeEstimatorTest {
+
+    @Test
+    void estimateBundle() {
+        Document document = DocumentTools.INSTANCE.getDocumentBuilder().newDocument();
+        Element policyElement = document.createElement("wsp:Policy");
+        policyElement.setAttribute("xmlns:wsp", "http://schemas.xmlsoap.org/ws/2002/12/policy");
+        policyElement.appendChild(document.createElement("wsp:All"));
+
+        Policy policy = new Policy();
+        policy.setName("policy");
+        policy.setPolicyXML("<wsp:Policy/>");
+        policy.setPolicyDocument(policyElement);
+        // cycles are only walked once
+        policy.getDependencies().add(policy);
+        ClusterProperty clusterProperty = new ClusterProperty();
+        clusterProperty.setName("property");
+
+        Bundle bundle = new Bundle();
+        bundle.getPolicies().put(policy.getName(), policy);
+        bundle.getClusterProperties().put(clusterProperty.getName(), clusterProperty);
+
+        Map<String, Long> sizes = estimate(bundle);
+
+        assertEquals(Arrays.asList(POLICY_DOCUMENTS, POLICY_XML, ENTITIES + "/ClusterProperty", ENTITIES + "/Policy"), Arrays.asList(sizes.keySet().toArray()));
+        assertEquals(Long.valueOf(40 + 2 * "<wsp:Policy/>".length()), sizes.get(POLICY_XML));
+        assertTrue(sizes.get(POLICY_DOCUMENTS) > 2 * 96, sizes.toString());
+        // the policy document and xml are not counted again in the policy entities
+        assertTrue(sizes.get(ENTITIES + "/Policy") < estimate(bundle.getPolicies()), sizes.toString());
+        assertTrue(sizes.get(ENTITIES + "/ClusterProperty") > 0);
+    }
+
+    @Test
+    void estimateObject() {
+        assertEquals(0, estimate((Object) null));
+        assertEquals(40 + 2 * 5, estimate("value"));
+        assertEquals(16 + 4 * 10, estimate(new int[10]));
+        // the same string is only counted once
+        String value = "value";
+        assertEquals(40 + 2 * 24 + 40 + 2 * 5, estimate(Arrays.asList(value, value)));
+        assertEquals(64, estimate(Collections.emptyMap()));
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.xml;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.w3c.dom.Element;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getChildElements;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElement;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElementTextContent;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class BundleStreamReaderTest {
+
+    private static final String BUNDLE = "<l7:Bundle xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\">\n" +
+            "    <l7:References>\n" +
+            "        <l7:Item>\n" +
+            "            <l7:Name>my-folder</l7:Name>\n" +
+            "            <l7:Id>folder-id</l7:Id>\n" +
+            "            <l7:Type>FOLDER</l7:Type>\n" +
+            "            <l7:Resource>\n" +
+            "                <l7:Folder folderId=\"root-id\" id=\"folder-id\">\n" +
+            "                    <l7:Name>my-folder</l7:Name>\n" +
+            "                </l7:Folder>\n" +
+            "            </l7:Resource>\n" +
+            "        </l7:Item>\n" +
+            "        <l7:Item>\n" +
+            "            <l7:Name>my-policy</l7:Name>\n" +
+            "            <l7:Id>policy-id</l7:Id>\n" +
+            "            <l7:Type>POLICY</l7:Type>\n" +
+            "            <l7:Resource><![CDATA[<wsp:Policy/>]]></l7:Resource>\n" +
+            "        </l7:Item>\n" +
+            "    </l7:References>\n" +
+            "    <l7:Mappings>\n" +
+            "        <l7:Mapping action=\"NewOrExisting\" srcId=\"folder-id\" type=\"FOLDER\"/>\n" +
+            "    </l7:Mappings>\n" +
+            "    <l7:DependencyGraph>\n" +
+            "        <l7:Dependencies>\n" +
+            "            <l7:Dependency>\n" +
+            "                <l7:Id>folder-id</l7:Id>\n" +
+            "                <l7:Type>FOLDER</l7:Type>\n" +
+            "                <l7:Dependencies>\n" +
+            "                    <l7:Dependency>\n" +
+            "                        <l7:Id>policy-id</l7:Id>\n" +
+            "                        <l7:Type>POLICY</l7:Type>\n" +
+            "                    </l7:Dependency>\n" +
+            "                </l7:Dependencies>\n" +
+            "            </l7:Dependency>\n" +
+            "            <l7:Dependency>\n" +
+            "                <l7:Id>policy-id</l7:Id>\n" +
+            "                <l7:Type>POLICY</l7:Type>\n" +
+            "            </l7:Dependency>\n" +
+            "        </l7:Dependencies>\n" +
+            "    </l7:DependencyGraph>\n" +
+            "</l7:Bundle>";
+
+    private final BundleStreamReader reader = new BundleStreamReader(DocumentTools.INSTANCE);
+
+    @Test
+    void readItems(TemporaryFolder temporaryFolder) throws IOException, DocumentParseException {
+        List<Element> items = new ArrayList<>();
+        reader.readItems(createBundleFile(temporaryFolder), true, items::add);
+
+        assertEquals(2, items.size());
+        Element folderItem = items.get(0);
+        assertEquals(ITEM, folderItem.getNodeName());
+        assertEquals("FOLDER", getSingleChildElementTextContent(folderItem, TYPE));
+        Element folder = getSingleChildElement(getSingleChildElement(folderItem, RESOURCE), FOLDER);
+        assertEquals("folder-id", folder.getAttribute(ATTRIBUTE_ID));
+        assertEquals("root-id", folder.getAttribute(ATTRIBUTE_FOLDER_ID));
+        assertEquals("my-folder", getSingleChildElementTextContent(folder, NAME));
+        // each item is materialized into its own document
+        assertNotSame(folderItem.getOwnerDocument(), items.get(1).getOwnerDocument());
+        assertEquals("<wsp:Policy/>", getSingleChildElementTextContent(items.get(1), RESOURCE));
+    }
+
+    @Test
+    void readItemsStripWhitespace(TemporaryFolder temporaryFolder) throws IOException, DocumentParseException {
+        List<Element> items = new ArrayList<>();
+        reader.readItems(createBundleFile(temporaryFolder), true, items::add);
+        assertEquals(4, items.get(0).getChildNodes().getLength());
+
+        items.clear();
+        reader.readItems(createBundleFile(temporaryFolder), false, items::add);
+        assertEquals(9, items.get(0).getChildNodes().getLength());
+    }
+
+    @Test
+    void readItemsFilteredByType(TemporaryFolder temporaryFolder) throws IOException, DocumentParseException {
+        List<String> testedTypes = new ArrayList<>();
+        List<Element> items = new ArrayList<>();
+        reader.readItems(createBundleFile(temporaryFolder), true, type -> testedTypes.add(type) && "POLICY".equals(type), items::add);
+
+        assertEquals(2, testedTypes.size());
+        assertEquals(1, items.size());
+        assertEquals("policy-id", getSingleChildElementTextContent(items.get(0), ID));
+        assertEquals("<wsp:Policy/>", getSingleChildElementTextContent(items.get(0), RESOURCE));
+    }
+
+    @Test
+    void readBundleDependencies(TemporaryFolder temporaryFolder) throws IOException, DocumentParseException {
+        List<Element> items = new ArrayList<>();
+        List<Element> dependencies = new ArrayList<>();
+        reader.readBundle(createBundleFile(temporaryFolder), true, items::add, dependencies::add);
+
+        assertEquals(2, items.size());
+        assertEquals(2, dependencies.size());
+        assertEquals("folder-id", getSingleChildElementTextContent(dependencies.get(0), ID));
+        List<Element> folderDependencies = getChildElements(getSingleChildElement(dependencies.get(0), DEPENDENCIES), DEPENDENCY);
+        assertEquals(1, folderDependencies.size());
+        assertEquals("policy-id", getSingleChildElementTextContent(folderDependencies.get(0), ID));
+        assertEquals("policy-id", getSingleChildElementTextContent(dependencies.get(1), ID));
+    }
+
+    @Test
+    void readMappings() throws DocumentParseException {
+        List<Element> mappings = new ArrayList<>();
+        reader.readMappings(new StringReader(BUNDLE), mappings::add);
+
+        assertEquals(1, mappings.size());
+        assertEquals(MAPPING, mappings.get(0).getNodeName());
+        assertEquals("folder-id", mappings.get(0).getAttribute(ATTRIBUTE_SRCID));
+        assertEquals("FOLDER", mappings.get(0).getAttribute(ATTRIBUTE_TYPE));
+
+        assertThrows(DocumentParseException.class, () -> reader.readMappings(new StringReader("<l7:Bundle xmlns:l7=\"urn:l7\"><l7:Mappings>"), mapping -> {}));
+    }
+
+    @Test
+    void readInvalidBundle(TemporaryFolder temporaryFolder) throws IOException {
+        File bundleFile = temporaryFolder.createFile("invalid.bundle");
+        FileUtils.writeStringToFile(bundleFile, "<l7:Bundle xmlns:l7=\"urn:l7\"><l7:References><l7:Item>", UTF_8);
+
+        assertThrows(DocumentParseException.class, () -> reader.readItems(bundleFile, true, item -> {}));
+        assertThrows(DocumentParseException.class, () -> reader.readItems(new File(temporaryFolder.getRoot(), "missing.bundle"), true, item -> {}));
+    }
+
+    private static File createBundleFile(TemporaryFolder temporaryFolder) throws IOException {
+        File bundleFile = new File(temporaryFolder.getRoot(), "test.bundle");
+        FileUtils.writeStringToFile(bundleFile, BUNDLE, UTF_8);
+        return bundleFile;
+    }
+}
@@ -8,14 +8,26 @@ package com.ca.apim.gateway.cagatewayconfig;
 
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleCreator;
+import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtilsException;
 import com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.json.JsonToolsException;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReportWriter;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.Injector;
 
+import java.io.File;
 import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import static com.ca.apim.gateway.cagatewayconfig.EnvironmentFingerprint.FINGERPRINT_FILE_NAME;
 import static com.ca.apim.gateway.cagatewayconfig.KeystoreCreator.createKeyStoreIfNecessary;
+import static com.ca.apim.gateway.cagatewayconfig.KeystoreCreator.keyStoreExists;
 import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleCreationMode.APPLICATION;
+import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.BUNDLE_EXTENSION;
+import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.collectFiles;
 import static java.lang.System.getenv;
 
 /**
@@ -24,6 +36,12 @@ import static java.lang.System.getenv;
  * This bundle will be added to gateway bootstrap folder in order to be loaded with the gateway startup, and will be placed to be loaded first.
  *
  * This application also is responsible to read private keys folder if provided, and bootstrap a file based keystore from the keys presented.
+ *
+ * A fingerprint of the inputs is stored with the generated bundles, when the application runs again with the same inputs and the
+ * generated bundles, key store and system properties are still there nothing is generated again.
+ *
+ * The time taken and the bytes processed by each step are logged on a single line and written to a JSON file next to the
+ * generated bundles.
  */
 @SuppressWarnings("squid:S2083") // This warn relates to path injection attacks - however, paths here are never changed by end users and all self contained into docker containers.
 public class EnvironmentCreatorApplication {
@@ -31,12 +49,21 @@ public class EnvironmentCreatorApplication {
     @SuppressWarnings("squid:S1075") // this path is always fixed does not need to be customized.
     private static final String SYSTEM_PROPERTIES_PATH = "/opt/SecureSpan/Gateway/node/default/etc/conf/system.properties";
 
+    private static final String ENVIRONMENT_BUNDLE_NAME = "_0_env.req.bundle";
+    static final String PHASE_REPORT_FILE_NAME = "_0_env.phases.json";
+    static final String FINGERPRINT_PHASE = "fingerprint";
+    static final String INJECTOR_PHASE = "injector";
+    static final String KEYSTORE_PHASE = "keystore";
+    static final String SKIPPED_PHASE = "skipped";
+    private static final Logger logger = Logger.getLogger(EnvironmentCreatorApplication.class.getName());
+
     private final Map<String, String> environmentProperties;
     private final String templatizedBundleFolderPath;
     private final String bootstrapBundleFolderPath;
     private final String keystoreFolderPath;
     private final String privateKeyFolderPath;
     private final String environmentConfigurationFolderPath;
+    private final String systemPropertiesPath;
 
     /**
      * This application will build an environment bundle and detemplatize deployment bundles with environment configurations.
@@ -70,29 +97,86 @@ public class EnvironmentCreatorApplication {
                                   String keystoreFolderPath,
                                   String privateKeyFolderPath,
                                   String environmentConfigurationFolderPath) {
+        this(environmentProperties, templatizedBundleFolderPath, bootstrapBundleFolderPath, keystoreFolderPath, privateKeyFolderPath, environmentConfigurationFolderPath, SYSTEM_PROPERTIES_PATH);
+    }
+
+    @VisibleForTesting
+    EnvironmentCreatorApplication(Map<String, String> environmentProperties,
+                                  String templatizedBundleFolderPath,
+                                  String bootstrapBundleFolderPath,
+                                  String keystoreFolderPath,
+                                  String privateKeyFolderPath,
+                                  String environmentConfigurationFolderPath,
+                                  String systemPropertiesPath) {
         this.environmentProperties = environmentProperties;
         this.templatizedBundleFolderPath = templatizedBundleFolderPath;
         this.bootstrapBundleFolderPath = bootstrapBundleFolderPath;
         this.keystoreFolderPath = keystoreFolderPath;
         this.privateKeyFolderPath = privateKeyFolderPath;
         this.environmentConfigurationFolderPath = environmentConfigurationFolderPath;
+        this.systemPropertiesPath = systemPropertiesPath;
     }
 
     @VisibleForTesting
     void run() {
+        // skip everything if the inputs are the same as the ones the existing outputs were generated from (eg. on a container restart)
+        final PhaseReport report = new PhaseReport(ENVIRONMENT_BUNDLE_NAME);
+        final File fingerprintFile = new File(bootstrapBundleFolderPath, FINGERPRINT_FILE_NAME);
+        final String fingerprint = report.record(FINGERPRINT_PHASE, () -> EnvironmentFingerprint.compute(environmentProperties, templatizedBundleFolderPath, environmentConfigurationFolderPath, privateKeyFolderPath), null, null);
+        if (EnvironmentFingerprint.matches(fingerprintFile, fingerprint) && outputsExist(fingerprintFile)) {
+            logger.info("Environment and bundles did not change, skipping environment generation");
+            // replaces the report of the run that generated the outputs, which would be mistaken for this one
+            report.record(SKIPPED_PHASE, () -> {});
+            writeReport(report);
+            return;
+        }
+        EnvironmentFingerprint.delete(fingerprintFile);
+
         //create bundle from environment
-        EnvironmentBundleCreator bundleCreator = InjectionRegistry.getInjector().getInstance(EnvironmentBundleCreator.class);
+        final Injector injector = report.record(INJECTOR_PHASE, InjectionRegistry::getInjector, null, null);
+        EnvironmentBundleCreator bundleCreator = injector.getInstance(EnvironmentBundleCreator.class);
         Bundle environmentBundle = bundleCreator.createEnvironmentBundle(
                 environmentProperties,
                 bootstrapBundleFolderPath,
                 templatizedBundleFolderPath,
                 environmentConfigurationFolderPath,
                 APPLICATION,
-                "_0_env.req.bundle"
+                ENVIRONMENT_BUNDLE_NAME,
+                report
         );
 
         // Create the KeyStore
-        createKeyStoreIfNecessary(keystoreFolderPath, privateKeyFolderPath, environmentBundle.getPrivateKeys().values(), FileUtils.INSTANCE, SYSTEM_PROPERTIES_PATH);
+        final long keyStoreSize = report.record(KEYSTORE_PHASE,
+                () -> createKeyStoreIfNecessary(keystoreFolderPath, privateKeyFolderPath, environmentBundle.getPrivateKeys().values(), FileUtils.INSTANCE, systemPropertiesPath),
+                size -> environmentBundle.getPrivateKeys().size(),
+                Long::longValue);
+
+        writeReport(report);
+        EnvironmentFingerprint.write(fingerprintFile, fingerprint, keyStoreSize > 0);
+    }
+
+    /**
+     * Logs the report on a single line and writes it next to the generated bundles. The report is informative only, so
+     * failing to write it does not fail the application.
+     */
+    private void writeReport(PhaseReport report) {
+        final File reportFile = new File(bootstrapBundleFolderPath, PHASE_REPORT_FILE_NAME);
+        try {
+            logger.info("Environment creation phases: " + PhaseReportWriter.INSTANCE.toJson(report));
+            PhaseReportWriter.INSTANCE.writeJson(report, reportFile);
+        } catch (DocumentFileUtilsException | JsonToolsException e) {
+            logger.log(Level.WARNING, () -> "Could not write environment creation phases " + reportFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks that everything the previous run generated is still there: the environment bundle, the detemplatized
+     * bundles and, if the previous run created one, the key store and its system properties.
+     */
+    private boolean outputsExist(File fingerprintFile) {
+        return new File(bootstrapBundleFolderPath, ENVIRONMENT_BUNDLE_NAME).isFile() &&
+                collectFiles(templatizedBundleFolderPath, BUNDLE_EXTENSION).stream().allMatch(f -> new File(bootstrapBundleFolderPath, f.getName()).isFile()) &&
+                (!EnvironmentFingerprint.keyStoreCreated(fingerprintFile) || keyStoreExists(keystoreFolderPath, systemPropertiesPath));
     }
 
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.BUNDLE_EXTENSION;
+import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.collectFiles;
+import static com.ca.apim.gateway.cagatewayconfig.util.properties.PropertyConstants.PREFIX_ENV;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Fingerprint of everything the environment creator application output depends on: the templatized bundles, the
+ * environment properties (and the files they reference), the environment configuration folder and the private keys.
+ * It is stored next to the generated bundles so a restart with the same inputs can skip generating them again. Whether a
+ * key store was created is stored with it, so a restart can check the key store is still there.
+ */
+@SuppressWarnings("squid:S2083") // same as the application, paths are never provided by end users.
+class EnvironmentFingerprint {
+
+    static final String FINGERPRINT_FILE_NAME = "_0_env.fingerprint";
+
+    private static final Logger logger = Logger.getLogger(EnvironmentFingerprint.class.getName());
+    // change when the way the fingerprint is computed or what the application generates changes
+    private static final String FINGERPRINT_VERSION = "2";
+    private static final String FILE_PREFIX = PREFIX_ENV + "FILE.";
+    private static final String CONFIG_FOLDER = "config";
+    private static final String KEY_STORE_CREATED = "keystore";
+
+    private EnvironmentFingerprint() {
+    }
+
+    /**
+     * Computes the fingerprint of the application inputs.
+     *
+     * @return the fingerprint, as an hex string
+     */
+    static String compute(Map<String, String> environmentProperties,
+                          String templatizedBundleFolderPath,
+                          String environmentConfigurationFolderPath,
+                          String privateKeyFolderPath) {
+        final Hasher hasher = Hashing.sha256().newHasher();
+        putString(hasher, FINGERPRINT_VERSION);
+
+        // only the environment variables used by the application, in a stable order
+        final Map<String, String> environment = new TreeMap<>();
+        environmentProperties.forEach((k, v) -> {
+            if (k.startsWith(PREFIX_ENV)) {
+                environment.put(k, v);
+            }
+        });
+        for (Map.Entry<String, String> entry : environment.entrySet()) {
+            putString(hasher, entry.getKey());
+            putString(hasher, entry.getValue());
+            if (entry.getKey().startsWith(FILE_PREFIX)) {
+                putFile(hasher, new File(entry.getValue()));
+            }
+        }
+
+        putFiles(hasher, "bundles", collectFiles(templatizedBundleFolderPath, BUNDLE_EXTENSION).stream().map(File::toPath));
+        // configuration files can be in the folder itself or in its config sub folder
+        final File environmentConfigurationFolder = new File(environmentConfigurationFolderPath);
+        putFiles(hasher, "environment", listFiles(environmentConfigurationFolder.toPath(), 1));
+        putFiles(hasher, CONFIG_FOLDER, listFiles(new File(environmentConfigurationFolder, CONFIG_FOLDER).toPath(), Integer.MAX_VALUE));
+        putFiles(hasher, "privateKeys", listFiles(new File(privateKeyFolderPath).toPath(), Integer.MAX_VALUE));
+
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Checks whether the stored fingerprint is the same as the given one.
+     *
+     * @param fingerprintFile the file storing the fingerprint of the previous run
+     * @param fingerprint     the fingerprint of the current inputs
+     * @return true if the stored fingerprint is the same
+     */
+    static boolean matches(File fingerprintFile, String fingerprint) {
+        final List<String> lines = read(fingerprintFile);
+        return !lines.isEmpty() && fingerprint.equals(lines.get(0).trim());
+    }
+
+    /**
+     * @param fingerprintFile the file storing the fingerprint of the previous run
+     * @return true if the previous run created a key store
+     */
+    static boolean keyStoreCreated(File fingerprintFile) {
+        final List<String> lines = read(fingerprintFile);
+        return lines.size() > 1 && KEY_STORE_CREATED.equals(lines.get(1).trim());
+    }
+
+    /**
+     * Stores the fingerprint. Failing to store it only means the next run cannot skip the generation.
+     *
+     * @param keyStoreCreated whether the run created a key store
+     */
+    static void write(File fingerprintFile, String fingerprint, boolean keyStoreCreated) {
+        try {
+            Files.write(fingerprintFile.toPath(), (keyStoreCreated ? fingerprint + '\n' + KEY_STORE_CREATED : fingerprint).getBytes(UTF_8));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, () -> "Could not write environment fingerprint " + fingerprintFile + ": " + e.getMessage());
+        }
+    }
+
+    private static List<String> read(File fingerprintFile) {
+        if (!fingerprintFile.isFile()) {
+            return Collections.emptyList();
+        }
+        try {
+            return Files.readAllLines(fingerprintFile.toPath(), UTF_8);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, () -> "Could not read environment fingerprint " + fingerprintFile + ": " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Removes the stored fingerprint, so an interrupted generation is never taken as complete.
+     */
+    static void delete(File fingerprintFile) {
+        try {
+            Files.deleteIfExists(fingerprintFile.toPath());
+        } catch (IOException e) {
+            throw new EnvironmentFingerprintException("Could not delete environment fingerprint " + fingerprintFile, e);
+        }
+    }
+
+    private static Stream<Path> listFiles(Path folder, int maxDepth) {
+        if (!Files.isDirectory(folder)) {
+            return Stream.empty();
+        }
+        try (Stream<Path> files = Files.walk(folder, maxDepth)) {
+            // collected so the directory stream is closed here
+            final List<Path> regularFiles = files.filter(Files::isRegularFile).collect(Collectors.toList());
+            return regularFiles.stream();
+        } catch (IOException e) {
+            throw new EnvironmentFingerprintException("Could not list files in " + folder, e);
+        }
+    }
+
+    private static void putFiles(Hasher hasher, String group, Stream<Path> files) {
+        putString(hasher, group);
+        files.sorted(Comparator.comparing(Path::toString)).forEach(f -> {
+            putString(hasher, f.getFileName().toString());
+            putFile(hasher, f.toFile());
+        });
+    }
+
+    private static void putFile(Hasher hasher, File file) {
+        try {
+            hasher.putBytes(com.google.common.io.Files.asByteSource(file).hash(Hashing.sha256()).asBytes());
+        } catch (IOException e) {
+            // a missing file fails the generation anyway, just make it part of the fingerprint
+            putString(hasher, "unreadable:" + file.getPath());
+        }
+    }
+
+    private static void putString(Hasher hasher, String value) {
+        hasher.putInt(value.length()).putString(value, UTF_8);
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig;
+
+public class EnvironmentFingerprintException extends RuntimeException {
+
+    public EnvironmentFingerprintException(String message) {
+        super(message);
+    }
+
+    public EnvironmentFingerprintException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -15,25 +15,31 @@ import com.ca.apim.gateway.cagatewayconfig.util.paths.PathUtils;
 import org.apache.commons.io.IOUtils;
 
 import java.io.*;
+import java.nio.file.Files;
 import java.util.Collection;
 
 import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.closeQuietly;
+import static java.nio.charset.Charset.defaultCharset;
 
 class KeystoreCreator {
 
     static final String KEYSTORE_FILE_NAME = "keystore.gwks";
+    private static final String KEYSTORE_PATH_PROPERTY = "com.l7tech.keystore.path";
 
     private KeystoreCreator() {
     }
 
-    static void createKeyStoreIfNecessary(String keyStoreDirPath, String privateKeyFolderPath, Collection<PrivateKey> privateKeys, FileUtils fileUtils, String systemPropertiesPath) {
+    /**
+     * @return the size of the created key store in bytes, 0 if there are no keys and it is not created
+     */
+    static long createKeyStoreIfNecessary(String keyStoreDirPath, String privateKeyFolderPath, Collection<PrivateKey> privateKeys, FileUtils fileUtils, String systemPropertiesPath) {
         PrivateKey.loadFromDirectory(privateKeys, new File(privateKeyFolderPath), true);
 
         KeystoreHelper keystoreHelper = InjectionRegistry.getInjector().getInstance(KeystoreHelper.class);
         final byte[] keyStore = keystoreHelper.createKeyStore(privateKeys);
         // no keys
         if (keyStore.length == 0) {
-            return;
+            return 0;
         }
 
         final File keyStoreDirectory = new File(keyStoreDirPath);
@@ -52,6 +58,27 @@ class KeystoreCreator {
         }
 
         updateSystemPropertiesFile(keystoreHelper, keyStoreFile, systemPropertiesPath);
+        return keyStore.length;
+    }
+
+    /**
+     * Checks that the key store created in the directory is still there and still configured in the system properties.
+     */
+    static boolean keyStoreExists(String keyStoreDirPath, String systemPropertiesPath) {
+        final File keyStoreFile = new File(keyStoreDirPath, KEYSTORE_FILE_NAME);
+        final File systemPropertiesFile = new File(systemPropertiesPath);
+        if (!keyStoreFile.isFile() || !systemPropertiesFile.isFile()) {
+            return false;
+        }
+        try {
+            return Files.readAllLines(systemPropertiesFile.toPath(), defaultCharset()).contains(keyStorePathProperty(keyStoreFile));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static String keyStorePathProperty(File keyStoreFile) {
+        return KEYSTORE_PATH_PROPERTY + "=" + PathUtils.unixPath(keyStoreFile.getAbsolutePath());
     }
 
     static void updateSystemPropertiesFile(KeystoreHelper keystoreHelper, File keyStoreFile, String systemPropertiesPath) {
@@ -67,7 +94,7 @@ class KeystoreCreator {
             br.newLine();
             br.write("com.l7tech.keystore.type=" + keystoreHelper.getKeyStoreType());
             br.newLine();
-            br.write("com.l7tech.keystore.path=" + PathUtils.unixPath(keyStoreFile.getAbsolutePath()));
+            br.write(keyStorePathProperty(keyStoreFile));
             br.newLine();
             br.write("com.l7tech.keystore.savePath=EMPTY");
             br.newLine();
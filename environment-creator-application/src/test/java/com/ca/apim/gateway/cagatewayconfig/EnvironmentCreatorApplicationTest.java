@@ -9,6 +9,8 @@ package com.ca.apim.gateway.cagatewayconfig;
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.EntityBundleLoader;
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
 import io.github.glytching.junit.extension.folder.TemporaryFolder;
 import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
@@ -18,12 +20,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 import static com.ca.apim.gateway.cagatewayconfig.beans.ListenPort.DEFAULT_HTTPS_8443;
 import static com.ca.apim.gateway.cagatewayconfig.beans.ListenPort.DEFAULT_HTTP_8080;
 import static java.nio.charset.Charset.defaultCharset;
 import static org.apache.commons.io.FileUtils.copyDirectory;
+import static org.apache.commons.io.FileUtils.readFileToString;
 import static org.apache.commons.io.FileUtils.writeStringToFile;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -51,6 +56,109 @@ class EnvironmentCreatorApplicationTest {
         assertTrue(environmentBundle.exists());
     }
 
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void testNothingChangedSkipsGeneration(TemporaryFolder temporaryFolder) throws URISyntaxException, IOException {
+        File testTemplatizedBundlesFolder = new File(temporaryFolder.getRoot(), "templatized-bundles");
+        File testDetemplatizedBundlesFolder = new File(temporaryFolder.getRoot(), "detemplatized-bundles");
+        File keyStoreFolder = new File(temporaryFolder.getRoot(), "keystore");
+        File envFolder = new File(temporaryFolder.getRoot(), "config");
+        File privateKeyFolder = new File(envFolder, "privateKeys");
+
+        assertTrue(testDetemplatizedBundlesFolder.mkdirs());
+
+        copyDirectory(new File(Objects.requireNonNull(getClass().getClassLoader().getResource("templatized-bundles")).toURI()), testTemplatizedBundlesFolder);
+
+        ImmutableMap<String, String> environmentProperties = ImmutableMap.of(
+                "ENV.SERVICE_PROPERTY.my-gateway-api.myEnvironmentVariable", "my-service-property-value",
+                "ENV.CONTEXT_VARIABLE_PROPERTY.anotherEnvVar", "context-variable-value");
+
+        new EnvironmentCreatorApplication(environmentProperties, testTemplatizedBundlesFolder.getPath(), testDetemplatizedBundlesFolder.getPath(), keyStoreFolder.getPath(), privateKeyFolder.getPath(), envFolder.getPath()).run();
+        File environmentBundle = new File(testDetemplatizedBundlesFolder, "_0_env.req.bundle");
+        assertTrue(environmentBundle.exists());
+        assertTrue(new File(testDetemplatizedBundlesFolder, EnvironmentFingerprint.FINGERPRINT_FILE_NAME).exists());
+
+        // same inputs, the existing outputs are kept
+        writeStringToFile(environmentBundle, "previous run", defaultCharset());
+        new EnvironmentCreatorApplication(environmentProperties, testTemplatizedBundlesFolder.getPath(), testDetemplatizedBundlesFolder.getPath(), keyStoreFolder.getPath(), privateKeyFolder.getPath(), envFolder.getPath()).run();
+        assertEquals("previous run", readFileToString(environmentBundle, defaultCharset()));
+        // the report tells the run was skipped
+        JsonNode report = new ObjectMapper().readTree(new File(testDetemplatizedBundlesFolder, EnvironmentCreatorApplication.PHASE_REPORT_FILE_NAME));
+        Map<String, JsonNode> phases = new HashMap<>();
+        report.get("phases").forEach(phase -> phases.put(phase.get("name").asText(), phase));
+        assertTrue(phases.containsKey(EnvironmentCreatorApplication.SKIPPED_PHASE));
+        assertFalse(phases.containsKey(EnvironmentCreatorApplication.KEYSTORE_PHASE));
+
+        // changed environment, everything is generated again
+        ImmutableMap<String, String> changedEnvironmentProperties = ImmutableMap.of(
+                "ENV.SERVICE_PROPERTY.my-gateway-api.myEnvironmentVariable", "another-service-property-value",
+                "ENV.CONTEXT_VARIABLE_PROPERTY.anotherEnvVar", "context-variable-value");
+        new EnvironmentCreatorApplication(changedEnvironmentProperties, testTemplatizedBundlesFolder.getPath(), testDetemplatizedBundlesFolder.getPath(), keyStoreFolder.getPath(), privateKeyFolder.getPath(), envFolder.getPath()).run();
+        assertNotEquals("previous run", readFileToString(environmentBundle, defaultCharset()));
+        assertTrue(readFileToString(new File(testDetemplatizedBundlesFolder, "my-bundle.req.bundle"), defaultCharset()).contains("another-service-property-value"));
+    }
+
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void testMissingKeyStoreIsCreatedAgain(TemporaryFolder temporaryFolder) throws URISyntaxException, IOException {
+        File testTemplatizedBundlesFolder = new File(temporaryFolder.getRoot(), "no-bundles");
+        File testDetemplatizedBundlesFolder = new File(temporaryFolder.getRoot(), "detemplatized-bundles");
+        File keyStoreFolder = new File(temporaryFolder.getRoot(), "keystore");
+        File envFolder = new File(temporaryFolder.getRoot(), "config");
+        File privateKeyFolder = new File(envFolder, "privateKeys");
+        File systemProperties = new File(temporaryFolder.getRoot(), "system.properties");
+
+        assertTrue(testDetemplatizedBundlesFolder.mkdirs());
+        assertTrue(systemProperties.createNewFile());
+
+        copyDirectory(new File(Objects.requireNonNull(getClass().getClassLoader().getResource("no-bundles")).toURI()), testTemplatizedBundlesFolder);
+        copyDirectory(new File(Objects.requireNonNull(getClass().getClassLoader().getResource("privateKeys")).toURI()), privateKeyFolder);
+        writeStringToFile(
+                new File(envFolder, "private-keys.json"),
+                "{\n" +
+                        "  \"test\": {\n" +
+                        "    \"keystore\" : \"Generic\",\n" +
+                        "    \"algorithm\" : \"RSA\",\n" +
+                        "    \"keyPassword\" : \"\"\n" +
+                        "  }\n" +
+                        "}",
+                defaultCharset()
+        );
+
+        EnvironmentCreatorApplication application = new EnvironmentCreatorApplication(
+                ImmutableMap.of(),
+                testTemplatizedBundlesFolder.getPath(),
+                testDetemplatizedBundlesFolder.getPath(),
+                keyStoreFolder.getPath(),
+                privateKeyFolder.getPath(),
+                envFolder.getPath(),
+                systemProperties.getPath());
+        application.run();
+        File keyStore = new File(keyStoreFolder, KeystoreCreator.KEYSTORE_FILE_NAME);
+        assertTrue(keyStore.isFile());
+        assertTrue(readFileToString(systemProperties, defaultCharset()).contains("com.l7tech.keystore.path"));
+
+        // same inputs but the key store is gone (eg. on a container restart), it is created again
+        File environmentBundle = new File(testDetemplatizedBundlesFolder, "_0_env.req.bundle");
+        writeStringToFile(environmentBundle, "previous run", defaultCharset());
+        assertTrue(keyStore.delete());
+        application.run();
+        assertTrue(keyStore.isFile());
+        assertNotEquals("previous run", readFileToString(environmentBundle, defaultCharset()));
+
+        // same for the system properties
+        writeStringToFile(environmentBundle, "previous run", defaultCharset());
+        writeStringToFile(systemProperties, "", defaultCharset());
+        application.run();
+        assertTrue(readFileToString(systemProperties, defaultCharset()).contains("com.l7tech.keystore.path"));
+        assertNotEquals("previous run", readFileToString(environmentBundle, defaultCharset()));
+
+        // and nothing is generated again once they are back
+        writeStringToFile(environmentBundle, "previous run", defaultCharset());
+        application.run();
+        assertEquals("previous run", readFileToString(environmentBundle, defaultCharset()));
+    }
+
     @Test
     @ExtendWith(TemporaryFolderExtension.class)
     void testEnvironmentPropertiesNotFoundInBundle(TemporaryFolder temporaryFolder) throws URISyntaxException, IOException {
@@ -283,7 +391,7 @@ class EnvironmentCreatorApplicationTest {
         assertEnvironment(testDetemplatizedBundlesFolder);
     }
 
-    private static void assertEnvironment(File testDetemplatizedBundlesFolder) {
+    private static void assertEnvironment(File testDetemplatizedBundlesFolder) throws IOException {
         File environmentBundleFile = new File(testDetemplatizedBundlesFolder, "_0_env.req.bundle");
         assertTrue(environmentBundleFile.exists());
 
@@ -309,6 +417,15 @@ class EnvironmentCreatorApplicationTest {
 
         File deploymentBundleFile = new File(testDetemplatizedBundlesFolder, "my-bundle.req.bundle");
         assertTrue(deploymentBundleFile.exists());
+
+        JsonNode report = new ObjectMapper().readTree(new File(testDetemplatizedBundlesFolder, EnvironmentCreatorApplication.PHASE_REPORT_FILE_NAME));
+        Map<String, JsonNode> phases = new HashMap<>();
+        report.get("phases").forEach(phase -> phases.put(phase.get("name").asText(), phase));
+        assertTrue(phases.containsKey(EnvironmentCreatorApplication.INJECTOR_PHASE));
+        assertTrue(phases.containsKey(EnvironmentCreatorApplication.KEYSTORE_PHASE));
+        assertEquals(environmentBundleFile.length(), phases.get("write").get("bytes").asLong());
+        assertTrue(phases.get("bundles/my-bundle.req.bundle/validate").get("bytes").asLong() > 0);
+        assertEquals(deploymentBundleFile.length(), phases.get("bundles/my-bundle.req.bundle/detemplatize").get("bytes").asLong());
     }
 
     @Test
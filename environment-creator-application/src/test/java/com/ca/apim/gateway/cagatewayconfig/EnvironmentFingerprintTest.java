@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig;
+
+import com.google.common.collect.ImmutableMap;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import static java.nio.charset.Charset.defaultCharset;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class EnvironmentFingerprintTest {
+
+    @Test
+    void computeChangesWithInputs(TemporaryFolder temporaryFolder) throws IOException {
+        File bundles = temporaryFolder.createDirectory("bundles");
+        File env = temporaryFolder.createDirectory("env");
+        File privateKeys = new File(env, "config/privateKeys");
+        writeStringToFile(new File(bundles, "my-bundle.req.bundle"), "<l7:Bundle/>", defaultCharset());
+        writeStringToFile(new File(env, "config/env.properties"), "my-property=value", defaultCharset());
+        writeStringToFile(new File(privateKeys, "my-key.p12"), "key", defaultCharset());
+        Map<String, String> environment = ImmutableMap.of("ENV.PASSWORD.my-password", "secret", "HOSTNAME", "pod-1");
+
+        String fingerprint = compute(environment, bundles, env, privateKeys);
+        assertEquals(fingerprint, compute(environment, bundles, env, privateKeys));
+        // only ENV. variables are used by the application
+        assertEquals(fingerprint, compute(ImmutableMap.of("ENV.PASSWORD.my-password", "secret", "HOSTNAME", "pod-2"), bundles, env, privateKeys));
+        assertNotEquals(fingerprint, compute(ImmutableMap.of("ENV.PASSWORD.my-password", "changed"), bundles, env, privateKeys));
+
+        writeStringToFile(new File(bundles, "my-bundle.req.bundle"), "<l7:Bundle></l7:Bundle>", defaultCharset());
+        String changedBundle = compute(environment, bundles, env, privateKeys);
+        assertNotEquals(fingerprint, changedBundle);
+
+        writeStringToFile(new File(env, "config/env.properties"), "my-property=changed", defaultCharset());
+        String changedConfig = compute(environment, bundles, env, privateKeys);
+        assertNotEquals(changedBundle, changedConfig);
+
+        writeStringToFile(new File(privateKeys, "my-key.p12"), "another key", defaultCharset());
+        assertNotEquals(changedConfig, compute(environment, bundles, env, privateKeys));
+    }
+
+    @Test
+    void writeAndMatch(TemporaryFolder temporaryFolder) {
+        File fingerprintFile = new File(temporaryFolder.getRoot(), EnvironmentFingerprint.FINGERPRINT_FILE_NAME);
+        assertFalse(EnvironmentFingerprint.matches(fingerprintFile, "abc"));
+
+        EnvironmentFingerprint.write(fingerprintFile, "abc", false);
+        assertTrue(EnvironmentFingerprint.matches(fingerprintFile, "abc"));
+        assertFalse(EnvironmentFingerprint.matches(fingerprintFile, "def"));
+        assertFalse(EnvironmentFingerprint.keyStoreCreated(fingerprintFile));
+
+        EnvironmentFingerprint.write(fingerprintFile, "abc", true);
+        assertTrue(EnvironmentFingerprint.matches(fingerprintFile, "abc"));
+        assertTrue(EnvironmentFingerprint.keyStoreCreated(fingerprintFile));
+
+        EnvironmentFingerprint.delete(fingerprintFile);
+        assertFalse(fingerprintFile.exists());
+    }
+
+    private static String compute(Map<String, String> environment, File bundles, File env, File privateKeys) {
+        return EnvironmentFingerprint.compute(environment, bundles.getPath(), env.getPath(), privateKeys.getPath());
+    }
+}
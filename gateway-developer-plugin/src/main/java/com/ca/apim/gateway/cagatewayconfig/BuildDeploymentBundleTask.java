@@ -7,24 +7,40 @@
 package com.ca.apim.gateway.cagatewayconfig;
 
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReportWriter;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.*;
+import org.gradle.api.tasks.options.Option;
 
 import javax.inject.Inject;
+import java.io.File;
 
-import static com.ca.apim.gateway.cagatewayconfig.ProjectDependencyUtils.filterBundleFiles;
+import static com.ca.apim.gateway.cagatewayconfig.ProjectDependencyUtils.filterBundleReferenceFiles;
+import static org.gradle.api.tasks.PathSensitivity.NAME_ONLY;
+import static org.gradle.api.tasks.PathSensitivity.RELATIVE;
 
 /**
  * The BuildDeploymentBundle task will take local source files and create a deployment bundle document that can be bootstrapped into a gateway container
  * or pushed via restman to an appliance gateway.
+ * Along with the bundle it writes a .bundle.index file listing the entities other solutions can reference. When a dependency
+ * bundle has an index, references to it are resolved from the index without reading the bundle.
+ * Inputs are normalized to paths relative to the solution directory (and file names for dependencies) so the task output can
+ * be reused from the build cache by other checkouts of the same solution.
+ * The time taken and entities handled by each phase of the build are written as JSON and as a summary table to the
+ * build/reports/build-bundle folder. With the profileMemory option the bytes allocated and heap high-water mark of each phase
+ * and estimates of the memory retained by the loaded entities, dependency bundles and bundle document are added to it.
  */
+@CacheableTask
 public class BuildDeploymentBundleTask extends DefaultTask {
 
     private DirectoryProperty from;
     private DirectoryProperty into;
     private ConfigurableFileCollection dependencies;
+    private final Property<Boolean> profileMemory;
 
     /**
      * Creates a new BuildBundle task to build a bundle from local source files
@@ -34,9 +50,11 @@ public class BuildDeploymentBundleTask extends DefaultTask {
         into = newOutputDirectory();
         from = newInputDirectory();
         dependencies = getProject().files();
+        profileMemory = getProject().getObjects().property(Boolean.class);
     }
 
     @InputDirectory
+    @PathSensitive(RELATIVE)
     @Optional
     public DirectoryProperty getFrom() {
         return from;
@@ -48,13 +66,47 @@ public class BuildDeploymentBundleTask extends DefaultTask {
     }
 
     @InputFiles
+    @PathSensitive(NAME_ONLY)
     public ConfigurableFileCollection getDependencies() {
         return dependencies;
     }
 
+    @Input
+    public String getBundleName() {
+        return getProject().getName() + '-' + getProject().getVersion();
+    }
+
+    /**
+     * @return the folder the report of the time taken by each phase of the build is written to
+     */
+    @Internal
+    public File getReportDirectory() {
+        return new File(getProject().getBuildDir(), "reports/" + getName());
+    }
+
+    /**
+     * If true the memory used by each phase of the build is added to the report. It does not change the bundle, run the
+     * task with --rerun-tasks to profile a build that is up to date or cached.
+     *
+     * @return whether to profile the memory used by the build
+     */
+    @Internal
+    public Property<Boolean> getProfileMemory() {
+        return profileMemory;
+    }
+
+    @Option(option = "profileMemory", description = "Reports the memory allocated, the heap high-water mark and estimates of the memory retained by each phase of the build.")
+    public void setProfileMemory(boolean profileMemory) {
+        this.profileMemory.set(profileMemory);
+    }
+
     @TaskAction
     public void perform() {
         BundleFileBuilder bundleFileBuilder = InjectionRegistry.getInjector().getInstance(BundleFileBuilder.class);
-        bundleFileBuilder.buildBundle(from.isPresent() ? from.getAsFile().get() : null, into.getAsFile().get(), filterBundleFiles(dependencies.getFiles()), getProject().getName() + '-' + getProject().getVersion());
+        PhaseReport report = bundleFileBuilder.buildBundle(from.isPresent() ? from.getAsFile().get() : null, into.getAsFile().get(), filterBundleReferenceFiles(dependencies.getFiles()), getBundleName(), profileMemory.getOrElse(false));
+
+        PhaseReportWriter reportWriter = InjectionRegistry.getInjector().getInstance(PhaseReportWriter.class);
+        reportWriter.write(report, getReportDirectory());
+        getLogger().info(reportWriter.summarize(report));
     }
 }
@@ -11,53 +11,128 @@ import com.ca.apim.gateway.cagatewayconfig.util.environment.EnvironmentConfigura
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.provider.Property;
-import org.gradle.api.tasks.Input;
-import org.gradle.api.tasks.OutputDirectory;
-import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.*;
 
 import javax.inject.Inject;
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleCreationMode.PLUGIN;
+import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.BUNDLE_EXTENSION;
+import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.collectFiles;
 import static com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry.getInstance;
+import static java.util.Collections.emptyMap;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
+import static org.gradle.api.tasks.PathSensitivity.NAME_ONLY;
 
 /**
  * The BuildEnvironmentBundle task will grab provided environment properties and build a bundle.
+ * The deployment bundles are read from the build-bundle folder and detemplatized into the folder of this task, so its
+ * output can be reused from the build cache.
+ * When several named environments are configured, the deployment bundles are read once and the bundles of every environment
+ * are built concurrently, each one into its own folder named after the environment.
  */
+@CacheableTask
 public class BuildEnvironmentBundleTask extends DefaultTask {
 
+    private final DirectoryProperty from;
     private final DirectoryProperty into;
     private final Property<Map> environmentConfig;
+    private final Property<Map> environments;
     private final EnvironmentConfigurationUtils environmentConfigurationUtils;
 
     @Inject
     public BuildEnvironmentBundleTask() {
+        from = newInputDirectory();
         into = newOutputDirectory();
         environmentConfig = getProject().getObjects().property(Map.class);
+        environments = getProject().getObjects().property(Map.class);
         environmentConfigurationUtils = getInstance(EnvironmentConfigurationUtils.class);
     }
 
+    @Internal
+    DirectoryProperty getFrom() {
+        return from;
+    }
+
+    /**
+     * The deployment bundles built for this project that are detemplatized.
+     */
+    @InputFiles
+    @PathSensitive(NAME_ONLY)
+    List<File> getDeploymentBundles() {
+        return collectFiles(from.getAsFile().get().getPath(), BUNDLE_EXTENSION);
+    }
+
     @OutputDirectory
     DirectoryProperty getInto() {
         return into;
     }
 
-    @Input
+    @Internal
     Property<Map> getEnvironmentConfig() {
         return environmentConfig;
     }
 
+    @Internal
+    Property<Map> getEnvironments() {
+        return environments;
+    }
+
+    /**
+     * The environment values, with the configuration files already loaded, so changes to the files are picked up as input changes.
+     * Empty if only named environments are configured.
+     */
+    @Input
+    Map<String, String> getEnvironmentValues() {
+        if (!environmentConfig.isPresent() && hasNamedEnvironments()) {
+            return emptyMap();
+        }
+        return environmentConfigurationUtils.parseEnvironmentValues(environmentConfig.getOrNull());
+    }
+
+    /**
+     * The environment values of each named environment, with the configuration files already loaded.
+     */
+    @Input
+    Map<String, Map<String, String>> getNamedEnvironmentValues() {
+        final Map<String, Map<String, String>> environmentValues = new LinkedHashMap<>();
+        if (hasNamedEnvironments()) {
+            ((Map<?, ?>) environments.get()).forEach((name, config) -> environmentValues.put(name.toString(), environmentConfigurationUtils.parseEnvironmentValues((Map) config)));
+        }
+        return environmentValues;
+    }
+
+    private boolean hasNamedEnvironments() {
+        return environments.isPresent() && !environments.get().isEmpty();
+    }
+
     @TaskAction
     public void perform() {
-        final Map<String, String> environmentValues = environmentConfigurationUtils.parseEnvironmentValues(environmentConfig.getOrNull());
-
         final EnvironmentBundleCreator environmentBundleCreator = getInstance(EnvironmentBundleCreator.class);
+        if (hasNamedEnvironments()) {
+            final long start = System.nanoTime();
+            final Map<String, Long> creationTimes = environmentBundleCreator.createEnvironmentBundles(
+                    getNamedEnvironmentValues(),
+                    into.getAsFile().get().getPath(),
+                    from.getAsFile().get().getPath(),
+                    PLUGIN,
+                    name -> getProject().getName() + '-' + getProject().getVersion() + '-' + name + "-environment.bundle"
+            );
+            creationTimes.forEach((name, time) -> getLogger().lifecycle("Built environment '{}' in {} ms", name, time));
+            getLogger().lifecycle("Built {} environments in {} ms", creationTimes.size(), NANOSECONDS.toMillis(System.nanoTime() - start));
+            return;
+        }
+
+        final Map<String, String> environmentValues = getEnvironmentValues();
         final String bundleFileName = getProject().getName() + '-' + getProject().getVersion() + "-environment.bundle";
         environmentBundleCreator.createEnvironmentBundle(
                 environmentValues,
                 into.getAsFile().get().getPath(),
-                into.getAsFile().get().getPath(),
+                from.getAsFile().get().getPath(),
                 EMPTY,
                 PLUGIN,
                 bundleFileName
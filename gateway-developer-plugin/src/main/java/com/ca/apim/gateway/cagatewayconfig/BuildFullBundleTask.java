@@ -10,12 +10,10 @@ import com.ca.apim.gateway.cagatewayconfig.environment.FullBundleCreator;
 import com.ca.apim.gateway.cagatewayconfig.util.environment.EnvironmentConfigurationUtils;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
-import org.gradle.api.tasks.Input;
-import org.gradle.api.tasks.InputFiles;
-import org.gradle.api.tasks.OutputFile;
-import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.*;
 
 import javax.inject.Inject;
 import java.io.File;
@@ -27,12 +25,16 @@ import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.BUNDLE_EXT
 import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.collectFiles;
 import static com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry.getInstance;
 import static org.apache.commons.collections4.ListUtils.union;
+import static org.gradle.api.tasks.PathSensitivity.NAME_ONLY;
 
 /**
  * The BuildFullBundleTask task will grab provided environment properties and build a single bundle merged with the deployment bundles.
+ * Environment values and bundles are tracked by content (bundles by file name) so the full bundle can be reused from the build cache.
  */
+@CacheableTask
 public class BuildFullBundleTask extends DefaultTask {
 
+    private final DirectoryProperty from;
     private final Property<Map> environmentConfig;
     private final EnvironmentConfigurationUtils environmentConfigurationUtils;
     private final ConfigurableFileCollection dependencyBundles;
@@ -40,22 +42,46 @@ public class BuildFullBundleTask extends DefaultTask {
 
     @Inject
     public BuildFullBundleTask() {
+        from = newInputDirectory();
         environmentConfig = getProject().getObjects().property(Map.class);
         environmentConfigurationUtils = getInstance(EnvironmentConfigurationUtils.class);
         dependencyBundles = getProject().files();
         outputBundle = newOutputFile();
     }
 
-    @Input
+    @Internal
+    DirectoryProperty getFrom() {
+        return from;
+    }
+
+    @Internal
     Property<Map> getEnvironmentConfig() {
         return environmentConfig;
     }
 
+    /**
+     * The environment values, with the configuration files already loaded, so the task input does not depend on where the files are.
+     */
+    @Input
+    Map<String, String> getEnvironmentValues() {
+        return environmentConfigurationUtils.parseEnvironmentValues(environmentConfig.getOrNull());
+    }
+
     @InputFiles
+    @PathSensitive(NAME_ONLY)
     ConfigurableFileCollection getDependencyBundles() {
         return dependencyBundles;
     }
 
+    /**
+     * The deployment bundles built for this project that are merged into the full bundle.
+     */
+    @InputFiles
+    @PathSensitive(NAME_ONLY)
+    List<File> getDeploymentBundles() {
+        return collectFiles(from.getAsFile().get().getPath(), BUNDLE_EXTENSION);
+    }
+
     @OutputFile
     RegularFileProperty getOutputBundle() {
         return outputBundle;
@@ -63,10 +89,10 @@ public class BuildFullBundleTask extends DefaultTask {
 
     @TaskAction
     public void perform() {
-        final Map<String, String> environmentValues = environmentConfigurationUtils.parseEnvironmentValues(environmentConfig.getOrNull());
+        final Map<String, String> environmentValues = getEnvironmentValues();
         final String bundleDirectory = outputBundle.getAsFile().get().getParentFile().getPath();
         final List<File> bundleFiles = union(
-                collectFiles(bundleDirectory, BUNDLE_EXTENSION),
+                getDeploymentBundles(),
                 filterBundleFiles(dependencyBundles.getAsFileTree().getFiles())
         );
 
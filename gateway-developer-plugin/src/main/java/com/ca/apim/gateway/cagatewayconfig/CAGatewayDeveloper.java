@@ -30,11 +30,15 @@ public class CAGatewayDeveloper implements Plugin<Project> {
     private static final String MODULAR_ASSERTION_CONFIGURATION = "assertion";
     private static final String CUSTOM_ASSERTION_CONFIGURATION = "customassertion";
     private static final String BUNDLE_FILE_EXTENSION = "bundle";
+    private static final String BUNDLE_INDEX_FILE_EXTENSION = "bundle.index";
     private static final String BUILT_BUNDLE_DIRECTORY = "bundle";
+    private static final String BUILT_ENVIRONMENT_BUNDLE_DIRECTORY = "environment-bundle";
+    private static final String BUILT_FULL_BUNDLE_DIRECTORY = "full-bundle";
     private static final String GATEWAY_BUILD_DIRECTORY = "gateway";
     private static final String ENV_APPLICATION_CONFIGURATION = "environment-creator-application";
     private static final String BUILD_ENVIRONMENT_BUNDLE = "build-environment-bundle";
     private static final String BUILD_FULL_BUNDLE = "build-full-bundle";
+    private static final String GATEWAY_PROFILE = "gateway-profile";
 
     @Override
     public void apply(@NotNull final Project project) {
@@ -57,6 +61,7 @@ public class CAGatewayDeveloper implements Plugin<Project> {
         final BuildEnvironmentBundleTask buildEnvironmentBundleTask = createBuildEnvironmentBundleTask(project, pluginConfig, buildDeploymentBundleTask);
         final BuildFullBundleTask buildFullBundleTask = createBuildFullBundleTask(project, pluginConfig, buildDeploymentBundleTask);
         final PackageTask packageGW7Task = createPackageTask(project, pluginConfig, buildDeploymentBundleTask);
+        createGatewayProfileTask(project, pluginConfig);
 
         configureGeneratedArtifacts(project, pluginConfig, buildDeploymentBundleTask, buildEnvironmentBundleTask, buildFullBundleTask, packageGW7Task);
     }
@@ -92,12 +97,26 @@ public class CAGatewayDeveloper implements Plugin<Project> {
         });
     }
 
+    private static void createGatewayProfileTask(@NotNull Project project, GatewayDeveloperPluginConfig pluginConfig) {
+        // Create gateway-profile task, profiling the build of the same bundle as build-bundle
+        project.getTasks().create(GATEWAY_PROFILE, GatewayProfileTask.class, t -> {
+            t.dependsOn(project.getConfigurations().getByName(BUNDLE_CONFIGURATION));
+            t.getFrom().set(new DefaultProvider<>(() -> {
+                Directory dir = pluginConfig.getSolutionDir().get();
+                return dir.getAsFile().exists() ? dir : null;
+            }));
+            t.getDependencies().setFrom(project.getConfigurations().getByName(BUNDLE_CONFIGURATION));
+        });
+    }
+
     @NotNull
     private static BuildEnvironmentBundleTask createBuildEnvironmentBundleTask(@NotNull Project project, GatewayDeveloperPluginConfig pluginConfig, BuildDeploymentBundleTask buildDeploymentBundleTask) {
         // Create build-environment-bundle task
         final BuildEnvironmentBundleTask buildEnvironmentBundleTask = project.getTasks().create(BUILD_ENVIRONMENT_BUNDLE, BuildEnvironmentBundleTask.class, t -> {
+            t.getFrom().set(pluginConfig.getBuiltBundleDir());
             t.getInto().set(pluginConfig.getBuiltEnvironmentBundleDir());
             t.getEnvironmentConfig().set(pluginConfig.getEnvironmentConfig());
+            t.getEnvironments().set(pluginConfig.getEnvironments());
         });
         buildEnvironmentBundleTask.dependsOn(buildDeploymentBundleTask);
         return buildEnvironmentBundleTask;
@@ -106,11 +125,13 @@ public class CAGatewayDeveloper implements Plugin<Project> {
     private static BuildFullBundleTask createBuildFullBundleTask(@NotNull Project project, GatewayDeveloperPluginConfig pluginConfig, BuildDeploymentBundleTask buildDeploymentBundleTask) {
         // Create build-full-bundle task
         final BuildFullBundleTask buildFullBundleTask = project.getTasks().create(BUILD_FULL_BUNDLE, BuildFullBundleTask.class, t -> {
+            t.getFrom().set(pluginConfig.getBuiltBundleDir());
             t.getEnvironmentConfig().set(pluginConfig.getEnvironmentConfig());
             t.getDependencyBundles().setFrom(project.getConfigurations().getByName(BUNDLE_CONFIGURATION));
         });
+        // the full bundle has a folder of its own, so its output does not overlap the outputs of the other bundle tasks
         project.afterEvaluate(p ->
-                buildFullBundleTask.getOutputBundle().set(new File(pluginConfig.getBuiltEnvironmentBundleDir().getAsFile().get(), p.getName() + '-' + p.getVersion() + "-full.bundle")));
+                buildFullBundleTask.getOutputBundle().set(new File(new File(new File(p.getBuildDir(), GATEWAY_BUILD_DIRECTORY), BUILT_FULL_BUNDLE_DIRECTORY), getBuiltArtifactName(p, "-full", BUNDLE_FILE_EXTENSION))));
         buildFullBundleTask.dependsOn(buildDeploymentBundleTask);
         return buildFullBundleTask;
     }
@@ -140,11 +161,19 @@ public class CAGatewayDeveloper implements Plugin<Project> {
 
         // add the deployment bundle to the default artifacts
         project.artifacts(artifactHandler -> addBundleArtifact(artifactHandler, packageGW7Task.getBundle(), buildDeploymentBundleTask, project::getName, "deployment"));
+        // and its index, so dependent solutions can resolve references without reading the bundle
+        project.artifacts(artifactHandler -> addArtifact(
+                artifactHandler,
+                pluginConfig.getBuiltBundleDir().file(new DefaultProvider<>(() -> getBuiltArtifactName(project, EMPTY, BUNDLE_INDEX_FILE_EXTENSION))),
+                buildDeploymentBundleTask,
+                project::getName,
+                "deployment",
+                BUNDLE_INDEX_FILE_EXTENSION));
         // add the environment bundle to the artifacts only if the environment bundle task was triggered
         if (project.getGradle().getStartParameter().getTaskNames().contains(BUILD_ENVIRONMENT_BUNDLE)) {
             project.artifacts(artifactHandler -> addBundleArtifact(
                 artifactHandler,
-                pluginConfig.getBuiltBundleDir().file(new DefaultProvider<>(() -> getBuiltArtifactName(project, "-environment", BUNDLE_FILE_EXTENSION))),
+                pluginConfig.getBuiltEnvironmentBundleDir().file(new DefaultProvider<>(() -> getBuiltArtifactName(project, "-environment", BUNDLE_FILE_EXTENSION))),
                 buildEnvironmentBundleTask,
                 project::getName,
                 "environment"));
@@ -153,7 +182,7 @@ public class CAGatewayDeveloper implements Plugin<Project> {
         if (project.getGradle().getStartParameter().getTaskNames().contains(BUILD_FULL_BUNDLE)) {
             project.artifacts(artifactHandler -> addBundleArtifact(
                     artifactHandler,
-                    pluginConfig.getBuiltBundleDir().file(new DefaultProvider<>(() -> getBuiltArtifactName(project, "-full", BUNDLE_FILE_EXTENSION))),
+                    buildFullBundleTask.getOutputBundle(),
                     buildFullBundleTask,
                     project::getName,
                     "full"));
@@ -166,20 +195,30 @@ public class CAGatewayDeveloper implements Plugin<Project> {
             Task generatedTask,
             Supplier<String> nameSupplier,
             String classifier) {
+        addArtifact(artifactHandler, bundle, generatedTask, nameSupplier, classifier, BUNDLE_FILE_EXTENSION);
+    }
+
+    private static void addArtifact(
+            ArtifactHandler artifactHandler,
+            Provider<RegularFile> file,
+            Task generatedTask,
+            Supplier<String> nameSupplier,
+            String classifier,
+            String extension) {
         artifactHandler.add(
                 "default",
-                new LazyPublishArtifact(bundle, null) {
+                new LazyPublishArtifact(file, null) {
                     // We need to override this because gradle does not fully lazily load artifacts. Once we move to gradle 5 this will no longer be needed
                     @Override
                     public String getType() {
-                        return BUNDLE_FILE_EXTENSION;
+                        return extension;
                     }
                 },
                 configurablePublishArtifact -> {
                     configurablePublishArtifact.builtBy(generatedTask);
-                    configurablePublishArtifact.setExtension(BUNDLE_FILE_EXTENSION);
+                    configurablePublishArtifact.setExtension(extension);
                     configurablePublishArtifact.setName(nameSupplier.get());
-                    configurablePublishArtifact.setType(BUNDLE_FILE_EXTENSION);
+                    configurablePublishArtifact.setType(extension);
                     configurablePublishArtifact.setClassifier(classifier);
                 });
     }
@@ -198,12 +237,13 @@ public class CAGatewayDeveloper implements Plugin<Project> {
         if (!pluginConfig.getSolutionDir().isPresent()) {
             pluginConfig.getSolutionDir().set(new File(project.getProjectDir(), "src/main/gateway"));
         }
-        File defaultBuildDir = new File(new File(project.getBuildDir(), GATEWAY_BUILD_DIRECTORY), BUILT_BUNDLE_DIRECTORY);
+        File gatewayBuildDir = new File(project.getBuildDir(), GATEWAY_BUILD_DIRECTORY);
         if (!pluginConfig.getBuiltBundleDir().isPresent()) {
-            pluginConfig.getBuiltBundleDir().set(defaultBuildDir);
+            pluginConfig.getBuiltBundleDir().set(new File(gatewayBuildDir, BUILT_BUNDLE_DIRECTORY));
         }
+        // the environment bundles are detemplatized into a folder of their own, apart from the deployment bundles
         if (!pluginConfig.getBuiltEnvironmentBundleDir().isPresent()) {
-            pluginConfig.getBuiltEnvironmentBundleDir().set(defaultBuildDir);
+            pluginConfig.getBuiltEnvironmentBundleDir().set(new File(gatewayBuildDir, BUILT_ENVIRONMENT_BUNDLE_DIRECTORY));
         }
     }
 }
@@ -17,12 +17,14 @@ public class GatewayDeveloperPluginConfig {
     private final DirectoryProperty solutionDir;
     private DirectoryProperty builtBundleDir;
     private final Property<Map> environmentConfig;
+    private final Property<Map> environments;
     private DirectoryProperty builtEnvironmentBundleDir;
 
     public GatewayDeveloperPluginConfig(Project project) {
         solutionDir = project.getLayout().directoryProperty();
         builtBundleDir = project.getLayout().directoryProperty();
         environmentConfig = project.getObjects().property(Map.class);
+        environments = project.getObjects().property(Map.class);
         builtEnvironmentBundleDir = project.getLayout().directoryProperty();
     }
 
@@ -38,6 +40,14 @@ public class GatewayDeveloperPluginConfig {
         return environmentConfig;
     }
 
+    /**
+     * Named environment configurations, each one in the same format as the environment configuration, to build the
+     * bundles of several environments at once.
+     */
+    Property<Map> getEnvironments() {
+        return environments;
+    }
+
     DirectoryProperty getBuiltEnvironmentBundleDir() {
         return builtEnvironmentBundleDir;
     }
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig;
+
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReportWriter;
+import com.ca.apim.gateway.cagatewayconfig.util.report.ProfileReport;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+import org.gradle.api.tasks.options.Option;
+
+import javax.inject.Inject;
+import java.io.File;
+
+import static com.ca.apim.gateway.cagatewayconfig.ProjectDependencyUtils.filterBundleReferenceFiles;
+import static org.gradle.api.tasks.PathSensitivity.NAME_ONLY;
+import static org.gradle.api.tasks.PathSensitivity.RELATIVE;
+
+/**
+ * The GatewayProfile task builds the deployment bundle of the solution several times in the Gradle JVM, the same way the
+ * build-bundle task does, and reports the median and 95th percentile time of each phase and entity type of the build, the
+ * heap high-water mark and the policies that are the slowest to build. The first runs warm the JVM up and are not measured.
+ * The report only has timings and policy paths, so it can be shared without sharing the solution.
+ * The report is written as JSON and as a summary table to the build/reports/gateway-profile folder, the bundles are built
+ * into a temporary folder. The task always runs.
+ */
+public class GatewayProfileTask extends DefaultTask {
+
+    private static final int DEFAULT_WARMUPS = 3;
+    private static final int DEFAULT_ITERATIONS = 10;
+    private static final int DEFAULT_TOP = 10;
+
+    private final DirectoryProperty from;
+    private final ConfigurableFileCollection dependencies;
+    private final Property<Integer> warmups;
+    private final Property<Integer> iterations;
+    private final Property<Integer> top;
+
+    @Inject
+    public GatewayProfileTask() {
+        from = newInputDirectory();
+        dependencies = getProject().files();
+        warmups = getProject().getObjects().property(Integer.class);
+        iterations = getProject().getObjects().property(Integer.class);
+        top = getProject().getObjects().property(Integer.class);
+        getOutputs().upToDateWhen(t -> false);
+    }
+
+    @InputDirectory
+    @PathSensitive(RELATIVE)
+    @Optional
+    public DirectoryProperty getFrom() {
+        return from;
+    }
+
+    @InputFiles
+    @PathSensitive(NAME_ONLY)
+    public ConfigurableFileCollection getDependencies() {
+        return dependencies;
+    }
+
+    @Input
+    public String getBundleName() {
+        return getProject().getName() + '-' + getProject().getVersion();
+    }
+
+    /**
+     * @return the number of builds before the measured ones, 3 by default
+     */
+    @Internal
+    public Property<Integer> getWarmups() {
+        return warmups;
+    }
+
+    @Option(option = "warmups", description = "The number of builds before the measured ones, 3 by default.")
+    public void setWarmups(String warmups) {
+        this.warmups.set(parseCount("warmups", warmups, 0));
+    }
+
+    /**
+     * @return the number of measured builds, 10 by default
+     */
+    @Internal
+    public Property<Integer> getIterations() {
+        return iterations;
+    }
+
+    @Option(option = "iterations", description = "The number of measured builds, 10 by default.")
+    public void setIterations(String iterations) {
+        this.iterations.set(parseCount("iterations", iterations, 1));
+    }
+
+    /**
+     * @return the number of slowest policies to report, 10 by default
+     */
+    @Internal
+    public Property<Integer> getTop() {
+        return top;
+    }
+
+    @Option(option = "top", description = "The number of slowest policies to report, 10 by default.")
+    public void setTop(String top) {
+        this.top.set(parseCount("top", top, 0));
+    }
+
+    /**
+     * @return the folder the profile is written to
+     */
+    @Internal
+    public File getReportDirectory() {
+        return new File(getProject().getBuildDir(), "reports/" + getName());
+    }
+
+    @TaskAction
+    public void perform() {
+        BundleProfiler bundleProfiler = InjectionRegistry.getInjector().getInstance(BundleProfiler.class);
+        ProfileReport report = bundleProfiler.profile(
+                from.isPresent() ? from.getAsFile().get() : null,
+                getTemporaryDir(),
+                filterBundleReferenceFiles(dependencies.getFiles()),
+                getBundleName(),
+                warmups.getOrElse(DEFAULT_WARMUPS),
+                iterations.getOrElse(DEFAULT_ITERATIONS),
+                top.getOrElse(DEFAULT_TOP));
+
+        PhaseReportWriter reportWriter = InjectionRegistry.getInjector().getInstance(PhaseReportWriter.class);
+        reportWriter.write(report, getReportDirectory());
+        getLogger().lifecycle(reportWriter.summarize(report));
+        getLogger().lifecycle("The profile was written to {}", getReportDirectory());
+    }
+
+    private static int parseCount(String option, String value, int minimum) {
+        final int count;
+        try {
+            count = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidUserDataException("The " + option + " option must be a number, found '" + value + "'", e);
+        }
+        if (count < minimum) {
+            throw new InvalidUserDataException("The " + option + " option must be at least " + minimum + ", found " + count);
+        }
+        return count;
+    }
+}
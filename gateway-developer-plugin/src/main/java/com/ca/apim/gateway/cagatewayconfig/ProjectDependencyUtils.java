@@ -6,16 +6,21 @@
 
 package com.ca.apim.gateway.cagatewayconfig;
 
+import com.ca.apim.gateway.cagatewayconfig.bundle.index.BundleIndexer;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
 import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Supplier;
 
 import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.BUNDLE_EXTENSION;
+import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.BUNDLE_INDEX_EXTENSION;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toCollection;
 
 /**
@@ -39,6 +44,29 @@ public class ProjectDependencyUtils {
         return filter(files, BUNDLE_EXTENSION, LinkedList::new);
     }
 
+    /**
+     * Filter the files to use for resolving references to bundle dependencies. For each bundle file its .bundle.index
+     * sidecar is used instead when one is available, either in the collection or next to the bundle file, and it was
+     * written for the bundle file as it is now.
+     *
+     * @param files the full collection of files
+     * @return bundle index files, or bundle files for the bundles without an index
+     */
+    @SuppressWarnings("squid:S1319") // we need linkedlist here explicitly
+    public static LinkedList<File> filterBundleReferenceFiles(Collection<File> files) {
+        final Map<String, File> indexFiles = filter(files, BUNDLE_INDEX_EXTENSION, LinkedList::new).stream().collect(toMap(File::getName, identity(), (a, b) -> a));
+        final LinkedList<File> referenceFiles = new LinkedList<>();
+        for (File bundleFile : filterBundleFiles(files)) {
+            final String indexFileName = bundleFile.getName().substring(0, bundleFile.getName().length() - BUNDLE_EXTENSION.length()) + BUNDLE_INDEX_EXTENSION;
+            File indexFile = indexFiles.get(indexFileName);
+            if (indexFile == null) {
+                indexFile = new File(bundleFile.getParentFile(), indexFileName);
+            }
+            referenceFiles.add(indexFile.isFile() && BundleIndexer.isIndexOf(indexFile, bundleFile) ? indexFile : bundleFile);
+        }
+        return referenceFiles;
+    }
+
     /**
      * Filter only modular assertion (AAR) files.
      *
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.tasks.gw7;
+
+import org.apache.commons.io.IOUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.COPY_ATTRIBUTES;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.stream.Collectors.toList;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+
+/**
+ * Creates an application class data sharing (AppCDS) archive for the environment creator application, so the JVM started
+ * by apply-environment.sh on every container start can map the Guice, Jackson, BouncyCastle and config builder classes
+ * from the archive instead of loading them from the jars.
+ * <p>
+ * The classes to archive are collected by a training run of the application against a synthetic environment. The
+ * archive is only used by the JVM when:
+ * <ul>
+ * <li>it is the same JVM build that created the archive, so the java home used here must be the one of the gateway image</li>
+ * <li>the classpath is the same, that is why the jars are referenced by their relative path and in the order of the
+ * classpath file shipped with the archive</li>
+ * <li>the jars have the same size and modification time, which the gw7 package keeps for them</li>
+ * </ul>
+ * Otherwise it is silently ignored and the classes are loaded as usual.
+ */
+public class ClassDataSharingArchiver {
+
+    public static final String ARCHIVE_FILE_NAME = "apply-environment.jsa";
+    public static final String CLASSPATH_FILE_NAME = "apply-environment.classpath";
+    public static final int MINIMUM_JAVA_VERSION = 11;
+
+    private static final String ENVIRONMENT_CREATOR_APPLICATION = "com.ca.apim.gateway.cagatewayconfig.EnvironmentCreatorApplication";
+    private static final String TRAINING_BUNDLE = "/cds/training.bundle";
+    private static final int TRAINING_VALUES = 200;
+    private static final long PROCESS_TIMEOUT_MINUTES = 5;
+
+    /**
+     * Creates the archive for the environment creator application.
+     *
+     * @param javaHome         the java home of the JVM that will run the application
+     * @param applicationJars  the environment creator application jars
+     * @param workingDirectory folder to create the archive and the training files in
+     * @return the created archive
+     */
+    public ClassDataSharingArchive createEnvironmentCreatorArchive(File javaHome, Collection<File> applicationJars, File workingDirectory) {
+        final File trainingDirectory = new File(workingDirectory, "training");
+        final File templatizedBundles = new File(trainingDirectory, "templatized");
+        final File bootstrapBundles = new File(trainingDirectory, "bootstrap");
+        try {
+            Files.createDirectories(templatizedBundles.toPath());
+            Files.createDirectories(bootstrapBundles.toPath());
+            try (InputStream bundle = getClass().getResourceAsStream(TRAINING_BUNDLE)) {
+                if (bundle == null) {
+                    throw new PackageBuildException("Error creating the class data sharing archive. Could not find the resource " + TRAINING_BUNDLE);
+                }
+                Files.copy(bundle, new File(templatizedBundles, "training.bundle").toPath(), REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new PackageBuildException("Error creating the class data sharing training environment: " + e.getMessage(), e);
+        }
+
+        final List<String> arguments = Arrays.asList(
+                templatizedBundles.getAbsolutePath(),
+                bootstrapBundles.getAbsolutePath(),
+                new File(trainingDirectory, "keystore").getAbsolutePath(),
+                new File(trainingDirectory, "privateKeys").getAbsolutePath(),
+                new File(trainingDirectory, "env").getAbsolutePath());
+        return createArchive(javaHome, applicationJars, workingDirectory, ENVIRONMENT_CREATOR_APPLICATION, arguments, trainingEnvironment());
+    }
+
+    /**
+     * Creates the archive with the classes loaded by a run of the main class.
+     *
+     * @param javaHome         the java home of the JVM that will use the archive
+     * @param jars             the application jars
+     * @param workingDirectory folder to create the archive in
+     * @param mainClass        the application main class
+     * @param arguments        the arguments of the training run
+     * @param environment      the environment variables of the training run
+     * @return the created archive
+     */
+    public ClassDataSharingArchive createArchive(File javaHome,
+                                                 Collection<File> jars,
+                                                 File workingDirectory,
+                                                 String mainClass,
+                                                 List<String> arguments,
+                                                 Map<String, String> environment) {
+        final int javaVersion = getJavaVersion(javaHome);
+        if (javaVersion < MINIMUM_JAVA_VERSION) {
+            throw new PackageBuildException("Class data sharing archives for application classes require Java " + MINIMUM_JAVA_VERSION + " or later, found Java " + javaVersion + " in " + javaHome);
+        }
+
+        // the jars are copied, keeping their modification time, to be referenced with relative paths as in the package
+        final File classpathDirectory = new File(workingDirectory, "apply-environment");
+        final List<String> classpath = copyJars(jars, classpathDirectory);
+        final File classList = new File(workingDirectory, "apply-environment.classlist");
+        final File archive = new File(workingDirectory, ARCHIVE_FILE_NAME);
+        final String java = new File(new File(javaHome, "bin"), "java").getAbsolutePath();
+        final String classpathOption = String.join(File.pathSeparator, classpath);
+
+        final List<String> trainingCommand = new ArrayList<>(Arrays.asList(java, "-Xshare:off", "-XX:DumpLoadedClassList=" + classList.getAbsolutePath(), "-cp", classpathOption, mainClass));
+        trainingCommand.addAll(arguments);
+        run(trainingCommand, environment, classpathDirectory, new File(workingDirectory, "training.log"));
+
+        final List<String> dumpCommand = Arrays.asList(java, "-Xshare:dump", "-XX:SharedClassListFile=" + classList.getAbsolutePath(), "-XX:SharedArchiveFile=" + archive.getAbsolutePath(), "-cp", classpathOption);
+        run(dumpCommand, environment, classpathDirectory, new File(workingDirectory, "dump.log"));
+        if (!archive.isFile()) {
+            throw new PackageBuildException("Class data sharing archive was not created, see " + new File(workingDirectory, "dump.log"));
+        }
+        return new ClassDataSharingArchive(archive, classpath);
+    }
+
+    public static int getJavaVersion(File javaHome) {
+        // a java 8 jre java home is the jre folder of the jdk, the release file is in the jdk one
+        File release = new File(javaHome, "release");
+        if (!release.isFile() && javaHome.getParentFile() != null) {
+            release = new File(javaHome.getParentFile(), "release");
+        }
+        final Properties properties = new Properties();
+        try (InputStream stream = Files.newInputStream(release.toPath())) {
+            properties.load(stream);
+        } catch (IOException e) {
+            throw new PackageBuildException("Could not read the Java version from " + release + ": " + e.getMessage(), e);
+        }
+        final String version = properties.getProperty("JAVA_VERSION", "").replace("\"", "");
+        final String[] parts = version.split("[._+-]");
+        try {
+            final int major = Integer.parseInt(parts[0]);
+            return major == 1 && parts.length > 1 ? Integer.parseInt(parts[1]) : major;
+        } catch (NumberFormatException e) {
+            throw new PackageBuildException("Unexpected Java version '" + version + "' in " + release);
+        }
+    }
+
+    @NotNull
+    private static List<String> copyJars(Collection<File> jars, File classpathDirectory) {
+        final List<File> sortedJars = jars.stream().sorted(Comparator.comparing(File::getName)).collect(toList());
+        final List<String> classpath = new ArrayList<>(sortedJars.size());
+        // jars left from a previous run must not be in the way
+        deleteQuietly(classpathDirectory);
+        try {
+            Files.createDirectories(classpathDirectory.toPath());
+            for (File jar : sortedJars) {
+                Files.copy(jar.toPath(), new File(classpathDirectory, jar.getName()).toPath(), REPLACE_EXISTING, COPY_ATTRIBUTES);
+                classpath.add(jar.getName());
+            }
+        } catch (IOException e) {
+            throw new PackageBuildException("Error copying the class data sharing training jars: " + e.getMessage(), e);
+        }
+        return classpath;
+    }
+
+    private static void run(List<String> command, Map<String, String> environment, File directory, File log) {
+        final ProcessBuilder processBuilder = new ProcessBuilder(command)
+                .directory(directory)
+                .redirectErrorStream(true)
+                .redirectOutput(log);
+        processBuilder.environment().putAll(environment);
+        try {
+            final Process process = processBuilder.start();
+            if (!process.waitFor(PROCESS_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                process.destroyForcibly();
+                throw new PackageBuildException("Class data sharing training run timed out: " + String.join(" ", command));
+            }
+            if (process.exitValue() != 0) {
+                throw new PackageBuildException("Class data sharing training run failed with exit code " + process.exitValue() + ": " + readLog(log));
+            }
+        } catch (IOException e) {
+            throw new PackageBuildException("Error running the class data sharing training run: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PackageBuildException("Interrupted while running the class data sharing training run");
+        }
+    }
+
+    private static String readLog(File log) {
+        try (InputStream stream = Files.newInputStream(log.toPath())) {
+            return IOUtils.toString(stream, UTF_8);
+        } catch (IOException e) {
+            return "see " + log;
+        }
+    }
+
+    /**
+     * The environment of the training run, with values of the types usually given to gateway containers.
+     */
+    private static Map<String, String> trainingEnvironment() {
+        final Map<String, String> environment = new LinkedHashMap<>();
+        environment.put("ENV.CONTEXT_VARIABLE_PROPERTY.training", "training");
+        for (int i = 0; i < TRAINING_VALUES; i++) {
+            environment.put("ENV.CONTEXT_VARIABLE_PROPERTY.training-" + i, "value-" + i);
+            environment.put("ENV.PROPERTY.training." + i, "value-" + i);
+        }
+        environment.put("ENV.PASSWORD.training", "training");
+        environment.put("ENV.LISTEN_PORT.training", "{\"port\": 18080, \"protocol\": \"HTTP\", \"enabledFeatures\": [\"Published service message input\"]}");
+        return environment;
+    }
+
+    /**
+     * The archive file and the classpath it was created for, relative to the application jars folder.
+     */
+    public static class ClassDataSharingArchive {
+        private final File archive;
+        private final List<String> classpath;
+
+        ClassDataSharingArchive(File archive, List<String> classpath) {
+            this.archive = archive;
+            this.classpath = classpath;
+        }
+
+        public File getArchive() {
+            return archive;
+        }
+
+        public List<String> getClasspath() {
+            return classpath;
+        }
+
+        /**
+         * @return the classpath in the format apply-environment.sh passes it to the JVM
+         */
+        public String getClasspathOption() {
+            return String.join(":", classpath);
+        }
+    }
+}
@@ -73,6 +73,9 @@ public class GW7Builder {
                 if (file.executable) {
                     tarEntry.setMode(365);
                 }
+                if (file.lastModified > 0) {
+                    tarEntry.setModTime(file.lastModified);
+                }
                 taos.putArchiveEntry(tarEntry);
                 IOUtils.copy(inputStream, taos);
                 taos.closeArchiveEntry();
@@ -87,14 +90,23 @@ public class GW7Builder {
         private final long fileSize;
         private final Supplier<InputStream> fileStreamSupplier;
         private final boolean executable;
+        private final long lastModified;
 
         public PackageFile(String filePath, long fileSize, Supplier<InputStream> fileStreamSupplier) {
             this(filePath, fileSize, fileStreamSupplier, false);
         }
 
         public PackageFile(String filePath, long fileSize, Supplier<InputStream> fileStreamSupplier, boolean executable) {
+            this(filePath, fileSize, 0L, fileStreamSupplier, executable);
+        }
+
+        /**
+         * @param lastModified the modification time of the file in the package, in milliseconds. If it is 0 the time the package is built is used.
+         */
+        public PackageFile(String filePath, long fileSize, long lastModified, Supplier<InputStream> fileStreamSupplier, boolean executable) {
             this.filePath = filePath;
             this.fileSize = fileSize;
+            this.lastModified = lastModified;
             this.fileStreamSupplier = fileStreamSupplier;
             this.executable = executable;
         }
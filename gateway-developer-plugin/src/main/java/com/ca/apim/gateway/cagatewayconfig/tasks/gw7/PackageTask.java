@@ -6,12 +6,16 @@
 
 package com.ca.apim.gateway.cagatewayconfig.tasks.gw7;
 
+import com.ca.apim.gateway.cagatewayconfig.tasks.gw7.ClassDataSharingArchiver.ClassDataSharingArchive;
 import com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFile;
 import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
 
@@ -33,28 +37,35 @@ public class PackageTask extends DefaultTask {
     private ConfigurableFileCollection dependencyCustomAssertions;
     private RegularFileProperty into;
     private RegularFileProperty bundle;
+    private final Property<Boolean> classDataSharing;
+    private final Property<String> classDataSharingJavaHome;
 
     private final FileUtils fileUtils;
     private final GW7Builder gw7Builder;
+    private final ClassDataSharingArchiver classDataSharingArchiver;
 
     /**
      * Creates a new BuildBundle task to build a bundle from local source files
      */
     @Inject
     public PackageTask() {
-        this(FileUtils.INSTANCE, GW7Builder.INSTANCE);
+        this(FileUtils.INSTANCE, GW7Builder.INSTANCE, new ClassDataSharingArchiver());
     }
 
-    PackageTask(final FileUtils fileUtils, GW7Builder gw7Builder) {
+    PackageTask(final FileUtils fileUtils, GW7Builder gw7Builder, ClassDataSharingArchiver classDataSharingArchiver) {
         into = newOutputFile();
         bundle = newInputFile();
         dependencyBundles = getProject().files();
         containerApplicationDependencies = getProject().files();
         dependencyModularAssertions = getProject().files();
         dependencyCustomAssertions = getProject().files();
+        classDataSharing = getProject().getObjects().property(Boolean.class);
+        classDataSharing.set(false);
+        classDataSharingJavaHome = getProject().getObjects().property(String.class);
 
         this.fileUtils = fileUtils;
         this.gw7Builder = gw7Builder;
+        this.classDataSharingArchiver = classDataSharingArchiver;
     }
 
     @InputFile
@@ -82,6 +93,25 @@ public class PackageTask extends DefaultTask {
         return dependencyCustomAssertions;
     }
 
+    /**
+     * When enabled, a class data sharing archive of the environment creator application is added to the package and used
+     * by apply-environment.sh to start the application faster. It needs Java 11 or later.
+     */
+    @Input
+    public Property<Boolean> getClassDataSharing() {
+        return classDataSharing;
+    }
+
+    /**
+     * The java home used to create the class data sharing archive. The archive is only used by the same JVM build, so this
+     * should be a copy of the java home of the gateway image. Defaults to the java home running the build.
+     */
+    @Input
+    @Optional
+    public Property<String> getClassDataSharingJavaHome() {
+        return classDataSharingJavaHome;
+    }
+
     @OutputFile
     public RegularFileProperty getInto() {
         return into;
@@ -92,13 +122,21 @@ public class PackageTask extends DefaultTask {
         Packager packager = new Packager(fileUtils, gw7Builder);
         final Set<File> bundleDependencies = dependencyBundles.getAsFileTree().getFiles();
 
+        ClassDataSharingArchive classDataSharingArchive = null;
+        if (Boolean.TRUE.equals(classDataSharing.get())) {
+            final File javaHome = new File(classDataSharingJavaHome.getOrElse(System.getProperty("java.home")));
+            classDataSharingArchive = classDataSharingArchiver.createEnvironmentCreatorArchive(javaHome, containerApplicationDependencies.getFiles(), getTemporaryDir());
+            getLogger().info("Created the class data sharing archive {} with {}", classDataSharingArchive.getArchive(), javaHome);
+        }
+
         packager.buildPackage(
                 into.getAsFile().get(),
                 bundle.getAsFile().get(),
                 filterBundleFiles(bundleDependencies),
                 containerApplicationDependencies.getFiles(),
                 union(dependencyModularAssertions.getFiles(), filterModularAssertionFiles(bundleDependencies)),
-                union(dependencyCustomAssertions.getFiles(), filterJarFiles(bundleDependencies))
+                union(dependencyCustomAssertions.getFiles(), filterJarFiles(bundleDependencies)),
+                classDataSharingArchive
         );
     }
 }
@@ -6,10 +6,12 @@
 
 package com.ca.apim.gateway.cagatewayconfig.tasks.gw7;
 
+import com.ca.apim.gateway.cagatewayconfig.tasks.gw7.ClassDataSharingArchiver.ClassDataSharingArchive;
 import com.ca.apim.gateway.cagatewayconfig.tasks.gw7.GW7Builder.PackageFile;
 import com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
@@ -20,6 +22,9 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
+import static com.ca.apim.gateway.cagatewayconfig.tasks.gw7.ClassDataSharingArchiver.ARCHIVE_FILE_NAME;
+import static com.ca.apim.gateway.cagatewayconfig.tasks.gw7.ClassDataSharingArchiver.CLASSPATH_FILE_NAME;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Spliterator.ORDERED;
 import static java.util.Spliterators.spliteratorUnknownSize;
 import static java.util.function.Function.identity;
@@ -54,13 +59,15 @@ class Packager {
      * @param containerApplicationDependencies Dependencies from the environment creator application
      * @param modularAssertionDependencies optional dependent modular assertions
      * @param customAssertionDependencies optional dependent custom assertions
+     * @param classDataSharingArchive optional class data sharing archive for the environment creator application
      */
     void buildPackage(File gw7File,
                       File bundle,
                       LinkedList<File> dependencyBundles,
                       Set<File> containerApplicationDependencies,
                       Set<File> modularAssertionDependencies,
-                      Set<File> customAssertionDependencies) {
+                      Set<File> customAssertionDependencies,
+                      @Nullable ClassDataSharingArchive classDataSharingArchive) {
 
         int numBundles = dependencyBundles.size() + 2;
         Set<PackageFile> packageFiles = Stream.of(
@@ -68,6 +75,7 @@ class Packager {
                 deploymentBundle(bundle, dependencyBundles.size(), numBundles), // adds the deployment bundle
                 applyEnvironmentScript(), // apply-environment.sh script
                 fileDependencies(containerApplicationDependencies, DIRECTORY_OPT_DOCKER_RC_D + "apply-environment/"), // adds the apply environment jars
+                classDataSharingArchive(classDataSharingArchive), // adds the apply environment class data sharing archive
                 fileDependencies(modularAssertionDependencies, DIRECTORY_GATEWAY_MODULES + "assertions/"), // adds the dependent modular assertions
                 fileDependencies(customAssertionDependencies, DIRECTORY_GATEWAY_MODULES + "lib/") // adds the dependent custom assertions
         ).flatMap(identity()).collect(toSet());
@@ -117,6 +125,19 @@ class Packager {
                 .build();
     }
 
+    private Stream<PackageFile> classDataSharingArchive(@Nullable ClassDataSharingArchive classDataSharingArchive) {
+        if (classDataSharingArchive == null) {
+            return Stream.empty();
+        }
+
+        final File archive = classDataSharingArchive.getArchive();
+        final byte[] classpathBytes = classDataSharingArchive.getClasspathOption().getBytes(UTF_8);
+        return Stream.of(
+                new PackageFile(DIRECTORY_OPT_DOCKER_RC_D + ARCHIVE_FILE_NAME, archive.length(), () -> fileUtils.getInputStream(archive)),
+                new PackageFile(DIRECTORY_OPT_DOCKER_RC_D + CLASSPATH_FILE_NAME, classpathBytes.length, () -> new ByteArrayInputStream(classpathBytes))
+        );
+    }
+
     private byte[] getResourceBytes(String resourcePath) {
         try (InputStream applyEnvStream = getClass().getResourceAsStream(resourcePath)) {
             if (applyEnvStream == null) {
@@ -130,8 +151,9 @@ class Packager {
 
     @NotNull
     private Stream<PackageFile> fileDependencies(Set<File> files, String path) {
+        // the modification time is kept, the class data sharing archive is only used with the same jars it was created with
         return files.stream().map(f -> new PackageFile(
-                path + f.getName(), f.length(), () -> fileUtils.getInputStream(f))
+                path + f.getName(), f.length(), f.lastModified(), () -> fileUtils.getInputStream(f), false)
         );
     }
 
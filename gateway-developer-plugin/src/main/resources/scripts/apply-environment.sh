@@ -15,5 +15,21 @@ then
     DEBUG_OPTS="-agentlib:jdwp=transport=dt_socket,server=y,suspend=y,address=${ENV_DEBUG_PORT}"
 fi
 
+# Use the class data sharing archive of the apply-environment application when the package has one and the JVM supports it.
+# The JVM ignores the archive if it was created by a different JVM build or the jars changed.
+APPLICATION_CLASSPATH="/opt/docker/rc.d/apply-environment/*"
+CDS_OPTS=""
+if [ -f /opt/docker/rc.d/apply-environment.jsa ] && [ -f /opt/docker/rc.d/apply-environment.classpath ]
+then
+    java_version=$(sed -n 's/^JAVA_VERSION="\([0-9]*\).*/\1/p' "$JAVA_HOME/release" 2>/dev/null)
+    if [ "${java_version:-0}" -ge 11 ]
+    then
+        # the archive references the jars relative to the application folder
+        cd /opt/docker/rc.d/apply-environment || exit 1
+        APPLICATION_CLASSPATH=$(cat /opt/docker/rc.d/apply-environment.classpath)
+        CDS_OPTS="-XX:SharedArchiveFile=/opt/docker/rc.d/apply-environment.jsa -Xshare:auto"
+    fi
+fi
+
 # Call the apply-environment application
-"$JAVA_HOME/bin/java" ${DEBUG_OPTS} -classpath "/opt/docker/rc.d/apply-environment/*" com.ca.apim.gateway.cagatewayconfig.EnvironmentCreatorApplication
\ No newline at end of file
+"$JAVA_HOME/bin/java" ${DEBUG_OPTS} ${CDS_OPTS} -classpath "${APPLICATION_CLASSPATH}" com.ca.apim.gateway.cagatewayconfig.EnvironmentCreatorApplication
\ No newline at end of file
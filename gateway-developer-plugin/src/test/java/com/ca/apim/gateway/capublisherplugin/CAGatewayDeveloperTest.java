@@ -66,6 +66,54 @@ class CAGatewayDeveloperTest {
 
         File buildDir = new File(testProjectDir, "build");
         validateBuildDir(projectFolder, buildDir);
+
+        File reportDir = new File(new File(buildDir, "reports"), "build-bundle");
+        assertTrue(new File(reportDir, "phases.json").isFile());
+        assertTrue(new File(reportDir, "phases.txt").isFile());
+    }
+
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void testExampleProjectFromBuildCache(TemporaryFolder temporaryFolder) throws IOException, URISyntaxException {
+        String projectFolder = "example-project";
+        File buildCacheDir = new File(temporaryFolder.getRoot(), "build-cache");
+        // two checkouts of the same solution in different locations sharing a local build cache
+        File firstCheckoutDir = copyProjectWithBuildCache(projectFolder, new File(temporaryFolder.getRoot(), "checkout-1"), buildCacheDir);
+        File secondCheckoutDir = copyProjectWithBuildCache(projectFolder, new File(temporaryFolder.getRoot(), "checkout-2"), buildCacheDir);
+
+        BuildResult result = runBuildBundleWithBuildCache(firstCheckoutDir);
+        assertEquals(TaskOutcome.SUCCESS, Objects.requireNonNull(result.task(":build-bundle")).getOutcome());
+
+        result = runBuildBundleWithBuildCache(secondCheckoutDir);
+        assertEquals(TaskOutcome.FROM_CACHE, Objects.requireNonNull(result.task(":build-bundle")).getOutcome());
+
+        File builtBundleFile = new File(new File(new File(new File(secondCheckoutDir, "build"), "gateway"), "bundle"), projectFolder + projectVersion + ".bundle");
+        assertTrue(builtBundleFile.isFile());
+        assertEquals(
+                readFileToString(new File(new File(new File(new File(firstCheckoutDir, "build"), "gateway"), "bundle"), projectFolder + projectVersion + ".bundle"), defaultCharset()),
+                readFileToString(builtBundleFile, defaultCharset()));
+    }
+
+    private File copyProjectWithBuildCache(String projectFolder, File checkoutDir, File buildCacheDir) throws IOException, URISyntaxException {
+        File testProjectDir = new File(checkoutDir, projectFolder);
+        FileUtils.copyDirectory(new File(Objects.requireNonNull(getClass().getClassLoader().getResource(projectFolder)).toURI()), testProjectDir);
+        FileUtils.writeStringToFile(
+                new File(testProjectDir, "settings.gradle"),
+                "\nbuildCache { local(DirectoryBuildCache) { directory = new File('" + buildCacheDir.getAbsolutePath().replace('\\', '/') + "') } }\n",
+                defaultCharset(),
+                true);
+        return testProjectDir;
+    }
+
+    private BuildResult runBuildBundleWithBuildCache(File testProjectDir) {
+        BuildResult result = GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("build-bundle", "--build-cache", "--stacktrace", "-PjarDir=" + System.getProperty("user.dir") + "/build/test-mvn-repo")
+                .withPluginClasspath()
+                .withDebug(true)
+                .build();
+        LOGGER.log(Level.INFO, result.getOutput());
+        return result;
     }
 
     @Test
@@ -123,7 +171,7 @@ class CAGatewayDeveloperTest {
                 .build();
 
         assertMultiProject(testProjectDir, result);
-        File projectC_EnvBundle = new File(new File(new File(new File(new File(testProjectDir, "project-c"), "build"), "gateway"), "bundle"), "project-c" + projectVersion + "-environment.bundle");
+        File projectC_EnvBundle = new File(new File(new File(new File(new File(testProjectDir, "project-c"), "build"), "gateway"), "environment-bundle"), "project-c" + projectVersion + "-environment.bundle");
         assertTrue(projectC_EnvBundle.exists());
         assertFalse(readFileToString(projectC_EnvBundle, defaultCharset()).isEmpty());
     }
@@ -222,6 +270,59 @@ class CAGatewayDeveloperTest {
         tarArchiveInputStream.close();
     }
 
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void testExampleProjectGeneratingBundlesFromBuildCache(TemporaryFolder temporaryFolder) throws IOException, URISyntaxException {
+        String projectFolder = "example-project-generating-environment";
+        File testProjectDir = copyProjectWithBuildCache(projectFolder, temporaryFolder.getRoot(), new File(temporaryFolder.getRoot(), "build-cache"));
+
+        BuildResult result = runBuildBundlesWithBuildCache(testProjectDir);
+        assertEquals(TaskOutcome.SUCCESS, Objects.requireNonNull(result.task(":build-bundle")).getOutcome());
+        assertEquals(TaskOutcome.SUCCESS, Objects.requireNonNull(result.task(":build-environment-bundle")).getOutcome());
+        assertEquals(TaskOutcome.SUCCESS, Objects.requireNonNull(result.task(":build-full-bundle")).getOutcome());
+
+        // the bundle tasks have outputs of their own, so nothing keeps them from being loaded from the cache after a clean
+        result = runBuildBundlesWithBuildCache(testProjectDir);
+        assertEquals(TaskOutcome.FROM_CACHE, Objects.requireNonNull(result.task(":build-bundle")).getOutcome());
+        assertEquals(TaskOutcome.FROM_CACHE, Objects.requireNonNull(result.task(":build-environment-bundle")).getOutcome());
+        assertEquals(TaskOutcome.FROM_CACHE, Objects.requireNonNull(result.task(":build-full-bundle")).getOutcome());
+
+        File buildGatewayDir = validateBuildDirExceptGW7File(projectFolder, new File(testProjectDir, "build"));
+        assertTrue(new File(new File(buildGatewayDir, "environment-bundle"), projectFolder + projectVersion + "-environment.bundle").isFile());
+        assertTrue(new File(new File(buildGatewayDir, "environment-bundle"), projectFolder + projectVersion + ".bundle").isFile());
+        assertTrue(new File(new File(buildGatewayDir, "full-bundle"), projectFolder + projectVersion + "-full.bundle").isFile());
+    }
+
+    private BuildResult runBuildBundlesWithBuildCache(File testProjectDir) {
+        BuildResult result = GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments(
+                        "clean",
+                        "build-environment-bundle",
+                        "build-full-bundle",
+                        "--build-cache",
+                        "--stacktrace",
+                        "-PjarDir=" + System.getProperty("user.dir") + "/build/test-mvn-repo",
+                        "-DpasswordGateway=7layer",
+                        "-DldapConfig={" +
+                                "    \"type\": \"BIND_ONLY_LDAP\"," +
+                                "    \"identityProviderDetail\": {" +
+                                "      \"serverUrls\": [" +
+                                "        \"ldaps://1.2.3.4:636\"" +
+                                "      ]," +
+                                "      \"useSslClientAuthentication\": true," +
+                                "      \"bindPatternPrefix\": \"\"," +
+                                "      \"bindPatternSuffix\": \"\"" +
+                                "    }" +
+                                "  }",
+                        "-DjdbcConfigPath=./src/main/gateway/config/jdbc-connections.yml")
+                .withPluginClasspath()
+                .withDebug(true)
+                .build();
+        LOGGER.log(Level.INFO, result.getOutput());
+        return result;
+    }
+
     @Test
     @ExtendWith(TemporaryFolderExtension.class)
     void testExampleProjectGeneratingEnvironment(TemporaryFolder temporaryFolder) throws IOException, URISyntaxException {
@@ -259,10 +360,55 @@ class CAGatewayDeveloperTest {
         File buildDir = new File(testProjectDir, "build");
         File buildGatewayDir = validateBuildDirExceptGW7File(projectFolder, buildDir);
 
-        File builtBundleFile = new File(new File(buildGatewayDir, "bundle"), projectFolder + projectVersion + "-environment.bundle");
+        File builtBundleFile = new File(new File(buildGatewayDir, "environment-bundle"), projectFolder + projectVersion + "-environment.bundle");
         assertTrue(builtBundleFile.isFile());
     }
 
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void testExampleProjectGeneratingEnvironments(TemporaryFolder temporaryFolder) throws IOException, URISyntaxException {
+        String projectFolder = "example-project-generating-environments";
+        File testProjectDir = new File(temporaryFolder.getRoot(), projectFolder);
+        FileUtils.copyDirectory(new File(Objects.requireNonNull(getClass().getClassLoader().getResource(projectFolder)).toURI()), testProjectDir);
+
+        BuildResult result = GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments(
+                        "build-environment-bundle",
+                        "--stacktrace",
+                        "-PjarDir=" + System.getProperty("user.dir") + "/build/test-mvn-repo",
+                        "-DldapConfig={" +
+                                "    \"type\": \"BIND_ONLY_LDAP\"," +
+                                "    \"identityProviderDetail\": {" +
+                                "      \"serverUrls\": [" +
+                                "        \"ldaps://1.2.3.4:636\"" +
+                                "      ]," +
+                                "      \"useSslClientAuthentication\": true," +
+                                "      \"bindPatternPrefix\": \"\"," +
+                                "      \"bindPatternSuffix\": \"\"" +
+                                "    }" +
+                                "  }",
+                        "-DjdbcConfigPath=./src/main/gateway/config/jdbc-connections.yml")
+                .withPluginClasspath()
+                .withDebug(true)
+                .build();
+
+        LOGGER.log(Level.INFO, result.getOutput());
+        assertEquals(TaskOutcome.SUCCESS, Objects.requireNonNull(result.task(":build-environment-bundle")).getOutcome());
+        assertTrue(result.getOutput().contains("Built environment 'dev' in "));
+        assertTrue(result.getOutput().contains("Built environment 'prod' in "));
+
+        File buildDir = new File(testProjectDir, "build");
+        File buildGatewayDir = validateBuildDirExceptGW7File(projectFolder, buildDir);
+
+        for (String environment : new String[]{"dev", "prod"}) {
+            File environmentDir = new File(new File(buildGatewayDir, "environment-bundle"), environment);
+            File builtBundleFile = new File(environmentDir, projectFolder + projectVersion + "-" + environment + "-environment.bundle");
+            assertTrue(builtBundleFile.isFile(), environment);
+            assertTrue(new File(environmentDir, projectFolder + projectVersion + ".bundle").isFile(), environment);
+        }
+    }
+
     @Test
     @ExtendWith(TemporaryFolderExtension.class)
     void testExampleProjectGeneratingEnvironmentWithMissingValues(TemporaryFolder temporaryFolder) throws IOException, URISyntaxException {
@@ -351,6 +497,8 @@ class CAGatewayDeveloperTest {
         assertTrue(buildGatewayBundlesDir.isDirectory());
         File builtBundleFile = new File(buildGatewayBundlesDir, projectName + projectVersion + ".bundle");
         assertTrue(builtBundleFile.isFile());
+        File builtBundleIndexFile = new File(buildGatewayBundlesDir, projectName + projectVersion + ".bundle.index");
+        assertTrue(builtBundleIndexFile.isFile());
         return buildGatewayDir;
     }
 
@@ -400,7 +548,7 @@ class CAGatewayDeveloperTest {
         bundleItemsIds.addAll(getChildElements(getSingleChildElement(dependencyBundle, REFERENCES), ITEM).stream().map(EnvironmentBundleUtils::buildBundleItemKey).collect(toSet()));
         bundleMappingsIds.addAll(getChildElements(getSingleChildElement(dependencyBundle, MAPPINGS), MAPPING).stream().map(EnvironmentBundleUtils::buildBundleMappingKey).collect(toSet()));
 
-        File builtFullBundleFile = new File(new File(buildGatewayDir, "bundle"), projectFolder + projectVersion + "-full.bundle");
+        File builtFullBundleFile = new File(new File(buildGatewayDir, "full-bundle"), projectFolder + projectVersion + "-full.bundle");
         assertTrue(builtFullBundleFile.isFile());
 
         final Element fullBundleElement = DocumentTools.INSTANCE.parse(builtFullBundleFile).getDocumentElement();
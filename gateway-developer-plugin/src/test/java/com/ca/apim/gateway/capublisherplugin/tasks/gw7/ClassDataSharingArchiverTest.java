@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.capublisherplugin.tasks.gw7;
+
+import com.ca.apim.gateway.cagatewayconfig.tasks.gw7.ClassDataSharingArchiver;
+import com.ca.apim.gateway.cagatewayconfig.tasks.gw7.ClassDataSharingArchiver.ClassDataSharingArchive;
+import com.ca.apim.gateway.cagatewayconfig.tasks.gw7.PackageBuildException;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.ca.apim.gateway.cagatewayconfig.tasks.gw7.ClassDataSharingArchiver.ARCHIVE_FILE_NAME;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.COPY_ATTRIBUTES;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.stream.Collectors.toList;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class ClassDataSharingArchiverTest {
+
+    // the jars of the environment creator application, set by the build
+    private static final String ENVIRONMENT_CREATOR_APPLICATION_CLASSPATH = "environmentCreatorApplicationClasspath";
+    private static final String ENVIRONMENT_CREATOR_APPLICATION = "com.ca.apim.gateway.cagatewayconfig.EnvironmentCreatorApplication";
+    private static final Pattern SCRIPT_OPTIONS = Pattern.compile("CDS_OPTS=\"(-[^\"]+)\"");
+    private static final int STARTUP_RUNS = 5;
+
+    private final ClassDataSharingArchiver archiver = new ClassDataSharingArchiver();
+
+    @Test
+    void createArchive(TemporaryFolder temporaryFolder) throws Exception {
+        final File javaHome = new File(System.getProperty("java.home"));
+        assumeTrue(ClassDataSharingArchiver.getJavaVersion(javaHome) >= ClassDataSharingArchiver.MINIMUM_JAVA_VERSION, "Application class data sharing needs Java 11 or later");
+
+        final List<File> jars = Arrays.asList(
+                trainingApplicationJar(temporaryFolder.createDirectory("application")),
+                codeSource(ObjectMapper.class),
+                codeSource(JsonFactory.class),
+                codeSource(JsonProperty.class));
+        final File workingDirectory = temporaryFolder.createDirectory("cds");
+        final ClassDataSharingArchive archive = archiver.createArchive(javaHome, jars, workingDirectory, TrainingApplication.class.getName(), emptyList(), emptyMap());
+
+        assertTrue(archive.getArchive().isFile());
+        assertEquals(jars.stream().map(File::getName).sorted().collect(toList()), archive.getClasspath());
+
+        // the application classes are loaded from the archive
+        final String output = runInstalled(javaHome, archive, workingDirectory, temporaryFolder.createDirectory("installed"), TrainingApplication.class.getName(), emptyList());
+        assertTrue(output.contains(ObjectMapper.class.getName() + " source: shared objects file"), output);
+    }
+
+    @Test
+    void createEnvironmentCreatorArchive(TemporaryFolder temporaryFolder, TestReporter testReporter) throws Exception {
+        final File javaHome = new File(System.getProperty("java.home"));
+        assumeTrue(ClassDataSharingArchiver.getJavaVersion(javaHome) >= ClassDataSharingArchiver.MINIMUM_JAVA_VERSION, "Application class data sharing needs Java 11 or later");
+        final String classpath = System.getProperty(ENVIRONMENT_CREATOR_APPLICATION_CLASSPATH);
+        assumeTrue(classpath != null, "The environment creator application jars are given by the build");
+
+        final List<File> jars = Arrays.stream(classpath.split(File.pathSeparator)).map(File::new).collect(toList());
+        final File workingDirectory = temporaryFolder.createDirectory("cds");
+        final ClassDataSharingArchive archive = archiver.createEnvironmentCreatorArchive(javaHome, jars, workingDirectory);
+
+        assertTrue(archive.getArchive().isFile());
+        assertEquals(jars.stream().map(File::getName).sorted().collect(toList()), archive.getClasspath());
+
+        // the application started the way apply-environment.sh starts it loads its classes from the archive
+        final File environment = temporaryFolder.createDirectory("environment");
+        final File templatizedBundles = new File(environment, "templatized");
+        final File bootstrapBundles = new File(environment, "bootstrap");
+        assertTrue(templatizedBundles.mkdir());
+        assertTrue(bootstrapBundles.mkdir());
+        final List<String> arguments = Arrays.asList(
+                templatizedBundles.getAbsolutePath(),
+                bootstrapBundles.getAbsolutePath(),
+                new File(environment, "keystore").getAbsolutePath(),
+                new File(environment, "privateKeys").getAbsolutePath(),
+                new File(environment, "env").getAbsolutePath());
+        final File installed = temporaryFolder.createDirectory("installed");
+        final String output = runInstalled(javaHome, archive, workingDirectory, installed, ENVIRONMENT_CREATOR_APPLICATION, arguments);
+        assertTrue(output.contains(ENVIRONMENT_CREATOR_APPLICATION + " source: shared objects file"), output);
+        assertTrue(new File(bootstrapBundles, "_0_env.req.bundle").isFile());
+
+        // the startup time saved depends on the machine, so it is reported and not asserted
+        final long millisWithArchive = bestRunMillis(javaHome, scriptOptions(archive.getArchive()), archive, installed, arguments);
+        final long millisWithoutArchive = bestRunMillis(javaHome, emptyList(), archive, installed, arguments);
+        testReporter.publishEntry("environmentCreatorMillisWithArchive", String.valueOf(millisWithArchive));
+        testReporter.publishEntry("environmentCreatorMillisWithoutArchive", String.valueOf(millisWithoutArchive));
+        testReporter.publishEntry("environmentCreatorMillisSaved", String.valueOf(millisWithoutArchive - millisWithArchive));
+    }
+
+    @Test
+    void applyEnvironmentScriptUsesArchive() throws IOException {
+        final List<String> options = scriptOptions(new File(ARCHIVE_FILE_NAME));
+
+        assertTrue(options.contains("-XX:SharedArchiveFile=" + new File(ARCHIVE_FILE_NAME).getAbsolutePath()), options.toString());
+        assertTrue(options.contains("-Xshare:auto"), options.toString());
+    }
+
+    @Test
+    void createArchiveRequiresJava11(TemporaryFolder temporaryFolder) throws IOException {
+        final File javaHome = temporaryFolder.createDirectory("java");
+        writeStringToFile(new File(javaHome, "release"), "JAVA_VERSION=\"1.8.0_202\"\n", UTF_8);
+
+        assertThrows(PackageBuildException.class, () -> archiver.createArchive(javaHome, emptyList(), temporaryFolder.getRoot(), TrainingApplication.class.getName(), emptyList(), emptyMap()));
+    }
+
+    @Test
+    void getJavaVersion(TemporaryFolder temporaryFolder) throws IOException {
+        final File jdk = temporaryFolder.createDirectory("jdk");
+        final File jre = new File(jdk, "jre");
+        assertTrue(jre.mkdir());
+
+        writeStringToFile(new File(jdk, "release"), "JAVA_VERSION=\"1.8.0_202\"\n", UTF_8);
+        assertEquals(8, ClassDataSharingArchiver.getJavaVersion(jre));
+        writeStringToFile(new File(jdk, "release"), "IMPLEMENTOR=\"Eclipse Adoptium\"\nJAVA_VERSION=\"11.0.21\"\n", UTF_8);
+        assertEquals(11, ClassDataSharingArchiver.getJavaVersion(jdk));
+        writeStringToFile(new File(jdk, "release"), "JAVA_VERSION=\"17\"\n", UTF_8);
+        assertEquals(17, ClassDataSharingArchiver.getJavaVersion(jdk));
+        writeStringToFile(new File(jdk, "release"), "JAVA_VERSION=\"unknown\"\n", UTF_8);
+        assertThrows(PackageBuildException.class, () -> ClassDataSharingArchiver.getJavaVersion(jdk));
+        assertThrows(PackageBuildException.class, () -> ClassDataSharingArchiver.getJavaVersion(temporaryFolder.createDirectory("empty")));
+    }
+
+    /**
+     * Runs the main class with the class data sharing options of apply-environment.sh, after moving the jars as they are
+     * when the package is installed.
+     */
+    private static String runInstalled(File javaHome, ClassDataSharingArchive archive, File workingDirectory, File installed, String mainClass, List<String> arguments) throws IOException, InterruptedException {
+        for (File jar : new File(workingDirectory, "apply-environment").listFiles()) {
+            Files.copy(jar.toPath(), new File(installed, jar.getName()).toPath(), COPY_ATTRIBUTES);
+        }
+        final List<String> command = new ArrayList<>();
+        command.add(new File(new File(javaHome, "bin"), "java").getPath());
+        command.add("-Xlog:class+load=info");
+        command.addAll(scriptOptions(archive.getArchive()));
+        command.addAll(Arrays.asList("-cp", archive.getClasspathOption(), mainClass));
+        command.addAll(arguments);
+        return run(command, installed);
+    }
+
+    /**
+     * @return the shortest time, out of {@value #STARTUP_RUNS} runs, the installed environment creator application took with
+     * the options
+     */
+    private static long bestRunMillis(File javaHome, List<String> options, ClassDataSharingArchive archive, File installed, List<String> arguments) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add(new File(new File(javaHome, "bin"), "java").getPath());
+        command.addAll(options);
+        command.addAll(Arrays.asList("-cp", archive.getClasspathOption(), ENVIRONMENT_CREATOR_APPLICATION));
+        command.addAll(arguments);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < STARTUP_RUNS; i++) {
+            final long start = System.nanoTime();
+            run(command, installed);
+            best = Math.min(best, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return best;
+    }
+
+    /**
+     * @return the class data sharing options apply-environment.sh starts the application with, using the archive file
+     */
+    private static List<String> scriptOptions(File archive) throws IOException {
+        final String script;
+        try (InputStream stream = ClassDataSharingArchiverTest.class.getResourceAsStream("/scripts/apply-environment.sh")) {
+            script = IOUtils.toString(stream, UTF_8);
+        }
+        final Matcher matcher = SCRIPT_OPTIONS.matcher(script);
+        assertTrue(matcher.find(), "apply-environment.sh has no class data sharing options");
+        return Arrays.stream(matcher.group(1).split(" "))
+                .map(option -> option.replace("/opt/docker/rc.d/" + ARCHIVE_FILE_NAME, archive.getAbsolutePath()))
+                .collect(toList());
+    }
+
+    private static String run(List<String> command, File directory) throws IOException, InterruptedException {
+        final Process process = new ProcessBuilder(command).directory(directory).redirectErrorStream(true).start();
+        final String output;
+        try (InputStream stream = process.getInputStream()) {
+            output = IOUtils.toString(stream, UTF_8);
+        }
+        assertTrue(process.waitFor(1, TimeUnit.MINUTES));
+        assertEquals(0, process.exitValue(), output);
+        return output;
+    }
+
+    private static File codeSource(Class<?> type) throws URISyntaxException {
+        return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    private static File trainingApplicationJar(File directory) throws IOException {
+        final File jar = new File(directory, "training-application.jar");
+        final String entry = TrainingApplication.class.getName().replace('.', '/') + ".class";
+        try (OutputStream stream = Files.newOutputStream(jar.toPath());
+             JarOutputStream jarStream = new JarOutputStream(stream);
+             InputStream classStream = TrainingApplication.class.getResourceAsStream("/" + entry)) {
+            jarStream.putNextEntry(new JarEntry(entry));
+            IOUtils.copy(classStream, jarStream);
+            jarStream.closeEntry();
+        }
+        return jar;
+    }
+
+    /**
+     * Starts like the environment creator application does, reading configuration values with Jackson.
+     */
+    public static class TrainingApplication {
+        public static void main(String[] args) throws IOException {
+            final Map<?, ?> values = new ObjectMapper().readValue("{\"port\": 8443, \"protocol\": \"HTTPS\", \"features\": [\"one\", \"two\"]}", Map.class);
+            if (values.size() != 3) {
+                throw new IllegalStateException("Unexpected values " + values);
+            }
+        }
+    }
+}
@@ -43,4 +43,23 @@ class GW7BuilderTest {
         Assertions.assertArrayEquals(new byte[]{1, 2, 3}, IOUtils.toByteArray(tarArchiveInputStream));
         Assertions.assertNull(tarArchiveInputStream.getNextTarEntry());
     }
-}
\ No newline at end of file
+
+    @Test
+    void buildPackageKeepsModificationTime() throws IOException {
+        PipedInputStream in = new PipedInputStream();
+        PipedOutputStream out = new PipedOutputStream(in);
+
+        GW7Builder builder = new GW7Builder();
+        builder.buildPackage(
+                out,
+                Stream.of(
+                        new GW7Builder.PackageFile("/my/file/path", 3L, 1545000000000L, () -> new ByteArrayInputStream(new byte[]{1, 2, 3}), false)
+                ).collect(Collectors.toSet())
+        );
+
+        TarArchiveInputStream tarArchiveInputStream = new TarArchiveInputStream(new GZIPInputStream(in));
+        TarArchiveEntry entry = tarArchiveInputStream.getNextTarEntry();
+        Assertions.assertEquals("my/file/path", entry.getName());
+        Assertions.assertEquals(1545000000000L, entry.getModTime().getTime());
+    }
+}
@@ -57,6 +57,7 @@ public class CAGatewayExport implements Plugin<Project> {
             t.getInputBundleFile().set(pluginConfig.getSanitizedBundle());
             t.getExportDir().set(pluginConfig.getSolutionDir());
             t.getExportEntities().set(pluginConfig.getExportEntities());
+            t.getStreaming().set(pluginConfig.getStreamingExplode());
         });
         explodeBundleTask.dependsOn(sanitizeTask);
 
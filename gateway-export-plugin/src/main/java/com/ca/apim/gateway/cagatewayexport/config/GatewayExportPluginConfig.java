@@ -21,6 +21,7 @@ public class GatewayExportPluginConfig {
     private final RegularFileProperty sanitizedBundle;
     private final Property<Map> exportEntities;
     private final Property<String> folderPath;
+    private final Property<Boolean> streamingExplode;
 
     public GatewayExportPluginConfig(Project project) {
         solutionDir = project.getLayout().directoryProperty();
@@ -28,6 +29,7 @@ public class GatewayExportPluginConfig {
         sanitizedBundle = project.getLayout().fileProperty();
         exportEntities = project.getObjects().property(Map.class);
         folderPath = project.getObjects().property(String.class);
+        streamingExplode = project.getObjects().property(Boolean.class);
     }
 
     public DirectoryProperty getSolutionDir() {
@@ -56,4 +58,15 @@ public class GatewayExportPluginConfig {
     public Property<String> getFolderPath() {
         return folderPath;
     }
+
+    /**
+     * Whether the exported bundle should be exploded item by item instead of being loaded in memory all at once.
+     *
+     * @return true to stream the bundle when exploding it
+     */
+    @Input
+    @Optional
+    public Property<Boolean> getStreamingExplode() {
+        return streamingExplode;
+    }
 }
@@ -9,6 +9,9 @@ package com.ca.apim.gateway.cagatewayexport.tasks.explode;
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadException;
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport;
+import com.ca.apim.gateway.cagatewayconfig.util.report.RetainedSizeEstimator;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
 import com.ca.apim.gateway.cagatewayexport.tasks.explode.bundle.BundleBuilder;
@@ -24,8 +27,18 @@ import javax.inject.Inject;
 import java.io.File;
 import java.util.Collection;
 
+import static com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents.Type.LINK;
+import static com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents.Type.PARSE;
+import static com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents.Type.WRITE;
+import static com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport.SEPARATOR;
+
 public class ExplodeBundle {
 
+    static final String PARSE_PHASE = "parse";
+    static final String FILTER_PHASE = "filter";
+    static final String LINK_PHASE = "link";
+    static final String WRITE_PHASE = "write";
+
     private final DocumentTools documentTools;
     private final EntityWriterRegistry entityWriterRegistry;
     private final EntityLinkerRegistry entityLinkerRegistry;
@@ -47,13 +60,28 @@ public class ExplodeBundle {
         return bundle.getFolders().values().stream().anyMatch( folder -> ("/" + folder.getPath()).equals(folderPath));
     }
 
-    void explodeBundle(String folderPath, FilterConfiguration filterConfiguration, File bundleFile, File explodeDirectory) throws DocumentParseException {
-        final Document bundleDocument = documentTools.parse(bundleFile);
-        documentTools.cleanup(bundleDocument);
+    void explodeBundle(String folderPath, FilterConfiguration filterConfiguration, File bundleFile, File explodeDirectory, boolean streaming) throws DocumentParseException {
+        explodeBundle(folderPath, filterConfiguration, bundleFile, explodeDirectory, streaming, new PhaseReport(bundleFile.getName()));
+    }
 
+    /**
+     * Explodes the bundle like {@link #explodeBundle(String, FilterConfiguration, File, File, boolean)}, recording the
+     * parsing, filtering, each linker and each writer in the report. When the report profiles memory, the entities of the
+     * parsed and filtered bundles are estimated after their phase.
+     */
+    void explodeBundle(String folderPath, FilterConfiguration filterConfiguration, File bundleFile, File explodeDirectory, boolean streaming, PhaseReport report) throws DocumentParseException {
         //loads the bundle
-        final BundleBuilder bundleBuilder = InjectionRegistry.getInstance(BundleBuilder.class);
-        Bundle bundle = bundleBuilder.buildBundle(bundleDocument.getDocumentElement());
+        final String bundleName = bundleFile.getName();
+        final Bundle bundle;
+        try {
+            bundle = report.record(PARSE_PHASE,
+                    () -> FlightRecorderEvents.record(PARSE, bundleName, null, null, () -> loadBundle(bundleFile, streaming), Bundle::getEntityCount),
+                    Bundle::getEntityCount,
+                    b -> bundleFile.length());
+        } catch (BundleParseFailure e) {
+            throw e.getCause();
+        }
+        report.estimateRetainedBytes(PARSE_PHASE, () -> RetainedSizeEstimator.estimate(bundle));
 
         //checks if bundle has specified folderpath
         if (!bundleContainsFolderPath(bundle, folderPath)) {
@@ -62,14 +90,52 @@ public class ExplodeBundle {
 
         //filter out unwanted entities
         BundleFilter bundleFilter = InjectionRegistry.getInstance(BundleFilter.class);
-        Bundle filteredBundle = bundleFilter.filter(folderPath, filterConfiguration, bundle);
+        Bundle filteredBundle = report.record(FILTER_PHASE, () -> bundleFilter.filter(folderPath, filterConfiguration, bundle), Bundle::getEntityCount);
+        report.estimateRetainedBytes(FILTER_PHASE, () -> RetainedSizeEstimator.estimate(filteredBundle));
         //Link, simplify and process entities
         final Collection<EntitiesLinker> entityLinkers = entityLinkerRegistry.getEntityLinkers();
-        entityLinkers.parallelStream().forEach(e -> e.link(filteredBundle, bundle, explodeDirectory));
+        report.record(LINK_PHASE, () -> entityLinkers.parallelStream().forEach(e -> report.record(LINK_PHASE + SEPARATOR + e.getClass().getSimpleName(),
+                () -> FlightRecorderEvents.record(LINK, bundleName, null, e.getClass().getSimpleName(),
+                        () -> e.link(filteredBundle, bundle, explodeDirectory),
+                        null))));
 
         //write the bundle in the exploded format
         final Collection<EntityWriter> entityBuilders = entityWriterRegistry.getEntityWriters();
-        entityBuilders.parallelStream().forEach(e -> e.write(filteredBundle, explodeDirectory));
+        report.record(WRITE_PHASE, () -> entityBuilders.parallelStream().forEach(e -> report.record(WRITE_PHASE + SEPARATOR + e.getName(),
+                () -> FlightRecorderEvents.record(WRITE, bundleName, null, e.getName(),
+                        () -> e.write(filteredBundle, explodeDirectory),
+                        null))));
+    }
+
+    private Bundle loadBundle(File bundleFile, boolean streaming) {
+        final BundleBuilder bundleBuilder = InjectionRegistry.getInstance(BundleBuilder.class);
+        try {
+            if (streaming) {
+                // reads item by item so the whole bundle document is never held in memory
+                return bundleBuilder.buildBundle(bundleFile);
+            }
+            final Document bundleDocument = documentTools.parse(bundleFile);
+            documentTools.cleanup(bundleDocument);
+            return bundleBuilder.buildBundle(bundleDocument.getDocumentElement());
+        } catch (DocumentParseException e) {
+            throw new BundleParseFailure(e);
+        }
+    }
+
+    /**
+     * Carries the parse exception out of the recorded parse phase, which only lets unchecked exceptions through.
+     */
+    private static class BundleParseFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        BundleParseFailure(DocumentParseException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized DocumentParseException getCause() {
+            return (DocumentParseException) super.getCause();
+        }
     }
 
 }
@@ -8,6 +8,8 @@ package com.ca.apim.gateway.cagatewayexport.tasks.explode;
 
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
 import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReport;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReportWriter;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
 import com.ca.apim.gateway.cagatewayexport.tasks.explode.filter.FilterConfiguration;
 import org.gradle.api.DefaultTask;
@@ -18,6 +20,7 @@ import org.gradle.api.tasks.*;
 import org.gradle.api.tasks.options.Option;
 
 import javax.inject.Inject;
+import java.io.File;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
@@ -28,6 +31,8 @@ public class ExplodeBundleTask extends DefaultTask {
     private RegularFileProperty inputBundleFile;
     private DirectoryProperty exportDir;
     private final Property<Map> exportEntities;
+    private final Property<Boolean> streaming;
+    private final Property<Boolean> profileMemory;
 
     @Inject
     public ExplodeBundleTask() {
@@ -35,6 +40,8 @@ public class ExplodeBundleTask extends DefaultTask {
         inputBundleFile = newInputFile();
         exportDir = newOutputDirectory();
         exportEntities = getProject().getObjects().property(Map.class);
+        streaming = getProject().getObjects().property(Boolean.class);
+        profileMemory = getProject().getObjects().property(Boolean.class);
         JsonTools.INSTANCE.setOutputType(JsonTools.YAML);
         getOutputs().upToDateWhen(t -> false);
     }
@@ -71,11 +78,60 @@ public class ExplodeBundleTask extends DefaultTask {
         return exportEntities;
     }
 
+    /**
+     * If true the bundle is read item by item instead of being loaded in memory all at once. Use it to explode very large bundles.
+     *
+     * @return whether the bundle should be streamed
+     */
+    @Input
+    @Optional
+    public Property<Boolean> getStreaming() {
+        return streaming;
+    }
+
+    @Option(option = "streaming", description = "Reads the bundle item by item instead of loading it all in memory. Use it to explode very large bundles.")
+    public void setStreaming(boolean streaming) {
+        this.streaming.set(streaming);
+    }
+
+    /**
+     * If true the time taken, bytes allocated and heap high-water mark of each phase of the explode, and estimates of the
+     * memory retained by the parsed and filtered bundles, are written as JSON and as a summary table to the
+     * build/reports/explode folder.
+     *
+     * @return whether to profile the memory used by the explode
+     */
+    @Internal
+    public Property<Boolean> getProfileMemory() {
+        return profileMemory;
+    }
+
+    @Option(option = "profileMemory", description = "Reports the memory allocated, the heap high-water mark and estimates of the memory retained by each phase of the explode.")
+    public void setProfileMemory(boolean profileMemory) {
+        this.profileMemory.set(profileMemory);
+    }
+
+    /**
+     * @return the folder the report of the memory used by each phase of the explode is written to
+     */
+    @Internal
+    public File getReportDirectory() {
+        return new File(getProject().getBuildDir(), "reports/" + getName());
+    }
+
     @TaskAction
     public void perform() throws DocumentParseException {
         ExplodeBundle explodeBundle = InjectionRegistry.getInstance(ExplodeBundle.class);
         checkExportEntities();
-        explodeBundle.explodeBundle(folderPath.getOrElse("/"), toFilterConfiguration(exportEntities.getOrElse(Collections.emptyMap())), inputBundleFile.getAsFile().get(), exportDir.getAsFile().get());
+        File bundleFile = inputBundleFile.getAsFile().get();
+        PhaseReport report = new PhaseReport(bundleFile.getName(), profileMemory.getOrElse(false));
+        explodeBundle.explodeBundle(folderPath.getOrElse("/"), toFilterConfiguration(exportEntities.getOrElse(Collections.emptyMap())), bundleFile, exportDir.getAsFile().get(), streaming.getOrElse(false), report);
+
+        if (report.isProfilingMemory()) {
+            PhaseReportWriter reportWriter = InjectionRegistry.getInstance(PhaseReportWriter.class);
+            reportWriter.write(report, getReportDirectory());
+            getLogger().lifecycle(reportWriter.summarize(report));
+        }
     }
 
     /**
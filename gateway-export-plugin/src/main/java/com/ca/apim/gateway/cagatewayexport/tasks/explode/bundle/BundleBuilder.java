@@ -10,10 +10,13 @@ import com.ca.apim.gateway.cagatewayconfig.beans.*;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleEntityLoader;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleEntityLoaderRegistry;
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.BundleStreamReader;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -29,10 +32,12 @@ public class BundleBuilder {
     private static final Logger LOGGER = Logger.getLogger(BundleBuilder.class.getName());
     private final BundleEntityLoaderRegistry entityLoaderRegistry;
     private final EntityTypeRegistry entityTypeRegistry;
+    private final BundleStreamReader bundleStreamReader;
 
     public BundleBuilder() {
         this.entityLoaderRegistry = InjectionRegistry.getInstance(BundleEntityLoaderRegistry.class);
         this.entityTypeRegistry = InjectionRegistry.getInstance(EntityTypeRegistry.class);
+        this.bundleStreamReader = InjectionRegistry.getInstance(BundleStreamReader.class);
     }
 
     public Bundle buildBundle(final Element bundleElement) {
@@ -53,22 +58,47 @@ public class BundleBuilder {
         return bundle;
     }
 
+    /**
+     * Builds the bundle reading the bundle file item by item, without loading the whole document in memory.
+     * Each item and each dependency graph entry is materialized into its own small document and discarded once loaded.
+     *
+     * @param bundleFile the bundle file
+     * @return the loaded bundle
+     * @throws DocumentParseException if the bundle file cannot be read
+     */
+    public Bundle buildBundle(final File bundleFile) throws DocumentParseException {
+        Bundle bundle = new Bundle();
+        Map<Dependency, List<Dependency>> dependencyMap = new HashMap<>();
+
+        bundleStreamReader.readBundle(bundleFile, true, item -> handleItem(item, bundle), dependencyElement -> addDependency(dependencyElement, dependencyMap));
+
+        FolderTree folderTree = new FolderTree(bundle.getFolders().values());
+        bundle.setFolderTree(folderTree);
+        bundle.setDependencyMap(dependencyMap);
+
+        return bundle;
+    }
+
     private Map<Dependency, List<Dependency>> buildDependencies(Element dependenciesElement) {
         Map<Dependency, List<Dependency>> dependencyMap = new HashMap<>();
         NodeList bundleDependencies = dependenciesElement.getChildNodes();
         for (int i = 0; i < bundleDependencies.getLength(); i++) {
             Node dependencyNode = bundleDependencies.item(i);
             if (dependencyNode.getNodeType() == ELEMENT_NODE) {
-                Dependency dependency = buildDependency((Element) dependencyNode);
-                if (dependency != null) {
-                    List<Dependency> dependencyList = getDependenciesFromNode((Element) dependencyNode);
-                    dependencyMap.put(dependency, dependencyList);
-                }
+                addDependency((Element) dependencyNode, dependencyMap);
             }
         }
         return dependencyMap;
     }
 
+    private void addDependency(Element dependencyElement, Map<Dependency, List<Dependency>> dependencyMap) {
+        Dependency dependency = buildDependency(dependencyElement);
+        if (dependency != null) {
+            List<Dependency> dependencyList = getDependenciesFromNode(dependencyElement);
+            dependencyMap.put(dependency, dependencyList);
+        }
+    }
+
     private List<Dependency> getDependenciesFromNode(Element dependencyNode) {
         List<Dependency> dependencyList = new ArrayList<>();
         final NodeList dependencyDependenciesNodeList = dependencyNode.getElementsByTagName(DEPENDENCIES);
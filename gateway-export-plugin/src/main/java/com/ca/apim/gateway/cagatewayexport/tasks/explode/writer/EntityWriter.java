@@ -15,4 +15,11 @@ public interface EntityWriter {
 
     void write(Bundle bundle, File rootFolder);
 
+    /**
+     * @return the name of the writer, used to report the time it takes
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+
 }
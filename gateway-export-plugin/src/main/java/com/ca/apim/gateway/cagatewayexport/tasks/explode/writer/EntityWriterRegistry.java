@@ -6,6 +6,7 @@
 
 package com.ca.apim.gateway.cagatewayexport.tasks.explode.writer;
 
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.beans.EntityTypeRegistry;
 import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
@@ -13,11 +14,11 @@ import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.io.File;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
-import static com.ca.apim.gateway.cagatewayexport.tasks.explode.writer.WriterHelper.write;
 import static java.util.Collections.unmodifiableCollection;
 
 @Singleton
@@ -34,7 +35,17 @@ public class EntityWriterRegistry {
         EntityTypeRegistry entityTypeRegistry = InjectionRegistry.getInstance(EntityTypeRegistry.class);
         entityTypeRegistry.getEntityTypeMap().values().forEach(info -> {
             if (info.getFileName() != null && info.getFileType() != null) {
-                allWriters.add((bundle, rootFolder) -> write(bundle, rootFolder, info, documentFileUtils, jsonTools));
+                allWriters.add(new EntityWriter() {
+                    @Override
+                    public void write(Bundle bundle, File rootFolder) {
+                        WriterHelper.write(bundle, rootFolder, info, documentFileUtils, jsonTools);
+                    }
+
+                    @Override
+                    public String getName() {
+                        return info.getEntityClass().getSimpleName() + "Writer";
+                    }
+                });
             }
         });
 
@@ -10,6 +10,7 @@ import com.ca.apim.gateway.cagatewayconfig.beans.*;
 import com.ca.apim.gateway.cagatewayconfig.config.loader.policy.PolicyConverter;
 import com.ca.apim.gateway.cagatewayconfig.config.loader.policy.PolicyConverterRegistry;
 import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents;
 import org.apache.commons.io.FileUtils;
 import org.w3c.dom.Element;
 
@@ -22,6 +23,8 @@ import java.nio.file.Path;
 import java.util.Map;
 import java.util.stream.Stream;
 
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.POLICY_TYPE;
+import static com.ca.apim.gateway.cagatewayconfig.util.jfr.FlightRecorderEvents.Type.CONVERT_POLICY;
 import static java.util.stream.Collectors.toList;
 
 @Singleton
@@ -67,10 +70,12 @@ public class PolicyWriter implements EntityWriter {
 
         PolicyConverter policyConverter = policyConverterRegistry.getFromPolicyElement(name, policy);
         Path policyPath = folderPath.resolve(name + policyConverter.getPolicyTypeExtension());
-        try (InputStream policyStream = policyConverter.convertFromPolicyElement(policy)) {
-            FileUtils.copyInputStreamToFile(policyStream, policyPath.toFile());
-        } catch (IOException e) {
-            throw new WriteException("Unable to write assertion js policy", e);
-        }
+        FlightRecorderEvents.record(CONVERT_POLICY, bundle.getName(), POLICY_TYPE, policyPath.toString(), () -> {
+            try (InputStream policyStream = policyConverter.convertFromPolicyElement(policy)) {
+                FileUtils.copyInputStreamToFile(policyStream, policyPath.toFile());
+            } catch (IOException e) {
+                throw new WriteException("Unable to write assertion js policy", e);
+            }
+        }, () -> 1);
     }
 }
@@ -6,14 +6,18 @@
 
 package com.ca.apim.gateway.cagatewayexport.tasks.export;
 
+import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayCallReport;
 import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClient;
 import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClientException;
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReportWriter;
 import com.ca.apim.gateway.cagatewayexport.config.GatewayExportConnectionProperties;
+import org.apache.http.client.methods.RequestBuilder;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Nested;
 import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
@@ -29,7 +33,8 @@ import static org.apache.http.client.methods.HttpGet.METHOD_NAME;
 import static org.apache.http.client.methods.RequestBuilder.create;
 
 /**
- * This task will export from a gateway.
+ * This task will export from a gateway. The timings and sizes of the call to the gateway are logged and written to the
+ * build/reports/export-raw folder, to find out why an export is slow.
  */
 public class ExportTask extends DefaultTask {
     private static final Logger LOGGER = Logger.getLogger(ExportTask.class.getName());
@@ -89,21 +94,36 @@ public class ExportTask extends DefaultTask {
         this.gatewayClient = gatewayClient;
     }
 
+    /**
+     * @return the folder the report of the timings and sizes of the export call is written to
+     */
+    @Internal
+    public File getReportDirectory() {
+        return new File(getProject().getBuildDir(), "reports/" + getName());
+    }
+
     @TaskAction
     public void perform() {
         LOGGER.log(Level.INFO, "Exporting with query: {0}", exportQuery.get());
         File destFile = exportFile.getAsFile().get();
+        RequestBuilder requestBuilder = create(METHOD_NAME).setUri(getRestmanBundleEndpoint(gatewayConnectionProperties.getUrl().get()) + exportQuery.get());
+        GatewayCallReport callReport = new GatewayCallReport();
         try {
             copyInputStreamToFile(
                     gatewayClient.makeGatewayAPICall(
-                            create(METHOD_NAME).setUri(getRestmanBundleEndpoint(gatewayConnectionProperties.getUrl().get()) + exportQuery.get()),
+                            requestBuilder,
                             gatewayConnectionProperties.getUserName().get(),
-                            gatewayConnectionProperties.getUserPass().get()
+                            gatewayConnectionProperties.getUserPass().get(),
+                            callReport
                     ),
                     destFile
             );
         } catch (IOException e) {
             throw new GatewayClientException("Could not save response bundle from gateway into file " + destFile.getName(), e);
+        } finally {
+            PhaseReportWriter reportWriter = InjectionRegistry.getInstance(PhaseReportWriter.class);
+            reportWriter.write(callReport, getReportDirectory());
+            getLogger().lifecycle(reportWriter.summarize(callReport));
         }
     }
 
@@ -1,5 +1,10 @@
 package com.ca.apim.gateway.cagatewayexport.tasks.explode;
 
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReportWriter;
+import com.ca.apim.gateway.cagatewayconfig.util.report.RetainedSizeEstimator;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.glytching.junit.extension.folder.TemporaryFolder;
 import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
 import org.apache.commons.io.FileUtils;
@@ -70,6 +75,42 @@ class ExplodeBundleTaskTest {
         validateFilesOutputTypeFromDir(exportDir, YML_EXTENSION);
     }
 
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void performStreamingExport(TemporaryFolder temporaryFolder) throws Exception {
+        File exportDir = setUpExportDir(temporaryFolder, t -> t.getFolderPath().set("/my-bundle"));
+
+        explodeBundleTask.perform();
+        Map<String, String> explodedFiles = readFilesFromDir(exportDir);
+        FileUtils.cleanDirectory(exportDir);
+
+        explodeBundleTask.setStreaming(true);
+        explodeBundleTask.perform();
+
+        assertFalse(explodedFiles.isEmpty());
+        assertEquals(explodedFiles, readFilesFromDir(exportDir));
+    }
+
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void performProfilingMemory(TemporaryFolder temporaryFolder) throws Exception {
+        setUpExportDir(temporaryFolder);
+
+        explodeBundleTask.perform();
+        assertFalse(explodeBundleTask.getReportDirectory().exists());
+
+        explodeBundleTask.setProfileMemory(true);
+        explodeBundleTask.perform();
+
+        JsonNode report = new ObjectMapper().readTree(new File(explodeBundleTask.getReportDirectory(), PhaseReportWriter.REPORT_FILE_NAME));
+        assertTrue(report.get("profilingMemory").asBoolean());
+        JsonNode parse = report.get("phases").get(0);
+        assertEquals(ExplodeBundle.PARSE_PHASE, parse.get("name").asText());
+        assertTrue(parse.get("peakHeapBytes").asLong() > 0);
+        assertTrue(parse.get("retainedBytes").get(RetainedSizeEstimator.POLICY_DOCUMENTS).asLong() > 0);
+        assertTrue(new File(explodeBundleTask.getReportDirectory(), PhaseReportWriter.SUMMARY_FILE_NAME).isFile());
+    }
+
     @Test
     @ExtendWith(TemporaryFolderExtension.class)
     void badExportEntitiesKey(TemporaryFolder temporaryFolder) throws IOException, URISyntaxException {
@@ -103,6 +144,15 @@ class ExplodeBundleTaskTest {
         assertTrue(exception.getMessage().contains(AtomicLong.class.getName()));
     }
 
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void performUnparseableBundle(TemporaryFolder temporaryFolder) throws Exception {
+        setUpExportDir(temporaryFolder);
+        FileUtils.writeStringToFile(explodeBundleTask.getInputBundleFile().getAsFile().get(), "<l7:Bundle", Charset.defaultCharset());
+
+        assertThrows(DocumentParseException.class, () -> explodeBundleTask.perform());
+    }
+
     @NotNull
     private File setUpExportDir(TemporaryFolder temporaryFolder) throws IOException, URISyntaxException {
         return setUpExportDir(temporaryFolder, t -> {
@@ -126,6 +176,14 @@ class ExplodeBundleTaskTest {
         return exportDir;
     }
 
+    private Map<String, String> readFilesFromDir(File dir) throws IOException {
+        Map<String, String> files = new TreeMap<>();
+        for (File file : FileUtils.listFiles(dir, null, true)) {
+            files.put(dir.toPath().relativize(file.toPath()).toString(), FileUtils.readFileToString(file, Charset.defaultCharset()));
+        }
+        return files;
+    }
+
     /**
      * @param exportDir     The exportDir as a file
      * @param fileExtension either .json or .yaml
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayexport.tasks.export;
+
+import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClientException;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReportWriter;
+import com.ca.apim.gateway.testfixtures.restman.Failure;
+import com.ca.apim.gateway.testfixtures.restman.RestmanServer;
+import com.ca.apim.gateway.testfixtures.restman.SyntheticBundles;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static com.ca.apim.gateway.testfixtures.restman.RestmanServer.MAX_CALL_OVERHEAD;
+import static com.ca.apim.gateway.testfixtures.restman.RestmanServer.PASSWORD;
+import static com.ca.apim.gateway.testfixtures.restman.RestmanServer.USER_NAME;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class ExportTaskTest {
+
+    private static final String EXPORT_QUERY = "?folder=0000000000000000ffffffffffffec76&all=true&encryptSecrets=true";
+
+    private RestmanServer server;
+
+    @AfterEach
+    void after() {
+        server.close();
+    }
+
+    @Test
+    void export(TemporaryFolder temporaryFolder) throws IOException {
+        server = RestmanServer.startHttps();
+        byte[] bundle = SyntheticBundles.clusterProperties(100, 100);
+        server.setExportBundle(bundle);
+        File exportFile = new File(temporaryFolder.getRoot(), "export.bundle");
+
+        ExportTask exportTask = createTask(temporaryFolder, exportFile);
+        exportTask.perform();
+
+        assertArrayEquals(bundle, Files.readAllBytes(exportFile.toPath()));
+        assertEquals("/restman/1.0/bundle" + EXPORT_QUERY, server.getRequests().get(1).getUri());
+
+        JsonNode report = new ObjectMapper().readTree(new File(exportTask.getReportDirectory(), PhaseReportWriter.CALL_REPORT_FILE_NAME));
+        assertEquals("GET", report.get("method").asText());
+        assertEquals(200, report.get("status").asInt());
+        assertTrue(report.get("tlsNanos").asLong() > 0);
+        assertTrue(report.get("bytesReceived").asLong() > bundle.length);
+    }
+
+    @Test
+    void exportLargeBundle(TemporaryFolder temporaryFolder) throws IOException {
+        server = RestmanServer.startHttp();
+        server.setChunked(true);
+        byte[] bundle = SyntheticBundles.clusterProperties(5000, 200);
+        server.setExportBundle(bundle);
+        File exportFile = new File(temporaryFolder.getRoot(), "export.bundle");
+        ExportTask exportTask = createTask(temporaryFolder, exportFile);
+
+        exportTask.perform();
+
+        // the bundle is downloaded once and written to the file
+        assertArrayEquals(bundle, Files.readAllBytes(exportFile.toPath()));
+        JsonNode report = new ObjectMapper().readTree(new File(exportTask.getReportDirectory(), PhaseReportWriter.CALL_REPORT_FILE_NAME));
+        assertEquals(2, report.get("requests").asInt());
+        assertTrue(report.get("bytesReceived").asLong() < bundle.length + MAX_CALL_OVERHEAD, report.get("bytesReceived") + " bytes received");
+    }
+
+    @Test
+    void exportRetriedAfterDisconnect(TemporaryFolder temporaryFolder) throws IOException {
+        server = RestmanServer.startHttp();
+        byte[] bundle = SyntheticBundles.clusterProperties(10, 10);
+        server.setExportBundle(bundle);
+        server.fail(Failure.DISCONNECT);
+        File exportFile = new File(temporaryFolder.getRoot(), "export.bundle");
+
+        createTask(temporaryFolder, exportFile).perform();
+
+        assertArrayEquals(bundle, Files.readAllBytes(exportFile.toPath()));
+    }
+
+    @Test
+    void exportServerError(TemporaryFolder temporaryFolder) throws IOException {
+        server = RestmanServer.startHttp();
+        server.fail(Failure.status(500));
+        File exportFile = new File(temporaryFolder.getRoot(), "export.bundle");
+        ExportTask exportTask = createTask(temporaryFolder, exportFile);
+
+        GatewayClientException exception = assertThrows(GatewayClientException.class, exportTask::perform);
+        assertTrue(exception.getMessage().contains("returned status 500"), exception.getMessage());
+        assertFalse(exportFile.exists());
+
+        // the report of a failed call is written as well
+        JsonNode report = new ObjectMapper().readTree(new File(exportTask.getReportDirectory(), PhaseReportWriter.CALL_REPORT_FILE_NAME));
+        assertEquals(500, report.get("status").asInt());
+        assertTrue(report.has("error"));
+    }
+
+    @Test
+    void exportTruncated(TemporaryFolder temporaryFolder) {
+        server = RestmanServer.startHttp();
+        server.setExportBundle(SyntheticBundles.clusterProperties(1000, 100));
+        server.fail(Failure.TRUNCATE);
+        File exportFile = new File(temporaryFolder.getRoot(), "export.bundle");
+        ExportTask exportTask = createTask(temporaryFolder, exportFile);
+
+        assertThrows(GatewayClientException.class, exportTask::perform);
+        assertFalse(exportFile.exists());
+    }
+
+    private ExportTask createTask(TemporaryFolder temporaryFolder, File exportFile) {
+        Project project = ProjectBuilder.builder().withProjectDir(temporaryFolder.getRoot()).build();
+        return project.getTasks().create("export", ExportTask.class, t -> {
+            t.getGatewayConnectionProperties().getUrl().set(server.getUrl());
+            t.getGatewayConnectionProperties().getUserName().set(USER_NAME);
+            t.getGatewayConnectionProperties().getUserPass().set(PASSWORD);
+            t.getExportQuery().set(EXPORT_QUERY);
+            t.getExportFile().set(exportFile);
+        });
+    }
+}
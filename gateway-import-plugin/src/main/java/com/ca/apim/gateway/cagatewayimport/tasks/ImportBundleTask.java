@@ -6,11 +6,16 @@
 
 package com.ca.apim.gateway.cagatewayimport.tasks;
 
+import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayCallReport;
 import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClient;
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReportWriter;
 import com.ca.apim.gateway.cagatewayimport.config.GatewayImportConnectionProperties;
+import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.entity.FileEntity;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Nested;
 import org.gradle.api.tasks.TaskAction;
 
@@ -22,7 +27,8 @@ import static org.apache.http.client.methods.HttpPut.METHOD_NAME;
 import static org.apache.http.client.methods.RequestBuilder.create;
 
 /**
- * Task to import a bundle into an existing running gateway.
+ * Task to import a bundle into an existing running gateway. The timings and sizes of the call to the gateway are logged
+ * and written to the build/reports/import-bundle folder.
  */
 public class ImportBundleTask extends DefaultTask {
 
@@ -57,16 +63,33 @@ public class ImportBundleTask extends DefaultTask {
         return importFile;
     }
 
+    /**
+     * @return the folder the report of the timings and sizes of the import call is written to
+     */
+    @Internal
+    public File getReportDirectory() {
+        return new File(getProject().getBuildDir(), "reports/" + getName());
+    }
+
     @TaskAction
     public void perform() {
         File bundleFile = importFile.getAsFile().get();
-        gatewayClient.makeGatewayAPICall(
-                create(METHOD_NAME)
-                        .setUri(getRestmanBundleEndpoint(gatewayConnectionProperties.getUrl().get()))
-                        .setEntity(new FileEntity(bundleFile))
-                        .setHeader(CONTENT_TYPE, "application/xml"),
-                gatewayConnectionProperties.getUserName().get(),
-                gatewayConnectionProperties.getUserPass().get()
-        );
+        RequestBuilder requestBuilder = create(METHOD_NAME)
+                .setUri(getRestmanBundleEndpoint(gatewayConnectionProperties.getUrl().get()))
+                .setEntity(new FileEntity(bundleFile))
+                .setHeader(CONTENT_TYPE, "application/xml");
+        GatewayCallReport callReport = new GatewayCallReport();
+        try {
+            gatewayClient.makeGatewayAPICall(
+                    requestBuilder,
+                    gatewayConnectionProperties.getUserName().get(),
+                    gatewayConnectionProperties.getUserPass().get(),
+                    callReport
+            );
+        } finally {
+            PhaseReportWriter reportWriter = InjectionRegistry.getInstance(PhaseReportWriter.class);
+            reportWriter.write(callReport, getReportDirectory());
+            getLogger().lifecycle(reportWriter.summarize(callReport));
+        }
     }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayimport.tasks;
+
+import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClientException;
+import com.ca.apim.gateway.cagatewayconfig.util.report.PhaseReportWriter;
+import com.ca.apim.gateway.testfixtures.restman.Failure;
+import com.ca.apim.gateway.testfixtures.restman.RestmanServer;
+import com.ca.apim.gateway.testfixtures.restman.SyntheticBundles;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static com.ca.apim.gateway.testfixtures.restman.RestmanServer.MAX_CALL_OVERHEAD;
+import static com.ca.apim.gateway.testfixtures.restman.RestmanServer.PASSWORD;
+import static com.ca.apim.gateway.testfixtures.restman.RestmanServer.USER_NAME;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class ImportBundleTaskTest {
+
+    private RestmanServer server;
+
+    @AfterEach
+    void after() {
+        server.close();
+    }
+
+    @Test
+    void importBundle(TemporaryFolder temporaryFolder) throws IOException {
+        server = RestmanServer.startHttps();
+        byte[] bundle = SyntheticBundles.clusterProperties(100, 100);
+
+        ImportBundleTask importBundleTask = createTask(temporaryFolder, bundle);
+        importBundleTask.perform();
+
+        assertEquals(1, server.getImportedBundles().size());
+        assertArrayEquals(bundle, server.getImportedBundles().get(0));
+        assertEquals("PUT", server.getRequests().get(1).getMethod());
+        assertNotNull(server.getRequests().get(1).getKeyPassphrase());
+
+        JsonNode report = new ObjectMapper().readTree(new File(importBundleTask.getReportDirectory(), PhaseReportWriter.CALL_REPORT_FILE_NAME));
+        assertEquals("PUT", report.get("method").asText());
+        assertEquals(200, report.get("status").asInt());
+        assertEquals(2, report.get("requests").asInt());
+        assertTrue(report.get("bytesSent").asLong() > 2L * bundle.length);
+    }
+
+    @Test
+    void importLargeBundle(TemporaryFolder temporaryFolder) throws IOException {
+        server = RestmanServer.startHttp();
+        byte[] bundle = SyntheticBundles.clusterProperties(5000, 200);
+        ImportBundleTask importBundleTask = createTask(temporaryFolder, bundle);
+
+        importBundleTask.perform();
+
+        // the file is sent before and after the challenge for credentials, and no more
+        assertArrayEquals(bundle, server.getImportedBundles().get(0));
+        assertEquals(2, server.getRequests().size());
+        assertTrue(server.getRequests().stream().allMatch(r -> r.getBodyLength() == bundle.length), server.getRequests().toString());
+        JsonNode report = new ObjectMapper().readTree(new File(importBundleTask.getReportDirectory(), PhaseReportWriter.CALL_REPORT_FILE_NAME));
+        assertEquals(2, report.get("requests").asInt());
+        assertTrue(report.get("bytesSent").asLong() < 2L * bundle.length + MAX_CALL_OVERHEAD, report.get("bytesSent") + " bytes sent");
+    }
+
+    @Test
+    void importServerError(TemporaryFolder temporaryFolder) throws IOException {
+        server = RestmanServer.startHttp();
+        server.fail(Failure.status(503));
+        ImportBundleTask importBundleTask = createTask(temporaryFolder, SyntheticBundles.clusterProperties(10, 10));
+
+        GatewayClientException exception = assertThrows(GatewayClientException.class, importBundleTask::perform);
+        assertTrue(exception.getMessage().contains("returned status 503"), exception.getMessage());
+        assertTrue(server.getImportedBundles().isEmpty());
+    }
+
+    @Test
+    void importNotRetriedAfterDisconnect(TemporaryFolder temporaryFolder) throws IOException {
+        server = RestmanServer.startHttp();
+        server.fail(Failure.DISCONNECT);
+        ImportBundleTask importBundleTask = createTask(temporaryFolder, SyntheticBundles.clusterProperties(10, 10));
+
+        // a PUT is not idempotent so the http client does not send it again once it was sent
+        assertThrows(GatewayClientException.class, importBundleTask::perform);
+        assertTrue(server.getImportedBundles().isEmpty());
+
+        JsonNode report = new ObjectMapper().readTree(new File(importBundleTask.getReportDirectory(), PhaseReportWriter.CALL_REPORT_FILE_NAME));
+        assertEquals(0, report.get("status").asInt());
+        assertEquals(0, report.get("retries").asInt());
+    }
+
+    private ImportBundleTask createTask(TemporaryFolder temporaryFolder, byte[] bundle) throws IOException {
+        File bundleFile = temporaryFolder.createFile("import.bundle");
+        Files.write(bundleFile.toPath(), bundle);
+        Project project = ProjectBuilder.builder().withProjectDir(temporaryFolder.getRoot()).build();
+        return project.getTasks().create("import-bundle", ImportBundleTask.class, t -> {
+            t.getGatewayConnectionProperties().getUrl().set(server.getUrl());
+            t.getGatewayConnectionProperties().getUserName().set(USER_NAME);
+            t.getGatewayConnectionProperties().getUserPass().set(PASSWORD);
+            t.getImportFile().set(bundleFile);
+        });
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.testfixtures.restman;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A failure the {@link RestmanServer} responds to a request with, instead of handling it.
+ */
+public abstract class Failure {
+
+    /**
+     * Closes the connection without responding.
+     */
+    public static final Failure DISCONNECT = new Failure(0) {
+        @Override
+        void apply(RestmanServer server, HttpExchange exchange) throws IOException {
+            throw new IOException("Injected failure: disconnected without a response");
+        }
+    };
+
+    /**
+     * Responds with the headers and half of the export bundle, then closes the connection.
+     */
+    public static final Failure TRUNCATE = new Failure(200) {
+        @Override
+        void apply(RestmanServer server, HttpExchange exchange) throws IOException {
+            server.respondTruncated(exchange, server.getExportBundle());
+        }
+    };
+
+    private final int status;
+
+    private Failure(int status) {
+        this.status = status;
+    }
+
+    /**
+     * @param status the status to respond with, for example 500 or 503
+     * @return a failure responding with the status and an error message
+     */
+    public static Failure status(int status) {
+        return new Failure(status) {
+            @Override
+            void apply(RestmanServer server, HttpExchange exchange) throws IOException {
+                server.respond(exchange, status, ("Injected failure: status " + status).getBytes(UTF_8));
+            }
+        };
+    }
+
+    int getStatus() {
+        return status;
+    }
+
+    abstract void apply(RestmanServer server, HttpExchange exchange) throws IOException;
+}
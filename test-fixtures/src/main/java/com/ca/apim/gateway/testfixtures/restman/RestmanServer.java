@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.testfixtures.restman;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A stand-in for the restman bundle endpoint of a gateway, {@value #BUNDLE_PATH}, to test exporting and importing bundles
+ * without a gateway. It listens on the loopback interface over HTTP or HTTPS, with a self-signed certificate for
+ * localhost, and asks for basic authentication as {@value #USER_NAME}/{@value #PASSWORD}.
+ * <p>
+ * A GET responds with the export bundle, a PUT keeps the bundle it receives and responds with an empty mapping result.
+ * Each request waits for the latency before responding, request and response bodies are transferred no faster than the
+ * bandwidth, and responses use chunked encoding if asked to. Failures can be queued, each one is used by the next
+ * authenticated request.
+ */
+public class RestmanServer implements AutoCloseable {
+
+    public static final String BUNDLE_PATH = "/restman/1.0/bundle";
+    public static final String USER_NAME = "admin";
+    @SuppressWarnings("squid:S2068") // the password of a test server
+    public static final String PASSWORD = "password";
+    /**
+     * More bytes than the request and status lines, headers and challenge response of a call to the server take, and far
+     * fewer than a bundle, to check that a client sends or receives a bundle no more often than expected.
+     */
+    public static final int MAX_CALL_OVERHEAD = 8192;
+
+    private static final String KEY_PASSPHRASE_HEADER = "L7-key-passphrase";
+    private static final String KEY_STORE = "restman-stand-in.jks";
+    private static final char[] KEY_STORE_PASSWORD = "changeit".toCharArray();
+    private static final int BUFFER_SIZE = 8192;
+    private static final String IMPORT_RESULT = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n" +
+            "<l7:Item xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\">\n" +
+            "    <l7:Name>Bundle mappings</l7:Name>\n" +
+            "    <l7:Type>BUNDLE MAPPINGS</l7:Type>\n" +
+            "    <l7:Resource>\n" +
+            "        <l7:Mappings/>\n" +
+            "    </l7:Resource>\n" +
+            "</l7:Item>\n";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Queue<Failure> failures = new ConcurrentLinkedQueue<>();
+    private final List<RecordedRequest> requests = new CopyOnWriteArrayList<>();
+    private final List<byte[]> importedBundles = new CopyOnWriteArrayList<>();
+    private volatile byte[] exportBundle = SyntheticBundles.clusterProperties(1, 16);
+    private volatile long latencyMillis;
+    private volatile long bytesPerSecond;
+    private volatile boolean chunked;
+
+    private RestmanServer(HttpServer server) {
+        this.server = server;
+        server.createContext(BUNDLE_PATH, this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * @return a server listening over HTTP on a free port
+     */
+    public static RestmanServer startHttp() {
+        try {
+            return new RestmanServer(HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the restman stand-in", e);
+        }
+    }
+
+    /**
+     * @return a server listening over HTTPS on a free port
+     */
+    public static RestmanServer startHttps() {
+        try {
+            final HttpsServer server = HttpsServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            server.setHttpsConfigurator(new HttpsConfigurator(createSSLContext()));
+            return new RestmanServer(server);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the restman stand-in", e);
+        }
+    }
+
+    /**
+     * The tests of the plugins install Bouncy Castle as the first security provider, so the key is an EC key, as the RSA
+     * PSS signatures of Bouncy Castle fail in the TLS server of the JDK, and the key and trust stores are read by the JDK.
+     */
+    private static SSLContext createSSLContext() throws IOException {
+        try (InputStream keyStoreStream = RestmanServer.class.getResourceAsStream(KEY_STORE)) {
+            final KeyStore keyStore = KeyStore.getInstance("JKS", "SUN");
+            keyStore.load(keyStoreStream, KEY_STORE_PASSWORD);
+            final KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagerFactory.init(keyStore, KEY_STORE_PASSWORD);
+            final TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            trustManagerFactory.init(keyStore);
+            final SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(keyManagerFactory.getKeyManagers(), trustManagerFactory.getTrustManagers(), null);
+            return sslContext;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Could not load the key of the restman stand-in", e);
+        }
+    }
+
+    /**
+     * @return the restman url of the server, for example https://127.0.0.1:50123/restman
+     */
+    public String getUrl() {
+        return (server instanceof HttpsServer ? "https" : "http") + "://" + server.getAddress().getAddress().getHostAddress() + ':' + server.getAddress().getPort() + "/restman";
+    }
+
+    /**
+     * @param exportBundle the bundle to respond to GET requests with
+     */
+    public void setExportBundle(byte[] exportBundle) {
+        this.exportBundle = exportBundle;
+    }
+
+    /**
+     * @param latencyMillis the time to wait before responding to each request
+     */
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * @param bytesPerSecond the maximum transfer rate of the body of each request and response, 0 for no limit
+     */
+    public void setBytesPerSecond(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * @param chunked whether to send responses with chunked encoding instead of a content length
+     */
+    public void setChunked(boolean chunked) {
+        this.chunked = chunked;
+    }
+
+    /**
+     * Queues a failure, for the next authenticated request without one.
+     *
+     * @param failure the failure
+     */
+    public void fail(Failure failure) {
+        failures.add(failure);
+    }
+
+    /**
+     * @return the requests received, in the order they were received, including the ones without authentication
+     */
+    public List<RecordedRequest> getRequests() {
+        return new ArrayList<>(requests);
+    }
+
+    /**
+     * @return the bundles received by PUT requests that did not fail, in the order they were received
+     */
+    public List<byte[]> getImportedBundles() {
+        return new ArrayList<>(importedBundles);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Failures are injected by throwing, so the connection is closed as is, without finishing the response.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        final byte[] body = read(exchange.getRequestBody());
+        final String method = exchange.getRequestMethod();
+        final String uri = exchange.getRequestURI().toString();
+        final String keyPassphrase = exchange.getRequestHeaders().getFirst(KEY_PASSPHRASE_HEADER);
+
+        sleep(latencyMillis);
+        if (!isAuthenticated(exchange)) {
+            requests.add(new RecordedRequest(method, uri, 401, body.length, keyPassphrase));
+            exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"restman\"");
+            respond(exchange, 401, "Authentication required".getBytes(UTF_8));
+            return;
+        }
+
+        final Failure failure = failures.poll();
+        if (failure != null) {
+            requests.add(new RecordedRequest(method, uri, failure.getStatus(), body.length, keyPassphrase));
+            failure.apply(this, exchange);
+            return;
+        }
+
+        if ("GET".equals(method)) {
+            requests.add(new RecordedRequest(method, uri, 200, body.length, keyPassphrase));
+            respond(exchange, 200, exportBundle);
+        } else if ("PUT".equals(method)) {
+            requests.add(new RecordedRequest(method, uri, 200, body.length, keyPassphrase));
+            importedBundles.add(body);
+            respond(exchange, 200, IMPORT_RESULT.getBytes(UTF_8));
+        } else {
+            requests.add(new RecordedRequest(method, uri, 405, body.length, keyPassphrase));
+            respond(exchange, 405, ("Method not allowed: " + method).getBytes(UTF_8));
+        }
+    }
+
+    private static boolean isAuthenticated(HttpExchange exchange) {
+        final String expected = "Basic " + Base64.getEncoder().encodeToString((USER_NAME + ':' + PASSWORD).getBytes(UTF_8));
+        return expected.equals(exchange.getRequestHeaders().getFirst("Authorization"));
+    }
+
+    void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, chunked ? 0 : (body.length == 0 ? -1 : body.length));
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            write(responseBody, body, body.length);
+        }
+        exchange.close();
+    }
+
+    /**
+     * Writes the start of the response and closes the connection without writing the rest.
+     */
+    void respondTruncated(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(200, chunked ? 0 : body.length);
+        final OutputStream responseBody = exchange.getResponseBody();
+        write(responseBody, body, body.length / 2);
+        responseBody.flush();
+        throw new IOException("Injected failure: response truncated after " + body.length / 2 + " bytes");
+    }
+
+    byte[] getExportBundle() {
+        return exportBundle;
+    }
+
+    private byte[] read(InputStream requestBody) throws IOException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        final long start = System.nanoTime();
+        int read;
+        while ((read = requestBody.read(buffer)) >= 0) {
+            body.write(buffer, 0, read);
+            throttle(start, body.size());
+        }
+        return body.toByteArray();
+    }
+
+    private void write(OutputStream responseBody, byte[] body, int length) throws IOException {
+        final long start = System.nanoTime();
+        for (int offset = 0; offset < length; offset += BUFFER_SIZE) {
+            final int sliceLength = Math.min(BUFFER_SIZE, length - offset);
+            // waits before writing, so the client cannot receive the bytes before the transfer rate allows
+            throttle(start, offset + (long) sliceLength);
+            responseBody.write(body, offset, sliceLength);
+        }
+    }
+
+    /**
+     * Waits until transferring the bytes since the start took as long as it would at the maximum transfer rate.
+     */
+    private void throttle(long start, long bytes) {
+        final long rate = bytesPerSecond;
+        if (rate > 0) {
+            final long expectedMillis = bytes * 1000 / rate;
+            final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            sleep(expectedMillis - elapsedMillis);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A request received by the server.
+     */
+    public static class RecordedRequest {
+        private final String method;
+        private final String uri;
+        private final int status;
+        private final int bodyLength;
+        private final String keyPassphrase;
+
+        RecordedRequest(String method, String uri, int status, int bodyLength, String keyPassphrase) {
+            this.method = method;
+            this.uri = uri;
+            this.status = status;
+            this.bodyLength = bodyLength;
+            this.keyPassphrase = keyPassphrase;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * @return the path and query of the request
+         */
+        public String getUri() {
+            return uri;
+        }
+
+        /**
+         * @return the status of the response, 0 if the connection was closed without one
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        public int getBodyLength() {
+            return bodyLength;
+        }
+
+        /**
+         * @return the passphrase the secrets of the bundle are encrypted with, null if the request did not have one
+         */
+        public String getKeyPassphrase() {
+            return keyPassphrase;
+        }
+
+        @Override
+        public String toString() {
+            return method + ' ' + uri + " -> " + status;
+        }
+    }
+}
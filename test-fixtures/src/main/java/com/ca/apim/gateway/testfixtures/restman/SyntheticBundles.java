@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.testfixtures.restman;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Creates bundles in the format restman exports them, to respond to export requests with bundles of any size.
+ */
+public class SyntheticBundles {
+
+    private static final String ROOT_FOLDER_ID = "0000000000000000ffffffffffffec76";
+
+    private SyntheticBundles() {
+    }
+
+    /**
+     * Creates a bundle with the root folder and cluster properties named property-0, property-1... The bundle is the same
+     * every time for the same arguments.
+     *
+     * @param count       the number of cluster properties
+     * @param valueLength the number of characters of the value of each cluster property
+     * @return the bundle, as UTF-8
+     */
+    public static byte[] clusterProperties(int count, int valueLength) {
+        final StringBuilder references = new StringBuilder();
+        final StringBuilder mappings = new StringBuilder();
+        item(references, "Root Node", ROOT_FOLDER_ID, "FOLDER",
+                "<l7:Folder id=\"" + ROOT_FOLDER_ID + "\" version=\"0\"><l7:Name>Root Node</l7:Name></l7:Folder>");
+        mapping(mappings, "FOLDER", ROOT_FOLDER_ID, "folders");
+        for (int i = 0; i < count; i++) {
+            final String id = String.format("%032x", i + 1);
+            final String name = "property-" + i;
+            item(references, name, id, "CLUSTER_PROPERTY",
+                    "<l7:ClusterProperty id=\"" + id + "\" version=\"1\"><l7:Name>" + name + "</l7:Name><l7:Value>" + value(i, valueLength) + "</l7:Value></l7:ClusterProperty>");
+            mapping(mappings, "CLUSTER_PROPERTY", id, "clusterProperties");
+        }
+        return ("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n" +
+                "<l7:Bundle xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\">\n" +
+                "    <l7:References>\n" + references + "    </l7:References>\n" +
+                "    <l7:Mappings>\n" + mappings + "    </l7:Mappings>\n" +
+                "</l7:Bundle>\n").getBytes(UTF_8);
+    }
+
+    private static void item(StringBuilder references, String name, String id, String type, String resource) {
+        references.append("        <l7:Item>\n")
+                .append("            <l7:Name>").append(name).append("</l7:Name>\n")
+                .append("            <l7:Id>").append(id).append("</l7:Id>\n")
+                .append("            <l7:Type>").append(type).append("</l7:Type>\n")
+                .append("            <l7:Resource>").append(resource).append("</l7:Resource>\n")
+                .append("        </l7:Item>\n");
+    }
+
+    private static void mapping(StringBuilder mappings, String type, String id, String collection) {
+        mappings.append("        <l7:Mapping action=\"NewOrExisting\" srcId=\"").append(id)
+                .append("\" srcUri=\"https://localhost:8443/restman/1.0/").append(collection).append('/').append(id)
+                .append("\" type=\"").append(type).append("\"/>\n");
+    }
+
+    private static String value(int index, int length) {
+        final StringBuilder value = new StringBuilder(length);
+        while (value.length() < length) {
+            value.append((char) ('a' + (index + value.length()) % 26));
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.testfixtures.restman;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Base64;
+
+import static com.ca.apim.gateway.testfixtures.restman.RestmanServer.PASSWORD;
+import static com.ca.apim.gateway.testfixtures.restman.RestmanServer.USER_NAME;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestmanServerTest {
+
+    private static final long BYTES_PER_SECOND = 1024 * 1024;
+    private static final long LATENCY_MILLIS = 100;
+
+    private final RestmanServer server = RestmanServer.startHttp();
+
+    @AfterEach
+    void after() {
+        server.close();
+    }
+
+    @Test
+    void exportLimitedToLatencyAndBandwidth() throws IOException {
+        byte[] bundle = SyntheticBundles.clusterProperties(1000, 200);
+        server.setExportBundle(bundle);
+        server.setLatencyMillis(LATENCY_MILLIS);
+        server.setBytesPerSecond(BYTES_PER_SECOND);
+
+        long start = System.nanoTime();
+        HttpURLConnection connection = connect("GET");
+        byte[] exported = read(connection);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(200, connection.getResponseCode());
+        assertArrayEquals(bundle, exported);
+        long expectedMillis = LATENCY_MILLIS + bundle.length * 1000L / BYTES_PER_SECOND;
+        assertTrue(elapsedMillis >= expectedMillis, "took " + elapsedMillis + "ms, expected at least " + expectedMillis + "ms");
+    }
+
+    @Test
+    void importLimitedToBandwidth() throws IOException {
+        byte[] bundle = SyntheticBundles.clusterProperties(1000, 200);
+        server.setBytesPerSecond(BYTES_PER_SECOND);
+
+        long start = System.nanoTime();
+        HttpURLConnection connection = connect("PUT");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(bundle.length);
+        try (OutputStream body = connection.getOutputStream()) {
+            body.write(bundle);
+        }
+        read(connection);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(200, connection.getResponseCode());
+        assertArrayEquals(bundle, server.getImportedBundles().get(0));
+        long expectedMillis = bundle.length * 1000L / BYTES_PER_SECOND;
+        assertTrue(elapsedMillis >= expectedMillis, "took " + elapsedMillis + "ms, expected at least " + expectedMillis + "ms");
+    }
+
+    private HttpURLConnection connect(String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(server.getUrl() + "/1.0/bundle").openConnection();
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("Authorization", "Basic " + Base64.getEncoder().encodeToString((USER_NAME + ':' + PASSWORD).getBytes(UTF_8)));
+        return connection;
+    }
+
+    private static byte[] read(HttpURLConnection connection) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream stream = connection.getInputStream()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) >= 0) {
+                body.write(buffer, 0, read);
+            }
+        }
+        return body.toByteArray();
+    }
+}